@@ -0,0 +1,29 @@
+package org.example.Config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.Services.BlobMigrationJob;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the storage migration in the background once the application reports ready, when
+ * storage.migration.on-startup is true (see BlobMigrationJob).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BlobMigrationRunner {
+
+    private final BlobMigrationJob blobMigrationJob;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void runMigrationOnStartup() {
+        try {
+            blobMigrationJob.startIfEnabled();
+        } catch (Exception e) {
+            log.error("❌ Error starting storage migration", e);
+        }
+    }
+}
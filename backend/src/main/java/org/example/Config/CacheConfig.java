@@ -18,6 +18,8 @@ public class CacheConfig {
     public static final String CATEGORY_NAMES_CACHE = "categoryNames";
     public static final String DASHBOARD_STATS_CACHE = "dashboardStats";
     public static final String DASHBOARD_SUMMARY_CACHE = "dashboardSummary";
+    public static final String PAYMENT_TREND_BUCKETS_CACHE = "paymentTrendBuckets";
+    public static final String JWT_PRINCIPALS_CACHE = "jwtPrincipals";
     
     @Bean
     public CacheManager cacheManager() {
@@ -29,6 +31,19 @@ public class CacheConfig {
             DASHBOARD_SUMMARY_CACHE
         );
         cacheManager.setCaffeine(caffeineCacheBuilder());
+        // Closed trend buckets still change with backdated or reversed payments and are not evicted
+        // across nodes, so they expire on a fixed write age: at most 10 minutes stale, however often read
+        cacheManager.registerCustomCache(PAYMENT_TREND_BUCKETS_CACHE, Caffeine.newBuilder()
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .maximumSize(20_000)
+                .recordStats()
+                .build());
+        // Fallback principals for tokens without user claims; revocation is checked separately
+        cacheManager.registerCustomCache(JWT_PRINCIPALS_CACHE, Caffeine.newBuilder()
+                .expireAfterWrite(5, TimeUnit.MINUTES)
+                .maximumSize(1_000)
+                .recordStats()
+                .build());
         return cacheManager;
     }
     
@@ -1,41 +1,30 @@
 package org.example.Config;
 
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.example.Services.IdMigrationService;
+import org.example.Services.IdMigrationJob;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Starts the universal ID migration once the application reports ready.
+ * Skips immediately when the current migration version is recorded as complete; otherwise the
+ * migration runs in the background (see IdMigrationJob) instead of blocking the context refresh.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class IdMigrationRunner {
 
-    private final IdMigrationService idMigrationService;
+    private final IdMigrationJob idMigrationJob;
 
-    @PostConstruct
+    @EventListener(ApplicationReadyEvent.class)
     public void runMigrationOnStartup() {
         try {
-            log.info("🚀 Starting automatic ID migration on application startup...");
-
-            // Run migration for all loans and expenses
-            idMigrationService.migrateAllIds();
-
-            // Get summary
-            var status = idMigrationService.getMigrationStatus();
-            log.info("✅ ID migration completed. Loans migrated: {}/{} | Expenses migrated: {}/{}",
-                    status.loansWithNewId, status.totalLoans,
-                    status.expensesWithNewId, status.totalExpenses);
-
-            // Add a simple completion marker
-            if (status.isComplete()) {
-                log.info("🎯 All IDs migrated successfully!");
-            } else {
-                log.warn("⚠️ Some records still have old or missing IDs. Run manual migration if needed.");
-            }
-
+            idMigrationJob.startIfNeeded();
         } catch (Exception e) {
-            log.error("❌ Error during automatic ID migration", e);
+            log.error("❌ Error starting background ID migration", e);
         }
     }
 }
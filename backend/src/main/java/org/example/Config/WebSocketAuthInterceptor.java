@@ -0,0 +1,149 @@
+package org.example.Config;
+
+import io.jsonwebtoken.Claims;
+import org.example.Services.CustomUserDetailsService;
+import org.example.Services.JwtPrincipal;
+import org.example.Services.TokenRevocationService;
+import org.example.Services.WebSocketPublisher;
+import org.example.config.JwtTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Authenticates STOMP sessions and checks subscriptions to the scoped destinations.
+ *
+ * CONNECT may carry "Authorization: Bearer <token>"; the session user is then the token's user, named by
+ * user id so /user/queue/... reaches them. Subscriptions are denied unless a rule allows them:
+ *
+ * - /topic/branch/{branch}/**               users of that branch, or company-wide roles (ADMIN, AUDITOR)
+ * - /topic/loans/{loanId}, /topic/loan/{id}  any authenticated user
+ * - /user/queue/**                          any authenticated user (their own queue)
+ * - /topic/loan-products, /topic/expenses   any authenticated user (no client or branch data)
+ * - company-wide topics (/topic/loans, /topic/payments, /topic/dashboard/**, ...)  company-wide roles only
+ */
+@Component
+public class WebSocketAuthInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketAuthInterceptor.class);
+
+    private static final Pattern BRANCH_TOPIC = Pattern.compile("^/topic/branch/([^/]+)(/.*)?$");
+    private static final Pattern LOAN_TOPIC = Pattern.compile("^/topic/loans?/\\d+$");
+    private static final Set<String> COMPANY_WIDE_ROLES = Set.of("ADMIN", "AUDITOR");
+    private static final Set<String> STAFF_TOPICS = Set.of("/topic/loan-products", "/topic/expenses");
+    private static final Set<String> COMPANY_WIDE_TOPICS = Set.of(
+            "/topic/loans", "/topic/loans/updates", "/topic/loan.archived", "/topic/loan.unarchived",
+            "/topic/payments", "/topic/installments", "/topic/notifications");
+
+    private final JwtTokenService jwtService;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService revocationService;
+
+    public WebSocketAuthInterceptor(JwtTokenService jwtService, CustomUserDetailsService userDetailsService,
+                                    TokenRevocationService revocationService) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.revocationService = revocationService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            JwtPrincipal principal = authenticate(accessor.getFirstNativeHeader("Authorization"));
+            if (principal != null) {
+                accessor.setUser(new StompUser(principal));
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            if (!canSubscribe(principalOf(accessor.getUser()), accessor.getDestination())) {
+                throw new MessageDeliveryException("Not allowed to subscribe to " + accessor.getDestination());
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Whether the user (null when anonymous) may subscribe to the destination
+     */
+    static boolean canSubscribe(JwtPrincipal principal, String destination) {
+        if (destination == null) {
+            return false;
+        }
+        if (principal == null) {
+            return false;
+        }
+        boolean companyWide = COMPANY_WIDE_ROLES.contains(principal.getRole());
+        Matcher branch = BRANCH_TOPIC.matcher(destination);
+        if (branch.matches()) {
+            return companyWide || WebSocketPublisher.branchSegment(principal.getBranch()).equals(branch.group(1));
+        }
+        if (COMPANY_WIDE_TOPICS.contains(destination)
+                || destination.equals("/topic/dashboard") || destination.startsWith("/topic/dashboard/")) {
+            return companyWide;
+        }
+        return LOAN_TOPIC.matcher(destination).matches()
+                || destination.startsWith("/user/queue/")
+                || STAFF_TOPICS.contains(destination);
+    }
+
+    private JwtPrincipal authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            Claims claims = jwtService.parseClaims(authHeader.substring(7));
+            JwtPrincipal principal = jwtService.getPrincipalFromClaims(claims);
+            if (principal == null) {
+                principal = userDetailsService.loadPrincipal(claims.getSubject());
+            }
+            if (revocationService.isRevoked(claims.getId(), principal.getUserId(), JwtTokenService.getIssuedAt(claims))) {
+                logger.debug("Revoked token presented on WebSocket connect for user {}", principal.getUserId());
+                return null;
+            }
+            return principal;
+        } catch (Exception e) {
+            // Connect anonymously; every subscription is then refused
+            logger.debug("WebSocket token not accepted: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static JwtPrincipal principalOf(Principal user) {
+        return user instanceof StompUser stompUser ? stompUser.getJwtPrincipal() : null;
+    }
+
+    /**
+     * Session user named by user id, the name /user/... destinations resolve
+     */
+    static final class StompUser extends UsernamePasswordAuthenticationToken {
+
+        StompUser(JwtPrincipal principal) {
+            super(principal, null, principal.getAuthorities());
+        }
+
+        JwtPrincipal getJwtPrincipal() {
+            return (JwtPrincipal) getPrincipal();
+        }
+
+        @Override
+        public String getName() {
+            return String.valueOf(getJwtPrincipal().getUserId());
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package org.example.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * WebSocket broker and channel settings (websocket.*).
+ *
+ * broker.mode=simple keeps the in-memory broker: messages only reach browsers connected to the same node.
+ * broker.mode=relay forwards /topic and /queue to an external STOMP broker (RabbitMQ with the STOMP plugin,
+ * ActiveMQ), so every node's browsers receive every node's messages. Relay mode needs reactor-netty on the
+ * classpath (mvn -P broker-relay); without it, or when the broker is unreachable at startup and
+ * broker.fallback-to-simple is true, the simple broker is used instead.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "websocket")
+public class WebSocketBrokerProperties {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketBrokerProperties.class);
+
+    private static final String REACTOR_NETTY_CLIENT = "reactor.netty.http.client.HttpClient";
+
+    private final Broker broker = new Broker();
+    private final Channel inbound = new Channel();
+    private final Channel outbound = new Channel();
+    private final Transport transport = new Transport();
+
+    private Boolean relayActive;
+
+    /**
+     * Whether the relay is used; decided once, at the first call
+     */
+    public synchronized boolean isRelayActive() {
+        if (relayActive == null) {
+            relayActive = resolveRelay();
+        }
+        return relayActive;
+    }
+
+    private boolean resolveRelay() {
+        if (!"relay".equalsIgnoreCase(broker.mode)) {
+            return false;
+        }
+        if (!ClassUtils.isPresent(REACTOR_NETTY_CLIENT, getClass().getClassLoader())) {
+            logger.warn("websocket.broker.mode=relay but reactor-netty is not on the classpath (build with -P broker-relay); "
+                    + "using the simple broker");
+            return false;
+        }
+        if (broker.fallbackToSimple && !isReachable(broker.relayHost, broker.relayPort, broker.connectTimeoutMs)) {
+            logger.warn("STOMP broker {}:{} is not reachable; using the simple broker on this node",
+                    broker.relayHost, broker.relayPort);
+            return false;
+        }
+        logger.info("WebSocket messages relayed through STOMP broker {}:{}", broker.relayHost, broker.relayPort);
+        return true;
+    }
+
+    private static boolean isReachable(String host, int port, int timeoutMs) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public Broker getBroker() {
+        return broker;
+    }
+
+    public Channel getInbound() {
+        return inbound;
+    }
+
+    public Channel getOutbound() {
+        return outbound;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public static class Broker {
+        private String mode = "simple";             // simple | relay
+        private boolean fallbackToSimple = true;
+        private int connectTimeoutMs = 2000;        // Reachability check at startup
+        private String relayHost = "localhost";
+        private int relayPort = 61613;
+        private String virtualHost;
+        private String clientLogin = "guest";       // Per browser session connections
+        private String clientPasscode = "guest";
+        private String systemLogin = "guest";       // Shared connection for messages sent by the server
+        private String systemPasscode = "guest";
+        private long systemHeartbeatSendMs = 10000;
+        private long systemHeartbeatReceiveMs = 10000;
+        private long heartbeatMs = 10000;           // Simple broker heartbeats to browsers, 0 = none
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public boolean isFallbackToSimple() {
+            return fallbackToSimple;
+        }
+
+        public void setFallbackToSimple(boolean fallbackToSimple) {
+            this.fallbackToSimple = fallbackToSimple;
+        }
+
+        public int getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(int connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public String getRelayHost() {
+            return relayHost;
+        }
+
+        public void setRelayHost(String relayHost) {
+            this.relayHost = relayHost;
+        }
+
+        public int getRelayPort() {
+            return relayPort;
+        }
+
+        public void setRelayPort(int relayPort) {
+            this.relayPort = relayPort;
+        }
+
+        public String getVirtualHost() {
+            return virtualHost;
+        }
+
+        public void setVirtualHost(String virtualHost) {
+            this.virtualHost = virtualHost;
+        }
+
+        public String getClientLogin() {
+            return clientLogin;
+        }
+
+        public void setClientLogin(String clientLogin) {
+            this.clientLogin = clientLogin;
+        }
+
+        public String getClientPasscode() {
+            return clientPasscode;
+        }
+
+        public void setClientPasscode(String clientPasscode) {
+            this.clientPasscode = clientPasscode;
+        }
+
+        public String getSystemLogin() {
+            return systemLogin;
+        }
+
+        public void setSystemLogin(String systemLogin) {
+            this.systemLogin = systemLogin;
+        }
+
+        public String getSystemPasscode() {
+            return systemPasscode;
+        }
+
+        public void setSystemPasscode(String systemPasscode) {
+            this.systemPasscode = systemPasscode;
+        }
+
+        public long getSystemHeartbeatSendMs() {
+            return systemHeartbeatSendMs;
+        }
+
+        public void setSystemHeartbeatSendMs(long systemHeartbeatSendMs) {
+            this.systemHeartbeatSendMs = systemHeartbeatSendMs;
+        }
+
+        public long getSystemHeartbeatReceiveMs() {
+            return systemHeartbeatReceiveMs;
+        }
+
+        public void setSystemHeartbeatReceiveMs(long systemHeartbeatReceiveMs) {
+            this.systemHeartbeatReceiveMs = systemHeartbeatReceiveMs;
+        }
+
+        public long getHeartbeatMs() {
+            return heartbeatMs;
+        }
+
+        public void setHeartbeatMs(long heartbeatMs) {
+            this.heartbeatMs = heartbeatMs;
+        }
+    }
+
+    /**
+     * Thread pool of the client inbound or outbound channel
+     */
+    public static class Channel {
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 4;
+        private int queueCapacity = 10000;
+        private int keepAliveSeconds = 60;
+
+        public int getCorePoolSize() {
+            return corePoolSize;
+        }
+
+        public void setCorePoolSize(int corePoolSize) {
+            this.corePoolSize = corePoolSize;
+        }
+
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getKeepAliveSeconds() {
+            return keepAliveSeconds;
+        }
+
+        public void setKeepAliveSeconds(int keepAliveSeconds) {
+            this.keepAliveSeconds = keepAliveSeconds;
+        }
+    }
+
+    /**
+     * Per-session limits; a session that cannot take messages fast enough is closed
+     */
+    public static class Transport {
+        private int sendTimeLimitMs = 15000;
+        private int sendBufferSizeLimit = 512 * 1024;
+        private int messageSizeLimit = 64 * 1024;
+
+        public int getSendTimeLimitMs() {
+            return sendTimeLimitMs;
+        }
+
+        public void setSendTimeLimitMs(int sendTimeLimitMs) {
+            this.sendTimeLimitMs = sendTimeLimitMs;
+        }
+
+        public int getSendBufferSizeLimit() {
+            return sendBufferSizeLimit;
+        }
+
+        public void setSendBufferSizeLimit(int sendBufferSizeLimit) {
+            this.sendBufferSizeLimit = sendBufferSizeLimit;
+        }
+
+        public int getMessageSizeLimit() {
+            return messageSizeLimit;
+        }
+
+        public void setMessageSizeLimit(int messageSizeLimit) {
+            this.messageSizeLimit = messageSizeLimit;
+        }
+    }
+}
@@ -1,21 +1,75 @@
 package org.example.Config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketAuthInterceptor authInterceptor;
+    private final WebSocketBrokerProperties properties;
+
+    public WebSocketConfig(WebSocketAuthInterceptor authInterceptor, WebSocketBrokerProperties properties) {
+        this.authInterceptor = authInterceptor;
+        this.properties = properties;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker
-        config.enableSimpleBroker("/topic");
+        WebSocketBrokerProperties.Broker broker = properties.getBroker();
+        if (properties.isRelayActive()) {
+            // External STOMP broker: every node's messages reach every node's browsers
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(broker.getRelayHost())
+                    .setRelayPort(broker.getRelayPort())
+                    .setVirtualHost(broker.getVirtualHost())
+                    .setClientLogin(broker.getClientLogin())
+                    .setClientPasscode(broker.getClientPasscode())
+                    .setSystemLogin(broker.getSystemLogin())
+                    .setSystemPasscode(broker.getSystemPasscode())
+                    .setSystemHeartbeatSendInterval(broker.getSystemHeartbeatSendMs())
+                    .setSystemHeartbeatReceiveInterval(broker.getSystemHeartbeatReceiveMs())
+                    // Share connected users between nodes so /user/... reaches a user on any node
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            // Enable a simple in-memory message broker (/queue backs the per-user /user/queue/... destinations)
+            var simpleBroker = config.enableSimpleBroker("/topic", "/queue");
+            if (broker.getHeartbeatMs() > 0) {
+                simpleBroker.setHeartbeatValue(new long[]{broker.getHeartbeatMs(), broker.getHeartbeatMs()})
+                        .setTaskScheduler(heartbeatScheduler());
+            }
+        }
         // Prefix for messages from clients
         config.setApplicationDestinationPrefixes("/app");
+        config.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Token on CONNECT, branch / loan topic rules on SUBSCRIBE
+        registration.interceptors(authInterceptor);
+        applyPool(registration, properties.getInbound());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        applyPool(registration, properties.getOutbound());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        WebSocketBrokerProperties.Transport transport = properties.getTransport();
+        registration.setSendTimeLimit(transport.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(transport.getSendBufferSizeLimit())
+                .setMessageSizeLimit(transport.getMessageSizeLimit());
     }
 
     @Override
@@ -25,4 +79,21 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("http://localhost:3000", "http://127.0.0.1:3000")
                 .withSockJS();
     }
+
+    private static void applyPool(ChannelRegistration registration, WebSocketBrokerProperties.Channel channel) {
+        registration.taskExecutor()
+                .corePoolSize(channel.getCorePoolSize())
+                .maxPoolSize(Math.max(channel.getCorePoolSize(), channel.getMaxPoolSize()))
+                .queueCapacity(channel.getQueueCapacity())
+                .keepAliveSeconds(channel.getKeepAliveSeconds());
+    }
+
+    private static ThreadPoolTaskScheduler heartbeatScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("ws-heartbeat-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        return scheduler;
+    }
 }
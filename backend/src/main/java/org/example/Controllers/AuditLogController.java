@@ -0,0 +1,56 @@
+package org.example.Controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.example.DTOs.AuditLogPage;
+import org.example.Services.AuditLogService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/audit-logs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class AuditLogController {
+    
+    private final AuditLogService auditLogService;
+    
+    /**
+     * Audit rows newest first, filtered by entity, user and time window [from, to).
+     * archived=true reads rows moved out by retention. Pass nextCursor as cursor for the next page.
+     */
+    @GetMapping
+    public ResponseEntity<AuditLogPage> search(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) String performedBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean archived,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(auditLogService.query(entityType, entityId, performedBy, from, to, archived, cursor, limit));
+    }
+    
+    /**
+     * History of one loan (loan details history tab)
+     */
+    @GetMapping("/loans/{loanId}")
+    public ResponseEntity<AuditLogPage> getLoanHistory(
+            @PathVariable Long loanId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(auditLogService.entityHistory("LOAN", loanId, cursor, limit));
+    }
+    
+    /**
+     * Move rows past retention to the archive now instead of waiting for the nightly run
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveNow() {
+        return ResponseEntity.ok(Map.of("archived", auditLogService.archiveExpired()));
+    }
+}
@@ -5,6 +5,7 @@ import org.example.Repositories.UserRepository;
 import org.example.Services.CustomUserDetailsService;
 import org.example.Services.UserSetupService;
 import org.example.Services.OtpService;
+import org.example.Services.TokenRevocationService;
 import org.example.auth.AuthRequest;
 import org.example.auth.AuthResponse;
 import org.example.auth.SetupRequest;
@@ -14,6 +15,7 @@ import org.example.auth.OtpResponse;
 import org.example.auth.ForgotPasswordRequest;
 import org.example.auth.ResetPasswordRequest;
 import org.example.config.JwtTokenService;
+import io.jsonwebtoken.Claims;
 import jakarta.mail.MessagingException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +27,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -44,6 +47,7 @@ public class AuthController {
     private final UserSetupService userSetupService;
     private final OtpService otpService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthController(
             AuthenticationManager authenticationManager,
@@ -52,7 +56,8 @@ public class AuthController {
             UserRepository userRepository,
             UserSetupService userSetupService,
             OtpService otpService,
-            PasswordEncoder passwordEncoder
+            PasswordEncoder passwordEncoder,
+            TokenRevocationService tokenRevocationService
     ) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenService = jwtTokenService;
@@ -61,6 +66,7 @@ public class AuthController {
         this.userSetupService = userSetupService;
         this.otpService = otpService;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/login")
@@ -87,7 +93,7 @@ public class AuthController {
                     try {
                         otpService.generateAndSendLoginOtp(user);
                         
-                        System.out.println("✅ OTP email sent successfully to: " + user.getEmail());
+                        System.out.println("✅ OTP email queued for: " + user.getEmail());
                         
                         OtpResponse otpResponse = new OtpResponse();
                         otpResponse.setRequiresOtp(true);
@@ -310,7 +316,7 @@ public class AuthController {
             try {
                 otpService.generateAndSendPasswordResetOtp(user);
                 
-                System.out.println("✅ Password reset OTP sent to: " + user.getEmail());
+                System.out.println("✅ Password reset OTP queued for: " + user.getEmail());
                 
                 return ResponseEntity.ok(Map.of(
                     "success", true,
@@ -378,6 +384,9 @@ public class AuthController {
             user.setPassword(passwordEncoder.encode(request.getNewPassword()));
             userRepository.save(user);
             
+            // Sessions opened with the old password end
+            tokenRevocationService.revokeUser(user, "PASSWORD_RESET");
+            
             System.out.println("✅ Password reset successful for: " + user.getEmail());
             
             return ResponseEntity.ok(Map.of(
@@ -396,4 +405,22 @@ public class AuthController {
         }
     }
 
+    /**
+     * Logout - Revoke the presented token until it expires
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Bearer token is required"));
+        }
+        try {
+            Claims claims = jwtTokenService.parseClaims(authHeader.substring(7));
+            Long userId = claims.get("userId") != null ? Long.valueOf(claims.get("userId").toString()) : null;
+            tokenRevocationService.revokeToken(claims.getId(), userId, claims.getExpiration());
+        } catch (Exception e) {
+            // Invalid or expired tokens are already unusable
+        }
+        return ResponseEntity.ok(Map.of("success", true, "message", "Logged out"));
+    }
+
 }
@@ -2,8 +2,10 @@ package org.example.Controllers;
 
 import org.example.DTO.ClientRegistrationRequest;
 import org.example.DTO.ClientResponse;
+import org.example.DTO.ClientSummaryResponse;
 import org.example.DTO.GuarantorResponse;
 import org.example.Services.ClientService;
+import org.example.Services.ClientSummaryService;
 import org.example.Entities.User;
 import org.example.Entities.Guarantor;
 import org.example.Entities.Person;
@@ -25,6 +27,9 @@ public class ClientProfileController {
     
     @Autowired
     private UserRepository userRepository;
+    
+    @Autowired
+    private ClientSummaryService clientSummaryService;
 
     /**
      * Save a new client
@@ -188,6 +193,28 @@ public class ClientProfileController {
         }
     }
     
+    /**
+     * Client 360 summary: profile, guarantor, loans with balances, next due installment and tracking scores
+     * GET /api/clients/{id}/summary
+     */
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<?> getClientSummary(@PathVariable Long id) {
+        try {
+            Optional<ClientSummaryResponse> summary = clientSummaryService.getClientSummary(id);
+            if (summary.isPresent()) {
+                return ResponseEntity.ok(summary.get());
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    new ErrorResponse("Not Found", "Client not found with id: " + id)
+                );
+            }
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                new ErrorResponse("Server Error", "An error occurred while fetching the client summary: " + e.getMessage())
+            );
+        }
+    }
+    
     // Helper response classes
     public static class ErrorResponse {
         private String error;
@@ -1,6 +1,7 @@
 package org.example.Controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.example.Services.IdMigrationJob;
 import org.example.Services.IdMigrationService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +16,7 @@ import java.util.Map;
 public class IdMigrationController {
     
     private final IdMigrationService idMigrationService;
+    private final IdMigrationJob idMigrationJob;
     
     /**
      * Trigger full ID migration
@@ -55,4 +57,12 @@ public class IdMigrationController {
         
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * Progress of the background startup migration
+     */
+    @GetMapping("/progress")
+    public ResponseEntity<Map<String, Object>> getMigrationProgress() {
+        return ResponseEntity.ok(idMigrationJob.getProgress());
+    }
 }
@@ -0,0 +1,132 @@
+package org.example.Controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.Entities.Image;
+import org.example.Repositories.ImageRepository;
+import org.example.Services.ContentAddressedStorage;
+import org.example.Services.FileServingService;
+import org.example.Services.FileStorageService;
+import org.example.Services.ImageVariantService;
+import org.example.Services.UserAttributionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serves stored images (file.serve-path). Bytes go straight from disk to the socket; see FileServingService.
+ * ?variant=thumb|preview serves a scaled-down JPEG instead (ImageVariantService); content that has no
+ * variants, such as PDF documents, is served as is.
+ */
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class ImageController {
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private FileServingService fileServingService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private UserAttributionService userAttributionService;
+
+    /**
+     * Upload an image for an entity (client photo, ID card, signature, ...); identical content is stored once
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> uploadImage(@RequestParam("file") MultipartFile file,
+                                                           @RequestParam String entityType,
+                                                           @RequestParam Long entityId,
+                                                           @RequestParam String imageType,
+                                                           @RequestParam(required = false) String imageCategory,
+                                                           @RequestParam(required = false) String description) {
+        try {
+            Image image = fileStorageService.storeImage(file, entityType.toUpperCase(), entityId,
+                    imageType.toUpperCase(), imageCategory, description, userAttributionService.getCurrentUserId());
+            return ResponseEntity.ok(Map.of(
+                    "id", image.getId(),
+                    "fileUrl", image.getFileUrl(),
+                    "contentHash", image.getContentHash()
+            ));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Image by id; revalidated with its ETag since the record can point at new content
+     */
+    @GetMapping("/{id}/content")
+    public void getImage(@PathVariable Long id, @RequestParam(required = false) String variant,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariantService.Variant requested = ImageVariantService.Variant.from(variant);
+        Image image = imageRepository.findById(id).filter(i -> Boolean.TRUE.equals(i.getIsActive())).orElse(null);
+        if (image == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serve(image.getFilePath(), image.getContentType(), image.getOriginalFilename(),
+                requested, false, request, response);
+    }
+
+    /**
+     * Image by content name (hash plus extension); the URL names the bytes, so it is cached as immutable
+     */
+    @GetMapping("/content/{name:.+}")
+    public void getContent(@PathVariable String name, @RequestParam(required = false) String variant,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariantService.Variant requested = ImageVariantService.Variant.from(variant);
+        String hash = ContentAddressedStorage.hashOf(name);
+        if (hash == null || !imageRepository.existsByContentHashAndIsActiveTrue(hash)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serve(name, fileStorageService.getContentType(name), null,
+                requested, true, request, response);
+    }
+
+    /**
+     * Variant generation counters and queue
+     */
+    @GetMapping("/variants/stats")
+    public ResponseEntity<Map<String, Object>> getVariantStats() {
+        return ResponseEntity.ok(imageVariantService.getStats());
+    }
+
+    private void serve(String filePath, String contentType, String downloadName, ImageVariantService.Variant variant,
+                       boolean immutable, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (variant == null) {
+            // Originals in object storage are downloaded straight from the bucket
+            Optional<URI> direct = fileStorageService.getDownloadUrl(filePath, contentType, downloadName);
+            if (direct.isPresent()) {
+                response.sendRedirect(direct.get().toString());
+                return;
+            }
+        }
+        Path original = fileStorageService.fetch(filePath);
+        if (variant != null) {
+            Optional<Path> scaled = imageVariantService.resolve(original, variant);
+            if (scaled.isPresent()) {
+                fileServingService.serve(request, response, scaled.get(), ImageVariantService.VARIANT_CONTENT_TYPE,
+                        null, immutable);
+                return;
+            }
+        }
+        fileServingService.serve(request, response, original, contentType, downloadName, immutable);
+    }
+}
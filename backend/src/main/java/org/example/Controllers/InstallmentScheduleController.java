@@ -1,11 +1,15 @@
 package org.example.Controllers;
 
 import org.example.Entities.LoanInstallmentSchedule;
+import org.example.Services.CashFlowForecastService;
+import org.example.Services.CsvExportService;
 import org.example.Services.InstallmentScheduleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -23,6 +27,12 @@ public class InstallmentScheduleController {
     @Autowired
     private org.example.Repositories.LoanInstallmentScheduleRepository installmentRepository;
     
+    @Autowired
+    private CashFlowForecastService cashFlowForecastService;
+    
+    @Autowired
+    private CsvExportService csvExportService;
+    
     /**
      * Generate installment schedule for a loan
      */
@@ -240,6 +250,7 @@ public class InstallmentScheduleController {
     public ResponseEntity<Map<String, Object>> deleteScheduleForLoan(@PathVariable Long loanId) {
         try {
             installmentRepository.deleteByLoanId(loanId);
+            cashFlowForecastService.refreshLoan(loanId);
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Schedule deleted successfully"
@@ -251,4 +262,19 @@ public class InstallmentScheduleController {
             ));
         }
     }
+
+    /**
+     * Export installment schedules to CSV (due date range), streamed from the database.
+     * ?gzip=true returns a .csv.gz file.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInstallments(
+            @RequestParam(required = false) Long loanId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csvExportService.exportInstallments(loanId, status, startDate, endDate, gzip, acceptEncoding);
+    }
 }
@@ -1,7 +1,10 @@
 package org.example.Controllers;
 
+import org.example.DTOs.PortfolioRiskReport;
+import org.example.DTOs.PortfolioRiskReport.RiskSegment;
 import org.example.Entities.LoanTracking;
 import org.example.Services.LoanTrackingService;
+import org.example.Services.PortfolioRiskService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +25,9 @@ public class LoanAnalyticsController {
     @Autowired
     private LoanTrackingService trackingService;
     
+    @Autowired
+    private PortfolioRiskService portfolioRiskService;
+    
     /**
      * Get portfolio performance metrics
      * GET /api/loan-analytics/portfolio-performance
@@ -30,21 +36,18 @@ public class LoanAnalyticsController {
     public ResponseEntity<Map<String, Object>> getPortfolioPerformance() {
         Map<String, Object> performance = new HashMap<>();
         
-        Double totalOutstanding = trackingService.getTotalOutstandingBalance();
-        Double par30 = trackingService.getPortfolioAtRisk(30);
-        Double par60 = trackingService.getPortfolioAtRisk(60);
-        Double par90 = trackingService.getPortfolioAtRisk(90);
+        RiskSegment portfolio = portfolioRiskService.getRiskReport(new int[] {30, 60, 90}).getPortfolio();
         
-        performance.put("totalOutstandingBalance", totalOutstanding);
-        performance.put("portfolioAtRisk30", par30);
-        performance.put("portfolioAtRisk60", par60);
-        performance.put("portfolioAtRisk90", par90);
+        performance.put("totalOutstandingBalance", portfolio.getTotalOutstanding());
+        performance.put("portfolioAtRisk30", portfolio.getPortfolioAtRisk().get("PAR30"));
+        performance.put("portfolioAtRisk60", portfolio.getPortfolioAtRisk().get("PAR60"));
+        performance.put("portfolioAtRisk90", portfolio.getPortfolioAtRisk().get("PAR90"));
         
         // Calculate percentages
-        if (totalOutstanding != null && totalOutstanding > 0) {
-            performance.put("par30Percentage", (par30 != null ? par30 / totalOutstanding * 100 : 0.0));
-            performance.put("par60Percentage", (par60 != null ? par60 / totalOutstanding * 100 : 0.0));
-            performance.put("par90Percentage", (par90 != null ? par90 / totalOutstanding * 100 : 0.0));
+        if (portfolio.getTotalOutstanding() > 0) {
+            performance.put("par30Percentage", portfolio.getPortfolioAtRiskPercentage().get("PAR30"));
+            performance.put("par60Percentage", portfolio.getPortfolioAtRiskPercentage().get("PAR60"));
+            performance.put("par90Percentage", portfolio.getPortfolioAtRiskPercentage().get("PAR90"));
         }
         
         // Get loan counts by status
@@ -57,20 +60,30 @@ public class LoanAnalyticsController {
         return ResponseEntity.ok(performance);
     }
     
+    /**
+     * Get PAR aging buckets, risk bands and behaviour bands for the portfolio, each branch and each officer
+     * GET /api/loan-analytics/portfolio-risk?agingBuckets=30,60,90
+     */
+    @GetMapping("/portfolio-risk")
+    public ResponseEntity<PortfolioRiskReport> getPortfolioRisk(
+            @RequestParam(required = false) int[] agingBuckets) {
+        
+        PortfolioRiskReport report = agingBuckets != null
+            ? portfolioRiskService.getRiskReport(agingBuckets)
+            : portfolioRiskService.getRiskReport();
+        
+        return ResponseEntity.ok(report);
+    }
+    
     /**
      * Get payment behavior distribution
      * GET /api/loan-analytics/payment-behavior-distribution
      */
     @GetMapping("/payment-behavior-distribution")
     public ResponseEntity<Map<String, Object>> getPaymentBehaviorDistribution() {
-        // This would query all tracking records and categorize by behavior score
-        Map<String, Object> distribution = new HashMap<>();
-        
         // Categories: Excellent (90-100), Good (70-89), Fair (50-69), Poor (<50)
-        distribution.put("excellent", 0);  // 90-100
-        distribution.put("good", 0);       // 70-89
-        distribution.put("fair", 0);       // 50-69
-        distribution.put("poor", 0);       // <50
+        Map<String, Object> distribution = new HashMap<>(
+            portfolioRiskService.getRiskReport().getPortfolio().getBehaviorBands());
         
         return ResponseEntity.ok(distribution);
     }
@@ -81,31 +94,9 @@ public class LoanAnalyticsController {
      */
     @GetMapping("/risk-distribution")
     public ResponseEntity<Map<String, Object>> getRiskDistribution() {
-        Map<String, Object> distribution = new HashMap<>();
-        
-        List<LoanTracking> allLoans = trackingService.getHighRiskLoans(0.0); // Get all loans
-        
-        long lowRisk = allLoans.stream()
-            .filter(t -> t.getDefaultRiskScore() != null && t.getDefaultRiskScore() <= 20)
-            .count();
-        
-        long mediumRisk = allLoans.stream()
-            .filter(t -> t.getDefaultRiskScore() != null && t.getDefaultRiskScore() > 20 && t.getDefaultRiskScore() <= 50)
-            .count();
-        
-        long highRisk = allLoans.stream()
-            .filter(t -> t.getDefaultRiskScore() != null && t.getDefaultRiskScore() > 50 && t.getDefaultRiskScore() <= 75)
-            .count();
-        
-        long veryHighRisk = allLoans.stream()
-            .filter(t -> t.getDefaultRiskScore() != null && t.getDefaultRiskScore() > 75)
-            .count();
-        
-        distribution.put("lowRisk", lowRisk);
-        distribution.put("mediumRisk", mediumRisk);
-        distribution.put("highRisk", highRisk);
-        distribution.put("veryHighRisk", veryHighRisk);
-        distribution.put("total", allLoans.size());
+        // Bands: low (<=20), medium (21-50), high (51-75), very high (>75), plus total tracked loans
+        Map<String, Object> distribution = new HashMap<>(
+            portfolioRiskService.getRiskReport().getPortfolio().getRiskBands());
         
         return ResponseEntity.ok(distribution);
     }
@@ -118,29 +109,12 @@ public class LoanAnalyticsController {
     public ResponseEntity<List<Map<String, Object>>> getTopDefaulters(
             @RequestParam(defaultValue = "10") int limit) {
         
-        List<LoanTracking> lateLoans = trackingService.getLateLoans();
-        
-        // Group by client and count late loans
-        Map<Long, Long> clientLateCounts = lateLoans.stream()
-            .collect(Collectors.groupingBy(LoanTracking::getClientId, Collectors.counting()));
-        
-        // Sort and get top defaulters
-        List<Map<String, Object>> topDefaulters = clientLateCounts.entrySet().stream()
-            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
-            .limit(limit)
-            .map(entry -> {
+        List<Map<String, Object>> topDefaulters = portfolioRiskService.getTopDefaulters(limit).stream()
+            .map(row -> {
                 Map<String, Object> defaulter = new HashMap<>();
-                defaulter.put("clientId", entry.getKey());
-                defaulter.put("lateLoansCount", entry.getValue());
-                
-                // Calculate total outstanding for this client
-                List<LoanTracking> clientLoans = trackingService.getTrackingByClientId(entry.getKey());
-                double totalOutstanding = clientLoans.stream()
-                    .mapToDouble(t -> t.getOutstandingBalance() != null ? t.getOutstandingBalance() : 0.0)
-                    .sum();
-                
-                defaulter.put("totalOutstanding", totalOutstanding);
-                
+                defaulter.put("clientId", row.get("client_id"));
+                defaulter.put("lateLoansCount", ((Number) row.get("late_loans_count")).longValue());
+                defaulter.put("totalOutstanding", ((Number) row.get("total_outstanding")).doubleValue());
                 return defaulter;
             })
             .collect(Collectors.toList());
@@ -18,12 +18,16 @@ import org.example.DTO.EnhancedCompleteLoanResponse;
 
 
 import org.example.Entities.LoanDetails;
+import org.example.Services.CsvExportService;
 import org.example.Services.LoanDetailsService;
 import org.example.Services.LoanWorkflowService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -33,6 +37,7 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.Optional;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @RestController
@@ -60,6 +65,9 @@ public class LoanDetailsController {
     @Autowired
     private PersonMapper personMapper;
 
+    @Autowired
+    private CsvExportService csvExportService;
+
     @Autowired
     public LoanDetailsController(LoanDetailsService loanDetailsService, LoanWorkflowService loanWorkflowService) {
         this.loanDetailsService = loanDetailsService;
@@ -847,4 +855,15 @@ public class LoanDetailsController {
         response.put("collateralValue", zero); // Not in current schema
     }
 
+    // Export loans to CSV by release date, streamed from the database (?gzip=true for a .csv.gz file)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLoans(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csvExportService.exportLoans(status, branch, startDate, endDate, gzip, acceptEncoding);
+    }
 }
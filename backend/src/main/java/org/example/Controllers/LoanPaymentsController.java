@@ -2,12 +2,16 @@ package org.example.Controllers;
 
 import org.example.Entities.LoanPayments;
 import org.example.Entities.LoanDetails;
+import org.example.Services.CsvExportService;
 import org.example.Services.LoanPaymentsService;
+import org.example.Services.PaymentAnalyticsService;
 import org.example.Services.PaymentProcessingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,6 +25,12 @@ public class LoanPaymentsController {
     @Autowired
     private LoanPaymentsService service;
 
+    @Autowired
+    private PaymentAnalyticsService paymentAnalyticsService;
+
+    @Autowired
+    private CsvExportService csvExportService;
+
     // Enhanced Create - Basic payment creation
     @PostMapping
     public ResponseEntity<?> createPayment(@RequestBody LoanPayments payment) {
@@ -278,43 +288,7 @@ public class LoanPaymentsController {
             if (startDate == null) startDate = LocalDate.now().minusMonths(1);
             if (endDate == null) endDate = LocalDate.now();
             
-            List<LoanPayments> payments = service.getPaymentsByDateRange(startDate, endDate);
-            
-            // Calculate analytics
-            double totalAmount = payments.stream()
-                .mapToDouble(p -> p.getAmountPaid())
-                .sum();
-            
-            long totalCount = payments.size();
-            long lateCount = payments.stream().filter(p -> p.isLate()).count();
-            long onTimeCount = totalCount - lateCount;
-            
-            // Group by payment method
-            Map<String, Long> byMethod = payments.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                    p -> p.getPaymentMethod() != null ? p.getPaymentMethod() : "Unknown",
-                    java.util.stream.Collectors.counting()
-                ));
-            
-            // Group by status
-            Map<String, Long> byStatus = payments.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                    p -> p.getPaymentStatus() != null ? p.getPaymentStatus() : "Unknown",
-                    java.util.stream.Collectors.counting()
-                ));
-            
-            Map<String, Object> analytics = new java.util.HashMap<>();
-            analytics.put("totalAmount", totalAmount);
-            analytics.put("totalCount", totalCount);
-            analytics.put("lateCount", lateCount);
-            analytics.put("onTimeCount", onTimeCount);
-            analytics.put("latePercentage", totalCount > 0 ? (lateCount * 100.0 / totalCount) : 0);
-            analytics.put("onTimePercentage", totalCount > 0 ? (onTimeCount * 100.0 / totalCount) : 0);
-            analytics.put("byPaymentMethod", byMethod);
-            analytics.put("byStatus", byStatus);
-            analytics.put("averagePayment", totalCount > 0 ? totalAmount / totalCount : 0);
-            analytics.put("startDate", startDate);
-            analytics.put("endDate", endDate);
+            Map<String, Object> analytics = paymentAnalyticsService.getPaymentBreakdown(startDate, endDate);
             
             return ResponseEntity.ok(analytics);
         } catch (Exception e) {
@@ -548,4 +522,16 @@ public class LoanPaymentsController {
             return ResponseEntity.internalServerError().body(java.util.Map.of("error", e.getMessage()));
         }
     }
+
+    // Export payments to CSV by payment date, streamed from the database (?gzip=true for a .csv.gz file)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(required = false) Long loanId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csvExportService.exportPayments(loanId, status, startDate, endDate, gzip, acceptEncoding);
+    }
 }
@@ -0,0 +1,53 @@
+package org.example.Controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.example.Services.AsyncMailSender;
+import org.example.Services.NotificationDispatcher;
+import org.example.Services.WebSocketPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/notifications")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class NotificationOutboxController {
+    
+    private final NotificationDispatcher notificationDispatcher;
+    private final AsyncMailSender asyncMailSender;
+    private final WebSocketPublisher webSocketPublisher;
+    
+    /**
+     * Outbox counts per channel and status, and per channel provider, rate and sent / retried / dead counts
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(notificationDispatcher.getStats());
+    }
+    
+    /**
+     * Queue dead-lettered notifications again
+     */
+    @PostMapping("/outbox/requeue-dead")
+    public ResponseEntity<Map<String, Object>> requeueDead() {
+        return ResponseEntity.ok(Map.of("requeued", notificationDispatcher.requeueDead()));
+    }
+    
+    /**
+     * Transactional email (OTP, receipts): queued / sent / failed counts, send latency and SMTP connections
+     */
+    @GetMapping("/email")
+    public ResponseEntity<Map<String, Object>> getEmailStats() {
+        return ResponseEntity.ok(asyncMailSender.getStats());
+    }
+    
+    /**
+     * WebSocket messages sent / skipped for lack of subscribers, and subscriptions per destination on this node
+     */
+    @GetMapping("/websocket")
+    public ResponseEntity<Map<String, Object>> getWebSocketStats() {
+        return ResponseEntity.ok(webSocketPublisher.getStats());
+    }
+}
@@ -1,14 +1,21 @@
 package org.example.Controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.example.DTOs.OperationalExpenseRequestDTO;
 import org.example.DTOs.OperationalExpenseResponseDTO;
 import org.example.Entities.OperationalExpenses;
 import org.example.Services.OperationalExpensesService;
 import org.example.Services.OperationalExpenseFacadeService;
+import org.example.DTOs.StoredContent;
+import org.example.Services.FileServingService;
 import org.example.Services.FileUploadService;
 import org.example.Services.BulkImportService;
+import org.example.Services.CsvExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,13 +27,17 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/expense")
@@ -40,10 +51,16 @@ public class OperationalExpensesController {
     
     @Autowired
     private FileUploadService fileUploadService;
+
+    @Autowired
+    private FileServingService fileServingService;
     
     @Autowired
     private BulkImportService bulkImportService;
 
+    @Autowired
+    private CsvExportService csvExportService;
+
     // Create expense
     @PostMapping
     public ResponseEntity<OperationalExpenseResponseDTO> createExpense(@Valid @RequestBody OperationalExpenseRequestDTO request) {
@@ -214,17 +231,32 @@ public class OperationalExpensesController {
             @PathVariable Long expenseId,
             @RequestParam("file") MultipartFile file) {
         try {
-            String filename = fileUploadService.uploadReceipt(file);
+            // Looked up first so an unknown expense does not leave a stored receipt behind
+            Optional<OperationalExpenses> found = service.getExpenseById(expenseId);
+            if (found.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            OperationalExpenses expense = found.get();
+            String previousReceipt = expense.getReceiptUrl();
+            StoredContent stored = fileUploadService.storeReceipt(file);
             
-            // Update expense with receipt URL
-            OperationalExpenses expense = service.getExpenseById(expenseId)
-                    .orElseThrow(() -> new RuntimeException("Expense not found"));
-            expense.setReceiptUrl(filename);
-            service.updateExpense(expenseId, expense);
+            // Update expense with receipt URL; the new reference is dropped again if that fails
+            expense.setReceiptUrl(stored.getName());
+            try {
+                service.updateExpense(expenseId, expense);
+            } catch (RuntimeException e) {
+                fileUploadService.deleteReceipt(stored.getName());
+                throw e;
+            }
+            // The replaced receipt loses its reference; re-uploading the same receipt counted a second one
+            if (previousReceipt != null) {
+                fileUploadService.deleteReceipt(previousReceipt);
+            }
             
             Map<String, String> response = Map.of(
                 "message", "Receipt uploaded successfully",
-                "filename", filename
+                "filename", stored.getName(),
+                "contentHash", stored.getHash()
             );
             return ResponseEntity.ok(response);
         } catch (IOException e) {
@@ -234,29 +266,34 @@ public class OperationalExpensesController {
         }
     }
 
-    // Get receipt
+    // Get receipt (streamed from disk; supports Range and If-None-Match)
     @GetMapping("/{expenseId}/receipt")
-    public ResponseEntity<byte[]> getReceipt(@PathVariable Long expenseId) {
+    public void getReceipt(@PathVariable Long expenseId, HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        OperationalExpenses expense = service.getExpenseById(expenseId).orElse(null);
+        if (expense == null || expense.getReceiptUrl() == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        // Receipts in object storage are downloaded straight from the bucket
+        Optional<URI> direct = fileUploadService.getReceiptDownloadUrl(expense.getReceiptUrl());
+        if (direct.isPresent()) {
+            response.sendRedirect(direct.get().toString());
+            return;
+        }
+        
+        Path file;
         try {
-            OperationalExpenses expense = service.getExpenseById(expenseId)
-                    .orElseThrow(() -> new RuntimeException("Expense not found"));
-            
-            if (expense.getReceiptUrl() == null) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            byte[] fileData = fileUploadService.getReceiptFile(expense.getReceiptUrl());
-            String contentType = fileUploadService.getReceiptContentType(expense.getReceiptUrl());
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + expense.getReceiptUrl() + "\"")
-                    .body(fileData);
-        } catch (IOException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            file = fileUploadService.getReceiptFile(expense.getReceiptUrl());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+        String contentType = fileUploadService.getReceiptContentType(expense.getReceiptUrl());
+        
+        // The URL stays the same when the receipt is replaced, so clients revalidate against the ETag
+        fileServingService.serve(request, response, file, contentType, expense.getReceiptUrl(), false);
     }
 
     // Delete receipt
@@ -280,39 +317,51 @@ public class OperationalExpensesController {
         }
     }
 
-    // Bulk import expenses from CSV
+    // Bulk import expenses from CSV (runs in the background; poll the returned jobId)
     @PostMapping("/import")
     public ResponseEntity<Map<String, Object>> importExpenses(@RequestParam("file") MultipartFile file) {
         try {
-            Map<String, Object> result = bulkImportService.importExpensesFromCSV(file);
-            return ResponseEntity.ok(result);
+            Map<String, Object> status = bulkImportService.startExpenseImport(file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/expense/import/" + status.get("jobId")))
+                    .body(status);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
         } catch (IOException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to import expenses"));
         }
     }
 
-    // Export expenses to CSV
+    // Import job progress and results
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<Map<String, Object>> getImportStatus(@PathVariable String jobId) {
+        Map<String, Object> status = bulkImportService.getImportStatus(jobId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    // CSV of the lines an import rejected
+    @GetMapping("/import/{jobId}/errors")
+    public ResponseEntity<Resource> getImportErrors(@PathVariable String jobId) {
+        Path report = bulkImportService.getImportErrorReport(jobId);
+        if (report == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import_errors_" + jobId + ".csv\"")
+                .body(new FileSystemResource(report));
+    }
+
+    // Export expenses to CSV, streamed from the database (?gzip=true for a .csv.gz file)
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportExpenses(
+    public ResponseEntity<StreamingResponseBody> exportExpenses(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        try {
-            List<OperationalExpenses> expenses = service.getFilteredExpenses(category, status, startDate, endDate, null);
-            byte[] csvData = bulkImportService.exportExpensesToCSV(expenses);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType("text/csv"))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expenses_export.csv\"")
-                    .body(csvData);
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csvExportService.exportExpenses(category, status, startDate, endDate, gzip, acceptEncoding);
     }
 
     // Get CSV template
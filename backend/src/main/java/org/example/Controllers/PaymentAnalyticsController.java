@@ -1,5 +1,6 @@
 package org.example.Controllers;
 
+import org.example.Services.CashFlowForecastService;
 import org.example.Services.PaymentAnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -17,6 +18,9 @@ public class PaymentAnalyticsController {
     @Autowired
     private PaymentAnalyticsService analyticsService;
 
+    @Autowired
+    private CashFlowForecastService cashFlowForecastService;
+
     /**
      * Get payment trends over a date range
      */
@@ -138,12 +142,29 @@ public class PaymentAnalyticsController {
 
     /**
      * Get payment forecasting data
+     * Optional day/week grouping, branch or officer filter and risk-adjusted amounts
      */
     @GetMapping("/forecast")
     public ResponseEntity<Map<String, Object>> getPaymentForecast(
-            @RequestParam(defaultValue = "30") int daysAhead) {
+            @RequestParam(defaultValue = "30") int daysAhead,
+            @RequestParam(defaultValue = "day") String groupBy,
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) Long officerId,
+            @RequestParam(defaultValue = "false") boolean riskAdjusted) {
+        
+        return ResponseEntity.ok(cashFlowForecastService.getForecast(daysAhead, groupBy, branch, officerId, riskAdjusted));
+    }
+
+    /**
+     * Get expected cash per branch or per loan officer
+     */
+    @GetMapping("/forecast/breakdown")
+    public ResponseEntity<Map<String, Object>> getPaymentForecastBreakdown(
+            @RequestParam(defaultValue = "30") int daysAhead,
+            @RequestParam(defaultValue = "branch") String dimension,
+            @RequestParam(defaultValue = "false") boolean riskAdjusted) {
         
-        return ResponseEntity.ok(analyticsService.getPaymentForecast(daysAhead));
+        return ResponseEntity.ok(cashFlowForecastService.getBreakdown(daysAhead, dimension, riskAdjusted));
     }
 
     /**
@@ -1,7 +1,10 @@
 package org.example.Controllers;
 
+import jakarta.mail.MessagingException;
+import org.example.Services.EmailService;
 import org.example.Services.PaymentReceiptService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +19,9 @@ public class PaymentReceiptController {
     @Autowired
     private PaymentReceiptService receiptService;
 
+    @Autowired
+    private EmailService emailService;
+
     /**
      * Generate receipt for a payment
      */
@@ -84,18 +90,36 @@ public class PaymentReceiptController {
     }
 
     /**
-     * Email receipt to client (future enhancement)
+     * Email receipt to client
+     * Returns 202 once the email is queued; delivery happens in the background.
      */
     @PostMapping("/{paymentId}/email")
     public ResponseEntity<Map<String, Object>> emailReceipt(
             @PathVariable Long paymentId,
             @RequestBody Map<String, String> emailRequest) {
         
+        String email = emailRequest.getOrDefault("email", "").trim();
+        if (!email.matches("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "A valid email address is required"));
+        }
+        
+        Map<String, Object> receipt = receiptService.generateReceipt(paymentId);
+        if (receipt.containsKey("error")) {
+            return ResponseEntity.status(404).body(receipt);
+        }
+        
+        try {
+            emailService.sendPaymentReceipt(email, receipt);
+        } catch (MessagingException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to prepare receipt email: " + e.getMessage()));
+        }
+        
         Map<String, Object> result = Map.of(
-            "message", "Email notification feature coming soon",
+            "message", "Receipt email queued",
             "paymentId", paymentId,
-            "email", emailRequest.getOrDefault("email", "")
+            "receiptNumber", receipt.get("receiptNumber"),
+            "email", email
         );
-        return ResponseEntity.ok(result);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
     }
 }
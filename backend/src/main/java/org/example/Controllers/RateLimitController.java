@@ -0,0 +1,25 @@
+package org.example.Controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.example.config.RequestRateLimiter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/rate-limits")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class RateLimitController {
+    
+    private final RequestRateLimiter rateLimiter;
+    
+    /**
+     * Per route group: limits, requests in flight, and allowed / rate-limited (429) / shed (503) counts
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimiter.getStats());
+    }
+}
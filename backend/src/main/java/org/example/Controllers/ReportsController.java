@@ -0,0 +1,65 @@
+package org.example.Controllers;
+
+import org.example.Entities.DailyReports;
+import org.example.Entities.MonthlyReports;
+import org.example.Services.ReportSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Daily and month-end report snapshots written by the end-of-day close
+ */
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ReportsController {
+
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+
+    /**
+     * Daily snapshots per branch
+     * GET /api/reports/daily?startDate=2025-01-01&endDate=2025-01-31&branch=Kampala
+     */
+    @GetMapping("/daily")
+    public ResponseEntity<List<DailyReports>> getDailyReports(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String branch) {
+
+        if (endDate == null) {
+            endDate = LocalDate.now().minusDays(1);
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(30);
+        }
+
+        return ResponseEntity.ok(reportSnapshotService.getDailyReports(startDate, endDate, branch));
+    }
+
+    /**
+     * Month-end snapshots per branch
+     * GET /api/reports/monthly?startMonth=2025-01&endMonth=2025-06&branch=Kampala
+     */
+    @GetMapping("/monthly")
+    public ResponseEntity<List<MonthlyReports>> getMonthlyReports(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth startMonth,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth endMonth,
+            @RequestParam(required = false) String branch) {
+
+        if (endMonth == null) {
+            endMonth = YearMonth.now().minusMonths(1);
+        }
+        if (startMonth == null) {
+            startMonth = endMonth.minusMonths(11);
+        }
+
+        return ResponseEntity.ok(reportSnapshotService.getMonthlyReports(startMonth, endMonth, branch));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.Controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.example.Services.BlobMigrationJob;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/storage")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class StorageController {
+    
+    private final BlobMigrationJob blobMigrationJob;
+    
+    /**
+     * Progress of the storage migration on this node
+     */
+    @GetMapping("/migration")
+    public ResponseEntity<Map<String, Object>> getMigrationProgress() {
+        return ResponseEntity.ok(blobMigrationJob.getProgress());
+    }
+    
+    /**
+     * Move legacy receipts and images into content storage (and to the bucket with storage.backend=s3)
+     */
+    @PostMapping("/migration")
+    public ResponseEntity<Map<String, Object>> startMigration() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("started", blobMigrationJob.start());
+        response.putAll(blobMigrationJob.getProgress());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Client 360 view: profile (with next of kin and guarantor), every loan with its balance,
+ * next due installment and tracking scores, and portfolio totals for the client.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClientSummaryResponse {
+    
+    private ClientResponse profile;
+    private List<LoanSummary> loans;
+    
+    // Totals across the client's loans
+    private int totalLoans;
+    private int activeLoans;
+    private double totalBorrowed;
+    private double totalPaid;
+    private double totalOutstanding;
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LoanSummary {
+        private Long loanId;
+        private String loanNumber;
+        private String loanStatus;
+        private String workflowStatus;
+        private String lendingBranch;
+        private double principalAmount;
+        private double totalPayable;
+        private LocalDate releaseDate;
+        private LocalDate paymentEndDate;
+        
+        // Balance
+        private double totalPaid;
+        private double outstandingBalance;
+        private long paymentCount;
+        private LocalDate lastPaymentDate;
+        
+        // Schedule
+        private NextInstallment nextInstallment;
+        private int overdueInstallments;
+        private int remainingInstallments;
+        
+        // Tracking scores (null when the loan is not tracked yet)
+        private String trackingStatus;
+        private String paymentStatus;
+        private Double paymentBehaviorScore;
+        private Double defaultRiskScore;
+        private Double completionPercentage;
+        private Integer daysLate;
+        private Boolean isLate;
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class NextInstallment {
+        private Integer installmentNumber;
+        private LocalDate dueDate;
+        private Double amountDue;
+        private String status;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.Entities.AuditLog;
+
+import java.util.List;
+
+/**
+ * One page of audit log rows, newest first. Pass nextCursor back to read the following page;
+ * it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogPage {
+    private List<AuditLog> items;
+    private String nextCursor;
+}
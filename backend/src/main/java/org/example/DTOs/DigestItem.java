@@ -0,0 +1,30 @@
+package org.example.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Digest Item DTO
+ * One pending client reminder line in notification_digest_items
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DigestItem {
+
+    private Long id;
+    private Long clientId;
+    private LocalDate digestDate;
+    private String notificationType;   // DEFAULT_WARNING, LATE_PAYMENT, PAYMENT_DUE, MATURITY_REMINDER
+    private Long loanId;
+    private String loanNumber;
+    private String line;               // One sentence about this loan, e.g. "Loan #L-1: USh 50,000.00 due on 2025-03-01"
+
+    public static DigestItem of(Long clientId, LocalDate digestDate, String notificationType, Long loanId,
+                                String loanNumber, String line) {
+        return new DigestItem(null, clientId, digestDate, notificationType, loanId, loanNumber, line);
+    }
+}
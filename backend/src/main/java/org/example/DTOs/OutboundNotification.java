@@ -0,0 +1,34 @@
+package org.example.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outbound Notification DTO
+ * One message in notification_outbox (id and attempts are set once queued)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboundNotification {
+
+    public static final String CHANNEL_EMAIL = "EMAIL";
+    public static final String CHANNEL_SMS = "SMS";
+
+    private Long id;
+    private String channel;            // EMAIL or SMS
+    private String recipient;          // Email address or phone number
+    private String subject;            // Email only
+    private String body;
+    private String notificationType;   // LATE_PAYMENT, PAYMENT_DUE, DEFAULT_WARNING, ...
+    private Long loanId;
+    private String dedupeKey;          // Same key is only queued once, null = no deduplication
+    private int attempts;
+
+    public static OutboundNotification of(String channel, String recipient, String subject, String body,
+                                          String notificationType, Long loanId, String dedupeKey) {
+        return new OutboundNotification(null, channel, recipient, subject, body, notificationType, loanId,
+                dedupeKey, 0);
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Payment Trend Point DTO
+ * One time bucket of the /api/payments/analytics/trends series
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentTrendPoint {
+
+    private String date;             // Chart label ("2025-03", "2025-W11", ...)
+    private LocalDate bucketStart;   // First day of the bucket
+    private LocalDate bucketEnd;     // Last day of the bucket
+    private long count;              // Number of payments in the bucket
+    private double totalAmount;      // SUM(amount_paid)
+    private double principalPaid;    // SUM(principal_paid)
+    private double interestPaid;     // SUM(interest_paid)
+    private double feesPaid;         // SUM(fees_paid)
+
+    /**
+     * Empty bucket (no payments recorded)
+     */
+    public static PaymentTrendPoint empty(String label, LocalDate bucketStart, LocalDate bucketEnd) {
+        return new PaymentTrendPoint(label, bucketStart, bucketEnd, 0L, 0.0, 0.0, 0.0, 0.0);
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Portfolio Risk Report DTO
+ * Aging histogram (PAR buckets), risk-score bands and payment-behaviour bands for the
+ * whole portfolio and per branch / loan officer, built from one grouped query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioRiskReport {
+
+    private List<Integer> agingBoundaries;                       // e.g. [30, 60, 90] -> 1-30, 31-60, 61-90, 90+
+    private RiskSegment portfolio;                               // Whole portfolio
+    private Map<String, RiskSegment> byBranch = new TreeMap<>(); // Keyed by lending branch
+    private Map<String, RiskSegment> byOfficer = new TreeMap<>(); // Keyed by loan officer (created_by_id)
+    private LocalDateTime generatedAt;
+    private String currency = "UGX";
+
+    /**
+     * Aggregates for one slice of the portfolio
+     */
+    @Data
+    @NoArgsConstructor
+    public static class RiskSegment {
+        private long activeLoans;                                // Active loans in the slice
+        private double totalOutstanding;                         // SUM(outstanding_balance) of active loans
+        private List<AgingBucket> aging = new ArrayList<>();     // Current, 1-30, 31-60, ...
+        private Map<String, Double> portfolioAtRisk = new LinkedHashMap<>();           // PAR30 -> amount
+        private Map<String, Double> portfolioAtRiskPercentage = new LinkedHashMap<>(); // PAR30 -> % of outstanding
+        private Map<String, Long> riskBands = new LinkedHashMap<>();                   // lowRisk ... veryHighRisk
+        private Map<String, Long> behaviorBands = new LinkedHashMap<>();               // excellent ... poor
+
+        /**
+         * Outstanding balance of active loans more than the given days late
+         */
+        public double portfolioAtRisk(int days) {
+            return aging.stream()
+                    .filter(bucket -> bucket.getMinDaysLate() > days)
+                    .mapToDouble(AgingBucket::getOutstanding)
+                    .sum();
+        }
+    }
+
+    /**
+     * One aging bucket; maxDaysLate is null for the open-ended last bucket
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AgingBucket {
+        private String label;            // "Current", "1-30", "90+"
+        private int minDaysLate;
+        private Integer maxDaysLate;
+        private long loanCount;
+        private double outstanding;
+        private double percentageOfOutstanding;
+    }
+}
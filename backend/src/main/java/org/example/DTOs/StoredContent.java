@@ -0,0 +1,21 @@
+package org.example.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A file in content-addressed storage.
+ * name is the SHA-256 hex digest plus the lower-case extension of the upload (e.g. "3a7b...e1.pdf"),
+ * which is what images and expenses store as their file reference.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredContent {
+    private String hash;
+    private String name;
+    private long size;
+    private String contentType;
+    private boolean deduplicated;   // Same content was already stored
+}
@@ -1,16 +1,26 @@
 package org.example.Entities;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * End-of-day snapshot for one branch. Written once by the nightly close and never updated.
+ */
 @Entity
+@Table(name = "daily_reports",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_reports_date_branch", columnNames = {"report_date", "branch"}))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -19,9 +29,24 @@ public class DailyReports {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
+    @Column(nullable = false)
     LocalDate reportDate;
+    @Column(nullable = false, length = 100)
+    String branch;
     int loansDisbursedCount;
+    double amountDisbursed;
+    int newLoansCount;          // Loans created that day
+    int loansClosedCount;       // Loans completed that day
     double repaymentsReceived;
     int receiptsIssuedCount;
-
+    double principalCollected;
+    double interestCollected;
+    double feesCollected;
+    double penaltiesCollected;
+    int pastMaturityCount;      // Loans maturing that day still unpaid at close
+    double pastMaturityAmount;
+    Double arrearsAmount;       // Outstanding on late loans at close (0 when none); null for backfilled days
+    Integer lateLoansCount;
+    double totalExpenses;
+    LocalDateTime generatedAt;
 }
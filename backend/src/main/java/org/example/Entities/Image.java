@@ -40,6 +40,9 @@ public class Image {
     @Column(name = "file_path", nullable = false)
     private String filePath;
     
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // SHA-256 of the content, key into stored_files
+    
     @Column(name = "content_type", nullable = false)
     private String contentType; // "image/jpeg", "image/png", etc.
     
@@ -81,7 +84,7 @@ public class Image {
     
     // Convenience methods
     public String getFileUrl() {
-        return "/api/images/" + id;
+        return "/api/images/" + id + "/content";
     }
     
     public boolean isImage() {
@@ -1,16 +1,26 @@
 package org.example.Entities;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Month-end rollup of the daily snapshots for one branch. Written once when the month closes.
+ */
 @Entity
+@Table(name = "monthly_reports",
+        uniqueConstraints = @UniqueConstraint(name = "uk_monthly_reports_month_branch", columnNames = {"report_month", "branch"}))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -20,12 +30,26 @@ public class MonthlyReports {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
-    LocalDate reportMonth;
+    @Column(nullable = false)
+    LocalDate reportMonth;      // First day of the month
+    @Column(nullable = false, length = 100)
+    String branch;
     int loansIssuedCount;
     double totalLoansAmount;
+    int newLoansCount;
+    int loansClosedCount;
     double totalRepayments;
+    int repaymentsCount;
+    double principalCollected;
+    double interestCollected;
+    double feesCollected;
     double totalPenalties;
-    double profit;
+    int pastMaturityCount;
+    double pastMaturityAmount;
+    Double arrearsAmount;       // Balance on the month's last snapshot day (not summed over days)
+    Integer lateLoansCount;
+    double profit;              // Interest + fees + penalties collected - expenses
     double totalExpenses;
     String staffProductivity;
+    LocalDateTime generatedAt;
 }
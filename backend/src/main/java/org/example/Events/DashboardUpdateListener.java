@@ -1,6 +1,7 @@
 package org.example.Events;
 
 import org.example.Services.DashboardWebSocketService;
+import org.example.Services.PaymentTrendService;
 import org.example.Services.StatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
@@ -17,6 +18,9 @@ public class DashboardUpdateListener {
     @Autowired
     private StatisticsService statisticsService;
 
+    @Autowired
+    private PaymentTrendService paymentTrendService;
+
     /**
      * Listen for loan created events
      */
@@ -45,6 +49,14 @@ public class DashboardUpdateListener {
         dashboardWebSocketService.broadcastDashboardUpdate();
     }
 
+    /**
+     * Drop cached trend buckets when a payment lands in a closed period (back-dated entry)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentMadeEvictTrendBuckets(PaymentMadeEvent event) {
+        paymentTrendService.evictBucketsContaining(event.getPayment().getPaymentDate());
+    }
+
     /**
      * Listen for expense category created events
      */
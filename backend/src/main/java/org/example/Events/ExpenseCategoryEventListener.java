@@ -2,7 +2,7 @@ package org.example.Events;
 
 import org.example.Entities.AuditLog;
 import org.example.Entities.ExpenseCategory;
-import org.example.Repositories.AuditLogRepository;
+import org.example.Services.AuditLogWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
@@ -17,7 +17,7 @@ public class ExpenseCategoryEventListener {
     private static final Logger logger = LoggerFactory.getLogger(ExpenseCategoryEventListener.class);
     
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditLogWriter auditLogWriter;
 
     @EventListener
     @Async
@@ -35,7 +35,7 @@ public class ExpenseCategoryEventListener {
         auditLog.setNewValue(String.format("Category: %s, Description: %s", 
                 category.getCategoryName(), category.getDescription()));
         auditLog.setTimestamp(LocalDateTime.now());
-        auditLogRepository.save(auditLog);
+        auditLogWriter.write(auditLog);
     }
 
     @EventListener
@@ -54,6 +54,6 @@ public class ExpenseCategoryEventListener {
         auditLog.setNewValue(String.format("Category: %s, Description: %s, Active: %s", 
                 category.getCategoryName(), category.getDescription(), category.getIsActive()));
         auditLog.setTimestamp(LocalDateTime.now());
-        auditLogRepository.save(auditLog);
+        auditLogWriter.write(auditLog);
     }
 }
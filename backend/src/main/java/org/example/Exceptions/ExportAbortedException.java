@@ -0,0 +1,11 @@
+package org.example.Exceptions;
+
+/**
+ * A streamed export failed after its response was committed. Rethrown by the exception handlers so it reaches
+ * the container, which then closes the connection: the client sees a failed download, not a short file.
+ */
+public class ExportAbortedException extends RuntimeException {
+    public ExportAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -102,6 +102,14 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * A streamed export failed mid-response: no error body can be sent, so let the container drop the connection
+     */
+    @ExceptionHandler(ExportAbortedException.class)
+    public void handleExportAbortedException(ExportAbortedException ex) {
+        throw ex;
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGlobalException(
             Exception ex, WebRequest request) {
@@ -210,6 +210,14 @@ public class SecureGlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * A streamed export failed mid-response: no error body can be sent, so let the container drop the connection
+     */
+    @ExceptionHandler(ExportAbortedException.class)
+    public void handleExportAbortedException(ExportAbortedException ex) {
+        throw ex;
+    }
+
     /**
      * Handle all other exceptions - SECURE VERSION
      * Does not expose internal error details in production
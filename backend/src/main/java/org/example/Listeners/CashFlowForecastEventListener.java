@@ -0,0 +1,47 @@
+package org.example.Listeners;
+
+import org.example.Events.InstallmentPaidEvent;
+import org.example.Events.InstallmentScheduleGeneratedEvent;
+import org.example.Services.CashFlowForecastService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the cash flow forecast current as installment schedules change
+ */
+@Component
+public class CashFlowForecastEventListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CashFlowForecastEventListener.class);
+    
+    @Autowired
+    private CashFlowForecastService cashFlowForecastService;
+    
+    /**
+     * New or regenerated schedule - replace the loan's installments in the forecast
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleInstallmentScheduleGenerated(InstallmentScheduleGeneratedEvent event) {
+        refresh(event.getLoanId());
+    }
+    
+    /**
+     * Installment fully or partially paid - its outstanding amount changed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleInstallmentPaid(InstallmentPaidEvent event) {
+        refresh(event.getLoanId());
+    }
+    
+    private void refresh(Long loanId) {
+        try {
+            cashFlowForecastService.refreshLoan(loanId);
+        } catch (Exception e) {
+            logger.error("Failed to refresh cash flow forecast for loan {}: {}", loanId, e.getMessage());
+        }
+    }
+}
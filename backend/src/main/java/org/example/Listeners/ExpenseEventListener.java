@@ -2,12 +2,11 @@ package org.example.Listeners;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.example.Entities.ExpenseLog;
 import org.example.Events.ExpenseApprovedEvent;
 import org.example.Events.ExpenseCreatedEvent;
 import org.example.Events.ExpensePaidEvent;
 import org.example.Events.ExpenseRejectedEvent;
-import org.example.Repositories.ExpenseLogRepository;
+import org.example.Services.ExpenseLogWriter;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
@@ -22,21 +21,16 @@ import java.util.Map;
 public class ExpenseEventListener {
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final ExpenseLogRepository expenseLogRepository;
+    private final ExpenseLogWriter expenseLogWriter;
 
     @EventListener
     public void handleExpenseCreated(ExpenseCreatedEvent event) {
         log.info("Expense Created Event: Expense ID = {}, Created By = {}", 
                 event.getExpense().getId(), event.getActionBy());
         
-        // Save to audit log
-        ExpenseLog logEntry = new ExpenseLog();
-        logEntry.setExpenseId(event.getExpense().getId());
-        logEntry.setAction("CREATED");
-        logEntry.setActionBy(event.getActionBy());
-        logEntry.setActionAt(LocalDateTime.now());
-        logEntry.setNotes("Expense created: " + event.getExpense().getDescription());
-        expenseLogRepository.save(logEntry);
+        // Queue the history entry; written in the background
+        expenseLogWriter.write(event.getExpense().getId(), "CREATED", event.getActionBy(),
+                "Expense created: " + event.getExpense().getDescription());
         
         // Broadcast via WebSocket
         Map<String, Object> message = createWebSocketMessage(
@@ -53,14 +47,9 @@ public class ExpenseEventListener {
         log.info("Expense Approved Event: Expense ID = {}, Approved By = {}", 
                 event.getExpense().getId(), event.getActionBy());
         
-        // Save to audit log
-        ExpenseLog logEntry = new ExpenseLog();
-        logEntry.setExpenseId(event.getExpense().getId());
-        logEntry.setAction("APPROVED");
-        logEntry.setActionBy(event.getActionBy());
-        logEntry.setActionAt(LocalDateTime.now());
-        logEntry.setNotes(event.getExpense().getApprovalComment());
-        expenseLogRepository.save(logEntry);
+        // Queue the history entry; written in the background
+        expenseLogWriter.write(event.getExpense().getId(), "APPROVED", event.getActionBy(),
+                event.getExpense().getApprovalComment());
         
         // Broadcast via WebSocket
         Map<String, Object> message = createWebSocketMessage(
@@ -77,14 +66,9 @@ public class ExpenseEventListener {
         log.info("Expense Rejected Event: Expense ID = {}, Rejected By = {}", 
                 event.getExpense().getId(), event.getActionBy());
         
-        // Save to audit log
-        ExpenseLog logEntry = new ExpenseLog();
-        logEntry.setExpenseId(event.getExpense().getId());
-        logEntry.setAction("REJECTED");
-        logEntry.setActionBy(event.getActionBy());
-        logEntry.setActionAt(LocalDateTime.now());
-        logEntry.setNotes(event.getExpense().getApprovalComment());
-        expenseLogRepository.save(logEntry);
+        // Queue the history entry; written in the background
+        expenseLogWriter.write(event.getExpense().getId(), "REJECTED", event.getActionBy(),
+                event.getExpense().getApprovalComment());
         
         // Broadcast via WebSocket
         Map<String, Object> message = createWebSocketMessage(
@@ -101,14 +85,9 @@ public class ExpenseEventListener {
         log.info("Expense Paid Event: Expense ID = {}, Paid By = {}", 
                 event.getExpense().getId(), event.getActionBy());
         
-        // Save to audit log
-        ExpenseLog logEntry = new ExpenseLog();
-        logEntry.setExpenseId(event.getExpense().getId());
-        logEntry.setAction("PAID");
-        logEntry.setActionBy(event.getActionBy());
-        logEntry.setActionAt(LocalDateTime.now());
-        logEntry.setNotes("Expense marked as paid");
-        expenseLogRepository.save(logEntry);
+        // Queue the history entry; written in the background
+        expenseLogWriter.write(event.getExpense().getId(), "PAID", event.getActionBy(),
+                "Expense marked as paid");
         
         // Broadcast via WebSocket
         Map<String, Object> message = createWebSocketMessage(
@@ -2,11 +2,11 @@ package org.example.Listeners;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.example.Entities.AuditLog;
 import org.example.Events.*;
-import org.example.Repositories.AuditLogRepository;
+import org.example.Entities.LoanDetails;
+import org.example.Services.AuditLogWriter;
+import org.example.Services.WebSocketPublisher;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -18,8 +18,8 @@ import java.util.Map;
 @Slf4j
 public class LoanPaymentEventListener {
     
-    private final SimpMessagingTemplate messagingTemplate;
-    private final AuditLogRepository auditLogRepository;
+    private final WebSocketPublisher webSocketPublisher;
+    private final AuditLogWriter auditLogWriter;
     
     @EventListener
     public void handleLoanCreated(LoanCreatedEvent event) {
@@ -38,8 +38,7 @@ public class LoanPaymentEventListener {
                 event.getActionBy(),
                 "New loan created: " + event.getLoan().getLoanNumber()
         );
-        messagingTemplate.convertAndSend("/topic/loans", message);
-        messagingTemplate.convertAndSend("/topic/dashboard", message);
+        publishLoanEvent(event.getLoan(), message);
     }
     
     @EventListener
@@ -60,8 +59,7 @@ public class LoanPaymentEventListener {
         message.put("oldStatus", event.getOldStatus());
         message.put("newStatus", event.getNewStatus());
         
-        messagingTemplate.convertAndSend("/topic/loans", message);
-        messagingTemplate.convertAndSend("/topic/dashboard", message);
+        publishLoanEvent(event.getLoan(), message);
     }
     
     @EventListener
@@ -79,8 +77,8 @@ public class LoanPaymentEventListener {
                 event.getActionBy(),
                 "Loan " + event.getLoan().getLoanNumber() + " has been approved"
         );
-        messagingTemplate.convertAndSend("/topic/loans", message);
-        messagingTemplate.convertAndSend("/topic/dashboard", message);
+        publishLoanEvent(event.getLoan(), message);
+        webSocketPublisher.publishToUser(event.getLoan().getCreatedById(), WebSocketPublisher.USER_LOAN_QUEUE, () -> message);
     }
     
     @EventListener
@@ -100,8 +98,8 @@ public class LoanPaymentEventListener {
         );
         message.put("reason", event.getReason());
         
-        messagingTemplate.convertAndSend("/topic/loans", message);
-        messagingTemplate.convertAndSend("/topic/dashboard", message);
+        publishLoanEvent(event.getLoan(), message);
+        webSocketPublisher.publishToUser(event.getLoan().getCreatedById(), WebSocketPublisher.USER_LOAN_QUEUE, () -> message);
     }
     
     @EventListener
@@ -124,9 +122,8 @@ public class LoanPaymentEventListener {
         message.put("amount", event.getPayment().getAmountPaid());
         message.put("paymentDate", event.getPayment().getPaymentDate().toString());
         
-        messagingTemplate.convertAndSend("/topic/loans", message);
-        messagingTemplate.convertAndSend("/topic/payments", message);
-        messagingTemplate.convertAndSend("/topic/dashboard", message);
+        publishLoanEvent(event.getLoan(), message, "/topic/payments",
+                WebSocketPublisher.branchPaymentsTopic(event.getLoan().getLendingBranch()));
     }
     
     @EventListener
@@ -147,8 +144,7 @@ public class LoanPaymentEventListener {
         message.put("oldBalance", event.getOldBalance());
         message.put("newBalance", event.getNewBalance());
         
-        messagingTemplate.convertAndSend("/topic/loans", message);
-        messagingTemplate.convertAndSend("/topic/dashboard", message);
+        publishLoanEvent(event.getLoan(), message);
     }
     
     @EventListener
@@ -170,8 +166,8 @@ public class LoanPaymentEventListener {
         message.put("message", String.format("Payment of %.2f recorded", event.getPayment().getAmountPaid()));
         message.put("timestamp", LocalDateTime.now().toString());
         
-        messagingTemplate.convertAndSend("/topic/payments", message);
-        messagingTemplate.convertAndSend("/topic/dashboard", message);
+        webSocketPublisher.publish(() -> message, "/topic/payments", "/topic/dashboard",
+                WebSocketPublisher.loanTopic(event.getPayment().getLoanId()));
     }
     
     @EventListener
@@ -192,8 +188,8 @@ public class LoanPaymentEventListener {
         message.put("message", "Payment has been reversed: " + event.getReason());
         message.put("timestamp", LocalDateTime.now().toString());
         
-        messagingTemplate.convertAndSend("/topic/payments", message);
-        messagingTemplate.convertAndSend("/topic/dashboard", message);
+        webSocketPublisher.publish(() -> message, "/topic/payments", "/topic/dashboard",
+                WebSocketPublisher.loanTopic(event.getPayment().getLoanId()));
     }
     
     private Map<String, Object> createWebSocketMessage(Long loanId, String loanNumber, 
@@ -208,18 +204,23 @@ public class LoanPaymentEventListener {
         return payload;
     }
     
+    /**
+     * Company-wide loan and dashboard topics, the loan's own topic and its branch's loan and dashboard topics
+     * (only those with subscribers)
+     */
+    private void publishLoanEvent(LoanDetails loan, Map<String, Object> message, String... extraDestinations) {
+        String[] destinations = new String[5 + extraDestinations.length];
+        destinations[0] = "/topic/loans";
+        destinations[1] = "/topic/dashboard";
+        destinations[2] = WebSocketPublisher.loanTopic(loan.getId());
+        destinations[3] = WebSocketPublisher.branchLoansTopic(loan.getLendingBranch());
+        destinations[4] = WebSocketPublisher.branchDashboardTopic(loan.getLendingBranch());
+        System.arraycopy(extraDestinations, 0, destinations, 5, extraDestinations.length);
+        webSocketPublisher.publish(() -> message, destinations);
+    }
+    
     private void saveAuditLog(String entityType, Long entityId, String action, String actionBy, String notes) {
-        try {
-            AuditLog auditLog = new AuditLog();
-            auditLog.setEntityType(entityType);
-            auditLog.setEntityId(entityId);
-            auditLog.setAction(action);
-            auditLog.setPerformedBy(actionBy);
-            auditLog.setNewValue(notes);
-            auditLog.setTimestamp(LocalDateTime.now());
-            auditLogRepository.save(auditLog);
-        } catch (Exception e) {
-            log.error("Error saving audit log: {}", e.getMessage());
-        }
+        // Queued; written in batches by AuditLogWriter
+        auditLogWriter.write(entityType, entityId, action, actionBy, null, notes);
     }
 }
@@ -0,0 +1,113 @@
+package org.example.Repositories;
+
+import org.example.Entities.AuditLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Audit Log Query Repository
+ * Keyset-paged reads of audit_logs / audit_logs_archive and the moves between them.
+ * Pages are ordered by (timestamp, id) descending and continue after the last row of the previous page,
+ * so every page is an index range read whatever its depth.
+ */
+@Repository
+public class AuditLogQueryRepository {
+
+    public static final String LIVE_TABLE = "audit_logs";
+    public static final String ARCHIVE_TABLE = "audit_logs_archive";
+
+    private static final String COLUMNS =
+            "id, entity_type, entity_id, action, performed_by, old_value, new_value, `timestamp`, ip_address";
+
+    private static final RowMapper<AuditLog> ROW_MAPPER = (rs, rowNum) -> new AuditLog(
+            rs.getLong("id"),
+            rs.getString("entity_type"),
+            rs.getLong("entity_id"),
+            rs.getString("action"),
+            rs.getString("performed_by"),
+            rs.getString("old_value"),
+            rs.getString("new_value"),
+            rs.getObject("timestamp", LocalDateTime.class),
+            rs.getString("ip_address"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Rows matching the filter, newest first, starting after (afterTimestamp, afterId) when given.
+     * Null filter values are ignored; from is inclusive, to is exclusive.
+     */
+    public List<AuditLog> findPage(boolean archive, String entityType, Long entityId, String performedBy,
+                                   LocalDateTime from, LocalDateTime to,
+                                   LocalDateTime afterTimestamp, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS)
+                .append(" FROM ").append(archive ? ARCHIVE_TABLE : LIVE_TABLE).append(" WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+
+        if (entityType != null) {
+            sql.append(" AND entity_type = :entityType");
+            params.addValue("entityType", entityType);
+        }
+        if (entityId != null) {
+            sql.append(" AND entity_id = :entityId");
+            params.addValue("entityId", entityId);
+        }
+        if (performedBy != null) {
+            sql.append(" AND performed_by = :performedBy");
+            params.addValue("performedBy", performedBy);
+        }
+        if (from != null) {
+            sql.append(" AND `timestamp` >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND `timestamp` < :to");
+            params.addValue("to", to);
+        }
+        if (afterTimestamp != null && afterId != null) {
+            sql.append(" AND (`timestamp` < :afterTimestamp OR (`timestamp` = :afterTimestamp AND id < :afterId))");
+            params.addValue("afterTimestamp", afterTimestamp).addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY `timestamp` DESC, id DESC LIMIT :limit");
+        return namedParameterJdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+
+    /**
+     * Ids of the oldest live rows written before the cutoff
+     */
+    public List<Long> findIdsBefore(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM audit_logs WHERE `timestamp` < ? ORDER BY `timestamp`, id LIMIT ?",
+                Long.class, cutoff, limit);
+    }
+
+    /**
+     * Copy live rows into the archive; rows already archived (e.g. by another node) are skipped
+     */
+    public int copyToArchive(Collection<Long> ids, LocalDateTime now) {
+        return namedParameterJdbcTemplate.update(
+                "INSERT IGNORE INTO audit_logs_archive (" + COLUMNS + ", archived_at) "
+                        + "SELECT " + COLUMNS + ", :now FROM audit_logs WHERE id IN (:ids)",
+                new MapSqlParameterSource("now", now).addValue("ids", ids));
+    }
+
+    public int deleteLive(Collection<Long> ids) {
+        return namedParameterJdbcTemplate.update(
+                "DELETE FROM audit_logs WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids));
+    }
+
+    public int deleteArchivedBefore(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update("DELETE FROM audit_logs_archive WHERE `timestamp` < ? LIMIT ?", cutoff, limit);
+    }
+}
@@ -1,10 +1,25 @@
 package org.example.Repositories;
 
 import org.example.Entities.Branches;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 
 public interface BranchesRepository extends JpaRepository<Branches,Long> {
+
+    // Branches without an 8-character branch code, in id order after afterId (keyset chunks for the ID migration)
+    @Query("SELECT b FROM Branches b WHERE b.id > :afterId AND " +
+           "(b.branchCode IS NULL OR LENGTH(b.branchCode) <> 8 OR b.branchCode LIKE '%-%') ORDER BY b.id")
+    List<Branches> findNeedingIdMigration(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Count branches without an 8-character branch code
+    @Query("SELECT COUNT(b) FROM Branches b WHERE " +
+           "b.branchCode IS NULL OR LENGTH(b.branchCode) <> 8 OR b.branchCode LIKE '%-%'")
+    long countNeedingIdMigration();
 }
@@ -0,0 +1,89 @@
+package org.example.Repositories;
+
+import org.example.Services.CashFlowForecast;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cash Flow Forecast Repository
+ * Loads unpaid installments joined with their loan's branch, officer and risk score in one query
+ */
+@Repository
+public class CashFlowForecastRepository {
+
+    private static final String UNPAID_INSTALLMENTS_SQL = """
+        SELECT
+            i.loan_id,
+            i.due_date,
+            COALESCE(i.outstanding_amount, i.scheduled_amount - COALESCE(i.paid_amount, 0)) AS amount,
+            l.lending_branch,
+            l.created_by_id,
+            t.default_risk_score
+        FROM loan_installment_schedule i
+        JOIN loan_details l ON l.id = i.loan_id
+        LEFT JOIN loan_tracking t ON t.loan_id = i.loan_id
+        WHERE (i.is_paid = 0 OR i.is_paid IS NULL)
+        AND i.due_date <= ?
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private record LoanEntry(Long loanId, CashFlowForecast.Entry entry) {
+    }
+
+    /**
+     * All unpaid installments due on or before windowEnd, grouped by loan id
+     */
+    public Map<Long, List<CashFlowForecast.Entry>> findUnpaidInstallmentsDueBy(LocalDate windowEnd) {
+        return groupByLoan(jdbcTemplate.query(UNPAID_INSTALLMENTS_SQL, (rs, rowNum) -> toRow(rs), windowEnd));
+    }
+
+    /**
+     * Unpaid installments of a single loan due on or before windowEnd
+     */
+    public List<CashFlowForecast.Entry> findUnpaidInstallmentsForLoan(Long loanId, LocalDate windowEnd) {
+        List<LoanEntry> rows = jdbcTemplate.query(UNPAID_INSTALLMENTS_SQL + " AND i.loan_id = ?",
+                (rs, rowNum) -> toRow(rs), windowEnd, loanId);
+        return groupByLoan(rows).getOrDefault(loanId, List.of());
+    }
+
+    private LoanEntry toRow(ResultSet rs) throws SQLException {
+        double riskScore = rs.getDouble("default_risk_score");
+        boolean hasRiskScore = !rs.wasNull();
+        long officerId = rs.getLong("created_by_id");
+        boolean hasOfficer = !rs.wasNull();
+
+        CashFlowForecast.Entry entry = new CashFlowForecast.Entry(
+                rs.getDate("due_date").toLocalDate(),
+                Math.max(0.0, rs.getDouble("amount")),
+                hasRiskScore ? recoveryProbability(riskScore) : 1.0,
+                rs.getString("lending_branch"),
+                hasOfficer ? officerId : null);
+        return new LoanEntry(rs.getLong("loan_id"), entry);
+    }
+
+    private Map<Long, List<CashFlowForecast.Entry>> groupByLoan(List<LoanEntry> rows) {
+        Map<Long, List<CashFlowForecast.Entry>> byLoan = new HashMap<>();
+        for (LoanEntry row : rows) {
+            byLoan.computeIfAbsent(row.loanId(), id -> new ArrayList<>()).add(row.entry());
+        }
+        return byLoan;
+    }
+
+    /**
+     * defaultRiskScore is 0-100 (higher = more risk); convert to a 0..1 collection probability
+     */
+    private double recoveryProbability(double defaultRiskScore) {
+        return Math.min(1.0, Math.max(0.0, 1.0 - defaultRiskScore / 100.0));
+    }
+}
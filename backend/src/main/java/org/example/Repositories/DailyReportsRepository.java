@@ -2,8 +2,31 @@ package org.example.Repositories;
 
 import org.example.Entities.DailyReports;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface DailyReportsRepository extends JpaRepository<DailyReports,Long> {
+
+    List<DailyReports> findByReportDateBetweenOrderByReportDateAscBranchAsc(LocalDate startDate, LocalDate endDate);
+
+    List<DailyReports> findByBranchAndReportDateBetweenOrderByReportDateAsc(String branch, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT MIN(d.reportDate) FROM DailyReports d")
+    LocalDate findEarliestReportDate();
+
+    @Query("SELECT MAX(d.reportDate) FROM DailyReports d")
+    LocalDate findLatestReportDate();
+
+    /**
+     * Bulk delete, so the rows are gone before replacements for the same (date, branch) are inserted
+     */
+    @Modifying
+    @Query("DELETE FROM DailyReports d WHERE d.reportDate BETWEEN :startDate AND :endDate")
+    int deleteByReportDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
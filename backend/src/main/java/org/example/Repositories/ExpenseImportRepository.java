@@ -0,0 +1,110 @@
+package org.example.Repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Expense Import Repository
+ * JDBC writes for CSV expense imports: categories are loaded once into a map and expenses inserted in
+ * batches, instead of a category lookup and an entity save per line.
+ */
+@Repository
+public class ExpenseImportRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * A validated CSV line ready to insert
+     */
+    public record ExpenseRow(int lineNumber, String expenseReference, long categoryId, String expenseName,
+                             String description, double amount, LocalDate expenseDate, String paymentMethod,
+                             String vendor, String referenceNumber, String status, String notes) {
+    }
+
+    /**
+     * Category ids by lower-case name
+     */
+    public Map<String, Long> findCategoryIdsByName() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, category_name FROM expense_categories", rs -> {
+            ids.put(rs.getString("category_name").toLowerCase(Locale.ROOT), rs.getLong("id"));
+        });
+        return ids;
+    }
+
+    /**
+     * Id of the category with this name (case-insensitive, like the loaded map), or null
+     */
+    public Long findCategoryId(String name) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM expense_categories WHERE LOWER(category_name) = LOWER(?) ORDER BY id LIMIT 1",
+                Long.class, name);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    public long insertCategory(String name, String createdBy, LocalDateTime now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                INSERT INTO expense_categories (category_name, is_active, sort_order, color_code, created_by, created_at, updated_at)
+                VALUES (?, 1, 0, '#000000', ?, ?, ?)
+                """, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, name);
+            ps.setString(2, createdBy);
+            ps.setTimestamp(3, Timestamp.valueOf(now));
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * Insert expenses in one JDBC batch (rewritten to a multi-row insert with rewriteBatchedStatements)
+     */
+    public void insertBatch(List<ExpenseRow> rows, Long requestedByUserId, String createdBy, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO operational_expenses (expense_reference, category_id, expense_name, description, amount,
+                expense_date, payment_method, vendor, reference_number, status, notes, approval_status,
+                payment_status, requested_by_user_id, created_by, last_modified_by, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'PENDING', 'UNPAID', ?, ?, ?, ?, ?)
+            """, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.expenseReference());
+            ps.setLong(2, row.categoryId());
+            ps.setString(3, row.expenseName());
+            ps.setString(4, row.description());
+            ps.setDouble(5, row.amount());
+            ps.setDate(6, Date.valueOf(row.expenseDate()));
+            ps.setString(7, row.paymentMethod());
+            ps.setString(8, row.vendor());
+            ps.setString(9, row.referenceNumber());
+            ps.setString(10, row.status());
+            ps.setString(11, row.notes());
+            if (requestedByUserId != null) {
+                ps.setLong(12, requestedByUserId);
+            } else {
+                ps.setNull(12, Types.BIGINT);
+            }
+            ps.setString(13, createdBy);
+            ps.setString(14, createdBy);
+            ps.setTimestamp(15, timestamp);
+            ps.setTimestamp(16, timestamp);
+        });
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.Repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export Repository
+ * Read-only queries behind the CSV exports. Rows are handed to the extractor straight from the driver:
+ * on MySQL the statement streams its result set row by row (fetch size Integer.MIN_VALUE), elsewhere it
+ * fetches FETCH_SIZE rows at a time, so memory does not grow with the size of the table.
+ * Column labels are the CSV headers; null filter values are ignored, date ranges are inclusive.
+ */
+@Repository
+public class ExportRepository {
+
+    static final int FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Expenses with their category name, oldest first. Headers match the import template, so an export
+     * can be edited and imported again.
+     */
+    public <T> T streamExpenses(String category, String status, LocalDate startDate, LocalDate endDate,
+                                ResultSetExtractor<T> extractor) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT e.id AS `ID`, e.expense_reference AS `Expense Reference`, e.expense_name AS `Name`,
+                   e.description AS `Description`, e.amount AS `Amount`, e.expense_date AS `Date`,
+                   c.category_name AS `Category`, e.vendor AS `Vendor`, e.payment_method AS `Payment Method`,
+                   e.reference_number AS `Reference Number`, e.status AS `Status`,
+                   e.approval_status AS `Approval Status`, e.payment_status AS `Payment Status`,
+                   e.notes AS `Notes`, e.created_by AS `Created By`, e.created_at AS `Created At`,
+                   e.updated_at AS `Updated At`
+            FROM operational_expenses e
+            LEFT JOIN expense_categories c ON c.id = e.category_id
+            WHERE 1 = 1""");
+        List<Object> args = new ArrayList<>();
+        if (category != null) {
+            sql.append(" AND c.category_name = ?");
+            args.add(category);
+        }
+        if (status != null) {
+            sql.append(" AND e.status = ?");
+            args.add(status);
+        }
+        appendDateRange(sql, args, "e.expense_date", startDate, endDate);
+        sql.append(" ORDER BY e.expense_date, e.id");
+        return stream(sql.toString(), args, extractor);
+    }
+
+    /**
+     * Loans with the client's name, by release date
+     */
+    public <T> T streamLoans(String status, String branch, LocalDate startDate, LocalDate endDate,
+                             ResultSetExtractor<T> extractor) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT l.id AS `ID`, l.loan_number AS `Loan Number`, l.client_id AS `Client ID`,
+                   TRIM(CONCAT_WS(' ', p.first_name, p.given_name, p.last_name)) AS `Client Name`,
+                   l.loan_title AS `Title`, l.principal_amount AS `Principal`, l.interest_method AS `Interest Method`,
+                   l.interest_rate AS `Interest Rate`, l.rate_per AS `Rate Per`, l.loan_duration AS `Duration`,
+                   l.duration_unit AS `Duration Unit`, l.repayment_frequency AS `Repayment Frequency`,
+                   l.number_of_repayments AS `Repayments`, l.processing_fee AS `Processing Fee`,
+                   l.total_payable AS `Total Payable`, l.release_date AS `Release Date`,
+                   l.payment_start_date AS `Payment Start Date`, l.payment_end_date AS `Payment End Date`,
+                   l.loan_status AS `Status`, l.workflow_status AS `Workflow Status`,
+                   l.lending_branch AS `Branch`, l.archived AS `Archived`, l.created_at AS `Created At`
+            FROM loan_details l
+            LEFT JOIN users u ON u.id = l.client_id
+            LEFT JOIN persons p ON p.id = u.person_id
+            WHERE 1 = 1""");
+        List<Object> args = new ArrayList<>();
+        if (status != null) {
+            sql.append(" AND l.loan_status = ?");
+            args.add(status);
+        }
+        if (branch != null) {
+            sql.append(" AND l.lending_branch = ?");
+            args.add(branch);
+        }
+        appendDateRange(sql, args, "l.release_date", startDate, endDate);
+        sql.append(" ORDER BY l.release_date, l.id");
+        return stream(sql.toString(), args, extractor);
+    }
+
+    /**
+     * Payments with their loan number, by payment date
+     */
+    public <T> T streamPayments(Long loanId, String status, LocalDate startDate, LocalDate endDate,
+                                ResultSetExtractor<T> extractor) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT p.id AS `ID`, p.payment_number AS `Payment Number`, p.loan_id AS `Loan ID`,
+                   l.loan_number AS `Loan Number`, p.payment_date AS `Payment Date`, p.amount_paid AS `Amount Paid`,
+                   p.payment_method AS `Payment Method`, p.reference_number AS `Reference Number`,
+                   p.installment_number AS `Installment`, p.principal_paid AS `Principal Paid`,
+                   p.interest_paid AS `Interest Paid`, p.fees_paid AS `Fees Paid`, p.fine AS `Fine`,
+                   p.outstanding_balance AS `Outstanding Balance`, p.late AS `Late`, p.days_late AS `Days Late`,
+                   p.payment_status AS `Status`, p.notes AS `Notes`, p.created_at AS `Created At`
+            FROM loan_payments p
+            LEFT JOIN loan_details l ON l.id = p.loan_id
+            WHERE 1 = 1""");
+        List<Object> args = new ArrayList<>();
+        if (loanId != null) {
+            sql.append(" AND p.loan_id = ?");
+            args.add(loanId);
+        }
+        if (status != null) {
+            sql.append(" AND p.payment_status = ?");
+            args.add(status);
+        }
+        appendDateRange(sql, args, "p.payment_date", startDate, endDate);
+        sql.append(" ORDER BY p.payment_date, p.id");
+        return stream(sql.toString(), args, extractor);
+    }
+
+    /**
+     * Installment schedule rows with their loan number, by loan and installment
+     */
+    public <T> T streamInstallments(Long loanId, String status, LocalDate startDate, LocalDate endDate,
+                                    ResultSetExtractor<T> extractor) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT s.id AS `ID`, s.loan_id AS `Loan ID`, l.loan_number AS `Loan Number`,
+                   s.installment_number AS `Installment`, s.due_date AS `Due Date`,
+                   s.scheduled_amount AS `Scheduled Amount`, s.principal_portion AS `Principal`,
+                   s.interest_portion AS `Interest`, s.fees_portion AS `Fees`, s.status AS `Status`,
+                   s.paid_amount AS `Paid Amount`, s.paid_date AS `Paid Date`,
+                   s.outstanding_amount AS `Outstanding Amount`, s.days_late AS `Days Late`,
+                   s.penalty_amount AS `Penalty`
+            FROM loan_installment_schedule s
+            LEFT JOIN loan_details l ON l.id = s.loan_id
+            WHERE 1 = 1""");
+        List<Object> args = new ArrayList<>();
+        if (loanId != null) {
+            sql.append(" AND s.loan_id = ?");
+            args.add(loanId);
+        }
+        if (status != null) {
+            sql.append(" AND s.status = ?");
+            args.add(status);
+        }
+        appendDateRange(sql, args, "s.due_date", startDate, endDate);
+        sql.append(" ORDER BY s.loan_id, s.installment_number");
+        return stream(sql.toString(), args, extractor);
+    }
+
+    private static void appendDateRange(StringBuilder sql, List<Object> args, String column,
+                                        LocalDate startDate, LocalDate endDate) {
+        if (startDate != null) {
+            sql.append(" AND ").append(column).append(" >= ?");
+            args.add(startDate);
+        }
+        if (endDate != null) {
+            sql.append(" AND ").append(column).append(" <= ?");
+            args.add(endDate);
+        }
+    }
+
+    private <T> T stream(String sql, List<Object> args, ResultSetExtractor<T> extractor) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize(connection));
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, extractor);
+    }
+
+    /**
+     * Connector/J buffers the whole result unless the fetch size is Integer.MIN_VALUE
+     */
+    static int fetchSize(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        return product != null && product.toLowerCase().contains("mysql") ? Integer.MIN_VALUE : FETCH_SIZE;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.Repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ID Migration State Repository
+ * Version marker for the background ID migration (id_migration_state, one row per version).
+ * The row is claimed with a conditional UPDATE so only one node runs a version at a time.
+ */
+@Repository
+public class IdMigrationStateRepository {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETE = "COMPLETE";
+    public static final String FAILED = "FAILED";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Marker row for a version, empty when the version never started
+     */
+    public Optional<Map<String, Object>> findState(int version) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT * FROM id_migration_state WHERE migration_version = ?", version);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Status of a version, null when the version never started
+     */
+    public String findStatus(int version) {
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT status FROM id_migration_state WHERE migration_version = ?", String.class, version);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Claim a version for this node: creates the row if needed and takes it when it is pending, failed,
+     * or running with a heartbeat older than staleMinutes (the previous owner died)
+     *
+     * @return true if this node now owns the migration
+     */
+    public boolean claim(int version, String owner, int staleMinutes) {
+        jdbcTemplate.update("INSERT IGNORE INTO id_migration_state (migration_version, status) VALUES (?, ?)",
+                version, PENDING);
+        int updated = jdbcTemplate.update("""
+            UPDATE id_migration_state
+            SET status = ?, owner = ?, last_error = NULL,
+                started_at = COALESCE(started_at, NOW(6)), updated_at = NOW(6)
+            WHERE migration_version = ?
+              AND (status IN (?, ?) OR (status = ? AND updated_at < NOW(6) - INTERVAL ? MINUTE))
+            """, RUNNING, owner, version, PENDING, FAILED, RUNNING, staleMinutes);
+        return updated == 1;
+    }
+
+    /**
+     * Add the records migrated by one chunk and refresh the heartbeat
+     */
+    public void recordProgress(int version, long loans, long expenses, long branches) {
+        jdbcTemplate.update("""
+            UPDATE id_migration_state
+            SET loans_migrated = loans_migrated + ?, expenses_migrated = expenses_migrated + ?,
+                branches_migrated = branches_migrated + ?, updated_at = NOW(6)
+            WHERE migration_version = ?
+            """, loans, expenses, branches, version);
+    }
+
+    public void markComplete(int version) {
+        jdbcTemplate.update("""
+            UPDATE id_migration_state
+            SET status = ?, completed_at = NOW(6), updated_at = NOW(6)
+            WHERE migration_version = ?
+            """, COMPLETE, version);
+    }
+
+    public void markFailed(int version, String error) {
+        String message = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        jdbcTemplate.update("""
+            UPDATE id_migration_state
+            SET status = ?, last_error = ?, updated_at = NOW(6)
+            WHERE migration_version = ?
+            """, FAILED, message, version);
+    }
+}
@@ -45,6 +45,9 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
     @Query("SELECT SUM(i.fileSize) FROM Image i WHERE i.entityType = :entityType AND i.isActive = true")
     Long getTotalStorageByEntityType(@Param("entityType") String entityType);
     
+    // Whether an active image points at this content (content-addressed serving)
+    boolean existsByContentHashAndIsActiveTrue(String contentHash);
+    
     // Find images larger than specific size
     List<Image> findByFileSizeGreaterThanAndIsActiveTrue(Long fileSize);
     
@@ -0,0 +1,63 @@
+package org.example.Repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Legacy File Repository
+ * Receipts and images that still point at files outside content-addressed storage, read in keyset
+ * chunks by BlobMigrationJob and relinked to their content names.
+ */
+@Repository
+public class LegacyFileRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public record LegacyFile(long id, String path, String contentType) {
+    }
+
+    /**
+     * Expenses with a receipt after the given id; content names are filtered out by the caller
+     */
+    public List<LegacyFile> findReceipts(long afterId, int limit) {
+        return jdbcTemplate.query("""
+            SELECT id, receipt_url FROM operational_expenses
+            WHERE id > ? AND receipt_url IS NOT NULL AND receipt_url <> ''
+            ORDER BY id LIMIT ?
+            """, (rs, i) -> new LegacyFile(rs.getLong("id"), rs.getString("receipt_url"), null), afterId, limit);
+    }
+
+    /**
+     * Images not yet in content-addressed storage
+     */
+    public List<LegacyFile> findImages(long afterId, int limit) {
+        return jdbcTemplate.query("""
+            SELECT id, file_path, content_type FROM images
+            WHERE id > ? AND content_hash IS NULL
+            ORDER BY id LIMIT ?
+            """, (rs, i) -> new LegacyFile(rs.getLong("id"), rs.getString("file_path"), rs.getString("content_type")),
+                afterId, limit);
+    }
+
+    /**
+     * Point an expense at its receipt's content name, unless the receipt changed meanwhile
+     */
+    public boolean relinkReceipt(long expenseId, String oldName, String contentName) {
+        return jdbcTemplate.update("UPDATE operational_expenses SET receipt_url = ? WHERE id = ? AND receipt_url = ?",
+                contentName, expenseId, oldName) > 0;
+    }
+
+    /**
+     * Point an image at its content, unless it changed meanwhile
+     */
+    public boolean relinkImage(long imageId, String oldPath, String contentName, String contentHash) {
+        return jdbcTemplate.update("""
+            UPDATE images SET file_path = ?, content_hash = ?
+            WHERE id = ? AND file_path = ? AND content_hash IS NULL
+            """, contentName, contentHash, imageId, oldPath) > 0;
+    }
+}
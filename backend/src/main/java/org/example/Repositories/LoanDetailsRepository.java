@@ -2,7 +2,10 @@ package org.example.Repositories;
 
 
 import org.example.Entities.LoanDetails;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -73,4 +76,16 @@ public interface LoanDetailsRepository extends JpaRepository<LoanDetails,Long> {
     
     // Count archived loans
     long countByArchivedTrue();
+    
+    // ID MIGRATION QUERIES
+    
+    // Loans without an 8-character loan number, in id order after afterId (keyset chunks)
+    @Query("SELECT l FROM LoanDetails l WHERE l.id > :afterId AND " +
+           "(l.loanNumber IS NULL OR LENGTH(l.loanNumber) <> 8 OR l.loanNumber LIKE '%-%') ORDER BY l.id")
+    List<LoanDetails> findNeedingIdMigration(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Count loans without an 8-character loan number
+    @Query("SELECT COUNT(l) FROM LoanDetails l WHERE " +
+           "l.loanNumber IS NULL OR LENGTH(l.loanNumber) <> 8 OR l.loanNumber LIKE '%-%'")
+    long countNeedingIdMigration();
 }
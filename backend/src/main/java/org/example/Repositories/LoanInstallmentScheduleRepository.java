@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,6 +48,11 @@ public interface LoanInstallmentScheduleRepository extends JpaRepository<LoanIns
      */
     List<LoanInstallmentSchedule> findByLoanIdAndIsPaidFalseOrderByInstallmentNumberAsc(Long loanId);
     
+    /**
+     * Find unpaid installments for several loans in one query
+     */
+    List<LoanInstallmentSchedule> findByLoanIdInAndIsPaidFalseOrderByLoanIdAscInstallmentNumberAsc(Collection<Long> loanIds);
+    
     /**
      * Find paid installments for a loan
      */
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -49,6 +50,11 @@ public interface LoanPaymentsRepository extends JpaRepository<LoanPayments,Long>
     @Query("SELECT SUM(p.cumulativePenalty) FROM LoanPayments p WHERE p.loanId = :loanId ORDER BY p.paymentDate DESC LIMIT 1")
     Double getLatestCumulativePenaltyByLoanId(@Param("loanId") Long loanId);
     
+    // Per-loan totals for a set of loans: [loanId, totalPaid, paymentCount, lastPaymentDate]
+    @Query("SELECT p.loanId, SUM(p.amountPaid), COUNT(p), MAX(p.paymentDate) FROM LoanPayments p " +
+           "WHERE p.loanId IN :loanIds AND p.paymentStatus = 'COMPLETED' GROUP BY p.loanId")
+    List<Object[]> getPaymentTotalsByLoanIds(@Param("loanIds") Collection<Long> loanIds);
+    
     // Balance Queries
     @Query("SELECT p.outstandingBalance FROM LoanPayments p WHERE p.loanId = :loanId ORDER BY p.paymentDate DESC LIMIT 1")
     Double getLatestOutstandingBalanceByLoanId(@Param("loanId") Long loanId);
@@ -2,8 +2,25 @@ package org.example.Repositories;
 
 import org.example.Entities.MonthlyReports;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface MonthlyReportsRepository extends JpaRepository<MonthlyReports,Long> {
+
+    List<MonthlyReports> findByReportMonthBetweenOrderByReportMonthAscBranchAsc(LocalDate startMonth, LocalDate endMonth);
+
+    List<MonthlyReports> findByBranchAndReportMonthBetweenOrderByReportMonthAsc(String branch, LocalDate startMonth, LocalDate endMonth);
+
+    @Query("SELECT MAX(m.reportMonth) FROM MonthlyReports m")
+    LocalDate findLatestReportMonth();
+
+    @Modifying
+    @Query("DELETE FROM MonthlyReports m WHERE m.reportMonth >= :startMonth")
+    int deleteByReportMonthFrom(@Param("startMonth") LocalDate startMonth);
 }
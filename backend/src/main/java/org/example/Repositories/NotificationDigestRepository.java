@@ -0,0 +1,144 @@
+package org.example.Repositories;
+
+import org.example.DTOs.DigestItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notification Digest Repository
+ * Pending client reminder lines (notification_digest_items), combined per client by NotificationDigestService.
+ */
+@Repository
+public class NotificationDigestRepository {
+
+    private static final RowMapper<DigestItem> ROW_MAPPER = (rs, rowNum) -> new DigestItem(
+            rs.getLong("id"),
+            rs.getLong("client_id"),
+            rs.getObject("digest_date", LocalDate.class),
+            rs.getString("notification_type"),
+            rs.getLong("loan_id"),
+            rs.getString("loan_number"),
+            rs.getString("line"));
+
+    /**
+     * Where a client's digest goes: the user's email and the person's phone number (either may be null)
+     */
+    public record ClientContact(String email, String phone) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Add reminder lines; a line already added for the same client, day, type and loan is skipped
+     *
+     * @return number of lines added
+     */
+    public int addAll(List<DigestItem> items, LocalDateTime now) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate("""
+            INSERT IGNORE INTO notification_digest_items
+                (client_id, digest_date, notification_type, loan_id, loan_number, line, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """, items, 500, (ps, item) -> {
+            ps.setLong(1, item.getClientId());
+            ps.setDate(2, Date.valueOf(item.getDigestDate()));
+            ps.setString(3, item.getNotificationType());
+            ps.setLong(4, item.getLoanId());
+            ps.setString(5, item.getLoanNumber());
+            ps.setString(6, item.getLine());
+            ps.setObject(7, now);
+        });
+        int added = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                added += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Clients whose newest pending line was added before the cutoff (no more lines expected for this run)
+     */
+    public List<Long> findClientsReady(LocalDateTime addedBefore, int limit) {
+        return jdbcTemplate.queryForList("""
+            SELECT client_id
+            FROM notification_digest_items
+            WHERE digested_at IS NULL
+            GROUP BY client_id
+            HAVING MAX(created_at) < ?
+            ORDER BY MIN(created_at)
+            LIMIT ?
+            """, Long.class, addedBefore, limit);
+    }
+
+    public List<DigestItem> findPendingForClients(Collection<Long> clientIds) {
+        if (clientIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return namedParameterJdbcTemplate.query("""
+            SELECT id, client_id, digest_date, notification_type, loan_id, loan_number, line
+            FROM notification_digest_items
+            WHERE digested_at IS NULL AND client_id IN (:clientIds)
+            ORDER BY client_id, id
+            """, new MapSqlParameterSource("clientIds", clientIds), ROW_MAPPER);
+    }
+
+    /**
+     * Email and phone per client (users.id); clients without a user row are missing from the map
+     */
+    public Map<Long, ClientContact> findContacts(Collection<Long> clientIds) {
+        Map<Long, ClientContact> contacts = new HashMap<>();
+        if (clientIds.isEmpty()) {
+            return contacts;
+        }
+        namedParameterJdbcTemplate.query("""
+            SELECT u.id, u.email, p.contact
+            FROM users u
+            LEFT JOIN persons p ON p.id = u.person_id
+            WHERE u.id IN (:clientIds)
+            """, new MapSqlParameterSource("clientIds", clientIds), rs -> {
+            contacts.put(rs.getLong("id"), new ClientContact(blankToNull(rs.getString("email")),
+                    blankToNull(rs.getString("contact"))));
+        });
+        return contacts;
+    }
+
+    public void markDigested(Collection<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.update("""
+            UPDATE notification_digest_items SET digested_at = :now WHERE id IN (:ids)
+            """, new MapSqlParameterSource("now", now).addValue("ids", ids));
+    }
+
+    public int deleteDigestedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(
+                "DELETE FROM notification_digest_items WHERE digested_at IS NOT NULL AND digested_at < ?", cutoff);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
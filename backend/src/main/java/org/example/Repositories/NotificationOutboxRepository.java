@@ -0,0 +1,177 @@
+package org.example.Repositories;
+
+import org.example.DTOs.OutboundNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notification Outbox Repository
+ * Queued client notifications (notification_outbox) and their delivery state.
+ */
+@Repository
+public class NotificationOutboxRepository {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENDING = "SENDING";
+    public static final String SENT = "SENT";
+    public static final String DEAD = "DEAD";
+
+    private static final RowMapper<OutboundNotification> ROW_MAPPER = (rs, rowNum) -> new OutboundNotification(
+            rs.getLong("id"),
+            rs.getString("channel"),
+            rs.getString("recipient"),
+            rs.getString("subject"),
+            rs.getString("body"),
+            rs.getString("notification_type"),
+            rs.getObject("loan_id") != null ? rs.getLong("loan_id") : null,
+            rs.getString("dedupe_key"),
+            rs.getInt("attempts"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Queue messages in JDBC batches; messages whose dedupe_key is already queued are skipped
+     *
+     * @return number of messages queued
+     */
+    public int enqueueAll(List<OutboundNotification> messages, LocalDateTime now) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate("""
+            INSERT IGNORE INTO notification_outbox
+                (channel, recipient, subject, body, notification_type, loan_id, dedupe_key,
+                 status, attempts, next_attempt_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, 'PENDING', 0, ?, ?)
+            """, messages, 500, (ps, message) -> {
+            ps.setString(1, message.getChannel());
+            ps.setString(2, message.getRecipient());
+            ps.setString(3, message.getSubject());
+            ps.setString(4, message.getBody());
+            ps.setString(5, message.getNotificationType());
+            ps.setObject(6, message.getLoanId());
+            ps.setString(7, message.getDedupeKey());
+            ps.setObject(8, now);
+            ps.setObject(9, now);
+        });
+        int queued = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Rewritten batches report SUCCESS_NO_INFO instead of a row count
+                queued += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Claim up to limit due messages of a channel for this node (skipped by other nodes' claims)
+     */
+    public List<OutboundNotification> claimDue(String channel, String claimToken, int limit, LocalDateTime now) {
+        int claimed = jdbcTemplate.update("""
+            UPDATE notification_outbox
+            SET status = 'SENDING', claim_token = ?, claimed_at = ?
+            WHERE status = 'PENDING' AND channel = ? AND next_attempt_at <= ?
+            ORDER BY next_attempt_at, id
+            LIMIT ?
+            """, claimToken, now, channel, now, limit);
+        if (claimed == 0) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query("""
+            SELECT id, channel, recipient, subject, body, notification_type, loan_id, dedupe_key, attempts
+            FROM notification_outbox
+            WHERE claim_token = ? AND status = 'SENDING'
+            ORDER BY id
+            """, ROW_MAPPER, claimToken);
+    }
+
+    public void markSent(List<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+            UPDATE notification_outbox
+            SET status = 'SENT', attempts = attempts + 1, sent_at = ?, claim_token = NULL, last_error = NULL
+            WHERE id = ?
+            """, ids, 500, (ps, id) -> {
+            ps.setObject(1, now);
+            ps.setLong(2, id);
+        });
+    }
+
+    /**
+     * Put a failed message back in the queue for another attempt at nextAttemptAt
+     */
+    public void markRetry(Long id, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update("""
+            UPDATE notification_outbox
+            SET status = 'PENDING', attempts = attempts + 1, next_attempt_at = ?, claim_token = NULL, last_error = ?
+            WHERE id = ?
+            """, nextAttemptAt, truncate(error), id);
+    }
+
+    /**
+     * Dead-letter a message that failed its last attempt
+     */
+    public void markDead(Long id, String error) {
+        jdbcTemplate.update("""
+            UPDATE notification_outbox
+            SET status = 'DEAD', attempts = attempts + 1, claim_token = NULL, last_error = ?
+            WHERE id = ?
+            """, truncate(error), id);
+    }
+
+    /**
+     * Return messages claimed by a node that stopped before finishing them
+     */
+    public int releaseStaleClaims(LocalDateTime claimedBefore) {
+        return jdbcTemplate.update("""
+            UPDATE notification_outbox
+            SET status = 'PENDING', claim_token = NULL
+            WHERE status = 'SENDING' AND claimed_at < ?
+            """, claimedBefore);
+    }
+
+    /**
+     * Queue dead-lettered messages again with a fresh attempt budget
+     */
+    public int requeueDead(LocalDateTime now) {
+        return jdbcTemplate.update("""
+            UPDATE notification_outbox
+            SET status = 'PENDING', attempts = 0, next_attempt_at = ?
+            WHERE status = 'DEAD'
+            """, now);
+    }
+
+    public int deleteSentBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM notification_outbox WHERE status = 'SENT' AND sent_at < ?", cutoff);
+    }
+
+    /**
+     * Message counts per channel and status
+     */
+    public List<Map<String, Object>> countByChannelAndStatus() {
+        return jdbcTemplate.queryForList("""
+            SELECT channel, status, COUNT(*) AS count, MIN(next_attempt_at) AS oldest_due
+            FROM notification_outbox
+            GROUP BY channel, status
+            """);
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
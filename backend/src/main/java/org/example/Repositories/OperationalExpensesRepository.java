@@ -1,6 +1,7 @@
 package org.example.Repositories;
 
 import org.example.Entities.OperationalExpenses;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -72,4 +73,14 @@ public interface OperationalExpensesRepository extends JpaRepository<Operational
     // Find by approval status and payment status with category loaded
     @EntityGraph(attributePaths = {"category"})
     List<OperationalExpenses> findByApprovalStatusAndPaymentStatus(String approvalStatus, String paymentStatus);
+    
+    // Expenses without an 8-character reference, in id order after afterId (keyset chunks for the ID migration)
+    @Query("SELECT e FROM OperationalExpenses e WHERE e.id > :afterId AND " +
+           "(e.expenseReference IS NULL OR LENGTH(e.expenseReference) <> 8 OR e.expenseReference LIKE '%-%') ORDER BY e.id")
+    List<OperationalExpenses> findNeedingIdMigration(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Count expenses without an 8-character reference
+    @Query("SELECT COUNT(e) FROM OperationalExpenses e WHERE " +
+           "e.expenseReference IS NULL OR LENGTH(e.expenseReference) <> 8 OR e.expenseReference LIKE '%-%'")
+    long countNeedingIdMigration();
 }
@@ -71,4 +71,41 @@ public interface OtpCodeRepository extends JpaRepository<OtpCode, Long> {
         @Param("purpose") String purpose,
         @Param("now") LocalDateTime now
     );
+    
+    /**
+     * Count one verification attempt unless the limit is reached (atomic across nodes)
+     * @return 1 if the attempt was counted, 0 if max attempts were already used
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OtpCode o SET o.attemptCount = o.attemptCount + 1, o.lastAttemptAt = :now " +
+           "WHERE o.id = :id AND o.attemptCount < :maxAttempts")
+    int incrementAttemptIfBelow(
+        @Param("id") Long id,
+        @Param("maxAttempts") int maxAttempts,
+        @Param("now") LocalDateTime now
+    );
+    
+    /**
+     * Mark an OTP as used if nobody else did first
+     * @return 1 if this call consumed the OTP
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OtpCode o SET o.isUsed = true WHERE o.id = :id AND o.isUsed = false")
+    int markUsed(@Param("id") Long id);
+    
+    /**
+     * Write the attempt count and used flag kept in memory (write-behind audit)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OtpCode o SET o.attemptCount = :attemptCount, o.isUsed = :used, o.lastAttemptAt = :lastAttemptAt " +
+           "WHERE o.id = :id")
+    int updateState(
+        @Param("id") Long id,
+        @Param("attemptCount") int attemptCount,
+        @Param("used") boolean used,
+        @Param("lastAttemptAt") LocalDateTime lastAttemptAt
+    );
 }
@@ -0,0 +1,91 @@
+package org.example.Repositories;
+
+import org.example.DTOs.PaymentTrendPoint;
+import org.example.enums.TrendGranularity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment Trend Repository
+ * Date-bucketed payment aggregates computed by the database (GROUP BY bucket)
+ * instead of loading every payment row into memory.
+ */
+@Repository
+public class PaymentTrendRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Sum payments per time bucket between startDate and endDate (inclusive).
+     * Only buckets containing at least one payment are returned, ordered by bucket start.
+     */
+    public List<PaymentTrendPoint> findTrendPoints(TrendGranularity granularity, LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT
+                %s AS bucket_start,
+                COUNT(*) AS payment_count,
+                COALESCE(SUM(amount_paid), 0) AS total_amount,
+                COALESCE(SUM(principal_paid), 0) AS principal_paid,
+                COALESCE(SUM(interest_paid), 0) AS interest_paid,
+                COALESCE(SUM(fees_paid), 0) AS fees_paid
+            FROM loan_payments
+            WHERE payment_date BETWEEN ? AND ?
+            GROUP BY bucket_start
+            ORDER BY bucket_start
+            """.formatted(bucketExpression(granularity));
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            LocalDate bucketStart = rs.getDate("bucket_start").toLocalDate();
+            return new PaymentTrendPoint(
+                    granularity.label(bucketStart),
+                    bucketStart,
+                    granularity.bucketEnd(bucketStart),
+                    rs.getLong("payment_count"),
+                    rs.getDouble("total_amount"),
+                    rs.getDouble("principal_paid"),
+                    rs.getDouble("interest_paid"),
+                    rs.getDouble("fees_paid"));
+        }, startDate, endDate);
+    }
+
+    /**
+     * Payment counts, late counts and amounts grouped by method and status.
+     * Backs the legacy /api/payments/analytics endpoint.
+     */
+    public List<Map<String, Object>> getPaymentBreakdown(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT
+                COALESCE(payment_method, 'Unknown') AS payment_method,
+                COALESCE(payment_status, 'Unknown') AS payment_status,
+                COUNT(*) AS payment_count,
+                SUM(CASE WHEN late = 1 THEN 1 ELSE 0 END) AS late_count,
+                COALESCE(SUM(amount_paid), 0) AS total_amount
+            FROM loan_payments
+            WHERE payment_date BETWEEN ? AND ?
+            GROUP BY COALESCE(payment_method, 'Unknown'), COALESCE(payment_status, 'Unknown')
+            """;
+        return jdbcTemplate.queryForList(sql, startDate, endDate);
+    }
+
+    /**
+     * SQL expression mapping payment_date to the first day of its bucket (MySQL)
+     */
+    private String bucketExpression(TrendGranularity granularity) {
+        switch (granularity) {
+            case WEEKLY:
+                return "DATE_SUB(payment_date, INTERVAL WEEKDAY(payment_date) DAY)";
+            case MONTHLY:
+                return "DATE_SUB(payment_date, INTERVAL DAYOFMONTH(payment_date) - 1 DAY)";
+            case YEARLY:
+                return "MAKEDATE(YEAR(payment_date), 1)";
+            default:
+                return "payment_date";
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.Repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Portfolio Risk Repository
+ * Grouped loan_tracking aggregates for PAR aging, risk bands and top defaulters
+ */
+@Repository
+public class PortfolioRiskRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loan counts and outstanding balances grouped by branch, officer, active flag,
+     * aging bucket, risk band and behaviour band - a single pass over loan_tracking.
+     *
+     * aging_bucket: 0 = not late, i = days late within (boundaries[i-2], boundaries[i-1]],
+     *               boundaries.length + 1 = beyond the last boundary
+     * risk_band:    -1 = unscored, 0 = <=20, 1 = <=50, 2 = <=75, 3 = >75
+     * behavior_band: -1 = unscored, 0 = >=90, 1 = >=70, 2 = >=50, 3 = <50
+     */
+    public List<Map<String, Object>> getRiskAggregates(int[] agingBoundaries) {
+        StringBuilder agingCase = new StringBuilder("CASE WHEN COALESCE(t.days_late, 0) <= 0 THEN 0");
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < agingBoundaries.length; i++) {
+            agingCase.append(" WHEN t.days_late <= ? THEN ").append(i + 1);
+            args.add(agingBoundaries[i]);
+        }
+        agingCase.append(" ELSE ").append(agingBoundaries.length + 1).append(" END");
+
+        String sql = """
+            SELECT
+                l.lending_branch AS branch,
+                l.created_by_id AS officer_id,
+                CASE WHEN t.loan_status = 'ACTIVE' THEN 1 ELSE 0 END AS active,
+                %s AS aging_bucket,
+                CASE
+                    WHEN t.default_risk_score IS NULL THEN -1
+                    WHEN t.default_risk_score <= 20 THEN 0
+                    WHEN t.default_risk_score <= 50 THEN 1
+                    WHEN t.default_risk_score <= 75 THEN 2
+                    ELSE 3
+                END AS risk_band,
+                CASE
+                    WHEN t.payment_behavior_score IS NULL THEN -1
+                    WHEN t.payment_behavior_score >= 90 THEN 0
+                    WHEN t.payment_behavior_score >= 70 THEN 1
+                    WHEN t.payment_behavior_score >= 50 THEN 2
+                    ELSE 3
+                END AS behavior_band,
+                COUNT(*) AS loan_count,
+                COALESCE(SUM(t.outstanding_balance), 0) AS outstanding
+            FROM loan_tracking t
+            LEFT JOIN loan_details l ON l.id = t.loan_id
+            GROUP BY branch, officer_id, active, aging_bucket, risk_band, behavior_band
+            """.formatted(agingCase);
+
+        return jdbcTemplate.queryForList(sql, args.toArray());
+    }
+
+    /**
+     * Clients with the most late loans, with their total outstanding balance across all loans
+     */
+    public List<Map<String, Object>> getTopDefaulters(int limit) {
+        String sql = """
+            SELECT
+                client_id,
+                SUM(CASE WHEN is_late = 1 THEN 1 ELSE 0 END) AS late_loans_count,
+                COALESCE(SUM(outstanding_balance), 0) AS total_outstanding
+            FROM loan_tracking
+            GROUP BY client_id
+            HAVING SUM(CASE WHEN is_late = 1 THEN 1 ELSE 0 END) > 0
+            ORDER BY late_loans_count DESC, total_outstanding DESC
+            LIMIT ?
+            """;
+        return jdbcTemplate.queryForList(sql, limit);
+    }
+}
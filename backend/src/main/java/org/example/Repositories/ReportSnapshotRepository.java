@@ -0,0 +1,184 @@
+package org.example.Repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report Snapshot Repository
+ * Per-day, per-branch aggregates over a date range for the end-of-day close.
+ * Every query returns rows keyed by report_date and branch (NULL/blank branches become 'Unassigned').
+ */
+@Repository
+public class ReportSnapshotRepository {
+
+    private static final String LOAN_BRANCH = "COALESCE(NULLIF(l.lending_branch, ''), 'Unassigned')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loans released per day: count and principal
+     */
+    public List<Map<String, Object>> getDisbursements(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT l.release_date AS report_date, %s AS branch,
+                   COUNT(*) AS loan_count,
+                   COALESCE(SUM(l.principal_amount), 0) AS amount
+            FROM loan_details l
+            WHERE l.release_date BETWEEN ? AND ?
+            GROUP BY report_date, branch
+            """.formatted(LOAN_BRANCH);
+        return jdbcTemplate.queryForList(sql, startDate, endDate);
+    }
+
+    /**
+     * Loans created per day
+     */
+    public List<Map<String, Object>> getNewLoans(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT DATE(l.created_at) AS report_date, %s AS branch,
+                   COUNT(*) AS loan_count
+            FROM loan_details l
+            WHERE l.created_at >= ? AND l.created_at < ?
+            GROUP BY report_date, branch
+            """.formatted(LOAN_BRANCH);
+        return jdbcTemplate.queryForList(sql, startDate, endDate.plusDays(1));
+    }
+
+    /**
+     * Repayments per day split into principal, interest, fees and penalties
+     */
+    public List<Map<String, Object>> getCollections(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT p.payment_date AS report_date, %s AS branch,
+                   COUNT(*) AS payment_count,
+                   COALESCE(SUM(p.amount_paid), 0) AS amount,
+                   COALESCE(SUM(p.principal_paid), 0) AS principal,
+                   COALESCE(SUM(p.interest_paid), 0) AS interest,
+                   COALESCE(SUM(p.fees_paid), 0) AS fees,
+                   COALESCE(SUM(p.penalty_income), 0) AS penalties
+            FROM loan_payments p
+            LEFT JOIN loan_details l ON l.id = p.loan_id
+            WHERE p.payment_date BETWEEN ? AND ?
+            GROUP BY report_date, branch
+            """.formatted(LOAN_BRANCH);
+        return jdbcTemplate.queryForList(sql, startDate, endDate);
+    }
+
+    /**
+     * Loans completed per day
+     */
+    public List<Map<String, Object>> getClosures(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT t.actual_completion_date AS report_date, %s AS branch,
+                   COUNT(*) AS loan_count
+            FROM loan_tracking t
+            LEFT JOIN loan_details l ON l.id = t.loan_id
+            WHERE t.actual_completion_date BETWEEN ? AND ?
+            GROUP BY report_date, branch
+            """.formatted(LOAN_BRANCH);
+        return jdbcTemplate.queryForList(sql, startDate, endDate);
+    }
+
+    /**
+     * Loans maturing per day that were not fully paid by their maturity date
+     */
+    public List<Map<String, Object>> getPastMaturity(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT m.maturity_date AS report_date, m.branch,
+                   COUNT(*) AS loan_count,
+                   COALESCE(SUM(m.total_payable), 0) AS amount
+            FROM (
+                SELECT l.id, %s AS branch, l.total_payable,
+                       DATE_ADD(l.payment_start_date, INTERVAL l.loan_duration_days DAY) AS maturity_date
+                FROM loan_details l
+                WHERE DATE_ADD(l.payment_start_date, INTERVAL l.loan_duration_days DAY) BETWEEN ? AND ?
+            ) m
+            WHERE (SELECT COALESCE(SUM(p.amount_paid), 0)
+                   FROM loan_payments p
+                   WHERE p.loan_id = m.id AND p.payment_date <= m.maturity_date) < m.total_payable
+            GROUP BY report_date, m.branch
+            """.formatted(LOAN_BRANCH);
+        return jdbcTemplate.queryForList(sql, startDate, endDate);
+    }
+
+    /**
+     * Expenses per day, attributed to the branch of the user who requested them
+     */
+    public List<Map<String, Object>> getExpenses(LocalDate startDate, LocalDate endDate) {
+        String sql = """
+            SELECT e.expense_date AS report_date,
+                   COALESCE(NULLIF(u.branch, ''), 'Unassigned') AS branch,
+                   COALESCE(SUM(e.amount), 0) AS amount
+            FROM operational_expenses e
+            LEFT JOIN users u ON u.id = e.requested_by_user_id
+            WHERE e.expense_date BETWEEN ? AND ?
+            AND COALESCE(e.approval_status, '') <> 'REJECTED'
+            AND COALESCE(e.status, '') <> 'cancelled'
+            GROUP BY report_date, branch
+            """;
+        return jdbcTemplate.queryForList(sql, startDate, endDate);
+    }
+
+    /**
+     * Current arrears per branch: outstanding balance and count of late active loans.
+     * Point-in-time only, so it is recorded for the day being closed.
+     */
+    public List<Map<String, Object>> getCurrentArrears() {
+        String sql = """
+            SELECT %s AS branch,
+                   COUNT(*) AS loan_count,
+                   COALESCE(SUM(t.outstanding_balance), 0) AS amount
+            FROM loan_tracking t
+            LEFT JOIN loan_details l ON l.id = t.loan_id
+            WHERE t.is_late = 1 AND t.loan_status = 'ACTIVE'
+            GROUP BY branch
+            """.formatted(LOAN_BRANCH);
+        return jdbcTemplate.queryForList(sql);
+    }
+
+    /**
+     * Branch names that get a daily row even on days without activity: every branch plus every branch
+     * value used by a loan (including Unassigned)
+     */
+    public List<String> getKnownBranches() {
+        String sql = """
+            SELECT branch_name AS branch FROM branches WHERE branch_name IS NOT NULL AND branch_name <> ''
+            UNION
+            SELECT DISTINCT %s AS branch FROM loan_details l
+            """.formatted(LOAN_BRANCH);
+        return jdbcTemplate.queryForList(sql, String.class);
+    }
+
+    /**
+     * Record that a closed day changed. Only inserts when a snapshot exists on or after the date, so
+     * writes dated after the last close cost a single indexed lookup.
+     */
+    public void markReopened(LocalDate date) {
+        String sql = """
+            INSERT IGNORE INTO report_reopened_days (report_date, reopened_at)
+            SELECT ?, NOW(6) FROM DUAL
+            WHERE EXISTS (SELECT 1 FROM daily_reports WHERE report_date >= ?)
+            """;
+        jdbcTemplate.update(sql, date, date);
+    }
+
+    /**
+     * Earliest reopened day, or null when no closed day changed since the last close
+     */
+    public LocalDate getEarliestReopenedDay() {
+        return jdbcTemplate.queryForObject("SELECT MIN(report_date) FROM report_reopened_days", LocalDate.class);
+    }
+
+    /**
+     * Forget the reopened days up to and including lastDay once they have been closed again
+     */
+    public int clearReopenedDays(LocalDate lastDay) {
+        return jdbcTemplate.update("DELETE FROM report_reopened_days WHERE report_date <= ?", lastDay);
+    }
+}
@@ -1,14 +1,10 @@
 package org.example.Repositories;
 
-import org.example.DTOs.DashboardStatistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-import java.util.Map;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 
 @Repository
 public class StatisticsRepository {
@@ -294,133 +290,6 @@ public class StatisticsRepository {
         }
     }
 
-    // === TIME-BASED ANALYTICS ===
-
-    /**
-     * Get monthly loans released data for charts
-     */
-    public List<DashboardStatistics.MonthlyData> getMonthlyLoansReleased() {
-        try {
-            String sql = """
-                SELECT 
-                    MONTHNAME(payment_start_date) as month,
-                    YEAR(payment_start_date) as year,
-                    MONTH(payment_start_date) as month_number,
-                    COALESCE(SUM(amount_disbursed), 0) as amount,
-                    COUNT(*) as count
-                FROM loan_details 
-                WHERE payment_start_date >= DATE_SUB(NOW(), INTERVAL 12 MONTH)
-                GROUP BY YEAR(payment_start_date), MONTH(payment_start_date)
-                ORDER BY year DESC, month_number DESC
-                LIMIT 12
-                """;
-            
-            List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
-            List<DashboardStatistics.MonthlyData> result = new ArrayList<>();
-            
-            for (Map<String, Object> row : rows) {
-                DashboardStatistics.MonthlyData monthlyData = new DashboardStatistics.MonthlyData();
-                monthlyData.setMonth((String) row.get("month"));
-                monthlyData.setYear((Integer) row.get("year"));
-                monthlyData.setMonthNumber((Integer) row.get("month_number"));
-                monthlyData.setAmount(((Number) row.get("amount")).doubleValue());
-                monthlyData.setCount(((Number) row.get("count")).longValue());
-                monthlyData.setMonthYear(monthlyData.getMonth() + " " + monthlyData.getYear());
-                result.add(monthlyData);
-            }
-            
-            return result;
-        } catch (Exception e) {
-            return new ArrayList<>();
-        }
-    }
-
-    /**
-     * Get monthly collections data for charts
-     */
-    public List<DashboardStatistics.MonthlyData> getMonthlyCollections() {
-        try {
-            String sql = """
-                SELECT 
-                    MONTHNAME(payment_date) as month,
-                    YEAR(payment_date) as year,
-                    MONTH(payment_date) as month_number,
-                    COALESCE(SUM(amount_paid), 0) as amount,
-                    COUNT(*) as count
-                FROM loan_payments 
-                WHERE payment_date >= DATE_SUB(NOW(), INTERVAL 12 MONTH)
-                GROUP BY YEAR(payment_date), MONTH(payment_date)
-                ORDER BY year DESC, month_number DESC
-                LIMIT 12
-                """;
-            
-            List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
-            List<DashboardStatistics.MonthlyData> result = new ArrayList<>();
-            
-            for (Map<String, Object> row : rows) {
-                DashboardStatistics.MonthlyData monthlyData = new DashboardStatistics.MonthlyData();
-                monthlyData.setMonth((String) row.get("month"));
-                monthlyData.setYear((Integer) row.get("year"));
-                monthlyData.setMonthNumber((Integer) row.get("month_number"));
-                monthlyData.setAmount(((Number) row.get("amount")).doubleValue());
-                monthlyData.setCount(((Number) row.get("count")).longValue());
-                monthlyData.setMonthYear(monthlyData.getMonth() + " " + monthlyData.getYear());
-                result.add(monthlyData);
-            }
-            
-            return result;
-        } catch (Exception e) {
-            return new ArrayList<>();
-        }
-    }
-
-    /**
-     * Get monthly past maturity loans count for charts
-     */
-    public List<DashboardStatistics.MonthlyData> getMonthlyPastMaturityLoans() {
-        try {
-            String sql = """
-                SELECT 
-                    MONTHNAME(DATE_ADD(payment_start_date, INTERVAL loan_duration_days DAY)) as month,
-                    YEAR(DATE_ADD(payment_start_date, INTERVAL loan_duration_days DAY)) as year,
-                    MONTH(DATE_ADD(payment_start_date, INTERVAL loan_duration_days DAY)) as month_number,
-                    COUNT(*) as count,
-                    COALESCE(SUM(total_payable), 0) as amount
-                FROM loan_details l
-                LEFT JOIN (
-                    SELECT loan_id, COALESCE(SUM(amount_paid), 0) as total_paid 
-                    FROM loan_payments 
-                    GROUP BY loan_id
-                ) p ON l.id = p.loan_id
-                WHERE DATE_ADD(l.payment_start_date, INTERVAL l.loan_duration_days DAY) >= DATE_SUB(NOW(), INTERVAL 12 MONTH)
-                AND DATE_ADD(l.payment_start_date, INTERVAL l.loan_duration_days DAY) <= NOW()
-                AND COALESCE(p.total_paid, 0) < l.total_payable
-                GROUP BY YEAR(DATE_ADD(payment_start_date, INTERVAL loan_duration_days DAY)), 
-                         MONTH(DATE_ADD(payment_start_date, INTERVAL loan_duration_days DAY))
-                ORDER BY year DESC, month_number DESC
-                LIMIT 12
-                """;
-            
-            List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
-            List<DashboardStatistics.MonthlyData> result = new ArrayList<>();
-            
-            for (Map<String, Object> row : rows) {
-                DashboardStatistics.MonthlyData monthlyData = new DashboardStatistics.MonthlyData();
-                monthlyData.setMonth((String) row.get("month"));
-                monthlyData.setYear((Integer) row.get("year"));
-                monthlyData.setMonthNumber((Integer) row.get("month_number"));
-                monthlyData.setCount(((Number) row.get("count")).longValue());
-                monthlyData.setAmount(((Number) row.get("amount")).doubleValue());
-                monthlyData.setMonthYear(monthlyData.getMonth() + " " + monthlyData.getYear());
-                result.add(monthlyData);
-            }
-            
-            return result;
-        } catch (Exception e) {
-            return new ArrayList<>();
-        }
-    }
-
     // === SYSTEM INFO ===
 
     public Boolean isSetupCompleted() {
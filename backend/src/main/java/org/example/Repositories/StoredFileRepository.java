@@ -0,0 +1,53 @@
+package org.example.Repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stored File Repository
+ * Reference counts of the files in content-addressed storage (stored_files), keyed by SHA-256.
+ */
+@Repository
+public class StoredFileRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Count one more reference to the content, creating its row on first use
+     */
+    public void addReference(String hash, long size, String contentType, LocalDateTime now) {
+        jdbcTemplate.update("""
+            INSERT INTO stored_files (content_hash, size_bytes, content_type, ref_count, created_at, last_referenced_at)
+            VALUES (?, ?, ?, 1, ?, ?)
+            ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, last_referenced_at = VALUES(last_referenced_at)
+            """, hash, size, contentType, now, now);
+    }
+
+    /**
+     * Drop one reference
+     *
+     * @return true if this was the last one and the row was removed (the file can be deleted)
+     */
+    public boolean releaseReference(String hash) {
+        jdbcTemplate.update(
+                "UPDATE stored_files SET ref_count = ref_count - 1 WHERE content_hash = ? AND ref_count > 0", hash);
+        return jdbcTemplate.update("DELETE FROM stored_files WHERE content_hash = ? AND ref_count = 0", hash) > 0;
+    }
+
+    public int findRefCount(String hash) {
+        List<Integer> counts = jdbcTemplate.queryForList(
+                "SELECT ref_count FROM stored_files WHERE content_hash = ?", Integer.class, hash);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    public String findContentType(String hash) {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT content_type FROM stored_files WHERE content_hash = ?", String.class, hash);
+        return types.isEmpty() ? null : types.get(0);
+    }
+}
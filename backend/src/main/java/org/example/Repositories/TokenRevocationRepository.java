@@ -0,0 +1,42 @@
+package org.example.Repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token Revocation Repository
+ * Revoked JWTs (token_revocations): one row per revoked token id or per revoked user.
+ */
+@Repository
+public class TokenRevocationRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insert(String tokenId, Long userId, String reason, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        jdbcTemplate.update("""
+            INSERT INTO token_revocations (token_id, user_id, reason, revoked_at, expires_at)
+            VALUES (?, ?, ?, ?, ?)
+            """, tokenId, userId, reason, revokedAt, expiresAt);
+    }
+
+    /**
+     * Revocations that can still affect an unexpired token
+     */
+    public List<Map<String, Object>> findActive(LocalDateTime now) {
+        return jdbcTemplate.queryForList("""
+            SELECT token_id, user_id, revoked_at
+            FROM token_revocations
+            WHERE expires_at > ?
+            """, now);
+    }
+
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update("DELETE FROM token_revocations WHERE expires_at <= ?", now);
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.Scheduler;
 
 import org.example.Services.InstallmentScheduleService;
+import org.example.Services.NotificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +30,9 @@ public class InstallmentStatusScheduler {
     @Autowired
     private org.example.Repositories.LoanInstallmentScheduleRepository installmentRepository;
     
+    @Autowired
+    private NotificationService notificationService;
+    
     /**
      * Update installment statuses every day at midnight
      * Checks for overdue installments and grace period status
@@ -116,6 +120,9 @@ public class InstallmentStatusScheduler {
             if (!dueTodayInstallments.isEmpty()) {
                 logger.info("Found {} payments due today", dueTodayInstallments.size());
                 
+                // Client reminders, merged per client with LoanTrackingScheduler's into one digest
+                notificationService.sendInstallmentDueReminders(dueTodayInstallments);
+                
                 // Broadcast reminder via WebSocket
                 if (messagingTemplate != null) {
                     Map<String, Object> notification = new HashMap<>();
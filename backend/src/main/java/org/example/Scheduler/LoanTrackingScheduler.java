@@ -1,8 +1,12 @@
 package org.example.Scheduler;
 
+import org.example.DTOs.PortfolioRiskReport;
+import org.example.DTOs.PortfolioRiskReport.AgingBucket;
+import org.example.DTOs.PortfolioRiskReport.RiskSegment;
 import org.example.Entities.LoanTracking;
 import org.example.Services.LoanTrackingService;
 import org.example.Services.NotificationService;
+import org.example.Services.PortfolioRiskService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -27,6 +31,9 @@ public class LoanTrackingScheduler {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private PortfolioRiskService portfolioRiskService;
+    
     /**
      * Check for late loans every day at 1:00 AM
      */
@@ -54,15 +61,9 @@ public class LoanTrackingScheduler {
             System.out.println("- Defaulted Loans: " + defaultedLoans.size());
             System.out.println("- High-Risk Loans: " + highRiskLoans.size());
             
-            // Send notifications for late loans
-            if (!lateLoans.isEmpty()) {
-                notificationService.sendBatchLatePaymentNotifications(lateLoans);
-            }
-            
-            // Send default warnings
-            for (LoanTracking defaulted : defaultedLoans) {
-                notificationService.sendDefaultWarning(defaulted);
-            }
+            // Queue notifications for late loans and default warnings (sent by NotificationDispatcher)
+            notificationService.sendBatchLatePaymentNotifications(lateLoans);
+            notificationService.sendDefaultWarnings(defaultedLoans);
             
         } catch (Exception e) {
             System.err.println("Error in daily late loan check: " + e.getMessage());
@@ -85,10 +86,8 @@ public class LoanTrackingScheduler {
             
             System.out.println("Loans with payments due today: " + dueToday.size());
             
-            // Send payment reminders
-            for (LoanTracking loan : dueToday) {
-                notificationService.sendPaymentDueReminder(loan);
-            }
+            // Queue payment reminders
+            notificationService.sendPaymentDueReminders(dueToday);
             
         } catch (Exception e) {
             System.err.println("Error checking payments due today: " + e.getMessage());
@@ -103,28 +102,25 @@ public class LoanTrackingScheduler {
         System.out.println("=== Weekly Portfolio Health Check at " + LocalDateTime.now() + " ===");
         
         try {
-            Double totalOutstanding = trackingService.getTotalOutstandingBalance();
-            Double par30 = trackingService.getPortfolioAtRisk(30);
-            Double par60 = trackingService.getPortfolioAtRisk(60);
-            Double par90 = trackingService.getPortfolioAtRisk(90);
+            PortfolioRiskReport report = portfolioRiskService.getRiskReport();
+            RiskSegment portfolio = report.getPortfolio();
             
             System.out.println("Portfolio Health Report:");
-            System.out.println("- Total Outstanding: USh " + String.format("%,.2f", totalOutstanding != null ? totalOutstanding : 0.0));
-            System.out.println("- PAR 30: USh " + String.format("%,.2f", par30 != null ? par30 : 0.0));
-            System.out.println("- PAR 60: USh " + String.format("%,.2f", par60 != null ? par60 : 0.0));
-            System.out.println("- PAR 90: USh " + String.format("%,.2f", par90 != null ? par90 : 0.0));
-            
-            // Calculate PAR percentages
-            if (totalOutstanding != null && totalOutstanding > 0) {
-                double par30Pct = (par30 != null ? par30 / totalOutstanding * 100 : 0.0);
-                double par60Pct = (par60 != null ? par60 / totalOutstanding * 100 : 0.0);
-                double par90Pct = (par90 != null ? par90 / totalOutstanding * 100 : 0.0);
-                
-                System.out.println("- PAR 30%: " + String.format("%.2f", par30Pct) + "%");
-                System.out.println("- PAR 60%: " + String.format("%.2f", par60Pct) + "%");
-                System.out.println("- PAR 90%: " + String.format("%.2f", par90Pct) + "%");
+            System.out.println("- Total Outstanding: USh " + String.format("%,.2f", portfolio.getTotalOutstanding()));
+            printPortfolioAtRisk(portfolio, "- ");
+            
+            for (AgingBucket bucket : portfolio.getAging()) {
+                System.out.println("- Aging " + bucket.getLabel() + ": " + bucket.getLoanCount() + " loans, USh "
+                        + String.format("%,.2f", bucket.getOutstanding()));
             }
             
+            System.out.println("Branch Breakdown:");
+            report.getByBranch().forEach((branch, segment) -> {
+                System.out.println("- " + branch + ": " + segment.getActiveLoans() + " active loans, USh "
+                        + String.format("%,.2f", segment.getTotalOutstanding()) + " outstanding");
+                printPortfolioAtRisk(segment, "    ");
+            });
+            
             // TODO: Send weekly report email to management
             
         } catch (Exception e) {
@@ -132,6 +128,12 @@ public class LoanTrackingScheduler {
         }
     }
     
+    private void printPortfolioAtRisk(RiskSegment segment, String indent) {
+        segment.getPortfolioAtRisk().forEach((label, amount) ->
+                System.out.println(indent + label + ": USh " + String.format("%,.2f", amount) + " ("
+                        + String.format("%.2f", segment.getPortfolioAtRiskPercentage().get(label)) + "%)"));
+    }
+    
     /**
      * Monthly metrics recalculation on 1st of each month at 2:00 AM
      */
@@ -164,10 +166,8 @@ public class LoanTrackingScheduler {
             
             System.out.println("Loans maturing in next 7 days: " + approachingMaturity.size());
             
-            // Send maturity reminders
-            for (LoanTracking loan : approachingMaturity) {
-                notificationService.sendMaturityReminder(loan);
-            }
+            // Queue maturity reminders
+            notificationService.sendMaturityReminders(approachingMaturity);
             
         } catch (Exception e) {
             System.err.println("Error checking loans approaching maturity: " + e.getMessage());
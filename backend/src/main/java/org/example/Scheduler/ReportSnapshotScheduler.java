@@ -0,0 +1,35 @@
+package org.example.Scheduler;
+
+import org.example.Services.ReportSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * End-of-day close
+ * Writes the daily (and, at month end, monthly) report snapshots for every day up to yesterday.
+ * Runs after the 1:00 AM late loan check so the recorded arrears reflect the recalculated tracking data.
+ */
+@Component
+public class ReportSnapshotScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportSnapshotScheduler.class);
+    
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+    
+    @Scheduled(cron = "${reports.close-cron:0 30 1 * * *}")
+    public void closeDay() {
+        try {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            int written = reportSnapshotService.closeThrough(yesterday);
+            logger.info("End-of-day close through {} complete - {} snapshot rows written", yesterday, written);
+        } catch (Exception e) {
+            logger.error("Error during end-of-day report close", e);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package org.example.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Async Batch Writer
+ *
+ * Base of the write-behind log writers (AuditLogWriter, ExpenseLogWriter). Records are added to a lock-free
+ * queue and written in JDBC batches by a background thread, when batchSize records are waiting or every
+ * flushIntervalMs, so recording an entry costs the request no database round trip.
+ *
+ * - Backpressure: when capacity records are waiting, the caller writes a batch itself before its record
+ *   is accepted; records are never dropped for lack of space.
+ * - Failures: a batch that fails is retried on the next flush; after 3 failed attempts its records are
+ *   appended to the dead-letter file (one JSON record per line) so one bad row cannot block the queue.
+ *   The file is replayed every minute, row by row; rows that still fail stay in it.
+ * - Shutdown: everything still queued is written (or dead-lettered) before the bean is destroyed.
+ */
+@Slf4j
+public abstract class AsyncBatchWriter<T> {
+
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    private static final long DEAD_LETTER_REPLAY_MS = 60_000;
+
+    private final String name;
+    private final Class<T> type;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Path deadLetterFile;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final List<T> failedBatch = new ArrayList<>();
+    private int failedAttempts;
+    private long lastReplayAt;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong callerFlushes = new AtomicLong();
+
+    private volatile Thread writerThread;
+    private volatile boolean running;
+
+    /**
+     * @param name           thread name and log label, e.g. "audit-log-writer"
+     * @param deadLetterFile where records that could not be written are kept until a replay succeeds
+     */
+    protected AsyncBatchWriter(String name, Class<T> type, int capacity, int batchSize, long flushIntervalMs,
+                               Path deadLetterFile) {
+        this.name = name;
+        this.type = type;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(10, flushIntervalMs);
+        this.deadLetterFile = deadLetterFile;
+    }
+
+    /**
+     * Insert the records in one JDBC batch; throws if the batch could not be written
+     */
+    protected abstract void insertBatch(List<T> batch);
+
+    /**
+     * One-line description of a record for the log when it cannot even be dead-lettered
+     */
+    protected abstract String describe(T record);
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::runWriter, name);
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Queue a record, writing a batch on this thread first if the queue is full
+     */
+    protected void enqueue(T record) {
+        while (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            callerFlushes.incrementAndGet();
+            flush(batchSize);
+        }
+        queue.offer(record);
+        Thread thread = writerThread;
+        if (thread != null && queued.get() >= batchSize) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void runWriter() {
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            try {
+                while (flush(batchSize) >= batchSize && running) {
+                    // Keep writing full batches while the queue is backed up
+                }
+                if (System.currentTimeMillis() - lastReplayAt >= DEAD_LETTER_REPLAY_MS) {
+                    replayDeadLetters();
+                }
+            } catch (Exception e) {
+                log.error("{} error: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write up to maxRecords queued records (plus a previously failed batch) in one JDBC batch
+     *
+     * @return number of records taken from the queue
+     */
+    int flush(int maxRecords) {
+        flushLock.lock();
+        try {
+            List<T> batch = new ArrayList<>(failedBatch);
+            failedBatch.clear();
+            int taken = 0;
+            T next;
+            while (taken < maxRecords && (next = queue.poll()) != null) {
+                queued.decrementAndGet();
+                batch.add(next);
+                taken++;
+            }
+            if (!batch.isEmpty()) {
+                writeOrRetry(batch);
+            }
+            return taken;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeOrRetry(List<T> batch) {
+        try {
+            insertBatch(batch);
+            written.addAndGet(batch.size());
+            failedAttempts = 0;
+        } catch (Exception e) {
+            if (++failedAttempts < MAX_BATCH_ATTEMPTS) {
+                log.warn("{}: batch of {} records failed (attempt {}), retrying: {}",
+                        name, batch.size(), failedAttempts, e.getMessage());
+                failedBatch.addAll(batch);
+            } else {
+                log.error("{}: moving {} records to {} after {} failed attempts: {}",
+                        name, batch.size(), deadLetterFile, failedAttempts, e.getMessage());
+                deadLetter(batch);
+                failedAttempts = 0;
+            }
+        }
+    }
+
+    /**
+     * Append records to the dead-letter file; only if that fails too are they lost (and logged in full)
+     */
+    private void deadLetter(List<T> records) {
+        try {
+            Path parent = deadLetterFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(deadLetterFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (T record : records) {
+                    writer.write(objectMapper.writeValueAsString(record));
+                    writer.newLine();
+                }
+            }
+            deadLettered.addAndGet(records.size());
+        } catch (IOException e) {
+            log.error("{}: could not write dead-letter file {}: {}", name, deadLetterFile, e.getMessage());
+            for (T record : records) {
+                log.error("Unwritten record: {}", describe(record));
+            }
+        }
+    }
+
+    /**
+     * Write dead-lettered records one by one; the ones that still fail are kept in the file
+     *
+     * @return number of records written
+     */
+    int replayDeadLetters() {
+        flushLock.lock();
+        try {
+            lastReplayAt = System.currentTimeMillis();
+            if (!Files.exists(deadLetterFile)) {
+                return 0;
+            }
+            List<String> remaining = new ArrayList<>();
+            int replayed = 0;
+            for (String line : Files.readAllLines(deadLetterFile, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    insertBatch(List.of(objectMapper.readValue(line, type)));
+                    replayed++;
+                } catch (Exception e) {
+                    remaining.add(line);
+                }
+            }
+            if (remaining.isEmpty()) {
+                Files.delete(deadLetterFile);
+            } else {
+                Path temp = deadLetterFile.resolveSibling(deadLetterFile.getFileName() + ".tmp");
+                Files.write(temp, remaining, StandardCharsets.UTF_8);
+                Files.move(temp, deadLetterFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (replayed > 0) {
+                written.addAndGet(replayed);
+                log.info("{}: replayed {} dead-lettered records, {} still pending", name, replayed, remaining.size());
+            }
+            return replayed;
+        } catch (IOException e) {
+            log.warn("{}: could not replay {}: {}", name, deadLetterFile, e.getMessage());
+            return 0;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDeadLettered() {
+        return deadLettered.get();
+    }
+
+    public long getCallerFlushes() {
+        return callerFlushes.get();
+    }
+
+    /**
+     * Stop the writer thread and write everything still queued
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = writerThread;
+        writerThread = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (int attempt = 0; attempt < MAX_BATCH_ATTEMPTS && (queued.get() > 0 || !failedBatch.isEmpty()); attempt++) {
+            while (flush(batchSize) > 0) {
+                // Drain
+            }
+        }
+        if (!failedBatch.isEmpty()) {
+            flushLock.lock();
+            try {
+                deadLetter(new ArrayList<>(failedBatch));
+                failedBatch.clear();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        if (queued.get() > 0 || deadLettered.get() > 0) {
+            log.warn("{} stopped with {} records unwritten ({} moved to {})",
+                    name, queued.get(), deadLettered.get(), deadLetterFile);
+        }
+    }
+}
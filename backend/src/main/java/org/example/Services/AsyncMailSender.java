@@ -0,0 +1,121 @@
+package org.example.Services;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Async Mail Sender
+ *
+ * Sends emails on a bounded pool (mail.async.threads senders, mail.async.queue-capacity waiting) through
+ * MailTransportPool, so request threads return as soon as the message is built. When the queue is full the
+ * caller sends the email itself: slower under overload, but an OTP is never dropped.
+ */
+@Component
+@Slf4j
+public class AsyncMailSender {
+
+    private final MailTransportPool transportPool;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong sentOnCaller = new AtomicLong();
+    private final AtomicLong totalSendNanos = new AtomicLong();
+    private final AtomicLong maxSendNanos = new AtomicLong();
+
+    public AsyncMailSender(MailTransportPool transportPool,
+                           @Value("${mail.async.threads:4}") int threads,
+                           @Value("${mail.async.queue-capacity:500}") int queueCapacity) {
+        this.transportPool = transportPool;
+        AtomicLong threadCount = new AtomicLong();
+        RejectedExecutionHandler runOnCaller = (task, pool) -> {
+            if (!pool.isShutdown()) {
+                sentOnCaller.incrementAndGet();
+                task.run();
+            }
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "mail-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, runOnCaller);
+    }
+
+    /**
+     * Queue the message; failures are logged and counted, not thrown
+     */
+    public void send(MimeMessage message, String description) {
+        queued.incrementAndGet();
+        executor.execute(() -> deliver(message, description));
+    }
+
+    private void deliver(MimeMessage message, String description) {
+        long start = System.nanoTime();
+        try {
+            transportPool.send(message);
+            sent.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("Failed to send {} email: {}", description, e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            totalSendNanos.addAndGet(elapsed);
+            maxSendNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long completed = sent.get() + failed.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queued.get());
+        stats.put("sent", sent.get());
+        stats.put("failed", failed.get());
+        stats.put("sentOnCallerThread", sentOnCaller.get());
+        stats.put("waiting", executor.getQueue().size());
+        stats.put("active", executor.getActiveCount());
+        stats.put("avgSendMs", completed > 0 ? TimeUnit.NANOSECONDS.toMillis(totalSendNanos.get() / completed) : 0);
+        stats.put("maxSendMs", TimeUnit.NANOSECONDS.toMillis(maxSendNanos.get()));
+        stats.put("smtpConnectionsOpened", transportPool.getConnectionsOpened());
+        stats.put("smtpConnectionsIdle", transportPool.getIdleConnections());
+        return stats;
+    }
+
+    /**
+     * Wait until queued emails are sent (tests, shutdown)
+     */
+    boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (executor.getQueue().size() + executor.getActiveCount() > 0 || sent.get() + failed.get() < queued.get()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("{} emails still queued at shutdown were dropped", executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.DTOs.AuditLogPage;
+import org.example.Entities.AuditLog;
+import org.example.Repositories.AuditLogQueryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Audit Log Service
+ *
+ * Reads audit_logs a page at a time, filtered by entity, user and time window, newest first. The cursor
+ * returned with a page is the (timestamp, id) of its last row, so reading page 100 costs the same as page 1.
+ *
+ * Rows older than audit.retention.months are moved to audit_logs_archive (compressed) in chunks, one
+ * transaction per chunk; the archive can be read through the same API. Archived rows older than
+ * audit.archive.retention-months are deleted (0 keeps them forever).
+ */
+@Service
+@Slf4j
+public class AuditLogService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final AuditLogQueryRepository queryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${audit.retention.months:12}")
+    private int retentionMonths = 12;
+
+    @Value("${audit.archive.retention-months:0}")
+    private int archiveRetentionMonths = 0;
+
+    @Value("${audit.retention.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    public AuditLogService(AuditLogQueryRepository queryRepository, PlatformTransactionManager transactionManager) {
+        this.queryRepository = queryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * One page of audit rows
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param limit  page size, capped at MAX_PAGE_SIZE
+     */
+    public AuditLogPage query(String entityType, Long entityId, String performedBy,
+                              LocalDateTime from, LocalDateTime to, boolean archive, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        LocalDateTime afterTimestamp = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            afterTimestamp = LocalDateTime.parse(position[0]);
+            afterId = Long.parseLong(position[1]);
+        }
+
+        // One extra row tells whether another page follows
+        List<AuditLog> rows = queryRepository.findPage(archive, blankToNull(entityType), entityId,
+                blankToNull(performedBy), from, to, afterTimestamp, afterId, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new AuditLogPage(rows, null);
+        }
+        List<AuditLog> page = rows.subList(0, pageSize);
+        return new AuditLogPage(page, encodeCursor(page.get(pageSize - 1)));
+    }
+
+    /**
+     * History of one entity, newest first
+     */
+    public AuditLogPage entityHistory(String entityType, Long entityId, String cursor, Integer limit) {
+        return query(entityType, entityId, null, null, null, false, cursor, limit);
+    }
+
+    /**
+     * Move rows past retention to the archive, then drop archived rows past archive retention
+     *
+     * @return number of rows archived
+     */
+    @Scheduled(cron = "${audit.retention.cron:0 30 2 * * *}")
+    public int archiveExpired() {
+        if (retentionMonths <= 0) {
+            return 0;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(retentionMonths);
+        int archived = 0;
+        try {
+            while (true) {
+                Integer moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                archived += moved;
+                if (moved < chunkSize) {
+                    break;
+                }
+            }
+            if (archived > 0) {
+                log.info("Archived {} audit log rows older than {}", archived, cutoff);
+            }
+            if (archiveRetentionMonths > 0) {
+                purgeArchive(LocalDateTime.now().minusMonths(archiveRetentionMonths));
+            }
+        } catch (Exception e) {
+            log.error("Audit log archiving failed after {} rows: {}", archived, e.getMessage());
+        }
+        return archived;
+    }
+
+    /**
+     * Copy and delete one chunk in one transaction, so a row is never in both tables or in neither
+     */
+    int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = queryRepository.findIdsBefore(cutoff, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        queryRepository.copyToArchive(ids, LocalDateTime.now());
+        return queryRepository.deleteLive(ids);
+    }
+
+    private void purgeArchive(LocalDateTime cutoff) {
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = queryRepository.deleteArchivedBefore(cutoff, chunkSize);
+            purged += deleted;
+        } while (deleted == chunkSize);
+        if (purged > 0) {
+            log.info("Deleted {} archived audit log rows older than {}", purged, cutoff);
+        }
+    }
+
+    static String encodeCursor(AuditLog last) {
+        String position = last.getTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.Services;
+
+import org.example.Entities.AuditLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Audit Log Writer
+ *
+ * Write-behind for audit_logs (see AsyncBatchWriter): audit records are queued and written in JDBC
+ * batches by a background thread, when audit.writer.batch-size records are waiting or every
+ * audit.writer.flush-interval-ms. Records that cannot be written go to audit_logs.jsonl in
+ * audit.writer.dead-letter-dir and are replayed from there.
+ */
+@Component
+public class AuditLogWriter extends AsyncBatchWriter<AuditLog> {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          @Value("${audit.writer.capacity:10000}") int capacity,
+                          @Value("${audit.writer.batch-size:200}") int batchSize,
+                          @Value("${audit.writer.flush-interval-ms:500}") long flushIntervalMs,
+                          @Value("${audit.writer.dead-letter-dir:./data/dead-letters}") Path deadLetterDir) {
+        super("audit-log-writer", AuditLog.class, capacity, batchSize, flushIntervalMs,
+                deadLetterDir.resolve("audit_logs.jsonl"));
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Queue an audit record (timestamp defaults to now)
+     */
+    public void write(String entityType, Long entityId, String action, String performedBy,
+                      String oldValue, String newValue) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEntityType(entityType);
+        auditLog.setEntityId(entityId);
+        auditLog.setAction(action);
+        auditLog.setPerformedBy(performedBy);
+        auditLog.setOldValue(oldValue);
+        auditLog.setNewValue(newValue);
+        write(auditLog);
+    }
+
+    /**
+     * Queue an audit record, writing a batch on this thread first if the queue is full
+     */
+    public void write(AuditLog auditLog) {
+        if (auditLog.getTimestamp() == null) {
+            auditLog.setTimestamp(LocalDateTime.now());
+        }
+        enqueue(auditLog);
+    }
+
+    @Override
+    protected void insertBatch(List<AuditLog> batch) {
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO audit_logs
+                (entity_type, entity_id, action, performed_by, old_value, new_value, `timestamp`, ip_address)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """, batch, batch.size(), (ps, auditLog) -> {
+            ps.setString(1, auditLog.getEntityType());
+            ps.setObject(2, auditLog.getEntityId());
+            ps.setString(3, auditLog.getAction());
+            ps.setString(4, auditLog.getPerformedBy());
+            ps.setString(5, auditLog.getOldValue());
+            ps.setString(6, auditLog.getNewValue());
+            ps.setObject(7, auditLog.getTimestamp());
+            ps.setString(8, auditLog.getIpAddress());
+        });
+    }
+
+    @Override
+    protected String describe(AuditLog auditLog) {
+        return auditLog.getEntityType() + " " + auditLog.getEntityId() + " " + auditLog.getAction() + " by "
+                + auditLog.getPerformedBy() + " at " + auditLog.getTimestamp() + ": " + auditLog.getNewValue();
+    }
+}
@@ -0,0 +1,255 @@
+package org.example.Services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.DTOs.StoredContent;
+import org.example.Repositories.LegacyFileRepository;
+import org.example.Repositories.LegacyFileRepository.LegacyFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Background Storage Migration Job
+ *
+ * Moves files stored before content-addressed storage into the configured BlobStore, in keyset chunks of
+ * storage.migration.chunk-size on a background thread:
+ * 1. receipts in file.upload.receipts-dir: stored by content, the expense relinked, the old file deleted
+ * 2. images under file.upload-dir: the same, also filling images.content_hash
+ * 3. with storage.backend=s3, content files still on this node's disk are uploaded to the bucket
+ *
+ * Relinking only succeeds if the row still points at the old file, so running it on several nodes, or
+ * again after an interruption, is safe; a file that fails is logged and left for the next run.
+ */
+@Service
+@Slf4j
+public class BlobMigrationJob {
+
+    private final LegacyFileRepository legacyFileRepository;
+    private final ContentAddressedStorage contentStorage;
+    private final FileStorageService fileStorageService;
+    private final FileUploadService fileUploadService;
+
+    @Value("${storage.migration.on-startup:false}")
+    private boolean onStartup = false;
+
+    @Value("${storage.migration.chunk-size:100}")
+    private int chunkSize = 100;
+
+    private ExecutorService executor;
+    private volatile boolean stopping;
+
+    // Progress of the run on this node
+    private volatile String state = "IDLE";
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private final AtomicLong receiptsMigrated = new AtomicLong();
+    private final AtomicLong imagesMigrated = new AtomicLong();
+    private final AtomicLong objectsUploaded = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public BlobMigrationJob(LegacyFileRepository legacyFileRepository, ContentAddressedStorage contentStorage,
+                            FileStorageService fileStorageService, FileUploadService fileUploadService) {
+        this.legacyFileRepository = legacyFileRepository;
+        this.contentStorage = contentStorage;
+        this.fileStorageService = fileStorageService;
+        this.fileUploadService = fileUploadService;
+    }
+
+    /**
+     * Start at application startup when storage.migration.on-startup is true
+     */
+    public boolean startIfEnabled() {
+        if (!onStartup) {
+            return false;
+        }
+        return start();
+    }
+
+    /**
+     * Start a background run unless one is running on this node
+     *
+     * @return true if a run was started
+     */
+    public synchronized boolean start() {
+        if ("RUNNING".equals(state)) {
+            return false;
+        }
+        state = "RUNNING";
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "storage-migration");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        executor.submit(this::runMigration);
+        return true;
+    }
+
+    /**
+     * Migrate receipts, images and local objects (runs on the storage-migration thread)
+     */
+    void runMigration() {
+        state = "RUNNING";
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        try {
+            log.info("Storage migration started");
+            boolean finished = migrateAll(legacyFileRepository::findReceipts, this::migrateReceipt)
+                    && migrateAll(legacyFileRepository::findImages, this::migrateImage)
+                    && uploadLocalObjects();
+            state = finished ? "COMPLETE" : "INTERRUPTED";
+            log.info("Storage migration {}. Receipts: {} | Images: {} | Uploaded: {} | Missing: {} | Failed: {}",
+                    finished ? "complete" : "interrupted by shutdown", receiptsMigrated.get(), imagesMigrated.get(),
+                    objectsUploaded.get(), missing.get(), failed.get());
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            state = "FAILED";
+            log.error("Error during storage migration", e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private boolean migrateAll(BiFunction<Long, Integer, List<LegacyFile>> chunk, FileMigration migration) {
+        long afterId = 0;
+        while (!stopping) {
+            List<LegacyFile> files = chunk.apply(afterId, chunkSize);
+            if (files.isEmpty()) {
+                return true;
+            }
+            for (LegacyFile file : files) {
+                try {
+                    migration.migrate(file);
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    lastError = e.getMessage();
+                    log.warn("Could not migrate file {} of row {}: {}", file.path(), file.id(), e.getMessage());
+                }
+            }
+            afterId = files.get(files.size() - 1).id();
+        }
+        return false;
+    }
+
+    private void migrateReceipt(LegacyFile file) throws IOException {
+        String name = file.path();
+        if (ContentAddressedStorage.isContentName(name)) {
+            return;
+        }
+        Path legacy = fileUploadService.resolveReceipt(name);
+        StoredContent stored = store(legacy, fileUploadService.getReceiptContentType(name));
+        if (stored == null) {
+            return;
+        }
+        if (legacyFileRepository.relinkReceipt(file.id(), name, stored.getName())) {
+            Files.deleteIfExists(legacy);
+            receiptsMigrated.incrementAndGet();
+        } else {
+            contentStorage.release(stored.getName());
+        }
+    }
+
+    private void migrateImage(LegacyFile file) throws IOException {
+        String path = file.path();
+        if (ContentAddressedStorage.isContentName(path)) {
+            // Stored by content but linked before content_hash existed
+            legacyFileRepository.relinkImage(file.id(), path, path, ContentAddressedStorage.hashOf(path));
+            return;
+        }
+        Path legacy = fileStorageService.resolve(path);
+        StoredContent stored = store(legacy, file.contentType());
+        if (stored == null) {
+            return;
+        }
+        if (legacyFileRepository.relinkImage(file.id(), path, stored.getName(), stored.getHash())) {
+            Files.deleteIfExists(legacy);
+            imagesMigrated.incrementAndGet();
+        } else {
+            contentStorage.release(stored.getName());
+        }
+    }
+
+    private StoredContent store(Path legacy, String contentType) throws IOException {
+        if (!Files.isRegularFile(legacy)) {
+            missing.incrementAndGet();
+            return null;
+        }
+        String fileName = legacy.getFileName().toString();
+        String extension = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.') + 1) : "";
+        try (InputStream in = Files.newInputStream(legacy)) {
+            return contentStorage.store(in, extension, contentType, Long.MAX_VALUE);
+        }
+    }
+
+    private boolean uploadLocalObjects() throws IOException {
+        if (!contentStorage.isRemote()) {
+            return true;
+        }
+        for (Path object : contentStorage.listLocalObjects()) {
+            if (stopping) {
+                return false;
+            }
+            try {
+                if (contentStorage.pushToRemote(object)) {
+                    objectsUploaded.incrementAndGet();
+                }
+            } catch (IOException e) {
+                failed.incrementAndGet();
+                lastError = e.getMessage();
+                log.warn("Could not upload {}: {}", object.getFileName(), e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Progress of the run on this node
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("state", state);
+        progress.put("remoteStorage", contentStorage.isRemote());
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        progress.put("receiptsMigrated", receiptsMigrated.get());
+        progress.put("imagesMigrated", imagesMigrated.get());
+        progress.put("objectsUploaded", objectsUploaded.get());
+        progress.put("missingFiles", missing.get());
+        progress.put("failed", failed.get());
+        progress.put("lastError", lastError);
+        return progress;
+    }
+
+    /**
+     * Stop after the current chunk on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileMigration {
+        void migrate(LegacyFile file) throws IOException;
+    }
+}
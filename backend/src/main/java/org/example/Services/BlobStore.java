@@ -0,0 +1,51 @@
+package org.example.Services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where stored file content lives (storage.backend): local disk, or an S3-compatible bucket shared by
+ * every node. Keys are relative, slash-separated paths such as "objects/3a/7b/3a7b...e1".
+ */
+public interface BlobStore {
+
+    /**
+     * Store a file under the key. The source is a temp file owned by the caller; a local store may move
+     * it into place, so it need not exist afterwards. Existing content under the key is replaced.
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /**
+     * Read the content
+     *
+     * @throws java.nio.file.NoSuchFileException if there is nothing under the key
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * @return true if something was deleted
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * The file behind the key when the store is local disk, so it can be served zero-copy
+     */
+    Optional<Path> localPath(String key);
+
+    /**
+     * A time-limited URL the browser can download from directly, bypassing this server; empty for local disk
+     *
+     * @param downloadName file name for Content-Disposition, or null
+     */
+    Optional<URI> presignedGet(String key, String contentType, String downloadName);
+
+    /**
+     * Short description for logs and status ("local:/data/objects", "s3:bucket")
+     */
+    String describe();
+}
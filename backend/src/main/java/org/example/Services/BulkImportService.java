@@ -1,34 +1,96 @@
 package org.example.Services;
 
-import org.example.Entities.OperationalExpenses;
-import org.example.Entities.ExpenseCategory;
-import org.example.Repositories.OperationalExpensesRepository;
-import org.example.Repositories.ExpenseCategoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.Repositories.ExpenseImportRepository;
+import org.example.Repositories.ExpenseImportRepository.ExpenseRow;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVWriter;
 import com.opencsv.exceptions.CsvValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk Import Service
+ *
+ * CSV expense import runs as a background job. The upload is copied to a temp file and streamed line by line:
+ * each line is parsed and validated, its category resolved against a map loaded once (unknown categories are
+ * created on first use, once the rest of the line is valid), and valid rows are inserted batch-size at a time,
+ * one transaction per batch. If a batch fails, its rows are retried one by one so only the offending lines are
+ * rejected. Failed lines go to a CSV error report on disk, with their original columns; only counters and the
+ * first errors are kept in memory, so the size of the file does not matter. Jobs are polled with
+ * getImportStatus by the user who started them and kept retention-minutes after finishing.
+ */
 @Service
+@Slf4j
 public class BulkImportService {
 
+    // Errors returned in the status; the full list is in the error report
+    private static final int MAX_ERRORS_IN_STATUS = 100;
+
+    @Autowired
+    private ExpenseImportRepository importRepository;
+
+    @Autowired
+    private UniqueIdGenerator uniqueIdGenerator;
+
+    @Autowired
+    private UserAttributionService userAttributionService;
+
     @Autowired
-    private OperationalExpensesRepository expensesRepository;
+    private PlatformTransactionManager transactionManager;
 
     @Autowired
-    private ExpenseCategoryRepository expenseCategoryRepository;
+    private ReportSnapshotService reportSnapshotService;
+
+    @Value("${import.expenses.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${import.expenses.threads:2}")
+    private int threads = 2;
+
+    @Value("${import.expenses.queue-capacity:10}")
+    private int queueCapacity = 10;
+
+    @Value("${import.expenses.retention-minutes:60}")
+    private long retentionMinutes = 60;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor executor;
 
     private static final DateTimeFormatter[] DATE_FORMATS = {
         DateTimeFormatter.ofPattern("yyyy-MM-dd"),
@@ -37,13 +99,106 @@ public class BulkImportService {
         DateTimeFormatter.ofPattern("yyyy/MM/dd")
     };
 
-    public Map<String, Object> importExpensesFromCSV(MultipartFile file) throws IOException, CsvValidationException {
-        Map<String, Object> result = new HashMap<>();
-        List<String> errors = new ArrayList<>();
-        List<OperationalExpenses> successfulImports = new ArrayList<>();
-        int totalRecords = 0;
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicLong threadCount = new AtomicLong();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "expense-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
 
-        try (CSVReader reader = new CSVReader(new InputStreamReader(file.getInputStream()))) {
+    /**
+     * Start importing expenses from a CSV upload in the background
+     *
+     * @return the job status; poll getImportStatus with its jobId
+     * @throws IllegalStateException if too many imports are already waiting
+     */
+    public Map<String, Object> startExpenseImport(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        pruneFinishedJobs();
+
+        // The multipart temp file is gone once the request ends
+        Path upload = Files.createTempFile("expense-import-", ".csv");
+        file.transferTo(upload);
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), Files.size(upload),
+                userAttributionService.getCurrentUserId(), userAttributionService.getCurrentUsername());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> runImport(job, upload));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(upload);
+            throw new IllegalStateException("Too many imports are running; please try again shortly");
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * Status of an import job, or null if unknown, expired or started by another user
+     */
+    public Map<String, Object> getImportStatus(String jobId) {
+        ImportJob job = ownJob(jobId);
+        return job != null ? job.toStatus() : null;
+    }
+
+    /**
+     * CSV of the lines that failed (line, error, original columns), or null if there is none or the job
+     * belongs to another user
+     */
+    public Path getImportErrorReport(String jobId) {
+        ImportJob job = ownJob(jobId);
+        return job != null && job.errorReport != null && Files.exists(job.errorReport) ? job.errorReport : null;
+    }
+
+    /**
+     * The job if the current user started it; error reports hold other users' expense data
+     */
+    private ImportJob ownJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || job.userId == null || !job.userId.equals(userAttributionService.getCurrentUserId())) {
+            return null;
+        }
+        return job;
+    }
+
+    private void runImport(ImportJob job, Path upload) {
+        job.state = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        try (InputStream in = new CountingInputStream(Files.newInputStream(upload), job.bytesRead)) {
+            importExpensesFromCSV(in, job);
+            job.state = "COMPLETED";
+            log.info("Expense import {} finished: {} lines, {} imported, {} failed", job.id,
+                    job.totalRecords.get(), job.imported.get(), job.failed.get());
+        } catch (IllegalArgumentException e) {
+            job.state = "FAILED";
+            job.message = e.getMessage();
+        } catch (Exception e) {
+            job.state = "FAILED";
+            job.message = "Import failed: " + e.getMessage();
+            log.error("Expense import {} failed", job.id, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Could not delete import upload {}: {}", upload, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stream the CSV into operational_expenses (runs on an import thread; tests call it directly)
+     */
+    void importExpensesFromCSV(InputStream in, ImportJob job) throws IOException, CsvValidationException {
+        Map<String, Long> categoryIds = importRepository.findCategoryIdsByName();
+
+        try (CSVReader reader = new CSVReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
             String[] headers = reader.readNext();
             if (headers == null) {
                 throw new IllegalArgumentException("CSV file is empty or has no headers");
@@ -52,66 +207,88 @@ public class BulkImportService {
             // Validate required headers
             Map<String, Integer> headerMap = createHeaderMap(headers);
             validateRequiredHeaders(headerMap);
+            job.sourceHeaders = headers;
 
+            List<ExpenseRow> batch = new ArrayList<>(batchSize);
+            List<String[]> batchLines = new ArrayList<>(batchSize);
             String[] line;
-            int lineNumber = 2; // Start from 2 (1 for headers)
+            int lineNumber = 1; // 1 is the header line
 
             while ((line = reader.readNext()) != null) {
-                totalRecords++;
+                lineNumber++;
+                if (line.length == 1 && line[0].isBlank()) {
+                    continue;
+                }
+                job.totalRecords.incrementAndGet();
                 try {
-                    OperationalExpenses expense = parseExpenseFromCSVLine(line, headerMap);
-                    expensesRepository.save(expense);
-                    successfulImports.add(expense);
-                } catch (Exception e) {
-                    errors.add("Line " + lineNumber + ": " + e.getMessage());
+                    batch.add(parseExpenseFromCSVLine(line, headerMap, lineNumber, categoryIds, job));
+                    batchLines.add(line);
+                } catch (IllegalArgumentException e) {
+                    job.recordError(lineNumber, e.getMessage(), line);
+                }
+                if (batch.size() >= batchSize) {
+                    insertBatch(batch, batchLines, job);
+                    batch.clear();
+                    batchLines.clear();
                 }
-                lineNumber++;
             }
+            insertBatch(batch, batchLines, job);
+        } finally {
+            job.closeErrorReport();
         }
-
-        result.put("totalRecords", totalRecords);
-        result.put("successfulImports", successfulImports.size());
-        result.put("failedImports", errors.size());
-        result.put("errors", errors);
-
-        return result;
     }
 
-    public byte[] exportExpensesToCSV(List<OperationalExpenses> expenses) throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        
-        try (CSVWriter writer = new CSVWriter(new OutputStreamWriter(outputStream))) {
-            // Write headers (removed Subcategory)
-            String[] headers = {
-                "ID", "Description", "Amount", "Date", "Category",
-                "Vendor", "Payment Method", "Reference Number", "Status",
-                "Notes", "Created At", "Updated At"
-            };
-            writer.writeNext(headers);
-
-            // Write data
-            for (OperationalExpenses expense : expenses) {
-                String categoryName = expense.getCategory() != null ? expense.getCategory().getCategoryName() : "";
-
-                String[] record = {
-                    expense.getId() != null ? expense.getId().toString() : "",
-                    expense.getDescription() != null ? expense.getDescription() : "",
-                    expense.getAmount() != null ? expense.getAmount().toString() : "",
-                    expense.getExpenseDate() != null ? expense.getExpenseDate().toString() : "",
-                    categoryName,
-                    expense.getVendor() != null ? expense.getVendor() : "",
-                    expense.getPaymentMethod() != null ? expense.getPaymentMethod() : "",
-                    expense.getExpenseReference() != null ? expense.getExpenseReference() : "",
-                    expense.getStatus() != null ? expense.getStatus() : "",
-                    expense.getNotes() != null ? expense.getNotes() : "",
-                    expense.getCreatedAt() != null ? expense.getCreatedAt().toString() : "",
-                    expense.getUpdatedAt() != null ? expense.getUpdatedAt().toString() : ""
-                };
-                writer.writeNext(record);
+    /**
+     * Insert a batch in one transaction; if it fails, insert its rows one by one to reject only the bad ones
+     *
+     * @param lines the CSV values of each row, for the error report
+     */
+    private void insertBatch(List<ExpenseRow> batch, List<String[]> lines, ImportJob job) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            LocalDate earliest = batch.stream().map(ExpenseRow::expenseDate).min(LocalDate::compareTo).orElseThrow();
+            transactionTemplate.executeWithoutResult(status -> {
+                importRepository.insertBatch(batch, job.userId, job.username, now);
+                reportSnapshotService.recordBackdatedChange(earliest);
+            });
+            job.imported.addAndGet(batch.size());
+        } catch (DataAccessException batchError) {
+            for (int i = 0; i < batch.size(); i++) {
+                ExpenseRow row = batch.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        importRepository.insertBatch(List.of(row), job.userId, job.username, now);
+                        reportSnapshotService.recordBackdatedChange(row.expenseDate());
+                    });
+                    job.imported.incrementAndGet();
+                } catch (DataAccessException rowError) {
+                    job.recordError(row.lineNumber(), "Could not save: "
+                            + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage(), lines.get(i));
+                }
             }
         }
+    }
 
-        return outputStream.toByteArray();
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(cutoff)) {
+                return false;
+            }
+            job.deleteErrorReport();
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        jobs.values().forEach(ImportJob::deleteErrorReport);
     }
 
     private Map<String, Integer> createHeaderMap(String[] headers) {
@@ -123,7 +300,7 @@ public class BulkImportService {
     }
 
     private void validateRequiredHeaders(Map<String, Integer> headerMap) {
-        String[] requiredHeaders = {"description", "amount", "date"};
+        String[] requiredHeaders = {"description", "amount", "date", "category"};
         List<String> missingHeaders = new ArrayList<>();
 
         for (String required : requiredHeaders) {
@@ -137,38 +314,71 @@ public class BulkImportService {
         }
     }
 
-    private OperationalExpenses parseExpenseFromCSVLine(String[] line, Map<String, Integer> headerMap) {
-        OperationalExpenses expense = new OperationalExpenses();
-
+    private ExpenseRow parseExpenseFromCSVLine(String[] line, Map<String, Integer> headerMap, int lineNumber,
+                                               Map<String, Long> categoryIds, ImportJob job) {
         // Required fields
-        expense.setDescription(getValueFromLine(line, headerMap, "description"));
+        String description = getValueFromLine(line, headerMap, "description");
+        if (description == null || description.length() < 3 || description.length() > 1000) {
+            throw new IllegalArgumentException("Description is required (3 to 1000 characters)");
+        }
         BigDecimal amount = parseAmount(getValueFromLine(line, headerMap, "amount"));
-        expense.setAmount(amount.doubleValue());
-        expense.setExpenseDate(parseDate(getValueFromLine(line, headerMap, "date"))); 
+        if (amount.compareTo(new BigDecimal("0.01")) < 0) {
+            throw new IllegalArgumentException("Amount must be greater than 0");
+        }
+        LocalDate date = parseDate(getValueFromLine(line, headerMap, "date"));
 
-        // Optional fields
         String categoryName = getValueFromLine(line, headerMap, "category");
-        if (categoryName != null && !categoryName.isEmpty()) {
-            ExpenseCategory category = expenseCategoryRepository.findByCategoryNameIgnoreCase(categoryName)
-                    .orElseGet(() -> {
-                        ExpenseCategory newCat = new ExpenseCategory();
-                        newCat.setCategoryName(categoryName);
-                        return expenseCategoryRepository.save(newCat);
-                    });
-            expense.setCategory(category);
-        } else {
-            expense.setCategory(null);
+        if (categoryName == null) {
+            throw new IllegalArgumentException("Category is required");
         }
 
-        expense.setVendor(getValueFromLine(line, headerMap, "vendor"));
-        expense.setPaymentMethod(getValueFromLine(line, headerMap, "payment method"));
-        expense.setExpenseReference(getValueFromLine(line, headerMap, "reference number"));
-        expense.setNotes(getValueFromLine(line, headerMap, "notes"));
-        
+        // Optional fields
+        String name = getValueFromLine(line, headerMap, "name");
+        if (name == null) {
+            name = description.length() > 255 ? description.substring(0, 255) : description;
+        }
+        String vendor = getValueFromLine(line, headerMap, "vendor");
+        if (vendor != null && vendor.length() > 255) {
+            throw new IllegalArgumentException("Vendor name must not exceed 255 characters");
+        }
+        String paymentMethod = getValueFromLine(line, headerMap, "payment method");
+        if (paymentMethod != null && paymentMethod.length() > 100) {
+            throw new IllegalArgumentException("Payment method must not exceed 100 characters");
+        }
         String status = getValueFromLine(line, headerMap, "status");
-        expense.setStatus(status != null && !status.isEmpty() ? status : "PENDING");
 
-        return expense;
+        // Last, so a line rejected for any other reason does not create its category
+        long categoryId = resolveCategory(categoryName, categoryIds, job);
+
+        return new ExpenseRow(lineNumber, uniqueIdGenerator.generateExpenseId(), categoryId, name, description,
+                amount.doubleValue(), date, paymentMethod, vendor, getValueFromLine(line, headerMap, "reference number"),
+                status != null ? status : "PENDING", getValueFromLine(line, headerMap, "notes"));
+    }
+
+    /**
+     * Category id by name, creating the category the first time an import uses it
+     *
+     * @throws IllegalArgumentException if the category can be neither created nor found (rejects the line)
+     */
+    private long resolveCategory(String name, Map<String, Long> categoryIds, ImportJob job) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Long id = categoryIds.get(key);
+        if (id == null) {
+            try {
+                id = importRepository.insertCategory(name, job.username, LocalDateTime.now());
+            } catch (DuplicateKeyException e) {
+                // Created by another import or a user since the categories were loaded
+                id = importRepository.findCategoryId(name);
+                if (id == null) {
+                    throw new IllegalArgumentException("Could not create category " + name);
+                }
+            } catch (DataAccessException e) {
+                throw new IllegalArgumentException("Could not create category " + name + ": "
+                        + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+            categoryIds.put(key, id);
+        }
+        return id;
     }
 
     private String getValueFromLine(String[] line, Map<String, Integer> headerMap, String header) {
@@ -231,4 +441,137 @@ public class BulkImportService {
 
         return outputStream.toString();
     }
+
+    /**
+     * Progress and results of one import, plus its error report file
+     */
+    static final class ImportJob {
+
+        final String id;
+        final String fileName;
+        final long bytesTotal;
+        final Long userId;
+        final String username;
+        final LocalDateTime createdAt = LocalDateTime.now();
+
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong totalRecords = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        private final List<String> firstErrors = new ArrayList<>();
+
+        volatile String state = "QUEUED";
+        volatile String message;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+
+        private Path errorReport;
+        private CSVWriter errorWriter;
+        volatile String[] sourceHeaders = new String[0];
+
+        ImportJob(String id, String fileName, long bytesTotal, Long userId, String username) {
+            this.id = id;
+            this.fileName = fileName;
+            this.bytesTotal = bytesTotal;
+            this.userId = userId;
+            this.username = username;
+        }
+
+        synchronized void recordError(int lineNumber, String error, String[] values) {
+            failed.incrementAndGet();
+            if (firstErrors.size() < MAX_ERRORS_IN_STATUS) {
+                firstErrors.add("Line " + lineNumber + ": " + error);
+            }
+            try {
+                if (errorWriter == null) {
+                    errorReport = Files.createTempFile("expense-import-errors-", ".csv");
+                    errorWriter = new CSVWriter(Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8));
+                    errorWriter.writeNext(withPrefix(new String[]{"line", "error"}, sourceHeaders));
+                }
+                // The original columns follow, so the report can be fixed and imported again
+                errorWriter.writeNext(withPrefix(new String[]{String.valueOf(lineNumber), error},
+                        values != null ? values : new String[0]));
+            } catch (IOException e) {
+                log.warn("Could not write import error report for job {}: {}", id, e.getMessage());
+            }
+        }
+
+        private static String[] withPrefix(String[] prefix, String[] values) {
+            String[] row = Arrays.copyOf(prefix, prefix.length + values.length);
+            System.arraycopy(values, 0, row, prefix.length, values.length);
+            return row;
+        }
+
+        synchronized void closeErrorReport() throws IOException {
+            if (errorWriter != null) {
+                errorWriter.close();
+                errorWriter = null;
+            }
+        }
+
+        synchronized void deleteErrorReport() {
+            try {
+                closeErrorReport();
+                if (errorReport != null) {
+                    Files.deleteIfExists(errorReport);
+                }
+            } catch (IOException e) {
+                log.warn("Could not delete import error report {}: {}", errorReport, e.getMessage());
+            }
+        }
+
+        synchronized Map<String, Object> toStatus() {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("jobId", id);
+            status.put("state", state);
+            status.put("fileName", fileName);
+            status.put("percentComplete", "COMPLETED".equals(state) ? 100
+                    : bytesTotal > 0 ? Math.min(99, bytesRead.get() * 100 / bytesTotal) : 0);
+            status.put("totalRecords", totalRecords.get());
+            status.put("successfulImports", imported.get());
+            status.put("failedImports", failed.get());
+            status.put("errors", new ArrayList<>(firstErrors));
+            status.put("errorReportAvailable", errorReport != null);
+            status.put("message", message);
+            status.put("createdAt", createdAt);
+            status.put("startedAt", startedAt);
+            status.put("finishedAt", finishedAt);
+            if (startedAt != null) {
+                LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+                status.put("elapsedMs", Duration.between(startedAt, end).toMillis());
+            }
+            return status;
+        }
+    }
+
+    /**
+     * Counts bytes read from the upload for the progress percentage
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int read = super.read(buffer, off, len);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+    }
 }
@@ -0,0 +1,243 @@
+package org.example.Services;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cash Flow Forecast
+ *
+ * Expected inflow from unpaid installments over a fixed window of days starting at windowStart.
+ * Each dimension (whole portfolio, one branch, one loan officer) keeps a per-day array of
+ * expected amounts and a prefix-sum array over it, so any day/week/month range total is
+ * answered in O(1). Prefix sums are rebuilt lazily on the first read after a change.
+ *
+ * Installments due before windowStart are kept as an overdue pool per dimension, weighted by the
+ * loan's recovery probability (1 - defaultRiskScore / 100) when risk adjustment is requested.
+ *
+ * Not thread-safe on its own; CashFlowForecastService guards access.
+ */
+public class CashFlowForecast {
+
+    public static final String PORTFOLIO = "portfolio";
+    private static final String BRANCH_PREFIX = "branch:";
+    private static final String OFFICER_PREFIX = "officer:";
+
+    private final LocalDate windowStart;
+    private final int horizonDays;
+    private final Map<String, Series> series = new HashMap<>();
+    private final Map<Long, List<Entry>> entriesByLoan = new HashMap<>();
+
+    public CashFlowForecast(LocalDate windowStart, int horizonDays) {
+        this.windowStart = windowStart;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * One unpaid installment as seen by the forecast
+     *
+     * @param dueDate             installment due date
+     * @param amount              outstanding amount still expected
+     * @param recoveryProbability 0..1 chance the amount is collected (1 when no risk score)
+     * @param branch              lending branch of the loan (may be null)
+     * @param officerId           loan officer who created the loan (may be null)
+     */
+    public record Entry(LocalDate dueDate, double amount, double recoveryProbability, String branch, Long officerId) {
+    }
+
+    public LocalDate getWindowStart() {
+        return windowStart;
+    }
+
+    public LocalDate getWindowEnd() {
+        return windowStart.plusDays(horizonDays - 1L);
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    public static String branchKey(String branch) {
+        return BRANCH_PREFIX + branch;
+    }
+
+    public static String officerKey(Long officerId) {
+        return OFFICER_PREFIX + officerId;
+    }
+
+    /**
+     * Replace every unpaid installment of a loan (schedule generated, installment paid or rescheduled)
+     */
+    public void replaceLoan(Long loanId, List<Entry> entries) {
+        List<Entry> previous = entriesByLoan.remove(loanId);
+        if (previous != null) {
+            for (Entry entry : previous) {
+                apply(entry, -1);
+            }
+        }
+        if (entries != null && !entries.isEmpty()) {
+            List<Entry> copy = List.copyOf(entries);
+            entriesByLoan.put(loanId, copy);
+            for (Entry entry : copy) {
+                apply(entry, 1);
+            }
+        }
+    }
+
+    /**
+     * Expected inflow for installments due between from and to (inclusive), clipped to the window
+     */
+    public double expectedAmount(String dimensionKey, LocalDate from, LocalDate to, boolean riskAdjusted) {
+        Series s = series.get(dimensionKey);
+        int[] range = clip(from, to);
+        if (s == null || range == null) {
+            return 0.0;
+        }
+        return s.sum(riskAdjusted ? s.adjustedPrefix() : s.amountPrefix(), range[0], range[1]);
+    }
+
+    /**
+     * Number of unpaid installments due between from and to (inclusive), clipped to the window
+     */
+    public long expectedCount(String dimensionKey, LocalDate from, LocalDate to) {
+        Series s = series.get(dimensionKey);
+        int[] range = clip(from, to);
+        if (s == null || range == null) {
+            return 0L;
+        }
+        return Math.round(s.sum(s.countPrefix(), range[0], range[1]));
+    }
+
+    /**
+     * Outstanding amount of installments already past due when the window starts
+     */
+    public double overdueAmount(String dimensionKey, boolean riskAdjusted) {
+        Series s = series.get(dimensionKey);
+        if (s == null) {
+            return 0.0;
+        }
+        return riskAdjusted ? s.overdueAdjusted : s.overdueAmount;
+    }
+
+    public Set<String> branches() {
+        return keysWithPrefix(BRANCH_PREFIX);
+    }
+
+    public Set<String> officers() {
+        return keysWithPrefix(OFFICER_PREFIX);
+    }
+
+    private Set<String> keysWithPrefix(String prefix) {
+        Set<String> keys = new TreeSet<>();
+        for (String key : series.keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key.substring(prefix.length()));
+            }
+        }
+        return keys;
+    }
+
+    private void apply(Entry entry, int sign) {
+        if (entry.dueDate() == null || entry.dueDate().isAfter(getWindowEnd())) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(3);
+        keys.add(PORTFOLIO);
+        if (entry.branch() != null) {
+            keys.add(branchKey(entry.branch()));
+        }
+        if (entry.officerId() != null) {
+            keys.add(officerKey(entry.officerId()));
+        }
+
+        double amount = sign * entry.amount();
+        double adjusted = amount * entry.recoveryProbability();
+        boolean overdue = entry.dueDate().isBefore(windowStart);
+        int day = overdue ? -1 : (int) ChronoUnit.DAYS.between(windowStart, entry.dueDate());
+
+        for (String key : keys) {
+            Series s = series.computeIfAbsent(key, k -> new Series(horizonDays));
+            if (overdue) {
+                s.overdueAmount += amount;
+                s.overdueAdjusted += adjusted;
+            } else {
+                s.amount[day] += amount;
+                s.adjusted[day] += adjusted;
+                s.count[day] += sign;
+                s.dirty = true;
+            }
+        }
+    }
+
+    private int[] clip(LocalDate from, LocalDate to) {
+        long start = Math.max(0, ChronoUnit.DAYS.between(windowStart, from));
+        long end = Math.min(horizonDays - 1L, ChronoUnit.DAYS.between(windowStart, to));
+        if (start > end) {
+            return null;
+        }
+        return new int[] {(int) start, (int) end};
+    }
+
+    /**
+     * Per-day arrays for one dimension plus their prefix sums (prefix[i] = sum of days 0..i-1)
+     */
+    private static final class Series {
+        final double[] amount;
+        final double[] adjusted;
+        final double[] count;
+        double[] amountPrefix;
+        double[] adjustedPrefix;
+        double[] countPrefix;
+        double overdueAmount;
+        double overdueAdjusted;
+        boolean dirty = true;
+
+        Series(int days) {
+            amount = new double[days];
+            adjusted = new double[days];
+            count = new double[days];
+        }
+
+        double[] amountPrefix() {
+            rebuildIfDirty();
+            return amountPrefix;
+        }
+
+        double[] adjustedPrefix() {
+            rebuildIfDirty();
+            return adjustedPrefix;
+        }
+
+        double[] countPrefix() {
+            rebuildIfDirty();
+            return countPrefix;
+        }
+
+        double sum(double[] prefix, int fromDay, int toDay) {
+            return prefix[toDay + 1] - prefix[fromDay];
+        }
+
+        private void rebuildIfDirty() {
+            if (!dirty) {
+                return;
+            }
+            amountPrefix = prefix(amount);
+            adjustedPrefix = prefix(adjusted);
+            countPrefix = prefix(count);
+            dirty = false;
+        }
+
+        private static double[] prefix(double[] values) {
+            double[] prefix = new double[values.length + 1];
+            for (int i = 0; i < values.length; i++) {
+                prefix[i + 1] = prefix[i] + values[i];
+            }
+            return prefix;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.example.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.Repositories.CashFlowForecastRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cash Flow Forecast Service
+ *
+ * Owns the in-memory CashFlowForecast built from unpaid installments. The forecast is built once
+ * (lazily, then every night when the window rolls over) and afterwards kept current per loan when
+ * installments are generated, paid or rescheduled - see CashFlowForecastEventListener.
+ */
+@Service
+@Slf4j
+public class CashFlowForecastService {
+
+    @Autowired
+    private CashFlowForecastRepository forecastRepository;
+
+    @Value("${forecast.horizon-days:365}")
+    private int horizonDays;
+
+    // Replaced under this monitor; read without it to find the current instance
+    private volatile CashFlowForecast forecast;
+
+    // Only one rebuild or loan refresh queries the database at a time, so a refresh cannot be overwritten by
+    // a rebuild that read the installments before the refresh's change was committed
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /**
+     * Rebuild the whole forecast for a window starting today
+     */
+    @Scheduled(cron = "${forecast.rebuild-cron:0 5 0 * * *}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            buildAndSwap();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Build a fresh forecast without holding the monitor, so readers keep using the current one meanwhile
+     */
+    private void buildAndSwap() {
+        LocalDate today = LocalDate.now();
+        CashFlowForecast fresh = new CashFlowForecast(today, horizonDays);
+        forecastRepository.findUnpaidInstallmentsDueBy(fresh.getWindowEnd()).forEach(fresh::replaceLoan);
+        synchronized (this) {
+            forecast = fresh;
+        }
+        log.info("Cash flow forecast rebuilt for {} to {}", fresh.getWindowStart(), fresh.getWindowEnd());
+    }
+
+    /**
+     * Reload the unpaid installments of one loan into the forecast; waits for a rebuild in progress
+     */
+    public void refreshLoan(Long loanId) {
+        if (loanId == null) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            CashFlowForecast current = forecast;
+            if (current == null) {
+                return; // Nothing built yet; the first read loads everything
+            }
+            List<CashFlowForecast.Entry> entries = forecastRepository.findUnpaidInstallmentsForLoan(loanId, current.getWindowEnd());
+            synchronized (this) {
+                current.replaceLoan(loanId, entries);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Expected inflow between two dates (inclusive) for the portfolio, a branch or an officer
+     */
+    public double getExpectedInflow(LocalDate from, LocalDate to, String branch, Long officerId, boolean riskAdjusted) {
+        String key = dimensionKey(branch, officerId);
+        CashFlowForecast current = currentForecast();
+        synchronized (this) {
+            return current.expectedAmount(key, from, to, riskAdjusted);
+        }
+    }
+
+    /**
+     * Number of unpaid installments due between two dates (inclusive)
+     */
+    public long getExpectedInstallmentCount(LocalDate from, LocalDate to, String branch, Long officerId) {
+        String key = dimensionKey(branch, officerId);
+        CashFlowForecast current = currentForecast();
+        synchronized (this) {
+            return current.expectedCount(key, from, to);
+        }
+    }
+
+    /**
+     * Expected cash per day or per week for the next daysAhead days
+     */
+    public Map<String, Object> getForecast(int daysAhead, String groupBy, String branch, Long officerId,
+                                           boolean riskAdjusted) {
+        String key = dimensionKey(branch, officerId);
+        boolean weekly = "week".equalsIgnoreCase(groupBy) || "weekly".equalsIgnoreCase(groupBy);
+
+        CashFlowForecast current = currentForecast();
+        synchronized (this) {
+            LocalDate start = current.getWindowStart();
+            LocalDate end = clipToWindow(current, start.plusDays(Math.max(0, daysAhead)));
+
+            List<Map<String, Object>> points = new ArrayList<>();
+            for (LocalDate from = start; !from.isAfter(end); from = from.plusDays(weekly ? 7 : 1)) {
+                LocalDate to = weekly ? min(from.plusDays(6), end) : from;
+                long count = current.expectedCount(key, from, to);
+                if (count == 0) {
+                    continue;
+                }
+                Map<String, Object> point = new HashMap<>();
+                point.put("date", from);
+                if (weekly) {
+                    point.put("endDate", to);
+                }
+                point.put("count", count);
+                point.put("expectedAmount", current.expectedAmount(key, from, to, false));
+                if (riskAdjusted) {
+                    point.put("riskAdjustedAmount", current.expectedAmount(key, from, to, true));
+                }
+                points.add(point);
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("forecast", points);
+            result.put("groupBy", weekly ? "week" : "day");
+            result.put("totalUpcoming", current.expectedCount(key, start, end));
+            result.put("totalExpectedAmount", current.expectedAmount(key, start, end, false));
+            if (riskAdjusted) {
+                result.put("totalRiskAdjustedAmount", current.expectedAmount(key, start, end, true));
+                result.put("overdueOutstanding", current.overdueAmount(key, false));
+                result.put("expectedOverdueRecovery", current.overdueAmount(key, true));
+            }
+            if (branch != null) {
+                result.put("branch", branch);
+            }
+            if (officerId != null) {
+                result.put("officerId", officerId);
+            }
+            result.put("period", Map.of("start", start, "end", end));
+            return result;
+        }
+    }
+
+    /**
+     * Expected cash over the next daysAhead days for every branch or every loan officer
+     */
+    public Map<String, Object> getBreakdown(int daysAhead, String dimension, boolean riskAdjusted) {
+        boolean byOfficer = "officer".equalsIgnoreCase(dimension);
+
+        CashFlowForecast current = currentForecast();
+        synchronized (this) {
+            LocalDate start = current.getWindowStart();
+            LocalDate end = clipToWindow(current, start.plusDays(Math.max(0, daysAhead)));
+
+            Map<String, Object> totals = new LinkedHashMap<>();
+            for (String value : byOfficer ? current.officers() : current.branches()) {
+                String key = byOfficer
+                        ? CashFlowForecast.officerKey(Long.valueOf(value))
+                        : CashFlowForecast.branchKey(value);
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("count", current.expectedCount(key, start, end));
+                entry.put("expectedAmount", current.expectedAmount(key, start, end, false));
+                if (riskAdjusted) {
+                    entry.put("riskAdjustedAmount", current.expectedAmount(key, start, end, true));
+                }
+                totals.put(value, entry);
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("dimension", byOfficer ? "officer" : "branch");
+            result.put("breakdown", totals);
+            result.put("period", Map.of("start", start, "end", end));
+            return result;
+        }
+    }
+
+    /**
+     * Forecast for today's window; built when missing or when the date has rolled over.
+     * Called without the monitor. Before the first build, readers wait for it; after midnight one reader
+     * rebuilds and the others keep answering from the previous window until the new one is swapped in.
+     */
+    private CashFlowForecast currentForecast() {
+        CashFlowForecast current = forecast;
+        if (current != null && current.getWindowStart().equals(LocalDate.now())) {
+            return current;
+        }
+        if (current != null) {
+            if (rebuildLock.tryLock()) {
+                try {
+                    if (forecast == current) {
+                        buildAndSwap();
+                    }
+                } finally {
+                    rebuildLock.unlock();
+                }
+            }
+            return forecast;
+        }
+        rebuildLock.lock();
+        try {
+            if (forecast == null) {
+                buildAndSwap();
+            }
+            return forecast;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private LocalDate clipToWindow(CashFlowForecast current, LocalDate end) {
+        if (ChronoUnit.DAYS.between(current.getWindowStart(), end) >= current.getHorizonDays()) {
+            return current.getWindowEnd();
+        }
+        return end;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static String dimensionKey(String branch, Long officerId) {
+        if (officerId != null) {
+            return CashFlowForecast.officerKey(officerId);
+        }
+        if (branch != null && !branch.isBlank()) {
+            return CashFlowForecast.branchKey(branch);
+        }
+        return CashFlowForecast.PORTFOLIO;
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.Services;
+
+import org.example.DTO.ClientResponse;
+import org.example.DTO.ClientSummaryResponse;
+import org.example.DTO.ClientSummaryResponse.LoanSummary;
+import org.example.DTO.ClientSummaryResponse.NextInstallment;
+import org.example.Entities.LoanDetails;
+import org.example.Entities.LoanInstallmentSchedule;
+import org.example.Entities.LoanTracking;
+import org.example.Repositories.LoanDetailsRepository;
+import org.example.Repositories.LoanInstallmentScheduleRepository;
+import org.example.Repositories.LoanPaymentsRepository;
+import org.example.Repositories.LoanTrackingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Client Summary Service
+ * Builds the client 360 view with one query per entity type (loans, tracking, unpaid installments,
+ * payment totals) instead of one round trip per loan.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ClientSummaryService {
+
+    private static final Set<String> ACTIVE_LOAN_STATUSES = Set.of("active", "disbursed");
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private LoanDetailsRepository loanDetailsRepository;
+
+    @Autowired
+    private LoanTrackingRepository loanTrackingRepository;
+
+    @Autowired
+    private LoanInstallmentScheduleRepository installmentRepository;
+
+    @Autowired
+    private LoanPaymentsRepository paymentsRepository;
+
+    /**
+     * Client profile, loans, balances, schedules and tracking scores; empty when the client does not exist
+     */
+    public Optional<ClientSummaryResponse> getClientSummary(Long clientId) {
+        Optional<ClientResponse> profile = clientService.getClientById(clientId);
+        if (profile.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<LoanDetails> loans = loanDetailsRepository.findByClientId(clientId).stream()
+                .filter(loan -> !loan.isArchived())
+                .sorted(Comparator.comparing(LoanDetails::getCreatedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .collect(Collectors.toList());
+        List<Long> loanIds = loans.stream().map(LoanDetails::getId).collect(Collectors.toList());
+
+        Map<Long, LoanTracking> trackingByLoan = loanTrackingRepository.findByClientId(clientId).stream()
+                .collect(Collectors.toMap(LoanTracking::getLoanId, t -> t, (a, b) -> a));
+
+        Map<Long, List<LoanInstallmentSchedule>> unpaidByLoan = new HashMap<>();
+        Map<Long, Object[]> paymentTotalsByLoan = new HashMap<>();
+        if (!loanIds.isEmpty()) {
+            for (LoanInstallmentSchedule installment
+                    : installmentRepository.findByLoanIdInAndIsPaidFalseOrderByLoanIdAscInstallmentNumberAsc(loanIds)) {
+                unpaidByLoan.computeIfAbsent(installment.getLoanId(), id -> new ArrayList<>()).add(installment);
+            }
+            for (Object[] row : paymentsRepository.getPaymentTotalsByLoanIds(loanIds)) {
+                paymentTotalsByLoan.put((Long) row[0], row);
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        List<LoanSummary> summaries = loans.stream()
+                .map(loan -> toLoanSummary(loan, trackingByLoan.get(loan.getId()),
+                        unpaidByLoan.getOrDefault(loan.getId(), List.of()),
+                        paymentTotalsByLoan.get(loan.getId()), today))
+                .collect(Collectors.toList());
+
+        return Optional.of(ClientSummaryResponse.builder()
+                .profile(profile.get())
+                .loans(summaries)
+                .totalLoans(summaries.size())
+                .activeLoans((int) summaries.stream().filter(ClientSummaryService::isActive).count())
+                .totalBorrowed(summaries.stream().mapToDouble(LoanSummary::getPrincipalAmount).sum())
+                .totalPaid(summaries.stream().mapToDouble(LoanSummary::getTotalPaid).sum())
+                .totalOutstanding(summaries.stream().mapToDouble(LoanSummary::getOutstandingBalance).sum())
+                .build());
+    }
+
+    private LoanSummary toLoanSummary(LoanDetails loan, LoanTracking tracking,
+                                      List<LoanInstallmentSchedule> unpaid, Object[] paymentTotals, LocalDate today) {
+        double totalPaid = paymentTotals != null && paymentTotals[1] != null ? ((Number) paymentTotals[1]).doubleValue() : 0.0;
+        long paymentCount = paymentTotals != null ? ((Number) paymentTotals[2]).longValue() : 0L;
+        LocalDate lastPaymentDate = paymentTotals != null ? (LocalDate) paymentTotals[3] : null;
+
+        double outstanding = tracking != null && tracking.getOutstandingBalance() != null
+                ? tracking.getOutstandingBalance()
+                : Math.max(0.0, loan.getTotalPayable() - totalPaid);
+
+        NextInstallment next = unpaid.isEmpty() ? null : toNextInstallment(unpaid.get(0));
+        int overdue = (int) unpaid.stream()
+                .filter(i -> i.getDueDate() != null && i.getDueDate().isBefore(today))
+                .count();
+
+        LoanSummary.LoanSummaryBuilder summary = LoanSummary.builder()
+                .loanId(loan.getId())
+                .loanNumber(loan.getLoanNumber())
+                .loanStatus(loan.getLoanStatus())
+                .workflowStatus(loan.getWorkflowStatus())
+                .lendingBranch(loan.getLendingBranch())
+                .principalAmount(loan.getPrincipalAmount())
+                .totalPayable(loan.getTotalPayable())
+                .releaseDate(loan.getReleaseDate())
+                .paymentEndDate(loan.getPaymentEndDate())
+                .totalPaid(totalPaid)
+                .outstandingBalance(outstanding)
+                .paymentCount(paymentCount)
+                .lastPaymentDate(lastPaymentDate)
+                .nextInstallment(next)
+                .overdueInstallments(overdue)
+                .remainingInstallments(unpaid.size());
+
+        if (tracking != null) {
+            summary.trackingStatus(tracking.getLoanStatus())
+                    .paymentStatus(tracking.getPaymentStatus())
+                    .paymentBehaviorScore(tracking.getPaymentBehaviorScore())
+                    .defaultRiskScore(tracking.getDefaultRiskScore())
+                    .completionPercentage(tracking.getCompletionPercentage())
+                    .daysLate(tracking.getDaysLate())
+                    .isLate(tracking.getIsLate());
+        }
+        return summary.build();
+    }
+
+    private NextInstallment toNextInstallment(LoanInstallmentSchedule installment) {
+        Double amountDue = installment.getOutstandingAmount() != null
+                ? installment.getOutstandingAmount()
+                : installment.getScheduledAmount();
+        return NextInstallment.builder()
+                .installmentNumber(installment.getInstallmentNumber())
+                .dueDate(installment.getDueDate())
+                .amountDue(amountDue)
+                .status(installment.getStatus())
+                .build();
+    }
+
+    private static boolean isActive(LoanSummary loan) {
+        if (loan.getTrackingStatus() != null) {
+            return "ACTIVE".equalsIgnoreCase(loan.getTrackingStatus());
+        }
+        return loan.getLoanStatus() != null && ACTIVE_LOAN_STATUSES.contains(loan.getLoanStatus().toLowerCase());
+    }
+}
@@ -0,0 +1,349 @@
+package org.example.Services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.DTOs.StoredContent;
+import org.example.Repositories.StoredFileRepository;
+import org.example.config.FileStorageConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-Addressed Storage
+ *
+ * Stores each distinct file content once, keyed by its SHA-256: objects/3a/7b/3a7b...e1 in the BlobStore
+ * (local disk under file.content-dir, or an S3 bucket). An upload is streamed through the digest into a temp
+ * file under file.content-dir, then handed to the store, so a reader never sees a partial file and the
+ * same ID card or receipt uploaded twice is kept once. stored_files counts the references to each
+ * content; the content is deleted when the last one is released.
+ *
+ * With a remote store, content read on this node is kept in file.content-dir/cache (content never changes
+ * under its hash, so the cache needs no invalidation) and evicted after storage.cache.max-age-days unused.
+ *
+ * Callers keep the content name (hash plus extension, e.g. "3a7b...e1.pdf"); the hash doubles as a
+ * strong ETag.
+ */
+@Service
+@Slf4j
+public class ContentAddressedStorage {
+
+    private static final Pattern CONTENT_NAME = Pattern.compile("^([0-9a-f]{64})(\\.[a-z0-9]{1,10})?$");
+
+    // Striped locks so storing and releasing the same content on this node do not interleave
+    private static final int LOCK_STRIPES = 64;
+
+    private final StoredFileRepository storedFileRepository;
+    private final FileStorageConfig fileStorageConfig;
+    private final BlobStore blobStore;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final boolean remote;
+
+    @Value("${storage.cache.max-age-days:7}")
+    private int cacheMaxAgeDays = 7;
+
+    private Path root;
+    private Path tempDir;
+    private Path cacheDir;
+
+    @Autowired
+    public ContentAddressedStorage(StoredFileRepository storedFileRepository, FileStorageConfig fileStorageConfig,
+                                   BlobStore blobStore) {
+        this.storedFileRepository = storedFileRepository;
+        this.fileStorageConfig = fileStorageConfig;
+        this.blobStore = blobStore;
+        this.remote = blobStore.localPath("objects").isEmpty();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        root = Paths.get(fileStorageConfig.getContentDir()).toAbsolutePath().normalize();
+        tempDir = root.resolve("tmp");
+        cacheDir = root.resolve("cache");
+        try {
+            Files.createDirectories(tempDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create the content storage directory " + root, e);
+        }
+    }
+
+    /**
+     * True for names produced by store (hash plus optional extension)
+     */
+    public static boolean isContentName(String name) {
+        return name != null && CONTENT_NAME.matcher(name).matches();
+    }
+
+    /**
+     * SHA-256 of a content name, or null if it is not one
+     */
+    public static String hashOf(String name) {
+        if (name == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_NAME.matcher(name);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Whether content lives off this node (its files are then served through presigned URLs)
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+
+    /**
+     * Stream the content to storage and count a reference to it
+     *
+     * @param extension lower-case extension without the dot, or empty
+     * @param maxBytes  uploads larger than this are rejected while streaming
+     */
+    public StoredContent store(InputStream content, String extension, String contentType, long maxBytes) throws IOException {
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                size = copy(content, out, maxBytes);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String key = keyFor(hash);
+            boolean deduplicated;
+
+            synchronized (lockFor(hash)) {
+                storedFileRepository.addReference(hash, size, contentType, LocalDateTime.now());
+                try {
+                    deduplicated = blobStore.exists(key);
+                    if (!deduplicated) {
+                        blobStore.put(key, temp, contentType);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Nothing was written for this reference; counting it would keep the content forever
+                    storedFileRepository.releaseReference(hash);
+                    throw e;
+                }
+            }
+            if (remote && Files.exists(temp)) {
+                // Keep the bytes on this node: thumbnails are generated from them right away
+                moveAtomically(temp, cachePathFor(hash));
+            }
+            String name = extension == null || extension.isEmpty() ? hash : hash + "." + extension.toLowerCase();
+            return new StoredContent(hash, name, size, contentType, deduplicated);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Local path of stored content by content name or hash: the file itself on local storage, its cache
+     * entry on remote storage. Does not download; see fetch.
+     */
+    public Path resolve(String name) {
+        String hash = hashOrThrow(name);
+        return blobStore.localPath(keyFor(hash)).orElseGet(() -> cachePathFor(hash));
+    }
+
+    /**
+     * Local path of stored content, downloading it into the cache first when the store is remote.
+     * The path does not exist if the content is missing from the store.
+     */
+    public Path fetch(String name) throws IOException {
+        String hash = hashOrThrow(name);
+        Optional<Path> local = blobStore.localPath(keyFor(hash));
+        if (local.isPresent()) {
+            return local.get();
+        }
+        Path cached = cachePathFor(hash);
+        if (Files.exists(cached)) {
+            // Marks the entry as used for eviction
+            Files.setLastModifiedTime(cached, FileTime.from(Instant.now()));
+            return cached;
+        }
+        Path temp = Files.createTempFile(tempDir, "fetch-", ".part");
+        try {
+            try (InputStream in = blobStore.open(keyFor(hash))) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            } catch (NoSuchFileException e) {
+                return cached;
+            }
+            moveAtomically(temp, cached);
+            return cached;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Time-limited direct download URL when the store is remote
+     */
+    public Optional<URI> presignedUrl(String name, String contentType, String downloadName) {
+        return blobStore.presignedGet(keyFor(hashOrThrow(name)), contentType, downloadName);
+    }
+
+    /**
+     * Drop a reference; the content is deleted with the last one
+     *
+     * @return true if the content was deleted
+     */
+    public boolean release(String name) throws IOException {
+        String hash = hashOf(name);
+        if (hash == null) {
+            return false;
+        }
+        synchronized (lockFor(hash)) {
+            if (!storedFileRepository.releaseReference(hash)) {
+                return false;
+            }
+            boolean deleted = blobStore.delete(keyFor(hash));
+            if (remote) {
+                Files.deleteIfExists(cachePathFor(hash));
+            }
+            log.debug("Deleted unreferenced content {}", hash);
+            return deleted;
+        }
+    }
+
+    /**
+     * Content files left under file.content-dir/objects by local storage (uploaded by BlobMigrationJob
+     * after switching to a remote store)
+     */
+    public List<Path> listLocalObjects() throws IOException {
+        Path objects = root.resolve("objects");
+        if (!Files.isDirectory(objects)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(objects)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> hashOf(file.getFileName().toString()) != null
+                            && !file.getFileName().toString().contains("."))
+                    .toList();
+        }
+    }
+
+    /**
+     * Upload a local content file to the remote store and keep it as a cache entry
+     *
+     * @return true if it was uploaded, false if the store already had it
+     */
+    public boolean pushToRemote(Path localObject) throws IOException {
+        String hash = hashOrThrow(localObject.getFileName().toString());
+        boolean uploaded = false;
+        synchronized (lockFor(hash)) {
+            if (!blobStore.exists(keyFor(hash))) {
+                blobStore.put(keyFor(hash), localObject, storedFileRepository.findContentType(hash));
+                uploaded = true;
+            }
+        }
+        if (Files.exists(localObject)) {
+            moveAtomically(localObject, cachePathFor(hash));
+        }
+        return uploaded;
+    }
+
+    /**
+     * Remove cache entries (and their thumbnails) unused for storage.cache.max-age-days
+     */
+    @Scheduled(cron = "${storage.cache.evict-cron:0 15 3 * * *}")
+    public int evictCache() {
+        if (!remote || !Files.isDirectory(cacheDir)) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(Duration.ofDays(cacheMaxAgeDays));
+        int evicted = 0;
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    evicted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Content cache eviction failed: {}", e.getMessage());
+        }
+        if (evicted > 0) {
+            log.info("Evicted {} cached content files unused for {} days", evicted, cacheMaxAgeDays);
+        }
+        return evicted;
+    }
+
+    private static String keyFor(String hash) {
+        return "objects/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private Path cachePathFor(String hash) {
+        return cacheDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String hashOrThrow(String name) {
+        String hash = hashOf(name);
+        if (hash == null) {
+            throw new IllegalArgumentException("Not a content name: " + name);
+        }
+        return hash;
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static long copy(InputStream in, OutputStream out, long maxBytes) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new IllegalArgumentException("File size exceeds maximum allowed size of " + maxBytes + " bytes.");
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Same content cached concurrently; identical bytes, keep theirs
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.Services;
+
+import com.opencsv.CSVWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.Exceptions.ExportAbortedException;
+import org.example.Repositories.ExportRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CSV Export Service
+ *
+ * Streams query results to the client as CSV while the query is still reading them: each row is written
+ * to the response as it comes off the result set, so an export of a million rows needs no more memory than
+ * one of ten. Compression is gzip on the fly, either as Content-Encoding when the client accepts it or as
+ * a .csv.gz download when asked for. The response runs on an MVC async thread and holds one pool
+ * connection until the last row is written; concurrent exports are capped by the rate-limit bulkhead.
+ *
+ * Cells that a spreadsheet would evaluate as a formula are prefixed with a quote. If the query fails after
+ * the first bytes are sent, the 200 status cannot be taken back, so the download is aborted instead of ended:
+ * see ExportAbortedException.
+ */
+@Service
+@Slf4j
+public class CsvExportService {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern PLAIN_NUMBER = Pattern.compile("[+-]?\\d+(\\.\\d+)?");
+
+    @Autowired
+    private ExportRepository exportRepository;
+
+    /**
+     * Runs the export query, handing its result set to the extractor
+     */
+    @FunctionalInterface
+    interface ExportQuery {
+        long run(ResultSetExtractor<Long> extractor);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportExpenses(String category, String status, LocalDate startDate,
+                                                                LocalDate endDate, boolean gzipFile, String acceptEncoding) {
+        return export("expenses_export", gzipFile, acceptEncoding, extractor ->
+                exportRepository.streamExpenses(category, status, startDate, endDate, extractor));
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportLoans(String status, String branch, LocalDate startDate,
+                                                             LocalDate endDate, boolean gzipFile, String acceptEncoding) {
+        return export("loans_export", gzipFile, acceptEncoding, extractor ->
+                exportRepository.streamLoans(status, branch, startDate, endDate, extractor));
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportPayments(Long loanId, String status, LocalDate startDate,
+                                                                LocalDate endDate, boolean gzipFile, String acceptEncoding) {
+        return export("payments_export", gzipFile, acceptEncoding, extractor ->
+                exportRepository.streamPayments(loanId, status, startDate, endDate, extractor));
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportInstallments(Long loanId, String status, LocalDate startDate,
+                                                                    LocalDate endDate, boolean gzipFile, String acceptEncoding) {
+        return export("installments_export", gzipFile, acceptEncoding, extractor ->
+                exportRepository.streamInstallments(loanId, status, startDate, endDate, extractor));
+    }
+
+    /**
+     * Streaming CSV response for a query
+     *
+     * @param baseName       download name without extension, e.g. "loans_export"
+     * @param gzipFile       send a .csv.gz attachment instead of a .csv
+     * @param acceptEncoding the request's Accept-Encoding, used to gzip the transfer of a plain .csv
+     */
+    ResponseEntity<StreamingResponseBody> export(String baseName, boolean gzipFile, String acceptEncoding,
+                                                 ExportQuery query) {
+        boolean gzipTransfer = !gzipFile && acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            long started = System.currentTimeMillis();
+            OutputStream target = gzipFile || gzipTransfer ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+            long rows;
+            try {
+                rows = writeCsv(target, query);
+            } catch (RuntimeException e) {
+                // Not closing target: no gzip trailer or last chunk, so the client cannot mistake this for the whole file
+                log.error("Export {} failed after {} ms, aborting the download: {}",
+                        baseName, System.currentTimeMillis() - started, e.getMessage());
+                throw new ExportAbortedException("Export " + baseName + " failed", e);
+            }
+            target.close();
+            log.info("Exported {} rows to {} in {} ms", rows, baseName, System.currentTimeMillis() - started);
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(gzipFile ? GZIP : TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + baseName + (gzipFile ? ".csv.gz" : ".csv") + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzipTransfer) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Header row from the column labels, then one line per row; returns the number of rows written
+     */
+    long writeCsv(OutputStream out, ExportQuery query) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        CSVWriter csv = new CSVWriter(writer);
+        long rows;
+        try {
+            rows = query.run(rs -> writeRows(rs, csv));
+        } catch (UncheckedIOException e) {
+            // The client went away mid-download
+            throw e.getCause();
+        }
+        csv.flush();
+        return rows;
+    }
+
+    private static long writeRows(ResultSet rs, CSVWriter csv) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        String[] line = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            line[i] = meta.getColumnLabel(i + 1);
+        }
+        csv.writeNext(line);
+
+        long rows = 0;
+        while (rs.next()) {
+            for (int i = 0; i < columns; i++) {
+                line[i] = escapeFormula(rs.getString(i + 1));
+            }
+            csv.writeNext(line);
+            rows++;
+            // CSVWriter keeps write errors instead of throwing them; checkError() would flush on every row
+            if (csv.getException() != null) {
+                throw new UncheckedIOException(new IOException("Client closed the connection during export",
+                        csv.getException()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Value safe to open in a spreadsheet: text starting with = + - @ tab or CR is prefixed with a quote so it
+     * is not evaluated as a formula (CSV injection). Plain numbers such as -12.50 are left as they are.
+     */
+    static String escapeFormula(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        char first = value.charAt(0);
+        boolean risky = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        return risky && !PLAIN_NUMBER.matcher(value).matches() ? "'" + value : value;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
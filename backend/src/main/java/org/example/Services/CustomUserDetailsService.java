@@ -1,7 +1,9 @@
 package org.example.Services;
 
+import org.example.Config.CacheConfig;
 import org.example.Entities.User;
 import org.example.Repositories.UserRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,11 +20,22 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return new CustomUserDetails(findUser(username));
+    }
+
+    /**
+     * Principal for JWTs that do not carry the user claims (issued before they were added).
+     * Cached briefly so such tokens do not cost a User lookup per request.
+     */
+    @Cacheable(value = CacheConfig.JWT_PRINCIPALS_CACHE, key = "#username")
+    public JwtPrincipal loadPrincipal(String username) throws UsernameNotFoundException {
+        return JwtPrincipal.fromUser(findUser(username));
+    }
+
+    private User findUser(String username) {
         // Try to find by email first (since email is used as username)
-        User user = userRepository.findByEmail(username)
+        return userRepository.findByEmail(username)
                 .or(() -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        
-        return new CustomUserDetails(user);
     }
 }
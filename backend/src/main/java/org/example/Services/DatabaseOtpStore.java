@@ -0,0 +1,75 @@
+package org.example.Services;
+
+import lombok.RequiredArgsConstructor;
+import org.example.Entities.OtpCode;
+import org.example.Repositories.OtpCodeRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Database OTP store (otp.store=database).
+ *
+ * otp_codes is the source of truth, so any node can verify a code another node sent. Attempts are
+ * counted and codes consumed with conditional UPDATEs, so concurrent verifications on different nodes
+ * cannot exceed the attempt limit or use a code twice.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "database")
+@RequiredArgsConstructor
+public class DatabaseOtpStore implements OtpStore {
+
+    private final OtpCodeRepository otpCodeRepository;
+
+    @Override
+    @Transactional
+    public Entry issue(Long userId, String purpose, String code, LocalDateTime expiresAt) {
+        otpCodeRepository.invalidateUserOtps(userId, purpose);
+
+        OtpCode otp = new OtpCode();
+        otp.setUserId(userId);
+        otp.setOtpCode(code);
+        otp.setPurpose(purpose);
+        otp.setCreatedAt(LocalDateTime.now());
+        otp.setExpiresAt(expiresAt);
+        return toEntry(otpCodeRepository.save(otp));
+    }
+
+    @Override
+    public Optional<Entry> findActive(Long userId, String purpose) {
+        return otpCodeRepository.findLatestValidOtp(userId, purpose, LocalDateTime.now()).map(this::toEntry);
+    }
+
+    @Override
+    public boolean verify(Long userId, String purpose, String code, int maxAttempts) {
+        Optional<Entry> active = findActive(userId, purpose);
+        if (active.isEmpty()) {
+            return false;
+        }
+        Entry entry = active.get();
+        if (otpCodeRepository.incrementAttemptIfBelow(entry.getRecordId(), maxAttempts, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        return entry.matches(code) && otpCodeRepository.markUsed(entry.getRecordId()) == 1;
+    }
+
+    @Override
+    @Transactional
+    public void purgeExpired() {
+        otpCodeRepository.deleteExpiredOtps(LocalDateTime.now());
+        otpCodeRepository.deleteUsedOtpsOlderThan(LocalDateTime.now().minusHours(24));
+    }
+
+    private Entry toEntry(OtpCode otp) {
+        Entry entry = new Entry(otp.getUserId(), otp.getPurpose(), otp.getOtpCode(), otp.getCreatedAt(),
+                otp.getExpiresAt(), otp.getAttemptCount());
+        entry.setRecordId(otp.getId());
+        if (otp.isUsed()) {
+            entry.usedFlag().set(true);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.Services;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.example.DTOs.OutboundNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.io.UnsupportedEncodingException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Email notifications as plain-text messages over the pooled SMTP transports, one message per call.
+ * Sends synchronously on the dispatcher thread so a failed delivery is reported back to the outbox
+ * (and retried or dead-lettered there) instead of being logged and dropped.
+ */
+@Component
+public class EmailNotificationProvider implements NotificationProvider {
+
+    private final JavaMailSender mailSender;
+    private final MailTransportPool transportPool;
+
+    @Value("${spring.mail.from.email:noreply@tindigwa.com}")
+    private String fromEmail = "noreply@tindigwa.com";
+
+    @Value("${spring.mail.from.name:Tindigwa Loan Management}")
+    private String fromName = "Tindigwa Loan Management";
+
+    public EmailNotificationProvider(JavaMailSender mailSender, MailTransportPool transportPool) {
+        this.mailSender = mailSender;
+        this.transportPool = transportPool;
+    }
+
+    @Override
+    public String getChannel() {
+        return OutboundNotification.CHANNEL_EMAIL;
+    }
+
+    @Override
+    public Map<Long, String> send(List<OutboundNotification> messages) {
+        Map<Long, String> failures = new LinkedHashMap<>();
+        for (OutboundNotification message : messages) {
+            try {
+                transportPool.send(toMimeMessage(message));
+            } catch (MessagingException | RuntimeException e) {
+                failures.put(message.getId(), e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(OutboundNotification notification) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        try {
+            helper.setFrom(fromEmail, fromName);
+        } catch (UnsupportedEncodingException e) {
+            throw new MessagingException("Error encoding email", e);
+        }
+        helper.setTo(notification.getRecipient());
+        helper.setSubject(notification.getSubject() != null ? notification.getSubject() : "");
+        helper.setText(notification.getBody(), false);
+        return message;
+    }
+}
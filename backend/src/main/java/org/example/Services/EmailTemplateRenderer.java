@@ -0,0 +1,86 @@
+package org.example.Services;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Email Template Renderer
+ *
+ * Templates live in classpath:templates/email/{name}.html and use {{variable}} placeholders. Each template
+ * is read and split into literal and placeholder parts once, on first use; rendering only appends the
+ * parts into a pre-sized StringBuilder. Values are HTML-escaped; a missing value renders as empty.
+ */
+@Component
+public class EmailTemplateRenderer {
+
+    private static final String TEMPLATE_LOCATION = "templates/email/";
+
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    public String render(String templateName, Map<String, ?> variables) {
+        return templates.computeIfAbsent(templateName, EmailTemplateRenderer::compile).render(variables);
+    }
+
+    private static CompiledTemplate compile(String templateName) {
+        ClassPathResource resource = new ClassPathResource(TEMPLATE_LOCATION + templateName + ".html");
+        try (InputStream in = resource.getInputStream()) {
+            return CompiledTemplate.parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Email template not found: " + templateName, e);
+        }
+    }
+
+    /**
+     * Template split into literals; placeholder i sits between literal i and literal i + 1
+     */
+    static final class CompiledTemplate {
+        private final String[] literals;
+        private final String[] placeholders;
+        private final int literalLength;
+
+        private CompiledTemplate(List<String> literals, List<String> placeholders) {
+            this.literals = literals.toArray(new String[0]);
+            this.placeholders = placeholders.toArray(new String[0]);
+            this.literalLength = literals.stream().mapToInt(String::length).sum();
+        }
+
+        static CompiledTemplate parse(String source) {
+            List<String> literals = new ArrayList<>();
+            List<String> placeholders = new ArrayList<>();
+            int position = 0;
+            while (true) {
+                int open = source.indexOf("{{", position);
+                int close = open < 0 ? -1 : source.indexOf("}}", open + 2);
+                if (close < 0) {
+                    literals.add(source.substring(position));
+                    return new CompiledTemplate(literals, placeholders);
+                }
+                literals.add(source.substring(position, open));
+                placeholders.add(source.substring(open + 2, close).trim());
+                position = close + 2;
+            }
+        }
+
+        String render(Map<String, ?> variables) {
+            StringBuilder html = new StringBuilder(literalLength + placeholders.length * 16);
+            for (int i = 0; i < placeholders.length; i++) {
+                html.append(literals[i]);
+                Object value = variables.get(placeholders[i]);
+                if (value != null) {
+                    html.append(HtmlUtils.htmlEscape(value.toString(), StandardCharsets.UTF_8.name()));
+                }
+            }
+            return html.append(literals[literals.length - 1]).toString();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.Services;
+
+import org.example.Entities.ExpenseLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expense Log Writer
+ *
+ * Write-behind for expense_logs (see AsyncBatchWriter), so expense events do not wait on an insert.
+ * Shares the audit.writer.* settings; records that cannot be written go to expense_logs.jsonl in
+ * audit.writer.dead-letter-dir and are replayed from there.
+ */
+@Component
+public class ExpenseLogWriter extends AsyncBatchWriter<ExpenseLog> {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExpenseLogWriter(JdbcTemplate jdbcTemplate,
+                            @Value("${audit.writer.capacity:10000}") int capacity,
+                            @Value("${audit.writer.batch-size:200}") int batchSize,
+                            @Value("${audit.writer.flush-interval-ms:500}") long flushIntervalMs,
+                            @Value("${audit.writer.dead-letter-dir:./data/dead-letters}") Path deadLetterDir) {
+        super("expense-log-writer", ExpenseLog.class, capacity, batchSize, flushIntervalMs,
+                deadLetterDir.resolve("expense_logs.jsonl"));
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Queue an expense history entry, stamped now
+     */
+    public void write(Long expenseId, String action, String actionBy, String notes) {
+        ExpenseLog logEntry = new ExpenseLog();
+        logEntry.setExpenseId(expenseId);
+        logEntry.setAction(action);
+        logEntry.setActionBy(actionBy);
+        logEntry.setActionAt(LocalDateTime.now());
+        logEntry.setNotes(notes);
+        enqueue(logEntry);
+    }
+
+    @Override
+    protected void insertBatch(List<ExpenseLog> batch) {
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO expense_logs (expense_id, action, action_by, action_at, notes)
+            VALUES (?, ?, ?, ?, ?)
+            """, batch, batch.size(), (ps, logEntry) -> {
+            ps.setLong(1, logEntry.getExpenseId());
+            ps.setString(2, logEntry.getAction());
+            ps.setString(3, logEntry.getActionBy());
+            ps.setObject(4, logEntry.getActionAt());
+            ps.setString(5, logEntry.getNotes());
+        });
+    }
+
+    @Override
+    protected String describe(ExpenseLog logEntry) {
+        return "expense " + logEntry.getExpenseId() + " " + logEntry.getAction() + " by " + logEntry.getActionBy()
+                + " at " + logEntry.getActionAt() + ": " + logEntry.getNotes();
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.Services;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * File Serving Service
+ *
+ * Writes stored files (receipts, images) to the response without buffering them on the heap:
+ * - Tomcat sendfile when the connector offers it, otherwise FileChannel.transferTo into the response
+ * - single byte ranges (206 / 416), so PDF viewers and media elements can seek
+ * - strong ETag: the SHA-256 for content-addressed files, size and modification time for older files;
+ *   If-None-Match answers 304
+ * - Cache-Control: content-addressed URLs never change, so they are cached for a year as immutable;
+ *   anything else is revalidated with its ETag
+ *
+ * Multi-range requests are answered with the whole file (allowed by RFC 9110).
+ */
+@Service
+@Slf4j
+public class FileServingService {
+
+    public static final String IMMUTABLE = "private, max-age=31536000, immutable";
+    public static final String REVALIDATE = "private, no-cache";
+
+    // Below this size sendfile costs more than a plain write (same threshold as Tomcat's DefaultServlet)
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Serve a file, honouring Range and If-None-Match
+     *
+     * @param immutable    whether the request URL names this exact content (long-lived caching)
+     * @param downloadName file name for Content-Disposition, or null for none
+     */
+    public void serve(HttpServletRequest request, HttpServletResponse response, Path file, String contentType,
+                      String downloadName, boolean immutable) throws IOException {
+        long length;
+        long modified;
+        try {
+            length = Files.size(file);
+            modified = Files.getLastModifiedTime(file).toMillis();
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = etagFor(file, length, modified);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && ifRangeHolds(request.getHeader(HttpHeaders.IF_RANGE), etag)) {
+            List<HttpRange> ranges = parseRanges(rangeHeader);
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(length);
+                end = Math.min(range.getRangeEnd(length), length - 1);
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(count);
+        if (downloadName != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(downloadName));
+        }
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat sends the bytes from the page cache after the handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        transfer(file, start, count, response);
+    }
+
+    /**
+     * Content-Disposition for a stored file's original name; the name comes from the uploader, so it is
+     * encoded (RFC 6266 filename*) rather than pasted between quotes
+     */
+    public static String contentDisposition(String downloadName) {
+        return ContentDisposition.attachment().filename(downloadName, StandardCharsets.UTF_8).build().toString();
+    }
+
+    /**
+     * Strong ETag: the content hash when the file is content-addressed, otherwise size and modification time
+     */
+    static String etagFor(Path file, long length, long modified) {
+        String hash = ContentAddressedStorage.hashOf(file.getFileName().toString());
+        if (hash != null) {
+            return "\"" + hash + "\"";
+        }
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(modified) + "\"";
+    }
+
+    private static void transfer(Path file, long position, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean ifRangeHolds(String ifRange, String etag) {
+        // A date or stale validator means the client's partial copy is outdated: send the whole file
+        return ifRange == null || ifRange.trim().equals(etag);
+    }
+
+    private static List<HttpRange> parseRanges(String header) {
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            // Unparseable ranges are ignored
+            log.debug("Ignoring Range header {}: {}", header, e.getMessage());
+            return List.of();
+        }
+    }
+}
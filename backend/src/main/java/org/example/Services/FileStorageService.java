@@ -1,5 +1,8 @@
 package org.example.Services;
 
+import org.example.DTOs.StoredContent;
+import org.example.Entities.Image;
+import org.example.Repositories.ImageRepository;
 import org.example.config.FileStorageConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
@@ -10,14 +13,15 @@ import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -26,6 +30,15 @@ public class FileStorageService {
     @Autowired
     private FileStorageConfig fileStorageConfig;
     
+    @Autowired
+    private ContentAddressedStorage contentStorage;
+    
+    @Autowired
+    private ImageVariantService imageVariantService;
+    
+    @Autowired
+    private ImageRepository imageRepository;
+    
     private Path fileStorageLocation;
     
     @PostConstruct
@@ -53,33 +66,52 @@ public class FileStorageService {
     }
     
     /**
-     * Store a file in the specified category directory
+     * Store an uploaded image and record it against its entity. The image keeps the content name as its
+     * file path and the SHA-256 as content_hash; if the record cannot be saved, the content reference
+     * taken for it is released again.
      */
-    public String storeFile(MultipartFile file, String category, String entityType, Long entityId) {
+    public Image storeImage(MultipartFile file, String entityType, Long entityId, String imageType,
+                            String imageCategory, String description, Long uploadedBy) {
+        StoredContent stored = storeContent(file);
+        Image image = new Image();
+        image.setEntityType(entityType);
+        image.setEntityId(entityId);
+        image.setImageType(imageType);
+        image.setImageCategory(imageCategory);
+        image.setDescription(description);
+        image.setOriginalFilename(StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename())));
+        image.setStoredFilename(stored.getName());
+        image.setFilePath(stored.getName());
+        image.setContentHash(stored.getHash());
+        image.setContentType(stored.getContentType());
+        image.setFileSize(stored.getSize());
+        image.setUploadedBy(uploadedBy);
+        try {
+            return imageRepository.save(image);
+        } catch (RuntimeException ex) {
+            deleteFile(stored.getName());
+            throw ex;
+        }
+    }
+    
+    /**
+     * Store a file in content-addressed storage, streamed through its SHA-256.
+     * Identical content is kept once; the returned hash is the image's content_hash.
+     */
+    public StoredContent storeContent(MultipartFile file) {
         // Validate file
         validateFile(file);
         
-        // Generate unique filename
         String originalFilename = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-        String storedFilename = generateUniqueFilename(originalFilename, entityType, entityId);
-        
-        try {
-            // Check if the file's name contains invalid characters
-            if (originalFilename.contains("..")) {
-                throw new RuntimeException("Sorry! Filename contains invalid path sequence " + originalFilename);
-            }
-            
-            // Determine target location
-            Path categoryPath = this.fileStorageLocation.resolve(category);
-            Files.createDirectories(categoryPath); // Ensure directory exists
-            
-            Path targetLocation = categoryPath.resolve(storedFilename);
-            
-            // Copy file to the target location (replacing existing file with the same name)
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            
-            return category + "/" + storedFilename;
-            
+        String contentType = getContentType(originalFilename);
+        try (InputStream in = file.getInputStream()) {
+            StoredContent stored = contentStorage.store(in, getFileExtension(originalFilename), contentType,
+                    fileStorageConfig.getMaxFileSize());
+            // Thumbnail and preview in the background; already present when the content was deduplicated
+            imageVariantService.generateAsync(contentStorage.resolve(stored.getName()), contentType);
+            return stored;
+        } catch (IllegalArgumentException ex) {
+            throw new RuntimeException(ex.getMessage(), ex);
         } catch (IOException ex) {
             throw new RuntimeException("Could not store file " + originalFilename + ". Please try again!", ex);
         }
@@ -90,7 +122,7 @@ public class FileStorageService {
      */
     public Resource loadFileAsResource(String filePath) {
         try {
-            Path file = this.fileStorageLocation.resolve(filePath).normalize();
+            Path file = fetch(filePath);
             Resource resource = new UrlResource(file.toUri());
             
             if (resource.exists()) {
@@ -98,23 +130,59 @@ public class FileStorageService {
             } else {
                 throw new RuntimeException("File not found " + filePath);
             }
-        } catch (MalformedURLException ex) {
+        } catch (IOException ex) {
             throw new RuntimeException("File not found " + filePath, ex);
         }
     }
     
     /**
-     * Delete a file
+     * Delete a file (content-addressed files only once nothing else references them)
      */
     public boolean deleteFile(String filePath) {
         try {
-            Path file = this.fileStorageLocation.resolve(filePath).normalize();
-            return Files.deleteIfExists(file);
+            Path file = resolve(filePath);
+            boolean deleted = ContentAddressedStorage.isContentName(filePath)
+                    ? contentStorage.release(filePath)
+                    : Files.deleteIfExists(file);
+            if (deleted) {
+                imageVariantService.deleteVariants(file);
+            }
+            return deleted;
         } catch (IOException ex) {
             throw new RuntimeException("Could not delete file " + filePath, ex);
         }
     }
     
+    /**
+     * Local copy of a stored file for serving; content in object storage is downloaded into the local cache
+     */
+    public Path fetch(String filePath) throws IOException {
+        if (ContentAddressedStorage.isContentName(filePath)) {
+            return contentStorage.fetch(filePath);
+        }
+        return resolve(filePath);
+    }
+    
+    /**
+     * Presigned URL for content in object storage; empty when the file is served by this application
+     */
+    public Optional<URI> getDownloadUrl(String filePath, String contentType, String downloadName) {
+        if (!ContentAddressedStorage.isContentName(filePath)) {
+            return Optional.empty();
+        }
+        return contentStorage.presignedUrl(filePath, contentType, downloadName);
+    }
+    
+    /**
+     * Location of a stored file: content names in content storage, older paths under the upload directory
+     */
+    public Path resolve(String filePath) {
+        if (ContentAddressedStorage.isContentName(filePath)) {
+            return contentStorage.resolve(filePath);
+        }
+        return this.fileStorageLocation.resolve(filePath).normalize();
+    }
+    
     /**
      * Generate unique filename with timestamp and UUID
      */
@@ -175,6 +243,7 @@ public class FileStorageService {
             case "jpg", "jpeg" -> "image/jpeg";
             case "png" -> "image/png";
             case "gif" -> "image/gif";
+            case "pdf" -> "application/pdf";
             default -> "application/octet-stream";
         };
     }
@@ -184,8 +253,7 @@ public class FileStorageService {
      */
     public boolean fileExists(String filePath) {
         try {
-            Path file = this.fileStorageLocation.resolve(filePath).normalize();
-            return Files.exists(file);
+            return Files.exists(resolve(filePath));
         } catch (Exception ex) {
             return false;
         }
@@ -196,8 +264,7 @@ public class FileStorageService {
      */
     public long getFileSize(String filePath) {
         try {
-            Path file = this.fileStorageLocation.resolve(filePath).normalize();
-            return Files.size(file);
+            return Files.size(resolve(filePath));
         } catch (IOException ex) {
             return 0;
         }
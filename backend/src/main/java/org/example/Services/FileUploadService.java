@@ -1,19 +1,19 @@
 package org.example.Services;
 
+import org.example.DTOs.StoredContent;
 import org.example.config.FileUploadConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
-import java.util.UUID;
+import java.util.Optional;
 
 @Service
 public class FileUploadService {
@@ -21,9 +21,20 @@ public class FileUploadService {
     @Autowired
     private FileUploadConfig fileUploadConfig;
 
+    @Autowired
+    private ContentAddressedStorage contentStorage;
+
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
 
     public String uploadReceipt(MultipartFile file) throws IOException {
+        return storeReceipt(file).getName();
+    }
+
+    /**
+     * Store a receipt in content-addressed storage; the same receipt uploaded again is kept once.
+     * The returned name is what the expense keeps as its receipt URL.
+     */
+    public StoredContent storeReceipt(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
         }
@@ -38,26 +49,15 @@ public class FileUploadService {
             throw new IllegalArgumentException("File size exceeds maximum allowed size of 10MB");
         }
 
-        // Create upload directory if it doesn't exist
-        Path uploadDir = Paths.get(fileUploadConfig.getReceiptsDirectory());
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
-        }
-
-        // Generate unique filename
         String originalFilename = file.getOriginalFilename();
-        String extension = originalFilename != null && originalFilename.contains(".") 
-            ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
+        String extension = originalFilename != null && originalFilename.contains(".")
+            ? originalFilename.substring(originalFilename.lastIndexOf(".") + 1)
             : "";
-        
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String uniqueFilename = "receipt_" + timestamp + "_" + UUID.randomUUID().toString().substring(0, 8) + extension;
 
-        // Save file
-        Path filePath = uploadDir.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-        return uniqueFilename;
+        // Streamed through SHA-256 into storage; the size limit is enforced on the bytes actually read
+        try (InputStream in = file.getInputStream()) {
+            return contentStorage.store(in, extension, file.getContentType(), MAX_FILE_SIZE);
+        }
     }
 
     public void deleteReceipt(String filename) throws IOException {
@@ -65,23 +65,52 @@ public class FileUploadService {
             return;
         }
 
-        Path filePath = Paths.get(fileUploadConfig.getReceiptsDirectory()).resolve(filename);
+        if (ContentAddressedStorage.isContentName(filename)) {
+            contentStorage.release(filename);
+            return;
+        }
+        Path filePath = resolveReceipt(filename);
         if (Files.exists(filePath)) {
             Files.delete(filePath);
         }
     }
 
-    public byte[] getReceiptFile(String filename) throws IOException {
+    /**
+     * Location of a receipt: content names in content storage, older receipts in the receipts directory
+     */
+    public Path resolveReceipt(String filename) {
+        if (ContentAddressedStorage.isContentName(filename)) {
+            return contentStorage.resolve(filename);
+        }
+        return Paths.get(fileUploadConfig.getReceiptsDirectory()).resolve(filename);
+    }
+
+    /**
+     * Location of an existing receipt; served from disk by FileServingService rather than read into memory
+     */
+    public Path getReceiptFile(String filename) throws IOException {
         if (filename == null || filename.isEmpty()) {
             throw new IllegalArgumentException("Filename cannot be null or empty");
         }
 
-        Path filePath = Paths.get(fileUploadConfig.getReceiptsDirectory()).resolve(filename);
+        Path filePath = ContentAddressedStorage.isContentName(filename)
+            ? contentStorage.fetch(filename)
+            : resolveReceipt(filename);
         if (!Files.exists(filePath)) {
             throw new IllegalArgumentException("File not found: " + filename);
         }
 
-        return Files.readAllBytes(filePath);
+        return filePath;
+    }
+
+    /**
+     * Presigned URL when the receipt is in object storage; empty when this application serves it
+     */
+    public Optional<URI> getReceiptDownloadUrl(String filename) {
+        if (!ContentAddressedStorage.isContentName(filename)) {
+            return Optional.empty();
+        }
+        return contentStorage.presignedUrl(filename, getReceiptContentType(filename), filename);
     }
 
     public String getReceiptContentType(String filename) {
@@ -116,7 +145,7 @@ public class FileUploadService {
             return 0;
         }
 
-        Path filePath = Paths.get(fileUploadConfig.getReceiptsDirectory()).resolve(filename);
+        Path filePath = resolveReceipt(filename);
         if (!Files.exists(filePath)) {
             return 0;
         }
@@ -1,13 +1,9 @@
 package org.example.Services;
 
+import org.example.Repositories.SequenceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import javax.sql.DataSource;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Centralized service for generating unique IDs with custom prefixes
@@ -17,14 +13,27 @@ import java.util.concurrent.atomic.AtomicLong;
  * - Next of Kin: NOK001, NOK002, etc.
  * - Guarantors: GUA001, GUA002, etc.
  * - Persons: PER001, PER002, etc.
+ *
+ * Numbers come from the sequences table through SequenceBlockPool (one row per prefix, scope GLOBAL_SCOPE),
+ * so they are unique across nodes and handed out lock-free from a local block. They are gap-tolerant
+ * like UniqueIdGenerator IDs. The table scan for the highest existing ID only seeds a prefix's sequence
+ * row when it is first created.
  */
 @Service
-@Transactional
 public class IdGenerationService {
 
+    // Scope of the sequences row (these prefixes never reset)
+    static final String GLOBAL_SCOPE = "ALL";
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private SequenceRepository sequenceRepository;
+
+    @Autowired
+    private SequenceBlockPool blockPool;
+
     // Entity type constants
     public static final String USER_PREFIX = "TIN";
     public static final String NEXT_OF_KIN_PREFIX = "NOK";
@@ -33,10 +42,6 @@ public class IdGenerationService {
     public static final String BRANCH_PREFIX = "BRH";
 
 
-
-    // In-memory cache for counters to avoid frequent DB queries
-    private final ConcurrentHashMap<String, AtomicLong> counterCache = new ConcurrentHashMap<>();
-
     /**
      * Generate next ID for users (including clients)
      * @return String ID like TIN001, TIN002, etc.
@@ -77,45 +82,35 @@ public class IdGenerationService {
     /**
      * Core ID generation method
      * @param prefix The prefix for the ID (TIN, NOK, GUA, PER)
-     * @param tableName The table name to check for existing IDs
+     * @param tableName The table used to seed the sequence the first time the prefix is used
      * @return Formatted ID string
      */
-    private synchronized String generateId(String prefix, String tableName) {
-        // Get current counter from cache or initialize from database
-        AtomicLong counter = counterCache.computeIfAbsent(prefix, 
-            p -> new AtomicLong(getCurrentMaxCounter(prefix, tableName)));
-        
-        // Increment and format
-        long nextNumber = counter.incrementAndGet();
+    private String generateId(String prefix, String tableName) {
+        long nextNumber = blockPool.nextNumber(prefix, GLOBAL_SCOPE,
+                () -> getCurrentMaxCounter(prefix, tableName));
         return formatId(prefix, nextNumber);
     }
 
     /**
-     * Get the current maximum counter for a prefix from the database
+     * Get the current maximum counter for a prefix from the database.
+     * A failed query propagates: seeding the sequence with 0 would hand out IDs that already exist.
      * @param prefix The prefix to search for
      * @param tableName The table to query
-     * @return The current maximum counter value
+     * @return The current maximum counter value, 0 when the table has no IDs with this prefix
      */
     private long getCurrentMaxCounter(String prefix, String tableName) {
-        try {
-            // Query to find the highest existing number for this prefix
-            String sql = "SELECT COALESCE(MAX(CAST(SUBSTRING(id, ?) AS UNSIGNED)), 0) FROM " + tableName + 
-                        " WHERE id LIKE ? AND LENGTH(id) = ?";
-            
-            int prefixLength = prefix.length() + 1; // +1 for the prefix
-            String pattern = prefix + "%";
-            int expectedLength = prefix.length() + 3; // prefix + 3 digits
-            
-            Long maxNumber = jdbcTemplate.queryForObject(sql, Long.class, 
-                prefixLength, pattern, expectedLength);
-            
-            return maxNumber != null ? maxNumber : 0;
-            
-        } catch (Exception e) {
-            // If table doesn't exist or has no records, start from 0
-            System.out.println("Warning: Could not get max counter for " + prefix + " from " + tableName + ": " + e.getMessage());
-            return 0;
-        }
+        // Query to find the highest existing number for this prefix
+        String sql = "SELECT COALESCE(MAX(CAST(SUBSTRING(id, ?) AS UNSIGNED)), 0) FROM " + tableName + 
+                    " WHERE id LIKE ? AND LENGTH(id) = ?";
+        
+        int prefixLength = prefix.length() + 1; // +1 for the prefix
+        String pattern = prefix + "%";
+        int expectedLength = prefix.length() + 3; // prefix + 3 digits
+        
+        Long maxNumber = jdbcTemplate.queryForObject(sql, Long.class, 
+            prefixLength, pattern, expectedLength);
+        
+        return maxNumber != null ? maxNumber : 0;
     }
 
     /**
@@ -145,10 +140,10 @@ public class IdGenerationService {
     }
 
     /**
-     * Reset counter cache (useful for testing or manual resets)
+     * Drop locally reserved blocks (useful for testing or manual resets); the next ID reserves a new block
      */
     public void resetCounterCache() {
-        counterCache.clear();
+        blockPool.clear();
     }
 
     /**
@@ -158,11 +153,14 @@ public class IdGenerationService {
      * @return The next ID that would be generated
      */
     public String previewNextId(String prefix, String tableName) {
-        AtomicLong counter = counterCache.get(prefix);
-        if (counter == null) {
-            long currentMax = getCurrentMaxCounter(prefix, tableName);
-            return formatId(prefix, currentMax + 1);
+        Long next = blockPool.peekNextNumber(prefix, GLOBAL_SCOPE);
+        if (next != null) {
+            return formatId(prefix, next);
         }
-        return formatId(prefix, counter.get() + 1);
+        long currentMax = sequenceRepository
+                .findByModulePrefixAndBranchCodeAndYearMonth(prefix, GLOBAL_SCOPE, GLOBAL_SCOPE)
+                .map(sequence -> (long) sequence.getLastNumber())
+                .orElseGet(() -> getCurrentMaxCounter(prefix, tableName));
+        return formatId(prefix, currentMax + 1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package org.example.Services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.Repositories.IdMigrationStateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Background ID Migration Job
+ *
+ * Runs the universal ID migration once per MIGRATION_VERSION, recorded in id_migration_state.
+ * When the marker says COMPLETE, startup does nothing (one primary-key lookup). Otherwise one node
+ * claims the marker and migrates loans, expenses and branches in keyset chunks of ids.migration.chunk-size
+ * on a background thread, one transaction per chunk, so the application is ready while it runs.
+ * A node that dies mid-run leaves the marker RUNNING; another node takes over once the heartbeat is
+ * older than ids.migration.stale-minutes. Re-running is safe: migrated records no longer match.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdMigrationJob {
+
+    // Bump when the ID format changes and existing records need migrating again
+    public static final int MIGRATION_VERSION = 1;
+
+    private final IdMigrationService idMigrationService;
+    private final IdMigrationStateRepository stateRepository;
+
+    @Value("${ids.migration.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${ids.migration.chunk-size:200}")
+    private int chunkSize = 200;
+
+    @Value("${ids.migration.stale-minutes:10}")
+    private int staleMinutes = 10;
+
+    private ExecutorService executor;
+    private volatile boolean stopping;
+
+    // Progress of the run on this node
+    private volatile String state = "IDLE";
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private final long[] remainingAtStart = new long[3];
+    private final AtomicLong loansMigrated = new AtomicLong();
+    private final AtomicLong expensesMigrated = new AtomicLong();
+    private final AtomicLong branchesMigrated = new AtomicLong();
+
+    /**
+     * Start the migration in the background unless it is disabled, already complete, or running elsewhere
+     *
+     * @return true if a background run was started on this node
+     */
+    public synchronized boolean startIfNeeded() {
+        if (!enabled) {
+            state = "DISABLED";
+            log.info("ID migration disabled (ids.migration.enabled=false)");
+            return false;
+        }
+        if ("RUNNING".equals(state)) {
+            return false;
+        }
+        if (IdMigrationStateRepository.COMPLETE.equals(stateRepository.findStatus(MIGRATION_VERSION))) {
+            state = "COMPLETE";
+            log.info("ID migration v{} already complete, skipping", MIGRATION_VERSION);
+            return false;
+        }
+        String owner = ManagementFactory.getRuntimeMXBean().getName();
+        if (!stateRepository.claim(MIGRATION_VERSION, owner, staleMinutes)) {
+            state = "RUNNING_ELSEWHERE";
+            log.info("ID migration v{} is being run by another node", MIGRATION_VERSION);
+            return false;
+        }
+
+        state = "RUNNING";
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "id-migration");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        executor.submit(this::runMigration);
+        return true;
+    }
+
+    /**
+     * Migrate every chunk, then mark the version complete (runs on the id-migration thread)
+     */
+    void runMigration() {
+        state = "RUNNING";
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        try {
+            long[] remaining = idMigrationService.countRemaining();
+            System.arraycopy(remaining, 0, remainingAtStart, 0, remaining.length);
+            log.info("🚀 ID migration v{} started in background. Loans: {} | Expenses: {} | Branches: {}",
+                    MIGRATION_VERSION, remaining[0], remaining[1], remaining[2]);
+
+            boolean finished = migrateAll(idMigrationService::migrateLoanIdChunk, loansMigrated, 0)
+                    && migrateAll(idMigrationService::migrateExpenseIdChunk, expensesMigrated, 1)
+                    && migrateAll(idMigrationService::migrateBranchIdChunk, branchesMigrated, 2);
+
+            if (finished) {
+                stateRepository.markComplete(MIGRATION_VERSION);
+                state = "COMPLETE";
+                log.info("✅ ID migration v{} complete. Loans: {} | Expenses: {} | Branches: {}", MIGRATION_VERSION,
+                        loansMigrated.get(), expensesMigrated.get(), branchesMigrated.get());
+            } else {
+                // Shutting down: hand the marker back so the next start resumes immediately
+                stateRepository.markFailed(MIGRATION_VERSION, "Interrupted by shutdown");
+                state = "INTERRUPTED";
+                log.warn("ID migration v{} interrupted by shutdown; it resumes on next start", MIGRATION_VERSION);
+            }
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            state = "FAILED";
+            log.error("❌ Error during background ID migration", e);
+            try {
+                stateRepository.markFailed(MIGRATION_VERSION, e.getMessage());
+            } catch (Exception markError) {
+                log.warn("Could not record ID migration failure: {}", markError.getMessage());
+            }
+        } finally {
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Run chunks for one record type until none are left
+     *
+     * @return false if stopped by shutdown before the last chunk
+     */
+    private boolean migrateAll(BiFunction<Long, Integer, IdMigrationService.ChunkResult> chunk,
+                               AtomicLong counter, int type) {
+        long afterId = 0;
+        while (!stopping) {
+            IdMigrationService.ChunkResult result = chunk.apply(afterId, chunkSize);
+            if (result.migrated == 0) {
+                return true;
+            }
+            counter.addAndGet(result.migrated);
+            afterId = result.lastId;
+            stateRepository.recordProgress(MIGRATION_VERSION,
+                    type == 0 ? result.migrated : 0,
+                    type == 1 ? result.migrated : 0,
+                    type == 2 ? result.migrated : 0);
+        }
+        return false;
+    }
+
+    /**
+     * Progress of the migration on this node plus the persisted marker
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("version", MIGRATION_VERSION);
+        progress.put("state", state);
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        progress.put("loansMigrated", loansMigrated.get());
+        progress.put("loansToMigrate", remainingAtStart[0]);
+        progress.put("expensesMigrated", expensesMigrated.get());
+        progress.put("expensesToMigrate", remainingAtStart[1]);
+        progress.put("branchesMigrated", branchesMigrated.get());
+        progress.put("branchesToMigrate", remainingAtStart[2]);
+        progress.put("lastError", lastError);
+        progress.put("marker", stateRepository.findState(MIGRATION_VERSION).orElse(null));
+        return progress;
+    }
+
+    /**
+     * Stop after the current chunk on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
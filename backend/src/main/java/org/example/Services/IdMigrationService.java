@@ -8,10 +8,12 @@ import org.example.Entities.OperationalExpenses;
 import org.example.Repositories.BranchesRepository;
 import org.example.Repositories.LoanDetailsRepository;
 import org.example.Repositories.OperationalExpensesRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Service to migrate existing records to use new 8-character universal IDs
@@ -123,6 +125,54 @@ public class IdMigrationService {
                 loansMigrated, expensesMigrated, branchesMigrated);
     }
 
+    /**
+     * Migrate the next chunk of loans after afterId (one transaction per chunk, used by IdMigrationJob)
+     */
+    public ChunkResult migrateLoanIdChunk(long afterId, int chunkSize) {
+        List<LoanDetails> loans = loanDetailsRepository.findNeedingIdMigration(afterId, PageRequest.of(0, chunkSize));
+        for (LoanDetails loan : loans) {
+            loan.setLoanNumber(idGenerator.generateLoanId());
+        }
+        loanDetailsRepository.saveAll(loans);
+        return ChunkResult.of(loans, LoanDetails::getId, afterId);
+    }
+
+    /**
+     * Migrate the next chunk of expenses after afterId
+     */
+    public ChunkResult migrateExpenseIdChunk(long afterId, int chunkSize) {
+        List<OperationalExpenses> expenses = operationalExpensesRepository.findNeedingIdMigration(afterId, PageRequest.of(0, chunkSize));
+        for (OperationalExpenses expense : expenses) {
+            expense.setExpenseReference(idGenerator.generateExpenseId());
+        }
+        operationalExpensesRepository.saveAll(expenses);
+        return ChunkResult.of(expenses, OperationalExpenses::getId, afterId);
+    }
+
+    /**
+     * Migrate the next chunk of branches after afterId
+     */
+    public ChunkResult migrateBranchIdChunk(long afterId, int chunkSize) {
+        List<Branches> branches = branchesRepository.findNeedingIdMigration(afterId, PageRequest.of(0, chunkSize));
+        for (Branches branch : branches) {
+            branch.setBranchCode(idGenerator.generateBranchId());
+        }
+        branchesRepository.saveAll(branches);
+        return ChunkResult.of(branches, Branches::getId, afterId);
+    }
+
+    /**
+     * Records still needing migration: loans, expenses, branches (COUNT queries, no entity loading)
+     */
+    @Transactional(readOnly = true)
+    public long[] countRemaining() {
+        return new long[] {
+                loanDetailsRepository.countNeedingIdMigration(),
+                operationalExpensesRepository.countNeedingIdMigration(),
+                branchesRepository.countNeedingIdMigration()
+        };
+    }
+
     /**
      * Get migration status for Loans, Expenses and Branches
      */
@@ -181,4 +231,23 @@ public class IdMigrationService {
                     branchesWithNewId == totalBranches;
         }
     }
+
+    /**
+     * Outcome of one chunk: records migrated and the last id seen (the next chunk starts after it)
+     */
+    public static class ChunkResult {
+        public final int migrated;
+        public final long lastId;
+
+        public ChunkResult(int migrated, long lastId) {
+            this.migrated = migrated;
+            this.lastId = lastId;
+        }
+
+        private static <T> ChunkResult of(List<T> records, Function<T, Long> id, long afterId) {
+            return records.isEmpty()
+                    ? new ChunkResult(0, afterId)
+                    : new ChunkResult(records.size(), id.apply(records.get(records.size() - 1)));
+        }
+    }
 }
@@ -0,0 +1,299 @@
+package org.example.Services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Image Variant Service
+ *
+ * Scaled-down JPEG copies of stored images, so lists and detail screens do not download full-size photos:
+ * - thumb:   fits image.variants.thumb-size (client lists, avatars)
+ * - preview: fits image.variants.preview-size (loan and client detail screens)
+ *
+ * Variants are written next to the original as "<original>.<variant>.jpg" and deleted with it. They are
+ * generated on a bounded pool after upload; when that queue is full, or for files stored before variants
+ * existed, the first request generates them instead. Concurrent requests for the same variant share one
+ * generation. Files ImageIO cannot decode (PDF documents) have no variants; callers serve the original.
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    public enum Variant {
+        THUMB, PREVIEW;
+
+        /**
+         * Parse the ?variant= value; null or empty means the original
+         */
+        public static Variant from(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown image variant: " + value + " (expected thumb or preview)");
+            }
+        }
+
+        String suffix() {
+            return "." + name().toLowerCase(Locale.ROOT) + ".jpg";
+        }
+    }
+
+    public static final String VARIANT_CONTENT_TYPE = "image/jpeg";
+
+    private final int thumbSize;
+    private final int previewSize;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<Path, CompletableFuture<Optional<Path>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong skippedQueueFull = new AtomicLong();
+    private final AtomicLong generatedOnRequest = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ImageVariantService(@Value("${image.variants.thumb-size:160}") int thumbSize,
+                               @Value("${image.variants.preview-size:1024}") int previewSize,
+                               @Value("${image.variants.jpeg-quality:0.8}") float jpegQuality,
+                               @Value("${image.variants.max-pixels:50000000}") long maxPixels,
+                               @Value("${image.variants.threads:2}") int threads,
+                               @Value("${image.variants.queue-capacity:200}") int queueCapacity) {
+        this.thumbSize = Math.max(16, thumbSize);
+        this.previewSize = Math.max(this.thumbSize, previewSize);
+        this.jpegQuality = Math.min(1f, Math.max(0.1f, jpegQuality));
+        this.maxPixels = maxPixels;
+        AtomicLong threadCount = new AtomicLong();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }, (task, pool) -> skippedQueueFull.incrementAndGet()); // Generated on first request instead
+    }
+
+    /**
+     * Queue generation of all variants of a newly stored image; non-image content is ignored
+     */
+    public void generateAsync(Path original, String contentType) {
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return;
+        }
+        executor.execute(() -> {
+            for (Variant variant : Variant.values()) {
+                generateOnce(original, variant);
+            }
+        });
+    }
+
+    /**
+     * Variant file of an original, generating it now if missing
+     *
+     * @return the variant, or empty if the original cannot be decoded as an image
+     */
+    public Optional<Path> resolve(Path original, Variant variant) {
+        Path target = variantPath(original, variant);
+        if (Files.exists(target)) {
+            return Optional.of(target);
+        }
+        generatedOnRequest.incrementAndGet();
+        return generateOnce(original, variant);
+    }
+
+    /**
+     * Delete the variants of an original (called when the original is deleted)
+     */
+    public void deleteVariants(Path original) {
+        for (Variant variant : Variant.values()) {
+            try {
+                Files.deleteIfExists(variantPath(original, variant));
+            } catch (IOException e) {
+                log.warn("Could not delete {} variant of {}: {}", variant, original.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    public static Path variantPath(Path original, Variant variant) {
+        return original.resolveSibling(original.getFileName() + variant.suffix());
+    }
+
+    private Optional<Path> generateOnce(Path original, Variant variant) {
+        Path target = variantPath(original, variant);
+        CompletableFuture<Optional<Path>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Path>> running = inFlight.putIfAbsent(target, mine);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            Optional<Path> result = Files.exists(target) ? Optional.of(target) : generate(original, variant, target);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.complete(Optional.empty());
+            throw e;
+        } finally {
+            inFlight.remove(target, mine);
+        }
+    }
+
+    private Optional<Path> generate(Path original, Variant variant, Path target) {
+        int box = variant == Variant.THUMB ? thumbSize : previewSize;
+        try {
+            BufferedImage source = read(original, box);
+            if (source == null) {
+                return Optional.empty();
+            }
+            BufferedImage scaled = scale(source, box);
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+            try {
+                writeJpeg(scaled, temp);
+                move(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            generated.incrementAndGet();
+            return Optional.of(target);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.warn("Could not generate {} variant of {}: {}", variant, original.getFileName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Decode the original, subsampling while reading so a large photo is never fully decoded for a thumbnail
+     */
+    private BufferedImage read(Path original, int box) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("Image of " + width + "x" + height + " exceeds image.variants.max-pixels");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Keep at least twice the target size for a smooth final scale
+                int subsampling = Math.max(1, Math.max(width, height) / (box * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int box) {
+        double ratio = Math.min(1.0, Math.min((double) box / source.getWidth(), (double) box / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            // JPEG has no alpha: transparent areas (PNG signatures) become white
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("generated", generated.get());
+        stats.put("generatedOnRequest", generatedOnRequest.get());
+        stats.put("skippedQueueFull", skippedQueueFull.get());
+        stats.put("failed", failed.get());
+        stats.put("waiting", executor.getQueue().size());
+        stats.put("active", executor.getActiveCount());
+        return stats;
+    }
+
+    /**
+     * Wait until queued generations finish (tests)
+     */
+    boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (executor.getQueue().size() + executor.getActiveCount() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Unfinished variants are generated on first request after restart
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.Services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.Entities.OtpCode;
+import org.example.Repositories.OtpCodeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory OTP store (otp.store=memory, the default).
+ *
+ * Codes are held in a Caffeine cache keyed by user and purpose; each entry expires at its own expiresAt,
+ * so no cleanup query is needed. Attempts and the used flag are atomic fields on the entry, so issuing
+ * and verifying a code never touches the database on the request thread.
+ *
+ * otp_codes is still written for audit, write-behind on a single background thread (one insert per issued
+ * code, one update per attempt), in the order the changes happened. Losing those writes on a crash loses
+ * audit rows only. Only suitable when the node that sends a code also verifies it; use otp.store=database
+ * behind a load balancer without sticky sessions.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOtpStore implements OtpStore {
+
+    private final OtpCodeRepository otpCodeRepository;
+    private final Executor auditExecutor;
+
+    private final Cache<String, Entry> entries;
+
+    @Autowired
+    public InMemoryOtpStore(OtpCodeRepository otpCodeRepository) {
+        this(otpCodeRepository, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-audit");
+            thread.setDaemon(true);
+            return thread;
+        }), Ticker.systemTicker());
+    }
+
+    /**
+     * @param ticker clock the cache expires entries by (a fake one in tests)
+     */
+    InMemoryOtpStore(OtpCodeRepository otpCodeRepository, Executor auditExecutor, Ticker ticker) {
+        this.otpCodeRepository = otpCodeRepository;
+        this.auditExecutor = auditExecutor;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .ticker(ticker)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return Math.max(0, Duration.between(LocalDateTime.now(), entry.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Entry issue(Long userId, String purpose, String code, LocalDateTime expiresAt) {
+        Entry entry = new Entry(userId, purpose, code, LocalDateTime.now(), expiresAt, 0);
+        Entry previous = entries.asMap().put(key(userId, purpose), entry);
+        if (previous != null && previous.usedFlag().compareAndSet(false, true)) {
+            auditState(previous);
+        }
+        audit(() -> {
+            OtpCode row = new OtpCode();
+            row.setUserId(userId);
+            row.setOtpCode(code);
+            row.setPurpose(purpose);
+            row.setCreatedAt(entry.getCreatedAt());
+            row.setExpiresAt(expiresAt);
+            row.setAttemptCount(entry.getAttempts());
+            row.setUsed(entry.isUsed());
+            entry.setRecordId(otpCodeRepository.save(row).getId());
+        });
+        return entry;
+    }
+
+    @Override
+    public Optional<Entry> findActive(Long userId, String purpose) {
+        Entry entry = entries.getIfPresent(key(userId, purpose));
+        return entry != null && entry.isActive(LocalDateTime.now()) ? Optional.of(entry) : Optional.empty();
+    }
+
+    @Override
+    public boolean verify(Long userId, String purpose, String code, int maxAttempts) {
+        Entry entry = findActive(userId, purpose).orElse(null);
+        if (entry == null || !entry.tryAttempt(maxAttempts)) {
+            return false;
+        }
+        // compareAndSet: of two concurrent correct submissions only one succeeds
+        boolean valid = entry.matches(code) && entry.isActive(LocalDateTime.now())
+                && entry.usedFlag().compareAndSet(false, true);
+        auditState(entry);
+        return valid;
+    }
+
+    @Override
+    public void purgeExpired() {
+        entries.cleanUp();
+        audit(() -> {
+            otpCodeRepository.deleteExpiredOtps(LocalDateTime.now());
+            otpCodeRepository.deleteUsedOtpsOlderThan(LocalDateTime.now().minusHours(24));
+        });
+    }
+
+    long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    /**
+     * Write the entry's current attempts/used state; runs after the insert because the executor is serial
+     */
+    private void auditState(Entry entry) {
+        audit(() -> {
+            if (entry.getRecordId() != null) {
+                otpCodeRepository.updateState(entry.getRecordId(), entry.getAttempts(), entry.isUsed(),
+                        entry.getLastAttemptAt());
+            }
+        });
+    }
+
+    private void audit(Runnable write) {
+        try {
+            auditExecutor.execute(() -> {
+                try {
+                    write.run();
+                } catch (Exception e) {
+                    log.warn("Could not write OTP audit record: {}", e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            // Executor shut down; the code itself is unaffected
+            log.debug("OTP audit write dropped: {}", e.getMessage());
+        }
+    }
+
+    private static String key(Long userId, String purpose) {
+        return userId + ":" + purpose;
+    }
+
+    /**
+     * Flush queued audit writes on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (auditExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            try {
+                if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+                    log.warn("OTP audit writes still pending at shutdown were dropped");
+                    executorService.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
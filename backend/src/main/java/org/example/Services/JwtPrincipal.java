@@ -0,0 +1,110 @@
+package org.example.Services;
+
+import org.example.Entities.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Authenticated principal built from signed JWT claims (userId, role, branch, authorities), so an
+ * authenticated request needs no User lookup. getUsername() is the token subject (email), which is
+ * what auth.getName() returns to auditing and attribution code.
+ */
+public class JwtPrincipal implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+    private final String role;
+    private final String branch;
+    private final String fullName;
+    private final List<GrantedAuthority> authorities;
+
+    public JwtPrincipal(Long userId, String username, String role, String branch, String fullName,
+                        Collection<String> authorities) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.branch = branch;
+        this.fullName = fullName;
+        this.authorities = authorities.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Principal for a user loaded from the database (tokens issued before claims were added)
+     */
+    public static JwtPrincipal fromUser(User user) {
+        String role = user.getRole().name();
+        return new JwtPrincipal(user.getId(),
+                user.getEmail() != null ? user.getEmail() : user.getUsername(),
+                role, user.getBranch(), user.getName(), authoritiesFor(role));
+    }
+
+    /**
+     * Spring Security authorities for a role, as carried in the "authorities" claim
+     */
+    public static List<String> authoritiesFor(String role) {
+        return List.of("ROLE_" + role);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtPrincipal{userId=" + userId + ", username=" + username + ", role=" + role + "}";
+    }
+}
@@ -34,6 +34,9 @@ public class LoanPaymentsService {
     
     @Autowired
     private LoanWebSocketService loanWebSocketService;
+    
+    @Autowired
+    private PaymentTrendService paymentTrendService;
 
     // Enhanced Create - with payment processing
     public LoanPayments createPayment(LoanPayments payment) {
@@ -186,10 +189,10 @@ public class LoanPaymentsService {
 
     // Hard Delete (use with caution)
     public void deletePayment(Long id) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Payment not found with id: " + id);
-        }
+        LoanPayments payment = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Payment not found with id: " + id));
         repository.deleteById(id);
+        paymentTrendService.evictBucketsContaining(payment.getPaymentDate());
     }
     
     // Financial Summary Methods
@@ -1,7 +1,6 @@
 package org.example.Services;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -10,13 +9,14 @@ import java.util.Map;
 
 /**
  * Service for broadcasting real-time loan updates via WebSocket
- * Notifies frontend clients when loans are created, approved, rejected, disbursed, or payments are added
+ * Notifies frontend clients when loans are created, approved, rejected, disbursed, or payments are added.
+ * Messages go through WebSocketPublisher, so destinations without subscribers are skipped
  */
 @Service
 public class LoanWebSocketService {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private WebSocketPublisher webSocketPublisher;
 
     /**
      * Broadcast loan creation event
@@ -31,7 +31,7 @@ public class LoanWebSocketService {
             message.put("timestamp", LocalDateTime.now().toString());
             message.put("message", "New loan application created");
             
-            messagingTemplate.convertAndSend("/topic/loans/updates", message);
+            webSocketPublisher.publish(() -> message, "/topic/loans/updates");
             System.out.println("✅ WebSocket: Loan created broadcast sent for loan #" + loanId);
             
         } catch (Exception e) {
@@ -52,7 +52,7 @@ public class LoanWebSocketService {
             message.put("timestamp", LocalDateTime.now().toString());
             message.put("message", "Loan approved");
             
-            messagingTemplate.convertAndSend("/topic/loans/updates", message);
+            webSocketPublisher.publish(() -> message, "/topic/loans/updates");
             System.out.println("✅ WebSocket: Loan approved broadcast sent for loan #" + loanId);
             
         } catch (Exception e) {
@@ -74,7 +74,7 @@ public class LoanWebSocketService {
             message.put("timestamp", LocalDateTime.now().toString());
             message.put("message", "Loan rejected");
             
-            messagingTemplate.convertAndSend("/topic/loans/updates", message);
+            webSocketPublisher.publish(() -> message, "/topic/loans/updates");
             System.out.println("✅ WebSocket: Loan rejected broadcast sent for loan #" + loanId);
             
         } catch (Exception e) {
@@ -95,7 +95,7 @@ public class LoanWebSocketService {
             message.put("timestamp", LocalDateTime.now().toString());
             message.put("message", "Loan disbursed");
             
-            messagingTemplate.convertAndSend("/topic/loans/updates", message);
+            webSocketPublisher.publish(() -> message, "/topic/loans/updates");
             System.out.println("✅ WebSocket: Loan disbursed broadcast sent for loan #" + loanId);
             
         } catch (Exception e) {
@@ -117,7 +117,7 @@ public class LoanWebSocketService {
             message.put("timestamp", LocalDateTime.now().toString());
             message.put("message", "Payment recorded");
             
-            messagingTemplate.convertAndSend("/topic/loans/updates", message);
+            webSocketPublisher.publish(() -> message, "/topic/loans/updates");
             System.out.println("✅ WebSocket: Payment added broadcast sent for loan #" + loanId);
             
         } catch (Exception e) {
@@ -138,7 +138,7 @@ public class LoanWebSocketService {
             message.put("timestamp", LocalDateTime.now().toString());
             message.put("message", "Loan updated");
             
-            messagingTemplate.convertAndSend("/topic/loans/updates", message);
+            webSocketPublisher.publish(() -> message, "/topic/loans/updates");
             System.out.println("✅ WebSocket: Loan updated broadcast sent for loan #" + loanId);
             
         } catch (Exception e) {
@@ -158,7 +158,7 @@ public class LoanWebSocketService {
             message.put("timestamp", LocalDateTime.now().toString());
             message.put("message", "Loan details have been updated");
             
-            messagingTemplate.convertAndSend("/topic/loans/" + loanId, message);
+            webSocketPublisher.publish(() -> message, WebSocketPublisher.loanTopic(loanId));
             System.out.println("✅ WebSocket: Loan details update sent for loan #" + loanId);
             
         } catch (Exception e) {
@@ -178,7 +178,7 @@ public class LoanWebSocketService {
             message.put("archivedDate", loan.getArchivedDate() != null ? loan.getArchivedDate().toString() : null);
             message.put("timestamp", LocalDateTime.now().toString());
             
-            messagingTemplate.convertAndSend("/topic/loan.archived", message);
+            webSocketPublisher.publish(() -> message, "/topic/loan.archived");
             System.out.println("✅ WebSocket: Loan archived notification sent for loan #" + loan.getId());
             
         } catch (Exception e) {
@@ -197,7 +197,7 @@ public class LoanWebSocketService {
             message.put("archived", false);
             message.put("timestamp", LocalDateTime.now().toString());
             
-            messagingTemplate.convertAndSend("/topic/loan.unarchived", message);
+            webSocketPublisher.publish(() -> message, "/topic/loan.unarchived");
             System.out.println("✅ WebSocket: Loan unarchived notification sent for loan #" + loan.getId());
             
         } catch (Exception e) {
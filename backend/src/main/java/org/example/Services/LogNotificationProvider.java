@@ -0,0 +1,60 @@
+package org.example.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.DTOs.OutboundNotification;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stand-in provider that logs messages, and appends them to a file when one is configured
+ * (notifications.sink=log, notifications.log-file). Used for local runs and tests; nothing is sent.
+ */
+@Slf4j
+public class LogNotificationProvider implements NotificationProvider {
+
+    private final String channel;
+    private final Path file;
+
+    public LogNotificationProvider(String channel, Path file) {
+        this.channel = channel;
+        this.file = file;
+    }
+
+    @Override
+    public String getChannel() {
+        return channel;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public Map<Long, String> send(List<OutboundNotification> messages) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboundNotification message : messages) {
+            log.info("[{} {}] to={} type={} loan={} subject={}", channel, message.getId(), message.getRecipient(),
+                    message.getNotificationType(), message.getLoanId(), message.getSubject());
+            lines.append(LocalDateTime.now()).append('\t').append(channel).append('\t')
+                    .append(message.getId()).append('\t').append(message.getRecipient()).append('\t')
+                    .append(message.getNotificationType()).append('\t')
+                    .append(message.getBody().replace('\n', ' ')).append(System.lineSeparator());
+        }
+        if (file != null) {
+            synchronized (LogNotificationProvider.class) {
+                Files.writeString(file, lines, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        }
+        return Collections.emptyMap();
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.Services;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mail Transport Pool
+ *
+ * Keeps up to mail.pool.size connected SMTP transports so each email does not pay for a new TCP/TLS
+ * connection and SMTP login (JavaMailSenderImpl.send opens and closes one per call). A transport found
+ * disconnected is reconnected; a send that fails on a pooled connection is retried once on a fresh one,
+ * unless the server rejected the recipients (that would fail again on any connection).
+ * Falls back to JavaMailSender.send when the sender is not a configured JavaMailSenderImpl.
+ */
+@Component
+@Slf4j
+public class MailTransportPool {
+
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<Transport> idle;
+    private final AtomicLong connectionsOpened = new AtomicLong();
+
+    public MailTransportPool(JavaMailSender mailSender, @Value("${mail.pool.size:4}") int poolSize) {
+        this.mailSender = mailSender;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    }
+
+    public void send(MimeMessage message) throws MessagingException {
+        if (!(mailSender instanceof JavaMailSenderImpl sender) || sender.getHost() == null) {
+            mailSender.send(message);
+            return;
+        }
+        if (message.getSentDate() == null) {
+            message.setSentDate(new java.util.Date());
+        }
+        message.saveChanges();
+
+        Transport transport = borrow(sender);
+        boolean reusable = false;
+        try {
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException e) {
+                if (isRecipientFailure(e)) {
+                    // The server rejected addresses: the connection is fine and a retry would fail the same way
+                    reusable = true;
+                    throw e;
+                }
+                // Pooled connection may have been dropped by the server; retry once on a new one
+                close(transport);
+                transport = connect(sender);
+                transport.sendMessage(message, message.getAllRecipients());
+            }
+            reusable = true;
+        } finally {
+            // Also on a RuntimeException, so no transport is leaked
+            if (reusable) {
+                release(transport);
+            } else {
+                close(transport);
+            }
+        }
+    }
+
+    /**
+     * Permanent per-recipient rejection (e.g. 550 no such user), as opposed to a broken connection
+     */
+    static boolean isRecipientFailure(MessagingException e) {
+        return e instanceof SendFailedException sendFailed
+                && sendFailed.getInvalidAddresses() != null && sendFailed.getInvalidAddresses().length > 0;
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    private Transport borrow(JavaMailSenderImpl sender) throws MessagingException {
+        Transport transport = idle.poll();
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        if (transport != null) {
+            close(transport);
+        }
+        return connect(sender);
+    }
+
+    private Transport connect(JavaMailSenderImpl sender) throws MessagingException {
+        Transport transport = sender.getSession().getTransport(
+                sender.getProtocol() != null ? sender.getProtocol() : "smtp");
+        transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        connectionsOpened.incrementAndGet();
+        return transport;
+    }
+
+    private void release(Transport transport) {
+        if (!idle.offer(transport)) {
+            close(transport);
+        }
+    }
+
+    private static void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP transport: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            close(transport);
+        }
+    }
+}
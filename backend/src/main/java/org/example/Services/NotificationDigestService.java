@@ -0,0 +1,193 @@
+package org.example.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.DTOs.DigestItem;
+import org.example.DTOs.OutboundNotification;
+import org.example.Repositories.NotificationDigestRepository;
+import org.example.Repositories.NotificationDigestRepository.ClientContact;
+import org.example.Repositories.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Notification Digest Service
+ *
+ * Client reminders from the schedulers are collected as lines per client (notification_digest_items)
+ * instead of being sent one loan at a time. Once a client's lines have settled for
+ * notifications.digest.window-minutes (both 08:00 jobs have run), they are combined into one email and
+ * one SMS in the notification outbox, most urgent first. The same reminder reported by two jobs is one line.
+ * Email goes to the client's user email, SMS to the person's contact number; a missing one skips that channel.
+ */
+@Service
+@Slf4j
+public class NotificationDigestService {
+
+    // Most urgent first; decides line order and the email subject
+    private static final List<String> TYPE_PRIORITY = List.of(
+            "DEFAULT_WARNING", "LATE_PAYMENT", "PAYMENT_DUE", "MATURITY_REMINDER");
+
+    private static final Map<String, String> SUBJECTS = Map.of(
+            "DEFAULT_WARNING", "URGENT: Loan Default Warning",
+            "LATE_PAYMENT", "Late Payment Alert",
+            "PAYMENT_DUE", "Payment Due Reminder",
+            "MATURITY_REMINDER", "Loan Maturity Notice");
+
+    private final NotificationDigestRepository digestRepository;
+    private final NotificationOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${notifications.digest.window-minutes:5}")
+    private int windowMinutes = 5;
+
+    @Value("${notifications.digest.batch-size:500}")
+    private int batchSize = 500;
+
+    public NotificationDigestService(NotificationDigestRepository digestRepository,
+                                     NotificationOutboxRepository outboxRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.digestRepository = digestRepository;
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Add reminder lines for the next digest
+     *
+     * @return number of new lines (duplicates of today's lines are skipped)
+     */
+    public int add(List<DigestItem> items) {
+        return digestRepository.addAll(items, LocalDateTime.now());
+    }
+
+    /**
+     * Send the digests of every client whose lines have settled
+     *
+     * @return number of clients notified
+     */
+    @Scheduled(fixedDelayString = "${notifications.digest.flush-ms:60000}")
+    public int flushReady() {
+        int clients = 0;
+        try {
+            while (true) {
+                Integer flushed = transactionTemplate.execute(status -> flushBatch());
+                if (flushed == null || flushed == 0) {
+                    break;
+                }
+                clients += flushed;
+                if (flushed < batchSize) {
+                    break;
+                }
+            }
+            if (clients > 0) {
+                log.info("Queued reminder digests for {} clients", clients);
+            }
+        } catch (Exception e) {
+            log.error("Reminder digest flush failed after {} clients: {}", clients, e.getMessage());
+        }
+        return clients;
+    }
+
+    /**
+     * Build, queue and mark one batch of clients (one transaction, so a digest is queued exactly once)
+     */
+    private int flushBatch() {
+        List<Long> clientIds = digestRepository.findClientsReady(LocalDateTime.now().minusMinutes(windowMinutes), batchSize);
+        if (clientIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<DigestItem>> byClient = digestRepository.findPendingForClients(clientIds).stream()
+                .collect(Collectors.groupingBy(DigestItem::getClientId, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, ClientContact> contacts = digestRepository.findContacts(byClient.keySet());
+
+        List<OutboundNotification> messages = new ArrayList<>(byClient.size() * 2);
+        List<Long> itemIds = new ArrayList<>();
+        byClient.forEach((clientId, items) -> {
+            messages.addAll(buildDigest(clientId, contacts.get(clientId), items));
+            items.forEach(item -> itemIds.add(item.getId()));
+        });
+        outboxRepository.enqueueAll(messages, LocalDateTime.now());
+        digestRepository.markDigested(itemIds, LocalDateTime.now());
+        return clientIds.size();
+    }
+
+    /**
+     * One email and one SMS covering all of a client's lines; a channel without a contact is skipped
+     */
+    List<OutboundNotification> buildDigest(Long clientId, ClientContact contact, List<DigestItem> items) {
+        String email = contact != null ? contact.email() : null;
+        String phone = contact != null ? contact.phone() : null;
+        if (email == null && phone == null) {
+            // The lines are still marked digested; a retry would not find a contact either
+            log.warn("No email or phone for client {}; dropped {} reminder lines", clientId, items.size());
+            return List.of();
+        }
+
+        List<DigestItem> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator.comparingInt((DigestItem item) -> priority(item.getNotificationType()))
+                .thenComparing(DigestItem::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        DigestItem mostUrgent = ordered.get(0);
+
+        StringBuilder body = new StringBuilder();
+        if ("DEFAULT_WARNING".equals(mostUrgent.getNotificationType())) {
+            body.append("URGENT NOTICE\n\n");
+        }
+        body.append("Dear Customer,\n\n");
+        if (ordered.size() == 1) {
+            body.append(mostUrgent.getLine()).append("\n");
+        } else {
+            body.append("You have ").append(ordered.size()).append(" loan reminders:\n");
+            for (DigestItem item : ordered) {
+                body.append("- ").append(item.getLine()).append("\n");
+            }
+        }
+        body.append("\nPlease make payment on time to avoid penalties.\n\nThank you.");
+
+        String type = ordered.size() == 1 ? mostUrgent.getNotificationType() : "DIGEST";
+        String subject = SUBJECTS.getOrDefault(mostUrgent.getNotificationType(), "Loan Reminder");
+        if (ordered.size() > 1) {
+            subject += " (" + ordered.size() + " loans)";
+        }
+        Long loanId = ordered.size() == 1 ? mostUrgent.getLoanId() : null;
+        // First line id is unique per digest, so a retried flush cannot queue it twice
+        String dedupePrefix = "DIGEST:" + clientId + ":" + items.stream().mapToLong(DigestItem::getId).min().orElse(0) + ":";
+
+        String text = body.toString();
+        List<OutboundNotification> messages = new ArrayList<>(2);
+        if (email != null) {
+            messages.add(OutboundNotification.of(OutboundNotification.CHANNEL_EMAIL, email, subject, text, type,
+                    loanId, dedupePrefix + OutboundNotification.CHANNEL_EMAIL));
+        }
+        if (phone != null) {
+            messages.add(OutboundNotification.of(OutboundNotification.CHANNEL_SMS, phone, null, text, type,
+                    loanId, dedupePrefix + OutboundNotification.CHANNEL_SMS));
+        }
+        return messages;
+    }
+
+    /**
+     * Drop digested lines older than a week (kept meanwhile to dedupe re-runs of the same day)
+     */
+    @Scheduled(cron = "0 15 3 * * *")
+    public void purgeDigested() {
+        int purged = digestRepository.deleteDigestedBefore(LocalDateTime.now().minusDays(7));
+        if (purged > 0) {
+            log.debug("Purged {} digested reminder lines", purged);
+        }
+    }
+
+    private static int priority(String type) {
+        int index = TYPE_PRIORITY.indexOf(type);
+        return index < 0 ? TYPE_PRIORITY.size() : index;
+    }
+}
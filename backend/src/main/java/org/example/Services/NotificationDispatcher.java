@@ -0,0 +1,306 @@
+package org.example.Services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.DTOs.OutboundNotification;
+import org.example.Repositories.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notification Dispatcher
+ *
+ * Delivers notification_outbox in the background. Every poll, each channel with no sender running gets
+ * one on a small fixed pool (notifications.dispatch.threads). A sender claims due messages in batches,
+ * paces them to the channel's rate limit, hands them to the channel's NotificationProvider in batches of
+ * the provider's size, and records the outcome: SENT, back to PENDING with exponential backoff, or DEAD
+ * after notifications.max-attempts. Claims are per batch, so several nodes can drain the same outbox.
+ */
+@Service
+@Slf4j
+public class NotificationDispatcher {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final Map<String, NotificationProvider> providers = new LinkedHashMap<>();
+    private final Map<String, Pacer> pacers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicBoolean> draining = new ConcurrentHashMap<>();
+    private final Map<String, ChannelStats> stats = new ConcurrentHashMap<>();
+
+    @Value("${notifications.dispatch.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${notifications.dispatch.threads:2}")
+    private int threads = 2;
+
+    @Value("${notifications.dispatch.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${notifications.max-attempts:6}")
+    private int maxAttempts = 6;
+
+    @Value("${notifications.retry-base-seconds:30}")
+    private long retryBaseSeconds = 30;
+
+    @Value("${notifications.retry-max-seconds:3600}")
+    private long retryMaxSeconds = 3600;
+
+    @Value("${notifications.email.rate-per-second:10}")
+    private double emailRatePerSecond = 10;
+
+    @Value("${notifications.sms.rate-per-second:20}")
+    private double smsRatePerSecond = 20;
+
+    @Value("${notifications.stale-claim-minutes:5}")
+    private int staleClaimMinutes = 5;
+
+    @Value("${notifications.retention-days:30}")
+    private int retentionDays = 30;
+
+    private ExecutorService executor;
+    private volatile boolean stopping;
+
+    public NotificationDispatcher(NotificationOutboxRepository outboxRepository,
+                                  List<NotificationProvider> providers,
+                                  @Value("${notifications.sink:providers}") String sink,
+                                  @Value("${notifications.log-file:}") String logFile) {
+        this.outboxRepository = outboxRepository;
+        Path file = logFile == null || logFile.isBlank() ? null : Path.of(logFile);
+        for (String channel : List.of(OutboundNotification.CHANNEL_EMAIL, OutboundNotification.CHANNEL_SMS)) {
+            this.providers.put(channel, new LogNotificationProvider(channel, file));
+        }
+        if (!"log".equalsIgnoreCase(sink)) {
+            providers.forEach(provider -> this.providers.put(provider.getChannel(), provider));
+        }
+    }
+
+    /**
+     * Start a sender for every channel that has none running (the sender stops when nothing is due)
+     */
+    @Scheduled(fixedDelayString = "${notifications.dispatch.poll-ms:2000}")
+    public void poll() {
+        if (!enabled || stopping) {
+            return;
+        }
+        synchronized (this) {
+            if (executor == null) {
+                AtomicLong threadCount = new AtomicLong();
+                executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+                    Thread thread = new Thread(runnable, "notification-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        for (String channel : providers.keySet()) {
+            AtomicBoolean running = draining.computeIfAbsent(channel, key -> new AtomicBoolean());
+            if (running.compareAndSet(false, true)) {
+                executor.submit(() -> {
+                    try {
+                        drain(channel);
+                    } catch (Exception e) {
+                        log.warn("Notification sender for {} stopped: {}", channel, e.getMessage());
+                    } finally {
+                        running.set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Send due messages of one channel until none are left
+     *
+     * @return number of messages processed
+     */
+    int drain(String channel) throws InterruptedException {
+        NotificationProvider provider = providers.get(channel);
+        int processed = 0;
+        while (!stopping) {
+            String claimToken = UUID.randomUUID().toString();
+            List<OutboundNotification> claimed = outboxRepository.claimDue(channel, claimToken, batchSize,
+                    LocalDateTime.now());
+            if (claimed.isEmpty()) {
+                break;
+            }
+            int providerBatch = Math.max(1, provider.getMaxBatchSize());
+            for (int from = 0; from < claimed.size(); from += providerBatch) {
+                List<OutboundNotification> batch = claimed.subList(from, Math.min(from + providerBatch, claimed.size()));
+                pacer(channel).acquire(batch.size());
+                deliver(provider, batch);
+            }
+            processed += claimed.size();
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+        return processed;
+    }
+
+    private void deliver(NotificationProvider provider, List<OutboundNotification> batch) {
+        ChannelStats channelStats = stats(provider.getChannel());
+        Map<Long, String> failures;
+        try {
+            failures = provider.send(batch);
+        } catch (Exception e) {
+            failures = new LinkedHashMap<>();
+            for (OutboundNotification message : batch) {
+                failures.put(message.getId(), e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            }
+        }
+
+        List<Long> sent = new ArrayList<>();
+        for (OutboundNotification message : batch) {
+            if (!failures.containsKey(message.getId())) {
+                sent.add(message.getId());
+                continue;
+            }
+            String error = failures.get(message.getId());
+            int attempts = message.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                outboxRepository.markDead(message.getId(), error);
+                channelStats.dead.incrementAndGet();
+                log.warn("Notification {} ({} to {}) dead-lettered after {} attempts: {}", message.getId(),
+                        message.getNotificationType(), message.getRecipient(), attempts, error);
+            } else {
+                outboxRepository.markRetry(message.getId(), LocalDateTime.now().plusNanos(
+                        TimeUnit.MILLISECONDS.toNanos(backoffMillis(attempts))), error);
+                channelStats.retried.incrementAndGet();
+            }
+        }
+        outboxRepository.markSent(sent, LocalDateTime.now());
+        channelStats.sent.addAndGet(sent.size());
+    }
+
+    /**
+     * Delay before the next attempt: retry-base-seconds doubled per failed attempt, capped at
+     * retry-max-seconds, with up to 20% jitter so failed batches do not retry in lockstep
+     */
+    long backoffMillis(int failedAttempts) {
+        long base = TimeUnit.SECONDS.toMillis(retryBaseSeconds);
+        long delay = Math.min(TimeUnit.SECONDS.toMillis(retryMaxSeconds),
+                base << Math.min(20, Math.max(0, failedAttempts - 1)));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    /**
+     * Release claims left by a stopped node and purge old sent messages
+     */
+    @Scheduled(fixedDelay = 300000)
+    public void maintain() {
+        try {
+            int released = outboxRepository.releaseStaleClaims(LocalDateTime.now().minusMinutes(staleClaimMinutes));
+            if (released > 0) {
+                log.info("Released {} notifications claimed by a stopped sender", released);
+            }
+            outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        } catch (Exception e) {
+            log.warn("Notification outbox maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Queue dead-lettered notifications again (e.g. after fixing provider credentials)
+     */
+    public int requeueDead() {
+        return outboxRepository.requeueDead(LocalDateTime.now());
+    }
+
+    /**
+     * Outbox counts per channel and status, plus what this node sent since startup
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("outbox", outboxRepository.countByChannelAndStatus());
+        Map<String, Object> channels = new LinkedHashMap<>();
+        providers.forEach((channel, provider) -> {
+            ChannelStats channelStats = stats(channel);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("provider", provider.getClass().getSimpleName());
+            entry.put("maxBatchSize", provider.getMaxBatchSize());
+            entry.put("ratePerSecond", ratePerSecond(channel));
+            entry.put("sending", draining.getOrDefault(channel, new AtomicBoolean()).get());
+            entry.put("sent", channelStats.sent.get());
+            entry.put("retried", channelStats.retried.get());
+            entry.put("dead", channelStats.dead.get());
+            channels.put(channel, entry);
+        });
+        result.put("channels", channels);
+        return result;
+    }
+
+    private ChannelStats stats(String channel) {
+        return stats.computeIfAbsent(channel, key -> new ChannelStats());
+    }
+
+    private Pacer pacer(String channel) {
+        return pacers.computeIfAbsent(channel, key -> new Pacer(ratePerSecond(key)));
+    }
+
+    private double ratePerSecond(String channel) {
+        return OutboundNotification.CHANNEL_SMS.equals(channel) ? smsRatePerSecond : emailRatePerSecond;
+    }
+
+    /**
+     * Finish the current batch and stop
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Spaces sends evenly at the channel's rate; a batch of n messages takes n slots
+     */
+    static final class Pacer {
+        private final long intervalNanos;
+        private long nextFree;
+
+        Pacer(double ratePerSecond) {
+            this.intervalNanos = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+            this.nextFree = System.nanoTime();
+        }
+
+        void acquire(int permits) throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long start = Math.max(now, nextFree);
+                nextFree = start + intervalNanos * permits;
+                waitNanos = start - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+
+    private static final class ChannelStats {
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong retried = new AtomicLong();
+        private final AtomicLong dead = new AtomicLong();
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.Services;
+
+import org.example.DTOs.OutboundNotification;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivery channel used by NotificationDispatcher (one provider per channel).
+ */
+public interface NotificationProvider {
+
+    /**
+     * OutboundNotification.CHANNEL_EMAIL or CHANNEL_SMS
+     */
+    String getChannel();
+
+    /**
+     * Most messages passed to one send call; 1 when the provider has no batch API
+     */
+    default int getMaxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Deliver the messages
+     *
+     * @return error message per notification id that failed; empty when all were delivered.
+     *         Throwing fails the whole batch.
+     */
+    Map<Long, String> send(List<OutboundNotification> messages) throws Exception;
+}
@@ -1,181 +1,174 @@
 package org.example.Services;
 
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.DTOs.DigestItem;
+import org.example.DTOs.OutboundNotification;
+import org.example.Entities.LoanDetails;
+import org.example.Entities.LoanInstallmentSchedule;
 import org.example.Entities.LoanTracking;
+import org.example.Repositories.LoanDetailsRepository;
+import org.example.Repositories.NotificationOutboxRepository;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Notification Service
  * Handles all notification types: Email, SMS, Push Notifications
+ *
+ * Client reminders become lines of the client's next digest (NotificationDigestService): one email and
+ * one SMS per client per run however many loans are due, and a reminder already added today is skipped.
+ * Messages are delivered from notification_outbox by NotificationDispatcher, so callers (the schedulers)
+ * only pay for one batched insert.
  */
 @Service
+@RequiredArgsConstructor
+@Slf4j
 public class NotificationService {
     
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationDigestService digestService;
+    private final LoanDetailsRepository loanDetailsRepository;
+    
     /**
      * Send late payment notification
      */
     public void sendLatePaymentNotification(LoanTracking tracking) {
-        String clientContact = getClientContact(tracking.getClientId());
-        String message = buildLatePaymentMessage(tracking);
-        
-        // Send via multiple channels
-        sendEmail(clientContact, "Late Payment Alert", message);
-        sendSMS(clientContact, message);
-        
-        logNotification("LATE_PAYMENT", tracking.getLoanId(), clientContact);
+        sendBatchLatePaymentNotifications(List.of(tracking));
     }
     
     /**
      * Send payment due reminder
      */
     public void sendPaymentDueReminder(LoanTracking tracking) {
-        String clientContact = getClientContact(tracking.getClientId());
-        String message = buildPaymentDueMessage(tracking);
-        
-        sendEmail(clientContact, "Payment Due Reminder", message);
-        sendSMS(clientContact, message);
-        
-        logNotification("PAYMENT_DUE", tracking.getLoanId(), clientContact);
+        sendPaymentDueReminders(List.of(tracking));
     }
     
     /**
      * Send default warning
      */
     public void sendDefaultWarning(LoanTracking tracking) {
-        String clientContact = getClientContact(tracking.getClientId());
-        String message = buildDefaultWarningMessage(tracking);
-        
-        sendEmail(clientContact, "URGENT: Loan Default Warning", message);
-        sendSMS(clientContact, message);
-        
-        logNotification("DEFAULT_WARNING", tracking.getLoanId(), clientContact);
+        sendDefaultWarnings(List.of(tracking));
     }
     
     /**
      * Send maturity reminder
      */
     public void sendMaturityReminder(LoanTracking tracking) {
-        String clientContact = getClientContact(tracking.getClientId());
-        String message = buildMaturityReminderMessage(tracking);
-        
-        sendEmail(clientContact, "Loan Maturity Notice", message);
-        sendSMS(clientContact, message);
-        
-        logNotification("MATURITY_REMINDER", tracking.getLoanId(), clientContact);
+        sendMaturityReminders(List.of(tracking));
     }
     
     /**
      * Send weekly report to management
      */
     public void sendWeeklyReport(String recipient, String reportContent) {
-        sendEmail(recipient, "Weekly Portfolio Report", reportContent);
-        logNotification("WEEKLY_REPORT", null, recipient);
+        outboxRepository.enqueueAll(List.of(OutboundNotification.of(OutboundNotification.CHANNEL_EMAIL, recipient,
+                "Weekly Portfolio Report", reportContent, "WEEKLY_REPORT", null, null)), LocalDateTime.now());
     }
     
     /**
      * Send batch notifications for multiple loans
      */
     public void sendBatchLatePaymentNotifications(List<LoanTracking> lateLoans) {
-        System.out.println("Sending notifications for " + lateLoans.size() + " late loans...");
+        enqueueForLoans(lateLoans, "LATE_PAYMENT", this::buildLatePaymentLine);
+    }
+    
+    public void sendPaymentDueReminders(List<LoanTracking> loans) {
+        enqueueForLoans(loans, "PAYMENT_DUE", this::buildPaymentDueLine);
+    }
+    
+    public void sendDefaultWarnings(List<LoanTracking> loans) {
+        enqueueForLoans(loans, "DEFAULT_WARNING", this::buildDefaultWarningLine);
+    }
+    
+    public void sendMaturityReminders(List<LoanTracking> loans) {
+        enqueueForLoans(loans, "MATURITY_REMINDER", this::buildMaturityReminderLine);
+    }
+    
+    /**
+     * Payment reminders for installments due today (InstallmentStatusScheduler). A loan already reminded
+     * by checkPaymentsDueToday is one digest line, not two.
+     */
+    public void sendInstallmentDueReminders(List<LoanInstallmentSchedule> installments) {
+        if (installments.isEmpty()) {
+            return;
+        }
+        Map<Long, LoanDetails> loans = new HashMap<>();
+        loanDetailsRepository.findAllById(installments.stream().map(LoanInstallmentSchedule::getLoanId).distinct().toList())
+                .forEach(loan -> loans.put(loan.getId(), loan));
         
-        for (LoanTracking loan : lateLoans) {
+        LocalDate today = LocalDate.now();
+        List<DigestItem> items = new ArrayList<>();
+        for (LoanInstallmentSchedule installment : installments) {
+            LoanDetails loan = loans.get(installment.getLoanId());
+            if (loan == null || loan.getClientId() == null) {
+                continue;
+            }
+            items.add(DigestItem.of(loan.getClientId(), today, "PAYMENT_DUE", loan.getId(), loan.getLoanNumber(),
+                    String.format("Loan #%s: installment %d of USh %,.2f is due today.",
+                            loan.getLoanNumber(), installment.getInstallmentNumber(),
+                            amount(installment.getOutstandingAmount() != null
+                                    ? installment.getOutstandingAmount() : installment.getScheduledAmount()))));
+        }
+        addToDigest(items, "PAYMENT_DUE");
+    }
+    
+    /**
+     * Add one digest line per loan
+     */
+    private void enqueueForLoans(List<LoanTracking> loans, String type, Function<LoanTracking, String> lineBuilder) {
+        if (loans.isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<DigestItem> items = new ArrayList<>(loans.size());
+        for (LoanTracking loan : loans) {
             try {
-                sendLatePaymentNotification(loan);
+                items.add(DigestItem.of(loan.getClientId(), today, type, loan.getLoanId(), loan.getLoanNumber(),
+                        lineBuilder.apply(loan)));
             } catch (Exception e) {
-                System.err.println("Failed to send notification for loan " + loan.getLoanId() + ": " + e.getMessage());
+                log.warn("Could not build {} notification for loan {}: {}", type, loan.getLoanId(), e.getMessage());
             }
         }
-        
-        System.out.println("Batch notifications completed.");
-    }
-    
-    // ===== MESSAGE BUILDERS =====
-    
-    private String buildLatePaymentMessage(LoanTracking tracking) {
-        return String.format(
-            "Dear Customer,\n\n" +
-            "Your loan payment for Loan #%s is overdue by %d days.\n" +
-            "Outstanding Balance: USh %,.2f\n" +
-            "Please make payment immediately to avoid penalties.\n\n" +
-            "Thank you.",
-            tracking.getLoanNumber(),
-            tracking.getDaysLate(),
-            tracking.getOutstandingBalance()
-        );
-    }
-    
-    private String buildPaymentDueMessage(LoanTracking tracking) {
-        return String.format(
-            "Dear Customer,\n\n" +
-            "Reminder: Payment for Loan #%s is due on %s.\n" +
-            "Amount Due: USh %,.2f\n" +
-            "Please ensure timely payment.\n\n" +
-            "Thank you.",
-            tracking.getLoanNumber(),
-            tracking.getNextPaymentDueDate(),
-            tracking.getExpectedPaymentAmount()
-        );
-    }
-    
-    private String buildDefaultWarningMessage(LoanTracking tracking) {
-        return String.format(
-            "URGENT NOTICE\n\n" +
-            "Dear Customer,\n\n" +
-            "Your loan #%s is %d days overdue and at risk of default.\n" +
-            "Outstanding Balance: USh %,.2f\n" +
-            "Contact us immediately to arrange payment.\n\n" +
-            "This is a final warning.",
-            tracking.getLoanNumber(),
-            tracking.getDaysLate(),
-            tracking.getOutstandingBalance()
-        );
-    }
-    
-    private String buildMaturityReminderMessage(LoanTracking tracking) {
-        return String.format(
-            "Dear Customer,\n\n" +
-            "Your loan #%s will mature on %s.\n" +
-            "Final Balance: USh %,.2f\n" +
-            "Please ensure full payment by maturity date.\n\n" +
-            "Thank you.",
-            tracking.getLoanNumber(),
-            tracking.getLoanMaturityDate(),
-            tracking.getOutstandingBalance()
-        );
-    }
-    
-    // ===== CHANNEL IMPLEMENTATIONS =====
-    
-    private void sendEmail(String recipient, String subject, String body) {
-        // TODO: Implement actual email sending
-        System.out.println("📧 EMAIL SENT");
-        System.out.println("To: " + recipient);
-        System.out.println("Subject: " + subject);
-        System.out.println("Body: " + body);
-        System.out.println("---");
-    }
-    
-    private void sendSMS(String phoneNumber, String message) {
-        // TODO: Implement actual SMS sending
-        System.out.println("📱 SMS SENT");
-        System.out.println("To: " + phoneNumber);
-        System.out.println("Message: " + message);
-        System.out.println("---");
-    }
-    
-    private void logNotification(String type, Long loanId, String recipient) {
-        System.out.println(String.format(
-            "[NOTIFICATION LOG] Type: %s, Loan: %s, Recipient: %s, Time: %s",
-            type,
-            loanId != null ? loanId : "N/A",
-            recipient,
-            java.time.LocalDateTime.now()
-        ));
-    }
-    
-    private String getClientContact(Long clientId) {
-        // TODO: Fetch from database
-        return "client" + clientId + "@example.com";
+        addToDigest(items, type);
+    }
+    
+    private void addToDigest(List<DigestItem> items, String type) {
+        int added = digestService.add(items);
+        log.info("Added {} {} reminders to client digests ({} already added today)", added, type, items.size() - added);
+    }
+    
+    // ===== LINE BUILDERS =====
+    
+    private String buildLatePaymentLine(LoanTracking tracking) {
+        return String.format("Loan #%s is overdue by %d days. Outstanding balance: USh %,.2f.",
+            tracking.getLoanNumber(), tracking.getDaysLate(), amount(tracking.getOutstandingBalance()));
+    }
+    
+    private String buildPaymentDueLine(LoanTracking tracking) {
+        return String.format("Loan #%s: USh %,.2f is due on %s.",
+            tracking.getLoanNumber(), amount(tracking.getExpectedPaymentAmount()), tracking.getNextPaymentDueDate());
+    }
+    
+    private String buildDefaultWarningLine(LoanTracking tracking) {
+        return String.format("Loan #%s is %d days overdue and at risk of default. Outstanding balance: USh %,.2f. " +
+            "Contact us immediately to arrange payment.",
+            tracking.getLoanNumber(), tracking.getDaysLate(), amount(tracking.getOutstandingBalance()));
+    }
+    
+    private String buildMaturityReminderLine(LoanTracking tracking) {
+        return String.format("Loan #%s matures on %s. Final balance: USh %,.2f.",
+            tracking.getLoanNumber(), tracking.getLoanMaturityDate(), amount(tracking.getOutstandingBalance()));
+    }
+    
+    private static double amount(Double value) {
+        return value != null ? value : 0.0;
     }
 }
@@ -38,6 +38,9 @@ public class OperationalExpensesService {
     @Autowired
     private UniqueIdGenerator uniqueIdGenerator;
 
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+
     // Create expense
     public OperationalExpenses createExpense(OperationalExpenses expense) {
         // Generate expense reference if not provided
@@ -67,6 +70,7 @@ public class OperationalExpensesService {
         }
         
         OperationalExpenses savedExpense = repository.save(expense);
+        reportSnapshotService.recordBackdatedChange(savedExpense.getExpenseDate());
         
         // Publish expense created event
         eventPublisher.publishEvent(new ExpenseCreatedEvent(this, savedExpense, String.valueOf(currentUserId)));
@@ -116,16 +120,21 @@ public class OperationalExpensesService {
                     updatedExpense.setUpdatedAt(LocalDateTime.now());
                     updatedExpense.setCategory(category);
                     
-                    return repository.save(updatedExpense);
+                    // Both the old and the new date may be closed days
+                    LocalDate previousDate = existing.getExpenseDate();
+                    OperationalExpenses savedExpense = repository.save(updatedExpense);
+                    reportSnapshotService.recordBackdatedChange(previousDate);
+                    reportSnapshotService.recordBackdatedChange(savedExpense.getExpenseDate());
+                    return savedExpense;
                 }).orElseThrow(() -> new InvalidExpenseException("Expense not found with id: " + id));
     }
 
     // Delete expense
     public void deleteExpense(Long id) {
-        if (!repository.existsById(id)) {
-            throw new InvalidExpenseException("Expense not found with id: " + id);
-        }
+        OperationalExpenses expense = repository.findById(id)
+                .orElseThrow(() -> new InvalidExpenseException("Expense not found with id: " + id));
         repository.deleteById(id);
+        reportSnapshotService.recordBackdatedChange(expense.getExpenseDate());
     }
 
     // Get expenses by category
@@ -189,7 +198,10 @@ public class OperationalExpensesService {
                 .map(expense -> {
                     expense.setStatus(status);
                     expense.setUpdatedAt(LocalDateTime.now());
-                    return repository.save(expense);
+                    OperationalExpenses savedExpense = repository.save(expense);
+                    // Cancelled expenses drop out of the daily totals
+                    reportSnapshotService.recordBackdatedChange(savedExpense.getExpenseDate());
+                    return savedExpense;
                 }).orElseThrow(() -> new InvalidExpenseException("Expense not found with id: " + id));
     }
 
@@ -274,6 +286,8 @@ public class OperationalExpensesService {
                     expense.setUpdatedAt(LocalDateTime.now());
                     
                     OperationalExpenses savedExpense = repository.save(expense);
+                    // Rejected expenses drop out of the daily totals
+                    reportSnapshotService.recordBackdatedChange(savedExpense.getExpenseDate());
                     
                     // Publish expense rejected event
                     eventPublisher.publishEvent(new ExpenseRejectedEvent(this, savedExpense, String.valueOf(currentUserId)));
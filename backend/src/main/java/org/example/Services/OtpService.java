@@ -1,21 +1,24 @@
 package org.example.Services;
 
 import jakarta.mail.MessagingException;
-import org.example.Entities.OtpCode;
 import org.example.Entities.User;
-import org.example.Repositories.OtpCodeRepository;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
+/**
+ * OTP Service
+ *
+ * Issues and validates one-time codes for login and password reset. Codes are kept in the configured
+ * OtpStore (otp.store): in memory by default, or in otp_codes for multi-node deployments.
+ */
 @Service
 public class OtpService {
     
-    private final OtpCodeRepository otpCodeRepository;
+    private final OtpStore otpStore;
     private final EmailService emailService;
     private final SecureRandom secureRandom;
     
@@ -25,8 +28,8 @@ public class OtpService {
     private static final int MAX_ATTEMPTS = 3;
     private static final int RESEND_COOLDOWN_SECONDS = 60;
     
-    public OtpService(OtpCodeRepository otpCodeRepository, EmailService emailService) {
-        this.otpCodeRepository = otpCodeRepository;
+    public OtpService(OtpStore otpStore, EmailService emailService) {
+        this.otpStore = otpStore;
         this.emailService = emailService;
         this.secureRandom = new SecureRandom();
     }
@@ -42,23 +45,11 @@ public class OtpService {
     /**
      * Generate and send OTP for login
      */
-    @Transactional
     public void generateAndSendLoginOtp(User user) throws MessagingException {
-        // Invalidate any existing OTPs for this user
-        otpCodeRepository.invalidateUserOtps(user.getId(), OTP_PURPOSE_LOGIN);
-        
-        // Generate new OTP
         String otpCode = generateOTP();
         
-        // Save OTP to database
-        OtpCode otp = new OtpCode();
-        otp.setUserId(user.getId());
-        otp.setOtpCode(otpCode);
-        otp.setPurpose(OTP_PURPOSE_LOGIN);
-        otp.setCreatedAt(LocalDateTime.now());
-        otp.setExpiresAt(LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES));
-        
-        otpCodeRepository.save(otp);
+        // Replaces (invalidates) any existing login OTP for this user
+        otpStore.issue(user.getId(), OTP_PURPOSE_LOGIN, otpCode, LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES));
         
         // Send email
         emailService.sendOtpEmail(user.getEmail(), otpCode, user.getName());
@@ -67,23 +58,12 @@ public class OtpService {
     /**
      * Generate and send OTP for password reset
      */
-    @Transactional
     public void generateAndSendPasswordResetOtp(User user) throws MessagingException {
-        // Invalidate any existing OTPs for this user
-        otpCodeRepository.invalidateUserOtps(user.getId(), OTP_PURPOSE_PASSWORD_RESET);
-        
-        // Generate new OTP
         String otpCode = generateOTP();
         
-        // Save OTP to database
-        OtpCode otp = new OtpCode();
-        otp.setUserId(user.getId());
-        otp.setOtpCode(otpCode);
-        otp.setPurpose(OTP_PURPOSE_PASSWORD_RESET);
-        otp.setCreatedAt(LocalDateTime.now());
-        otp.setExpiresAt(LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES));
-        
-        otpCodeRepository.save(otp);
+        // Replaces (invalidates) any existing password reset OTP for this user
+        otpStore.issue(user.getId(), OTP_PURPOSE_PASSWORD_RESET, otpCode,
+                LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES));
         
         // Send email
         emailService.sendPasswordResetOtp(user.getEmail(), otpCode, user.getName());
@@ -92,76 +72,28 @@ public class OtpService {
     /**
      * Validate OTP code for login
      */
-    @Transactional
     public boolean validateLoginOtp(Long userId, String otpCode) {
-        return validateOtp(userId, otpCode, OTP_PURPOSE_LOGIN);
+        return otpStore.verify(userId, OTP_PURPOSE_LOGIN, otpCode, MAX_ATTEMPTS);
     }
     
     /**
      * Validate OTP code for password reset
      */
-    @Transactional
     public boolean validatePasswordResetOtp(Long userId, String otpCode) {
-        return validateOtp(userId, otpCode, OTP_PURPOSE_PASSWORD_RESET);
-    }
-    
-    /**
-     * Core OTP validation logic
-     */
-    private boolean validateOtp(Long userId, String otpCode, String purpose) {
-        Optional<OtpCode> otpOptional = otpCodeRepository.findLatestValidOtp(
-            userId, 
-            purpose, 
-            LocalDateTime.now()
-        );
-        
-        if (otpOptional.isEmpty()) {
-            return false;
-        }
-        
-        OtpCode otp = otpOptional.get();
-        
-        // Check if max attempts reached
-        if (otp.isMaxAttemptsReached()) {
-            return false;
-        }
-        
-        // Increment attempt count
-        otp.incrementAttempt();
-        otpCodeRepository.save(otp);
-        
-        // Validate OTP code
-        if (!otp.getOtpCode().equals(otpCode)) {
-            return false;
-        }
-        
-        // Check if OTP is still valid
-        if (!otp.isValid()) {
-            return false;
-        }
-        
-        // Mark OTP as used
-        otp.setUsed(true);
-        otpCodeRepository.save(otp);
-        
-        return true;
+        return otpStore.verify(userId, OTP_PURPOSE_PASSWORD_RESET, otpCode, MAX_ATTEMPTS);
     }
     
     /**
      * Check if user can resend OTP (cooldown period check)
      */
     public boolean canResendOtp(Long userId, String purpose) {
-        Optional<OtpCode> latestOtp = otpCodeRepository.findLatestValidOtp(
-            userId, 
-            purpose, 
-            LocalDateTime.now()
-        );
+        Optional<OtpStore.Entry> latestOtp = otpStore.findActive(userId, purpose);
         
         if (latestOtp.isEmpty()) {
             return true; // No existing OTP, can send
         }
         
-        OtpCode otp = latestOtp.get();
+        OtpStore.Entry otp = latestOtp.get();
         LocalDateTime cooldownEnd = otp.getCreatedAt().plusSeconds(RESEND_COOLDOWN_SECONDS);
         
         return LocalDateTime.now().isAfter(cooldownEnd);
@@ -171,17 +103,13 @@ public class OtpService {
      * Get remaining cooldown seconds
      */
     public long getRemainingCooldownSeconds(Long userId, String purpose) {
-        Optional<OtpCode> latestOtp = otpCodeRepository.findLatestValidOtp(
-            userId, 
-            purpose, 
-            LocalDateTime.now()
-        );
+        Optional<OtpStore.Entry> latestOtp = otpStore.findActive(userId, purpose);
         
         if (latestOtp.isEmpty()) {
             return 0;
         }
         
-        OtpCode otp = latestOtp.get();
+        OtpStore.Entry otp = latestOtp.get();
         LocalDateTime cooldownEnd = otp.getCreatedAt().plusSeconds(RESEND_COOLDOWN_SECONDS);
         LocalDateTime now = LocalDateTime.now();
         
@@ -195,7 +123,6 @@ public class OtpService {
     /**
      * Resend OTP for login
      */
-    @Transactional
     public void resendLoginOtp(User user) throws MessagingException {
         if (!canResendOtp(user.getId(), OTP_PURPOSE_LOGIN)) {
             long remainingSeconds = getRemainingCooldownSeconds(user.getId(), OTP_PURPOSE_LOGIN);
@@ -209,32 +136,24 @@ public class OtpService {
      * Scheduled task to cleanup expired OTPs (runs every hour)
      */
     @Scheduled(fixedDelay = 3600000) // 1 hour
-    @Transactional
     public void cleanupExpiredOtps() {
-        // Delete expired OTPs
-        otpCodeRepository.deleteExpiredOtps(LocalDateTime.now());
-        
-        // Delete used OTPs older than 24 hours
-        otpCodeRepository.deleteUsedOtpsOlderThan(LocalDateTime.now().minusHours(24));
+        // Expired and used (older than 24 hours) codes and audit rows
+        otpStore.purgeExpired();
     }
     
     /**
      * Get OTP statistics for a user
      */
     public OtpStats getOtpStats(Long userId, String purpose) {
-        Optional<OtpCode> latestOtp = otpCodeRepository.findLatestValidOtp(
-            userId, 
-            purpose, 
-            LocalDateTime.now()
-        );
+        Optional<OtpStore.Entry> latestOtp = otpStore.findActive(userId, purpose);
         
         if (latestOtp.isEmpty()) {
             return new OtpStats(false, 0, 0, 0);
         }
         
-        OtpCode otp = latestOtp.get();
+        OtpStore.Entry otp = latestOtp.get();
         long remainingSeconds = java.time.Duration.between(LocalDateTime.now(), otp.getExpiresAt()).getSeconds();
-        int remainingAttempts = MAX_ATTEMPTS - otp.getAttemptCount();
+        int remainingAttempts = MAX_ATTEMPTS - otp.getAttempts();
         long resendCooldown = getRemainingCooldownSeconds(userId, purpose);
         
         return new OtpStats(true, remainingSeconds, remainingAttempts, resendCooldown);
@@ -0,0 +1,100 @@
+package org.example.Services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Storage for one-time passwords, one active code per user and purpose.
+ *
+ * - InMemoryOtpStore (otp.store=memory, default): codes live in an expiring in-memory map and are
+ *   written to otp_codes asynchronously for audit only. Single node.
+ * - DatabaseOtpStore (otp.store=database): otp_codes is the source of truth, for deployments where
+ *   the code may be verified on another node than the one that issued it.
+ */
+public interface OtpStore {
+
+    /**
+     * Store a new code, replacing (invalidating) the active code for the same user and purpose
+     */
+    Entry issue(Long userId, String purpose, String code, LocalDateTime expiresAt);
+
+    /**
+     * The unused, unexpired code for the user and purpose
+     */
+    Optional<Entry> findActive(Long userId, String purpose);
+
+    /**
+     * Count an attempt and consume the code if it matches.
+     * Fails without counting once maxAttempts attempts were made.
+     */
+    boolean verify(Long userId, String purpose, String code, int maxAttempts);
+
+    /**
+     * Drop expired codes (scheduled)
+     */
+    void purgeExpired();
+
+    /**
+     * An issued code; attempts and used are updated atomically
+     */
+    final class Entry {
+        private final Long userId;
+        private final String purpose;
+        private final String code;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime expiresAt;
+        private final AtomicInteger attempts;
+        private final AtomicBoolean used = new AtomicBoolean();
+        private volatile Long recordId;            // otp_codes.id once persisted
+        private volatile LocalDateTime lastAttemptAt;
+
+        public Entry(Long userId, String purpose, String code, LocalDateTime createdAt, LocalDateTime expiresAt,
+                     int attempts) {
+            this.userId = userId;
+            this.purpose = purpose;
+            this.code = code;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+            this.attempts = new AtomicInteger(attempts);
+        }
+
+        /**
+         * Take one attempt if fewer than maxAttempts were made
+         */
+        boolean tryAttempt(int maxAttempts) {
+            boolean counted = attempts.getAndUpdate(a -> a < maxAttempts ? a + 1 : a) < maxAttempts;
+            if (counted) {
+                lastAttemptAt = LocalDateTime.now();
+            }
+            return counted;
+        }
+
+        /**
+         * Constant-time comparison so response timing does not leak matching digits
+         */
+        boolean matches(String candidate) {
+            return candidate != null && MessageDigest.isEqual(
+                    code.getBytes(StandardCharsets.UTF_8), candidate.getBytes(StandardCharsets.UTF_8));
+        }
+
+        boolean isActive(LocalDateTime now) {
+            return !used.get() && now.isBefore(expiresAt);
+        }
+
+        public Long getUserId() { return userId; }
+        public String getPurpose() { return purpose; }
+        public String getCode() { return code; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public LocalDateTime getExpiresAt() { return expiresAt; }
+        public int getAttempts() { return attempts.get(); }
+        public boolean isUsed() { return used.get(); }
+        AtomicBoolean usedFlag() { return used; }
+        Long getRecordId() { return recordId; }
+        void setRecordId(Long recordId) { this.recordId = recordId; }
+        LocalDateTime getLastAttemptAt() { return lastAttemptAt; }
+    }
+}
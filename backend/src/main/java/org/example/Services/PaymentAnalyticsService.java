@@ -1,14 +1,16 @@
 package org.example.Services;
 
+import org.example.DTOs.PaymentTrendPoint;
 import org.example.Entities.LoanPayments;
 import org.example.Entities.LoanInstallmentSchedule;
 import org.example.Repositories.LoanPaymentsRepository;
 import org.example.Repositories.LoanInstallmentScheduleRepository;
+import org.example.Repositories.PaymentTrendRepository;
+import org.example.enums.TrendGranularity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,65 +23,70 @@ public class PaymentAnalyticsService {
     @Autowired
     private LoanInstallmentScheduleRepository installmentRepository;
 
+    @Autowired
+    private PaymentTrendService paymentTrendService;
+
+    @Autowired
+    private PaymentTrendRepository paymentTrendRepository;
+
+    @Autowired
+    private CashFlowForecastService cashFlowForecastService;
+
     /**
      * Get payment trends with aggregated metrics
+     * Buckets are summed in SQL; closed buckets are served from PaymentTrendService's cache
      */
     public Map<String, Object> getPaymentTrends(LocalDate startDate, LocalDate endDate, String granularity) {
-        List<LoanPayments> payments = paymentsRepository.findByPaymentDateBetween(startDate, endDate);
+        TrendGranularity bucketSize = TrendGranularity.fromParam(granularity);
+        List<PaymentTrendPoint> trendData = paymentTrendService.getTrendSeries(startDate, endDate, bucketSize);
         
         Map<String, Object> trends = new HashMap<>();
         
-        // Group by date based on granularity
-        Map<String, List<LoanPayments>> groupedPayments = groupByGranularity(payments, granularity);
-        
-        List<Map<String, Object>> trendData = new ArrayList<>();
-        for (Map.Entry<String, List<LoanPayments>> entry : groupedPayments.entrySet()) {
-            Map<String, Object> dataPoint = new HashMap<>();
-            dataPoint.put("date", entry.getKey());
-            dataPoint.put("count", entry.getValue().size());
-            dataPoint.put("totalAmount", entry.getValue().stream()
-                .mapToDouble(LoanPayments::getAmountPaid).sum());
-            dataPoint.put("principalPaid", entry.getValue().stream()
-                .mapToDouble(LoanPayments::getPrincipalPaid).sum());
-            dataPoint.put("interestPaid", entry.getValue().stream()
-                .mapToDouble(LoanPayments::getInterestPaid).sum());
-            dataPoint.put("feesPaid", entry.getValue().stream()
-                .mapToDouble(LoanPayments::getFeesPaid).sum());
-            
-            trendData.add(dataPoint);
-        }
-        
-        // Sort by date
-        trendData.sort(Comparator.comparing(m -> (String) m.get("date")));
-        
         trends.put("data", trendData);
         trends.put("granularity", granularity);
         trends.put("startDate", startDate);
         trends.put("endDate", endDate);
-        trends.put("totalPayments", payments.size());
-        trends.put("totalAmount", payments.stream().mapToDouble(LoanPayments::getAmountPaid).sum());
+        trends.put("totalPayments", trendData.stream().mapToLong(PaymentTrendPoint::getCount).sum());
+        trends.put("totalAmount", trendData.stream().mapToDouble(PaymentTrendPoint::getTotalAmount).sum());
         
         return trends;
     }
 
     /**
-     * Group payments by time granularity
+     * Get payment counts by method, status and lateness (legacy /api/payments/analytics)
+     * Grouped in SQL so the response no longer needs every payment row
      */
-    private Map<String, List<LoanPayments>> groupByGranularity(List<LoanPayments> payments, String granularity) {
-        return payments.stream().collect(Collectors.groupingBy(payment -> {
-            LocalDate date = payment.getPaymentDate();
-            switch (granularity.toLowerCase()) {
-                case "weekly":
-                    long weekNum = ChronoUnit.WEEKS.between(LocalDate.of(date.getYear(), 1, 1), date);
-                    return date.getYear() + "-W" + weekNum;
-                case "monthly":
-                    return date.getYear() + "-" + String.format("%02d", date.getMonthValue());
-                case "yearly":
-                    return String.valueOf(date.getYear());
-                default: // daily
-                    return date.toString();
-            }
-        }));
+    public Map<String, Object> getPaymentBreakdown(LocalDate startDate, LocalDate endDate) {
+        long totalCount = 0;
+        long lateCount = 0;
+        double totalAmount = 0.0;
+        Map<String, Long> byMethod = new HashMap<>();
+        Map<String, Long> byStatus = new HashMap<>();
+        
+        for (Map<String, Object> row : paymentTrendRepository.getPaymentBreakdown(startDate, endDate)) {
+            long count = ((Number) row.get("payment_count")).longValue();
+            totalCount += count;
+            totalAmount += ((Number) row.get("total_amount")).doubleValue();
+            lateCount += ((Number) row.get("late_count")).longValue();
+            byMethod.merge((String) row.get("payment_method"), count, Long::sum);
+            byStatus.merge((String) row.get("payment_status"), count, Long::sum);
+        }
+        long onTimeCount = totalCount - lateCount;
+        
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalAmount", totalAmount);
+        analytics.put("totalCount", totalCount);
+        analytics.put("lateCount", lateCount);
+        analytics.put("onTimeCount", onTimeCount);
+        analytics.put("latePercentage", totalCount > 0 ? (lateCount * 100.0 / totalCount) : 0);
+        analytics.put("onTimePercentage", totalCount > 0 ? (onTimeCount * 100.0 / totalCount) : 0);
+        analytics.put("byPaymentMethod", byMethod);
+        analytics.put("byStatus", byStatus);
+        analytics.put("averagePayment", totalCount > 0 ? totalAmount / totalCount : 0);
+        analytics.put("startDate", startDate);
+        analytics.put("endDate", endDate);
+        
+        return analytics;
     }
 
     /**
@@ -333,42 +340,10 @@ public class PaymentAnalyticsService {
 
     /**
      * Get payment forecast
+     * Expected inflow from unpaid installments, served from the in-memory cash flow forecast
      */
     public Map<String, Object> getPaymentForecast(int daysAhead) {
-        LocalDate today = LocalDate.now();
-        LocalDate forecastEnd = today.plusDays(daysAhead);
-        
-        List<LoanInstallmentSchedule> allInstallments = installmentRepository.findAll();
-        List<LoanInstallmentSchedule> upcomingInstallments = allInstallments.stream()
-            .filter(i -> !i.getDueDate().isBefore(today) && !i.getDueDate().isAfter(forecastEnd))
-            .collect(Collectors.toList());
-        
-        Map<String, Object> forecast = new HashMap<>();
-        
-        // Group by date
-        Map<LocalDate, List<LoanInstallmentSchedule>> byDate = upcomingInstallments.stream()
-            .collect(Collectors.groupingBy(LoanInstallmentSchedule::getDueDate));
-        
-        List<Map<String, Object>> forecastData = new ArrayList<>();
-        for (Map.Entry<LocalDate, List<LoanInstallmentSchedule>> entry : byDate.entrySet()) {
-            Map<String, Object> dayForecast = new HashMap<>();
-            dayForecast.put("date", entry.getKey());
-            dayForecast.put("count", entry.getValue().size());
-            dayForecast.put("expectedAmount", entry.getValue().stream()
-                .mapToDouble(LoanInstallmentSchedule::getScheduledAmount).sum());
-            
-            forecastData.add(dayForecast);
-        }
-        
-        forecastData.sort(Comparator.comparing(m -> (LocalDate) m.get("date")));
-        
-        forecast.put("forecast", forecastData);
-        forecast.put("totalUpcoming", upcomingInstallments.size());
-        forecast.put("totalExpectedAmount", upcomingInstallments.stream()
-            .mapToDouble(LoanInstallmentSchedule::getScheduledAmount).sum());
-        forecast.put("period", Map.of("start", today, "end", forecastEnd));
-        
-        return forecast;
+        return cashFlowForecastService.getForecast(daysAhead, "day", null, null, false);
     }
 
     /**
@@ -399,10 +374,8 @@ public class PaymentAnalyticsService {
         
         // Upcoming 7 days
         LocalDate sevenDaysAhead = today.plusDays(7);
-        List<LoanInstallmentSchedule> upcomingList = installmentRepository.findDueInNextDays(sevenDaysAhead);
-        metrics.put("upcoming7Days", upcomingList.size());
-        metrics.put("upcoming7DaysAmount", upcomingList.stream()
-            .mapToDouble(LoanInstallmentSchedule::getScheduledAmount).sum());
+        metrics.put("upcoming7Days", cashFlowForecastService.getExpectedInstallmentCount(today, sevenDaysAhead, null, null));
+        metrics.put("upcoming7DaysAmount", cashFlowForecastService.getExpectedInflow(today, sevenDaysAhead, null, null, false));
         
         return metrics;
     }
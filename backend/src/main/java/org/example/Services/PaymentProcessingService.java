@@ -39,6 +39,9 @@ public class PaymentProcessingService {
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+
     /**
      * Process a new payment with automatic balance calculation and schedule updates
      */
@@ -117,6 +120,7 @@ public class PaymentProcessingService {
             
             // Save the payment
             LoanPayments savedPayment = paymentRepository.save(payment);
+            reportSnapshotService.recordBackdatedChange(savedPayment.getPaymentDate());
             
             // Update corresponding installment
             updateInstallmentWithPayment(loan.getId(), savedPayment, allocation);
@@ -0,0 +1,151 @@
+package org.example.Services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.Config.CacheConfig;
+import org.example.DTOs.PaymentTrendPoint;
+import org.example.Repositories.PaymentTrendRepository;
+import org.example.enums.TrendGranularity;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment Trend Service
+ *
+ * Builds date-bucketed payment series from SQL aggregates.
+ * Buckets that are closed (ended before today) and lie fully inside the
+ * requested range are cached per granularity and bucket start, so a
+ * multi-year chart only recomputes the current bucket and partial edges.
+ * Cached buckets expire a fixed time after they were computed (see CacheConfig),
+ * which bounds how long a backdated or reversed payment goes unseen.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentTrendService {
+
+    private final PaymentTrendRepository paymentTrendRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * Get the payment series between startDate and endDate (inclusive).
+     * Buckets without payments are omitted.
+     */
+    public List<PaymentTrendPoint> getTrendSeries(LocalDate startDate, LocalDate endDate, TrendGranularity granularity) {
+        List<PaymentTrendPoint> series = new ArrayList<>();
+        if (endDate.isBefore(startDate)) {
+            return series;
+        }
+
+        LocalDate today = LocalDate.now();
+        Cache cache = bucketCache();
+
+        // Walk every bucket touching the range; closed buckets come from the cache,
+        // everything else is grouped into contiguous live runs
+        Map<LocalDate, PaymentTrendPoint> closedBuckets = new HashMap<>();
+        List<LocalDate> missingClosedBuckets = new ArrayList<>();
+        List<LocalDate[]> liveRuns = new ArrayList<>();
+        LocalDate[] currentRun = null;
+
+        for (LocalDate bucket = granularity.bucketStart(startDate);
+             !bucket.isAfter(endDate);
+             bucket = granularity.nextBucketStart(bucket)) {
+
+            LocalDate bucketEnd = granularity.bucketEnd(bucket);
+            boolean cacheable = !bucket.isBefore(startDate) && !bucketEnd.isAfter(endDate) && bucketEnd.isBefore(today);
+
+            if (cacheable) {
+                currentRun = null;
+                PaymentTrendPoint cached = cache != null
+                        ? cache.get(cacheKey(granularity, bucket), PaymentTrendPoint.class)
+                        : null;
+                if (cached != null) {
+                    closedBuckets.put(bucket, cached);
+                } else {
+                    missingClosedBuckets.add(bucket);
+                }
+            } else {
+                LocalDate runStart = bucket.isBefore(startDate) ? startDate : bucket;
+                LocalDate runEnd = bucketEnd.isAfter(endDate) ? endDate : bucketEnd;
+                if (currentRun == null) {
+                    currentRun = new LocalDate[] {runStart, runEnd};
+                    liveRuns.add(currentRun);
+                } else {
+                    currentRun[1] = runEnd;
+                }
+            }
+        }
+
+        // Fill missing closed buckets with one query over their span, including empty ones
+        if (!missingClosedBuckets.isEmpty()) {
+            LocalDate spanStart = missingClosedBuckets.get(0);
+            LocalDate spanEnd = granularity.bucketEnd(missingClosedBuckets.get(missingClosedBuckets.size() - 1));
+            Map<LocalDate, PaymentTrendPoint> loaded = indexByBucket(
+                    paymentTrendRepository.findTrendPoints(granularity, spanStart, spanEnd));
+
+            for (LocalDate bucket : missingClosedBuckets) {
+                PaymentTrendPoint point = loaded.getOrDefault(bucket, PaymentTrendPoint.empty(
+                        granularity.label(bucket), bucket, granularity.bucketEnd(bucket)));
+                if (cache != null) {
+                    cache.put(cacheKey(granularity, bucket), point);
+                }
+                closedBuckets.put(bucket, point);
+            }
+            log.debug("Loaded {} closed {} payment trend buckets from {} to {}",
+                    missingClosedBuckets.size(), granularity, spanStart, spanEnd);
+        }
+
+        Map<LocalDate, PaymentTrendPoint> liveBuckets = new HashMap<>();
+        for (LocalDate[] run : liveRuns) {
+            liveBuckets.putAll(indexByBucket(paymentTrendRepository.findTrendPoints(granularity, run[0], run[1])));
+        }
+
+        for (LocalDate bucket = granularity.bucketStart(startDate);
+             !bucket.isAfter(endDate);
+             bucket = granularity.nextBucketStart(bucket)) {
+            PaymentTrendPoint point = closedBuckets.containsKey(bucket) ? closedBuckets.get(bucket) : liveBuckets.get(bucket);
+            if (point != null && point.getCount() > 0) {
+                series.add(point);
+            }
+        }
+
+        return series;
+    }
+
+    /**
+     * Drop cached buckets containing the given payment date, for all granularities.
+     * Needed when a payment is back-dated into, or deleted from, a closed period.
+     */
+    public void evictBucketsContaining(LocalDate paymentDate) {
+        Cache cache = bucketCache();
+        if (cache == null || paymentDate == null) {
+            return;
+        }
+        for (TrendGranularity granularity : TrendGranularity.values()) {
+            cache.evict(cacheKey(granularity, granularity.bucketStart(paymentDate)));
+        }
+    }
+
+    private Map<LocalDate, PaymentTrendPoint> indexByBucket(List<PaymentTrendPoint> points) {
+        Map<LocalDate, PaymentTrendPoint> index = new HashMap<>();
+        for (PaymentTrendPoint point : points) {
+            index.put(point.getBucketStart(), point);
+        }
+        return index;
+    }
+
+    private Cache bucketCache() {
+        return cacheManager.getCache(CacheConfig.PAYMENT_TREND_BUCKETS_CACHE);
+    }
+
+    private String cacheKey(TrendGranularity granularity, LocalDate bucketStart) {
+        return granularity.name() + ":" + bucketStart;
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.Services;
+
+import org.example.DTOs.PortfolioRiskReport;
+import org.example.DTOs.PortfolioRiskReport.AgingBucket;
+import org.example.DTOs.PortfolioRiskReport.RiskSegment;
+import org.example.Repositories.PortfolioRiskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Portfolio Risk Service
+ *
+ * Builds the PAR aging histogram, risk-score bands and payment-behaviour bands from a single
+ * grouped query and rolls the rows up into portfolio, branch and loan officer totals.
+ * Aging and PAR cover ACTIVE loans only (as the existing PAR queries did); risk and behaviour
+ * bands cover every tracked loan.
+ */
+@Service
+public class PortfolioRiskService {
+
+    static final String UNASSIGNED = "Unassigned";
+    private static final String[] RISK_BANDS = {"lowRisk", "mediumRisk", "highRisk", "veryHighRisk"};
+    private static final String[] BEHAVIOR_BANDS = {"excellent", "good", "fair", "poor"};
+
+    @Autowired
+    private PortfolioRiskRepository portfolioRiskRepository;
+
+    @Value("${portfolio.aging-buckets:30,60,90}")
+    private int[] defaultAgingBoundaries;
+
+    /**
+     * Risk report using the configured aging boundaries
+     */
+    public PortfolioRiskReport getRiskReport() {
+        return getRiskReport(defaultAgingBoundaries);
+    }
+
+    /**
+     * Risk report for the given aging boundaries (days late), e.g. [30, 60, 90]
+     */
+    public PortfolioRiskReport getRiskReport(int[] agingBoundaries) {
+        int[] boundaries = normalizeBoundaries(agingBoundaries);
+        return buildReport(boundaries, portfolioRiskRepository.getRiskAggregates(boundaries));
+    }
+
+    /**
+     * Clients with the most late loans and their total outstanding balance
+     */
+    public List<Map<String, Object>> getTopDefaulters(int limit) {
+        return portfolioRiskRepository.getTopDefaulters(Math.max(0, limit));
+    }
+
+    /**
+     * Roll grouped rows (see PortfolioRiskRepository#getRiskAggregates) up into the report
+     */
+    static PortfolioRiskReport buildReport(int[] boundaries, List<Map<String, Object>> rows) {
+        PortfolioRiskReport report = new PortfolioRiskReport();
+        report.setAgingBoundaries(Arrays.stream(boundaries).boxed().toList());
+        report.setPortfolio(emptySegment(boundaries));
+
+        for (Map<String, Object> row : rows) {
+            Object branch = row.get("branch");
+            Object officerId = row.get("officer_id");
+            String branchKey = branch != null && !branch.toString().isBlank() ? branch.toString() : UNASSIGNED;
+            String officerKey = officerId != null ? officerId.toString() : UNASSIGNED;
+
+            RiskSegment[] targets = {
+                    report.getPortfolio(),
+                    report.getByBranch().computeIfAbsent(branchKey, k -> emptySegment(boundaries)),
+                    report.getByOfficer().computeIfAbsent(officerKey, k -> emptySegment(boundaries))
+            };
+            for (RiskSegment segment : targets) {
+                addRow(segment, row);
+            }
+        }
+
+        finishSegment(report.getPortfolio(), boundaries);
+        report.getByBranch().values().forEach(segment -> finishSegment(segment, boundaries));
+        report.getByOfficer().values().forEach(segment -> finishSegment(segment, boundaries));
+        report.setGeneratedAt(LocalDateTime.now());
+        return report;
+    }
+
+    private static void addRow(RiskSegment segment, Map<String, Object> row) {
+        long count = toLong(row.get("loan_count"));
+        double outstanding = toDouble(row.get("outstanding"));
+
+        if (toLong(row.get("active")) == 1) {
+            segment.setActiveLoans(segment.getActiveLoans() + count);
+            segment.setTotalOutstanding(segment.getTotalOutstanding() + outstanding);
+            AgingBucket bucket = segment.getAging().get((int) toLong(row.get("aging_bucket")));
+            bucket.setLoanCount(bucket.getLoanCount() + count);
+            bucket.setOutstanding(bucket.getOutstanding() + outstanding);
+        }
+
+        int riskBand = (int) toLong(row.get("risk_band"));
+        if (riskBand >= 0) {
+            segment.getRiskBands().merge(RISK_BANDS[riskBand], count, Long::sum);
+        }
+        segment.getRiskBands().merge("total", count, Long::sum);
+
+        int behaviorBand = (int) toLong(row.get("behavior_band"));
+        if (behaviorBand >= 0) {
+            segment.getBehaviorBands().merge(BEHAVIOR_BANDS[behaviorBand], count, Long::sum);
+        }
+    }
+
+    private static RiskSegment emptySegment(int[] boundaries) {
+        RiskSegment segment = new RiskSegment();
+        segment.getAging().add(new AgingBucket("Current", 0, 0, 0, 0.0, 0.0));
+        int lower = 1;
+        for (int boundary : boundaries) {
+            segment.getAging().add(new AgingBucket(lower + "-" + boundary, lower, boundary, 0, 0.0, 0.0));
+            lower = boundary + 1;
+        }
+        int last = boundaries.length > 0 ? boundaries[boundaries.length - 1] : 0;
+        segment.getAging().add(new AgingBucket(last + "+", last + 1, null, 0, 0.0, 0.0));
+
+        for (String band : RISK_BANDS) {
+            segment.getRiskBands().put(band, 0L);
+        }
+        segment.getRiskBands().put("total", 0L);
+        for (String band : BEHAVIOR_BANDS) {
+            segment.getBehaviorBands().put(band, 0L);
+        }
+        return segment;
+    }
+
+    private static void finishSegment(RiskSegment segment, int[] boundaries) {
+        double total = segment.getTotalOutstanding();
+        for (AgingBucket bucket : segment.getAging()) {
+            bucket.setPercentageOfOutstanding(percentage(bucket.getOutstanding(), total));
+        }
+        for (int boundary : boundaries) {
+            double par = segment.portfolioAtRisk(boundary);
+            segment.getPortfolioAtRisk().put("PAR" + boundary, par);
+            segment.getPortfolioAtRiskPercentage().put("PAR" + boundary, percentage(par, total));
+        }
+    }
+
+    /**
+     * Sorted, positive, distinct boundaries; falls back to 30/60/90 when nothing usable is given
+     */
+    static int[] normalizeBoundaries(int[] boundaries) {
+        int[] normalized = boundaries == null ? new int[0]
+                : Arrays.stream(boundaries).filter(b -> b > 0).distinct().sorted().toArray();
+        return normalized.length > 0 ? normalized : new int[] {30, 60, 90};
+    }
+
+    private static double percentage(double part, double total) {
+        return total > 0 ? part / total * 100 : 0.0;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : 0.0;
+    }
+}
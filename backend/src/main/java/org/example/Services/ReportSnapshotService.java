@@ -0,0 +1,466 @@
+package org.example.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.DTOs.DashboardStatistics;
+import org.example.Entities.DailyReports;
+import org.example.Entities.MonthlyReports;
+import org.example.Repositories.DailyReportsRepository;
+import org.example.Repositories.MonthlyReportsRepository;
+import org.example.Repositories.ReportSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Report Snapshot Service
+ *
+ * End-of-day close: writes one immutable DailyReports row per branch for every day that has not been
+ * closed yet, then rolls each completed month up into MonthlyReports. Historical charts read from
+ * these snapshots; only the days after the last close (normally just today) are aggregated live.
+ * Writes dated on an already closed day (backdated expenses and payments, CSV imports) call
+ * recordBackdatedChange, and the next close rewrites the affected days and months.
+ */
+@Service
+@Slf4j
+public class ReportSnapshotService {
+
+    public static final String ALL_BRANCHES = "ALL";
+
+    private static final String UNASSIGNED = "Unassigned";
+
+    @Autowired
+    private ReportSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private DailyReportsRepository dailyReportsRepository;
+
+    @Autowired
+    private MonthlyReportsRepository monthlyReportsRepository;
+
+    @Value("${reports.backfill-days:400}")
+    private int backfillDays;
+
+    /**
+     * Close every day up to and including lastDay that has no snapshot yet, then close completed months.
+     * Days before the first snapshot are backfilled (about reports.backfill-days, from the start of a month
+     * so the first month is complete). Every known branch gets a row for every day, zero when it had no
+     * activity, so range reads have no gaps. Arrears are only known for the current state, so they are
+     * recorded on lastDay alone. Closed days changed by backdated writes are closed again first.
+     *
+     * @return number of daily and monthly rows written
+     */
+    @Transactional
+    public synchronized int closeThrough(LocalDate lastDay) {
+        LocalDate latest = dailyReportsRepository.findLatestReportDate();
+        LocalDate firstDay = latest != null
+                ? latest.plusDays(1)
+                : lastDay.minusDays(backfillDays - 1L).withDayOfMonth(1);
+        int written = latest != null ? reopenChangedDays(latest) : 0;
+
+        if (!firstDay.isAfter(lastDay)) {
+            Map<LocalDate, Map<String, DailyReports>> days = aggregateDays(firstDay, lastDay);
+            fillEmptyDays(days, firstDay, lastDay, snapshotRepository.getKnownBranches());
+
+            Map<String, DailyReports> closingDay = days.get(lastDay);
+            closingDay.values().forEach(report -> {
+                report.setArrearsAmount(0.0);
+                report.setLateLoansCount(0);
+            });
+            for (Map<String, Object> row : snapshotRepository.getCurrentArrears()) {
+                DailyReports report = closingDay.computeIfAbsent(branch(row), b -> newDailyReport(lastDay, b));
+                report.setArrearsAmount(toDouble(row.get("amount")));
+                report.setLateLoansCount((int) toLong(row.get("loan_count")));
+            }
+
+            int rows = saveDays(days);
+            written += rows;
+            log.info("Closed {} to {}: {} daily snapshot rows", firstDay, lastDay, rows);
+        }
+
+        return written + closeMonths(lastDay);
+    }
+
+    /**
+     * Record that a write dated on the given day changed it. When that day is already closed, the next
+     * close re-aggregates every closed day from it on; otherwise nothing is recorded. Runs in the
+     * caller's transaction, so a rolled back write leaves no mark.
+     */
+    public void recordBackdatedChange(LocalDate date) {
+        if (date != null && date.isBefore(LocalDate.now())) {
+            snapshotRepository.markReopened(date);
+        }
+    }
+
+    /**
+     * Close again every closed day from the earliest reopened one through lastClosedDay, keeping the
+     * arrears recorded when they were first closed (a point-in-time balance that cannot be recomputed).
+     * Monthly snapshots from that month on are dropped so closeMonths rolls them up again.
+     */
+    private int reopenChangedDays(LocalDate lastClosedDay) {
+        LocalDate reopened = snapshotRepository.getEarliestReopenedDay();
+        if (reopened == null) {
+            return 0;
+        }
+        snapshotRepository.clearReopenedDays(lastClosedDay);
+        LocalDate earliest = dailyReportsRepository.findEarliestReportDate();
+        LocalDate firstDay = earliest != null && reopened.isBefore(earliest) ? earliest : reopened;
+        if (firstDay.isAfter(lastClosedDay)) {
+            return 0;
+        }
+
+        Map<LocalDate, Map<String, DailyReports>> days = aggregateDays(firstDay, lastClosedDay);
+        fillEmptyDays(days, firstDay, lastClosedDay, snapshotRepository.getKnownBranches());
+        for (DailyReports closed : dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(
+                firstDay, lastClosedDay)) {
+            if (closed.getArrearsAmount() != null) {
+                DailyReports report = days.get(closed.getReportDate())
+                        .computeIfAbsent(closed.getBranch(), b -> newDailyReport(closed.getReportDate(), b));
+                report.setArrearsAmount(closed.getArrearsAmount());
+                report.setLateLoansCount(closed.getLateLoansCount());
+            }
+        }
+
+        dailyReportsRepository.deleteByReportDateBetween(firstDay, lastClosedDay);
+        int months = monthlyReportsRepository.deleteByReportMonthFrom(YearMonth.from(firstDay).atDay(1));
+        int rows = saveDays(days);
+        log.info("Re-closed {} to {} after backdated changes: {} daily snapshot rows, {} monthly rows to roll up again",
+                firstDay, lastClosedDay, rows, months);
+        return rows;
+    }
+
+    private int saveDays(Map<LocalDate, Map<String, DailyReports>> days) {
+        LocalDateTime now = LocalDateTime.now();
+        List<DailyReports> rows = new ArrayList<>();
+        days.values().forEach(byBranch -> byBranch.values().forEach(report -> {
+            report.setGeneratedAt(now);
+            rows.add(report);
+        }));
+        dailyReportsRepository.saveAll(rows);
+        return rows.size();
+    }
+
+    /**
+     * Give every day in the range a row for every known branch; a day with no branches at all still
+     * gets an "Unassigned" row
+     */
+    static void fillEmptyDays(Map<LocalDate, Map<String, DailyReports>> days, LocalDate firstDay, LocalDate lastDay,
+                              List<String> branches) {
+        for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+            LocalDate day = date;
+            Map<String, DailyReports> byBranch = days.computeIfAbsent(day, d -> new TreeMap<>());
+            for (String branch : branches) {
+                byBranch.computeIfAbsent(branch, b -> newDailyReport(day, b));
+            }
+            if (byBranch.isEmpty()) {
+                byBranch.put(UNASSIGNED, newDailyReport(day, UNASSIGNED));
+            }
+        }
+    }
+
+    /**
+     * Roll up every month that is complete as of lastClosedDay and has no monthly snapshot yet.
+     * A month whose first day has no snapshot (the start of the history) is incomplete and skipped.
+     */
+    private int closeMonths(LocalDate lastClosedDay) {
+        YearMonth lastClosedMonth = lastClosedDay.equals(YearMonth.from(lastClosedDay).atEndOfMonth())
+                ? YearMonth.from(lastClosedDay)
+                : YearMonth.from(lastClosedDay).minusMonths(1);
+
+        LocalDate latestMonth = monthlyReportsRepository.findLatestReportMonth();
+        LocalDate earliestDay = dailyReportsRepository.findEarliestReportDate();
+        if (earliestDay == null) {
+            return 0;
+        }
+        YearMonth month;
+        if (latestMonth != null) {
+            month = YearMonth.from(latestMonth).plusMonths(1);
+        } else {
+            month = earliestDay.getDayOfMonth() == 1 ? YearMonth.from(earliestDay) : YearMonth.from(earliestDay).plusMonths(1);
+        }
+
+        int written = 0;
+        for (; !month.isAfter(lastClosedMonth); month = month.plusMonths(1)) {
+            LocalDate monthStart = month.atDay(1);
+            List<DailyReports> days = dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(
+                    monthStart, month.atEndOfMonth());
+            // Arrears are a balance, not a flow: the month reports those of its last day
+            LocalDate monthEnd = days.isEmpty() ? null : days.get(days.size() - 1).getReportDate();
+            Map<String, MonthlyReports> byBranch = new TreeMap<>();
+            for (DailyReports day : days) {
+                MonthlyReports report = byBranch.computeIfAbsent(day.getBranch(), b -> newMonthlyReport(monthStart, b));
+                addDay(report, day);
+                if (day.getReportDate().equals(monthEnd) && day.getArrearsAmount() != null) {
+                    report.setArrearsAmount(day.getArrearsAmount());
+                    report.setLateLoansCount(day.getLateLoansCount());
+                }
+            }
+            LocalDateTime now = LocalDateTime.now();
+            byBranch.values().forEach(report -> {
+                report.setProfit(profit(report));
+                report.setGeneratedAt(now);
+            });
+            monthlyReportsRepository.saveAll(byBranch.values());
+            written += byBranch.size();
+            log.info("Closed month {}: {} monthly snapshot rows", month, byBranch.size());
+        }
+        return written;
+    }
+
+    /**
+     * Daily snapshots between two dates, for one branch or all of them
+     */
+    public List<DailyReports> getDailyReports(LocalDate startDate, LocalDate endDate, String branch) {
+        if (branch == null || branch.isBlank()) {
+            return dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(startDate, endDate);
+        }
+        return dailyReportsRepository.findByBranchAndReportDateBetweenOrderByReportDateAsc(branch, startDate, endDate);
+    }
+
+    /**
+     * Monthly snapshots between two months (inclusive), for one branch or all of them
+     */
+    public List<MonthlyReports> getMonthlyReports(YearMonth startMonth, YearMonth endMonth, String branch) {
+        if (branch == null || branch.isBlank()) {
+            return monthlyReportsRepository.findByReportMonthBetweenOrderByReportMonthAscBranchAsc(
+                    startMonth.atDay(1), endMonth.atDay(1));
+        }
+        return monthlyReportsRepository.findByBranchAndReportMonthBetweenOrderByReportMonthAsc(
+                branch, startMonth.atDay(1), endMonth.atDay(1));
+    }
+
+    /**
+     * Portfolio-wide totals for the last N months (current month included), newest first.
+     * Closed months come from MonthlyReports, closed days of open months from DailyReports,
+     * and days after the last close are aggregated live.
+     */
+    public List<MonthlyReports> getRecentMonthlyTotals(int months) {
+        LocalDate today = LocalDate.now();
+        YearMonth currentMonth = YearMonth.from(today);
+        YearMonth firstMonth = currentMonth.minusMonths(Math.max(1, months) - 1L);
+        Map<YearMonth, MonthlyReports> totals = new TreeMap<>(Comparator.reverseOrder());
+
+        for (MonthlyReports snapshot : monthlyReportsRepository.findByReportMonthBetweenOrderByReportMonthAscBranchAsc(
+                firstMonth.atDay(1), currentMonth.atDay(1))) {
+            addMonth(totals.computeIfAbsent(YearMonth.from(snapshot.getReportMonth()),
+                    m -> newMonthlyReport(m.atDay(1), ALL_BRANCHES)), snapshot);
+        }
+        Map<YearMonth, MonthlyReports> closedMonths = new HashMap<>(totals);
+        YearMonth firstOpenMonth = closedMonths.keySet().stream()
+                .max(Comparator.naturalOrder())
+                .map(m -> m.plusMonths(1))
+                .orElse(firstMonth);
+
+        LocalDate lastClosedDay = firstOpenMonth.atDay(1).minusDays(1);
+        Map<YearMonth, LocalDate> arrearsDates = new HashMap<>();
+        for (DailyReports day : dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(
+                firstOpenMonth.atDay(1), today)) {
+            lastClosedDay = day.getReportDate().isAfter(lastClosedDay) ? day.getReportDate() : lastClosedDay;
+            addDayToOpenMonth(totals, closedMonths, arrearsDates, day);
+        }
+
+        LocalDate liveFrom = lastClosedDay.plusDays(1);
+        if (!liveFrom.isAfter(today)) {
+            aggregateDays(liveFrom, today).values().forEach(byBranch ->
+                    byBranch.values().forEach(day -> addDayToOpenMonth(totals, closedMonths, arrearsDates, day)));
+        }
+
+        totals.values().forEach(report -> report.setProfit(profit(report)));
+        return new ArrayList<>(totals.values());
+    }
+
+    /**
+     * Chart series (newest month first) from monthly totals, skipping months with no activity
+     */
+    public static List<DashboardStatistics.MonthlyData> toChartData(List<MonthlyReports> months,
+                                                                    ToDoubleFunction<MonthlyReports> amount,
+                                                                    ToLongFunction<MonthlyReports> count) {
+        List<DashboardStatistics.MonthlyData> result = new ArrayList<>();
+        for (MonthlyReports report : months) {
+            long itemCount = count.applyAsLong(report);
+            double itemAmount = amount.applyAsDouble(report);
+            if (itemCount == 0 && itemAmount == 0) {
+                continue;
+            }
+            LocalDate month = report.getReportMonth();
+            DashboardStatistics.MonthlyData monthlyData = new DashboardStatistics.MonthlyData();
+            monthlyData.setMonth(month.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+            monthlyData.setYear(month.getYear());
+            monthlyData.setMonthNumber(month.getMonthValue());
+            monthlyData.setAmount(itemAmount);
+            monthlyData.setCount(itemCount);
+            monthlyData.setMonthYear(monthlyData.getMonth() + " " + monthlyData.getYear());
+            result.add(monthlyData);
+        }
+        return result;
+    }
+
+    /**
+     * Per-day, per-branch aggregates for a date range (arrears not included)
+     */
+    Map<LocalDate, Map<String, DailyReports>> aggregateDays(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Map<String, DailyReports>> days = new TreeMap<>();
+
+        for (Map<String, Object> row : snapshotRepository.getDisbursements(startDate, endDate)) {
+            DailyReports report = dayRow(days, row);
+            report.setLoansDisbursedCount((int) toLong(row.get("loan_count")));
+            report.setAmountDisbursed(toDouble(row.get("amount")));
+        }
+        for (Map<String, Object> row : snapshotRepository.getNewLoans(startDate, endDate)) {
+            dayRow(days, row).setNewLoansCount((int) toLong(row.get("loan_count")));
+        }
+        for (Map<String, Object> row : snapshotRepository.getCollections(startDate, endDate)) {
+            DailyReports report = dayRow(days, row);
+            report.setReceiptsIssuedCount((int) toLong(row.get("payment_count")));
+            report.setRepaymentsReceived(toDouble(row.get("amount")));
+            report.setPrincipalCollected(toDouble(row.get("principal")));
+            report.setInterestCollected(toDouble(row.get("interest")));
+            report.setFeesCollected(toDouble(row.get("fees")));
+            report.setPenaltiesCollected(toDouble(row.get("penalties")));
+        }
+        for (Map<String, Object> row : snapshotRepository.getClosures(startDate, endDate)) {
+            dayRow(days, row).setLoansClosedCount((int) toLong(row.get("loan_count")));
+        }
+        for (Map<String, Object> row : snapshotRepository.getPastMaturity(startDate, endDate)) {
+            DailyReports report = dayRow(days, row);
+            report.setPastMaturityCount((int) toLong(row.get("loan_count")));
+            report.setPastMaturityAmount(toDouble(row.get("amount")));
+        }
+        for (Map<String, Object> row : snapshotRepository.getExpenses(startDate, endDate)) {
+            dayRow(days, row).setTotalExpenses(toDouble(row.get("amount")));
+        }
+        return days;
+    }
+
+    private static DailyReports dayRow(Map<LocalDate, Map<String, DailyReports>> days, Map<String, Object> row) {
+        LocalDate date = toLocalDate(row.get("report_date"));
+        String branch = branch(row);
+        return days.computeIfAbsent(date, d -> new TreeMap<>())
+                .computeIfAbsent(branch, b -> newDailyReport(date, b));
+    }
+
+    /**
+     * Add a day to the all-branch total of its month. Arrears are those of the latest day that recorded
+     * them, summed over that day's branches (arrearsDates tracks which day that is per month).
+     */
+    private static void addDayToOpenMonth(Map<YearMonth, MonthlyReports> totals,
+                                          Map<YearMonth, MonthlyReports> closedMonths,
+                                          Map<YearMonth, LocalDate> arrearsDates, DailyReports day) {
+        YearMonth month = YearMonth.from(day.getReportDate());
+        if (closedMonths.containsKey(month)) {
+            return;
+        }
+        MonthlyReports total = totals.computeIfAbsent(month, m -> newMonthlyReport(m.atDay(1), ALL_BRANCHES));
+        addDay(total, day);
+        if (day.getArrearsAmount() == null) {
+            return;
+        }
+        LocalDate arrearsDate = arrearsDates.get(month);
+        if (arrearsDate == null || day.getReportDate().isAfter(arrearsDate)) {
+            arrearsDates.put(month, day.getReportDate());
+            total.setArrearsAmount(day.getArrearsAmount());
+            total.setLateLoansCount(countOf(day.getLateLoansCount()));
+        } else if (day.getReportDate().equals(arrearsDate)) {
+            total.setArrearsAmount(total.getArrearsAmount() + day.getArrearsAmount());
+            total.setLateLoansCount(countOf(total.getLateLoansCount()) + countOf(day.getLateLoansCount()));
+        }
+    }
+
+    static void addDay(MonthlyReports month, DailyReports day) {
+        month.setLoansIssuedCount(month.getLoansIssuedCount() + day.getLoansDisbursedCount());
+        month.setTotalLoansAmount(month.getTotalLoansAmount() + day.getAmountDisbursed());
+        month.setNewLoansCount(month.getNewLoansCount() + day.getNewLoansCount());
+        month.setLoansClosedCount(month.getLoansClosedCount() + day.getLoansClosedCount());
+        month.setTotalRepayments(month.getTotalRepayments() + day.getRepaymentsReceived());
+        month.setRepaymentsCount(month.getRepaymentsCount() + day.getReceiptsIssuedCount());
+        month.setPrincipalCollected(month.getPrincipalCollected() + day.getPrincipalCollected());
+        month.setInterestCollected(month.getInterestCollected() + day.getInterestCollected());
+        month.setFeesCollected(month.getFeesCollected() + day.getFeesCollected());
+        month.setTotalPenalties(month.getTotalPenalties() + day.getPenaltiesCollected());
+        month.setPastMaturityCount(month.getPastMaturityCount() + day.getPastMaturityCount());
+        month.setPastMaturityAmount(month.getPastMaturityAmount() + day.getPastMaturityAmount());
+        month.setTotalExpenses(month.getTotalExpenses() + day.getTotalExpenses());
+    }
+
+    /**
+     * Add one branch's monthly snapshot to the all-branch total of the same month
+     */
+    private static void addMonth(MonthlyReports total, MonthlyReports month) {
+        if (!total.getReportMonth().equals(month.getReportMonth())) {
+            throw new IllegalArgumentException("Cannot add " + month.getReportMonth() + " to " + total.getReportMonth());
+        }
+        total.setLoansIssuedCount(total.getLoansIssuedCount() + month.getLoansIssuedCount());
+        total.setTotalLoansAmount(total.getTotalLoansAmount() + month.getTotalLoansAmount());
+        total.setNewLoansCount(total.getNewLoansCount() + month.getNewLoansCount());
+        total.setLoansClosedCount(total.getLoansClosedCount() + month.getLoansClosedCount());
+        total.setTotalRepayments(total.getTotalRepayments() + month.getTotalRepayments());
+        total.setRepaymentsCount(total.getRepaymentsCount() + month.getRepaymentsCount());
+        total.setPrincipalCollected(total.getPrincipalCollected() + month.getPrincipalCollected());
+        total.setInterestCollected(total.getInterestCollected() + month.getInterestCollected());
+        total.setFeesCollected(total.getFeesCollected() + month.getFeesCollected());
+        total.setTotalPenalties(total.getTotalPenalties() + month.getTotalPenalties());
+        total.setPastMaturityCount(total.getPastMaturityCount() + month.getPastMaturityCount());
+        total.setPastMaturityAmount(total.getPastMaturityAmount() + month.getPastMaturityAmount());
+        total.setTotalExpenses(total.getTotalExpenses() + month.getTotalExpenses());
+        if (month.getArrearsAmount() != null) {
+            // Every branch's month-end balance at the same point in time, so they add up
+            total.setArrearsAmount((total.getArrearsAmount() != null ? total.getArrearsAmount() : 0.0) + month.getArrearsAmount());
+            total.setLateLoansCount(countOf(total.getLateLoansCount()) + countOf(month.getLateLoansCount()));
+        }
+    }
+
+    private static int countOf(Integer count) {
+        return count != null ? count : 0;
+    }
+
+    private static double profit(MonthlyReports report) {
+        return report.getInterestCollected() + report.getFeesCollected() + report.getTotalPenalties()
+                - report.getTotalExpenses();
+    }
+
+    private static DailyReports newDailyReport(LocalDate date, String branch) {
+        DailyReports report = new DailyReports();
+        report.setReportDate(date);
+        report.setBranch(branch);
+        return report;
+    }
+
+    private static MonthlyReports newMonthlyReport(LocalDate month, String branch) {
+        MonthlyReports report = new MonthlyReports();
+        report.setReportMonth(month);
+        report.setBranch(branch);
+        return report;
+    }
+
+    private static String branch(Map<String, Object> row) {
+        Object branch = row.get("branch");
+        return branch != null ? branch.toString() : UNASSIGNED;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : 0.0;
+    }
+}
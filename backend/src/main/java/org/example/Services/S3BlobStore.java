@@ -0,0 +1,291 @@
+package org.example.Services;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Blob store in an S3-compatible bucket (storage.backend=s3): AWS S3, MinIO, Ceph and the like.
+ *
+ * Talks to the S3 REST API over java.net.http with SigV4 signing (S3RequestSigner), so no SDK is needed.
+ * - Files up to storage.s3.part-size go up in one PUT; larger files as a multipart upload, each part
+ *   streamed from its region of the file, so memory use does not grow with file size. A failed multipart
+ *   upload is aborted so no orphaned parts are billed.
+ * - Downloads are handed to the browser as presigned GET URLs valid for storage.s3.presign-ttl-seconds.
+ */
+@Slf4j
+public class S3BlobStore implements BlobStore {
+
+    // S3 rejects multipart parts below 5 MB (except the last)
+    public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+
+    private final HttpClient httpClient;
+    private final S3RequestSigner signer;
+    private final URI endpoint;
+    private final String bucket;
+    private final boolean pathStyle;
+    private final long partSize;
+    private final Duration presignTtl;
+    private final Duration requestTimeout;
+    private final Clock clock;
+
+    public S3BlobStore(URI endpoint, String region, String bucket, String accessKey, String secretKey,
+                       boolean pathStyle, long partSize, Duration presignTtl, Duration requestTimeout, Clock clock) {
+        this.endpoint = endpoint;
+        this.bucket = bucket;
+        this.pathStyle = pathStyle;
+        this.partSize = partSize;
+        this.presignTtl = presignTtl;
+        this.requestTimeout = requestTimeout;
+        this.clock = clock;
+        this.signer = new S3RequestSigner(accessKey, secretKey, region);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        long size = Files.size(source);
+        if (size <= partSize) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            if (contentType != null) {
+                headers.put("content-type", contentType);
+            }
+            expect(send("PUT", objectUri(key, Map.of()), headers, HttpRequest.BodyPublishers.ofFile(source),
+                    HttpResponse.BodyHandlers.ofString()), "PUT " + key);
+            return;
+        }
+        putMultipart(key, source, size, contentType);
+    }
+
+    private void putMultipart(String key, Path source, long size, String contentType) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (contentType != null) {
+            headers.put("content-type", contentType);
+        }
+        HttpResponse<String> created = expect(send("POST", objectUri(key, Map.of("uploads", "")), headers,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString()), "create upload " + key);
+        Matcher matcher = UPLOAD_ID.matcher(created.body());
+        if (!matcher.find()) {
+            throw new IOException("S3 did not return an UploadId for " + key);
+        }
+        String uploadId = matcher.group(1);
+
+        try {
+            List<String> etags = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long length = Math.min(partSize, size - offset);
+                long start = offset;
+                HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofInputStream(() -> openRegion(source, start, length)), length);
+                HttpResponse<String> part = expect(send("PUT", objectUri(key, Map.of(
+                                "partNumber", String.valueOf(partNumber), "uploadId", uploadId)), Map.of(), body,
+                        HttpResponse.BodyHandlers.ofString()), "upload part " + partNumber + " of " + key);
+                etags.add(part.headers().firstValue("ETag")
+                        .orElseThrow(() -> new IOException("S3 returned no ETag for a part of " + key)));
+            }
+
+            StringBuilder complete = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < etags.size(); i++) {
+                complete.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                        .append(etags.get(i)).append("</ETag></Part>");
+            }
+            complete.append("</CompleteMultipartUpload>");
+            HttpResponse<String> done = expect(send("POST", objectUri(key, Map.of("uploadId", uploadId)),
+                    Map.of("content-type", "application/xml"),
+                    HttpRequest.BodyPublishers.ofString(complete.toString(), StandardCharsets.UTF_8),
+                    HttpResponse.BodyHandlers.ofString()), "complete upload " + key);
+            // Completion can fail after the 200 status line has been sent
+            if (done.body().contains("<Error>")) {
+                throw new IOException("S3 failed to complete upload of " + key + ": " + done.body());
+            }
+        } catch (IOException | RuntimeException e) {
+            abort(key, uploadId);
+            throw e;
+        }
+    }
+
+    private void abort(String key, String uploadId) {
+        try {
+            send("DELETE", objectUri(key, Map.of("uploadId", uploadId)), Map.of(),
+                    HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            log.warn("Could not abort multipart upload {} of {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        HttpResponse<Void> response = send("HEAD", objectUri(key, Map.of()), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        expect(response, "HEAD " + key);
+        return true;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        HttpResponse<InputStream> response = send("GET", objectUri(key, Map.of()), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 404) {
+            response.body().close();
+            throw new NoSuchFileException(key);
+        }
+        if (response.statusCode() / 100 != 2) {
+            response.body().close();
+            throw new IOException("S3 GET " + key + " failed with status " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        HttpResponse<String> response = send("DELETE", objectUri(key, Map.of()), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        expect(response, "DELETE " + key);
+        return true;
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<URI> presignedGet(String key, String contentType, String downloadName) {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (contentType != null) {
+            query.put("response-content-type", contentType);
+        }
+        if (downloadName != null) {
+            query.put("response-content-disposition", FileServingService.contentDisposition(downloadName));
+        }
+        return Optional.of(signer.presign("GET", objectUri(key, Map.of()), presignTtl, query, clock.instant()));
+    }
+
+    @Override
+    public String describe() {
+        return "s3:" + endpoint + "/" + bucket;
+    }
+
+    URI objectUri(String key, Map<String, String> query) {
+        String path = "/" + S3RequestSigner.encode(key, true);
+        String base;
+        if (pathStyle) {
+            base = stripSlash(endpoint.toString()) + "/" + S3RequestSigner.encode(bucket, false) + path;
+        } else {
+            String authority = bucket + "." + endpoint.getRawAuthority();
+            base = endpoint.getScheme() + "://" + authority + stripSlash(endpoint.getRawPath()) + path;
+        }
+        return URI.create(query.isEmpty() ? base : base + "?" + S3RequestSigner.encodeQuery(query));
+    }
+
+    private <T> HttpResponse<T> send(String method, URI uri, Map<String, String> headers,
+                                     HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler) throws IOException {
+        Instant now = clock.instant();
+        Map<String, String> signed = new LinkedHashMap<>(headers);
+        signed.put("host", S3RequestSigner.hostHeader(uri));
+        signed.put("x-amz-content-sha256", S3RequestSigner.UNSIGNED_PAYLOAD);
+        signed.put("x-amz-date", S3RequestSigner.amzDate(now));
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .method(method, body)
+                .header("Authorization", signer.authorization(method, uri, signed, S3RequestSigner.UNSIGNED_PAYLOAD, now));
+        signed.forEach((name, value) -> {
+            if (!"host".equals(name)) {
+                request.header(name, value);
+            }
+        });
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during S3 " + method + " " + uri.getPath(), e);
+        }
+    }
+
+    private static <T> HttpResponse<T> expect(HttpResponse<T> response, String operation) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            Object body = response.body();
+            throw new IOException("S3 " + operation + " failed with status " + response.statusCode()
+                    + (body instanceof String text && !text.isEmpty() ? ": " + text : ""));
+        }
+        return response;
+    }
+
+    /**
+     * Stream over [start, start + length) of a file, for one multipart part
+     */
+    private static InputStream openRegion(Path file, long start, long length) {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ).position(start);
+            return new FilterInputStream(Channels.newInputStream(channel)) {
+                private long remaining = length;
+
+                @Override
+                public int read() throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int b = super.read();
+                    if (b >= 0) {
+                        remaining--;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int off, int len) throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int read = super.read(buffer, off, (int) Math.min(len, remaining));
+                    if (read > 0) {
+                        remaining -= read;
+                    }
+                    return read;
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String stripSlash(String value) {
+        return value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+    }
+}
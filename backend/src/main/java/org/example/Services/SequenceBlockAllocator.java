@@ -0,0 +1,75 @@
+package org.example.Services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.Entities.Sequence;
+import org.example.Repositories.SequenceRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Sequence Block Allocator
+ *
+ * Reserves ranges of sequence numbers from the sequences table, one row per prefix and scope
+ * (the year for UniqueIdGenerator, a global scope for IdGenerationService). Each call runs in its
+ * own short transaction (REQUIRES_NEW) so the row lock is released as soon as the range is reserved,
+ * not when the caller's loan/payment/expense transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SequenceBlockAllocator {
+    
+    private final SequenceRepository sequenceRepository;
+    
+    /**
+     * Reserve the next blockSize numbers for a prefix/scope
+     * 
+     * @param seed last number already in use, only called when the sequences row is created
+     * @return first number of the reserved range; the range is [first, first + blockSize - 1]
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserveBlock(String prefix, String scope, int blockSize, LongSupplier seed) {
+        Sequence sequence = sequenceRepository
+                .findByModulePrefixAndBranchCodeAndYearMonthForUpdate(prefix, scope, scope)
+                .orElseGet(() -> createNewSequence(prefix, scope, seed.getAsLong()));
+        
+        long first = sequence.getLastNumber() + 1L;
+        sequence.setLastNumber(Math.toIntExact(sequence.getLastNumber() + (long) blockSize));
+        sequenceRepository.save(sequence);
+        
+        log.info("Reserved {} block {}-{} for scope {}", prefix, first, first + blockSize - 1, scope);
+        return first;
+    }
+    
+    /**
+     * Hand back the unused tail of a block (e.g. on shutdown). Only possible while no other node has
+     * reserved a block after it; otherwise the numbers are simply skipped.
+     * 
+     * @return true if the sequence was rolled back to nextUnused - 1
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean releaseBlock(String prefix, String scope, long blockLast, long nextUnused) {
+        Sequence sequence = sequenceRepository
+                .findByModulePrefixAndBranchCodeAndYearMonthForUpdate(prefix, scope, scope)
+                .orElse(null);
+        if (sequence == null || sequence.getLastNumber() != blockLast || nextUnused > blockLast) {
+            return false;
+        }
+        sequence.setLastNumber(Math.toIntExact(nextUnused - 1));
+        sequenceRepository.save(sequence);
+        return true;
+    }
+    
+    private Sequence createNewSequence(String prefix, String scope, long lastNumber) {
+        Sequence sequence = new Sequence();
+        sequence.setModulePrefix(prefix);
+        sequence.setBranchCode(scope);   // Scope doubles as "branchCode" for compatibility
+        sequence.setYearMonth(scope);
+        sequence.setLastNumber(Math.toIntExact(lastNumber));
+        return sequence;
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.Services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sequence Block Pool
+ *
+ * Node-local cache of reserved sequence blocks (hi/lo). Numbers are handed out lock-free from the
+ * current block of a prefix/scope; a new block of ids.block-size numbers is reserved through
+ * SequenceBlockAllocator only when the current one is used up. Shared by UniqueIdGenerator
+ * (LN/PM/EX/..., scoped per year) and IdGenerationService (TIN/NOK/GUA/PER/BRH, one global scope).
+ *
+ * Numbers are unique across nodes but gap-tolerant: blocks interleave between nodes, and numbers
+ * left in a block are skipped if the node stops without releasing them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SequenceBlockPool {
+    
+    static final int DEFAULT_BLOCK_SIZE = 50;
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+    private static final LongSupplier NO_SEED = () -> 0L;
+    
+    private final SequenceBlockAllocator blockAllocator;
+    
+    @Value("${ids.block-size:" + DEFAULT_BLOCK_SIZE + "}")
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+    
+    // Current block per "PREFIX:SCOPE"
+    private final ConcurrentMap<String, IdBlock> blocks = new ConcurrentHashMap<>();
+    
+    // Refill lock per "PREFIX:SCOPE", so a slow reservation of one sequence does not hold up the others
+    private final ConcurrentMap<String, Object> refillLocks = new ConcurrentHashMap<>();
+    
+    /**
+     * Reserved range [next, last]; next is handed out lock-free
+     */
+    private static final class IdBlock {
+        private final String prefix;
+        private final String scope;
+        private final long last;
+        private final AtomicLong next;
+        
+        private IdBlock(String prefix, String scope, long first, long last) {
+            this.prefix = prefix;
+            this.scope = scope;
+            this.last = last;
+            this.next = new AtomicLong(first);
+        }
+    }
+    
+    /**
+     * Next number for a prefix within a scope (e.g. a year)
+     */
+    public long nextNumber(String prefix, String scope) {
+        return nextNumber(prefix, scope, NO_SEED);
+    }
+    
+    /**
+     * Next number for a prefix within a scope; seed gives the last number already in use and is only
+     * called when the sequences row does not exist yet
+     */
+    public long nextNumber(String prefix, String scope, LongSupplier seed) {
+        String key = blockKey(prefix, scope);
+        while (true) {
+            IdBlock block = blocks.get(key);
+            if (block != null) {
+                long number = block.next.getAndIncrement();
+                if (number <= block.last) {
+                    return number;
+                }
+            }
+            synchronized (refillLocks.computeIfAbsent(key, k -> new Object())) {
+                // Only one thread refills; the others retry against the new block
+                if (blocks.get(key) == block) {
+                    long first = reserveBlock(prefix, scope, seed);
+                    blocks.put(key, new IdBlock(prefix, scope, first, first + blockSize - 1));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Next number this node would hand out from its current block, or null when it has none left
+     */
+    public Long peekNextNumber(String prefix, String scope) {
+        IdBlock block = blocks.get(blockKey(prefix, scope));
+        if (block == null) {
+            return null;
+        }
+        long next = block.next.get();
+        return next <= block.last ? next : null;
+    }
+    
+    /**
+     * Drop all local blocks (after sequences were reset)
+     */
+    public void clear() {
+        blocks.clear();
+    }
+    
+    /**
+     * Hand back the unused part of every block on shutdown so a restart does not skip numbers
+     * (only possible when no other node reserved a block since)
+     */
+    @PreDestroy
+    public void releaseBlocks() {
+        for (String key : blocks.keySet()) {
+            IdBlock block = blocks.remove(key);
+            if (block == null) {
+                continue;
+            }
+            // Claim the rest of the block so a concurrent nextNumber() cannot hand out a released number
+            long nextUnused = block.next.getAndSet(block.last + 1);
+            if (nextUnused > block.last) {
+                continue;
+            }
+            try {
+                if (blockAllocator.releaseBlock(block.prefix, block.scope, block.last, nextUnused)) {
+                    log.info("Released unused {} numbers {}-{}", block.prefix, nextUnused, block.last);
+                }
+            } catch (Exception e) {
+                log.warn("Could not release unused {} block: {}", block.prefix, e.getMessage());
+            }
+        }
+    }
+    
+    private long reserveBlock(String prefix, String scope, LongSupplier seed) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return blockAllocator.reserveBlock(prefix, scope, blockSize, seed);
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the sequence row first; it exists now, so retry
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private static String blockKey(String prefix, String scope) {
+        return prefix + ":" + scope;
+    }
+}
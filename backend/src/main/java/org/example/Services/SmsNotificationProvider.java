@@ -0,0 +1,46 @@
+package org.example.Services;
+
+import lombok.RequiredArgsConstructor;
+import org.example.DTOs.OutboundNotification;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * SMS notifications through SmsServiceImpl. Messages with the same text are sent to all their
+ * recipients in one gateway call where the gateway supports it.
+ */
+@Component
+@RequiredArgsConstructor
+public class SmsNotificationProvider implements NotificationProvider {
+
+    private final SmsServiceImpl smsService;
+
+    @Override
+    public String getChannel() {
+        return OutboundNotification.CHANNEL_SMS;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return smsService.getMaxRecipientsPerCall();
+    }
+
+    @Override
+    public Map<Long, String> send(List<OutboundNotification> messages) {
+        Map<Long, String> failures = new LinkedHashMap<>();
+        Map<String, List<OutboundNotification>> byBody = messages.stream()
+                .collect(Collectors.groupingBy(OutboundNotification::getBody, LinkedHashMap::new, Collectors.toList()));
+        byBody.forEach((body, group) -> {
+            try {
+                smsService.deliver(group.stream().map(OutboundNotification::getRecipient).toList(), body);
+            } catch (Exception e) {
+                group.forEach(message -> failures.put(message.getId(), e.getMessage()));
+            }
+        });
+        return failures;
+    }
+}
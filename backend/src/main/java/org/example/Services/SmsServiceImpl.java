@@ -66,20 +66,40 @@ public class SmsServiceImpl {
      */
     public void sendSms(String phoneNumber, String message) {
         try {
-            if ("africas-talking".equalsIgnoreCase(smsProvider)) {
-                sendViaAfricasTalking(phoneNumber, message);
-            } else if ("twilio".equalsIgnoreCase(smsProvider)) {
-                sendViaTwilio(phoneNumber, message);
-            } else {
-                // Default: Log only
-                logSms(phoneNumber, message);
-            }
+            deliver(java.util.List.of(phoneNumber), message);
         } catch (Exception e) {
             System.err.println("❌ Failed to send SMS: " + e.getMessage());
             e.printStackTrace();
         }
     }
     
+    /**
+     * Send one message to several recipients in as few gateway calls as the provider allows
+     * (Africa's Talking takes a comma-separated recipient list; Twilio is one call per number).
+     * Unlike sendSms, failures are thrown so the notification outbox can retry them.
+     */
+    public void deliver(java.util.List<String> phoneNumbers, String message) throws Exception {
+        if ("africas-talking".equalsIgnoreCase(smsProvider)) {
+            sendViaAfricasTalking(String.join(",", phoneNumbers), message);
+        } else if ("twilio".equalsIgnoreCase(smsProvider)) {
+            for (String phoneNumber : phoneNumbers) {
+                sendViaTwilio(phoneNumber, message);
+            }
+        } else {
+            // Default: Log only
+            for (String phoneNumber : phoneNumbers) {
+                logSms(phoneNumber, message);
+            }
+        }
+    }
+    
+    /**
+     * Largest recipient list sent in one gateway call
+     */
+    public int getMaxRecipientsPerCall() {
+        return "africas-talking".equalsIgnoreCase(smsProvider) ? 100 : 1;
+    }
+    
     /**
      * Send SMS via Africa's Talking
      * TEMPLATE: Uncomment and configure when ready
@@ -172,17 +192,19 @@ public class SmsServiceImpl {
     
     /**
      * Send bulk SMS
+     * Recipients are sent in gateway-sized batches; client notifications go through the
+     * notification outbox instead, which also rate limits and retries.
      */
     public void sendBulkSms(java.util.List<String> phoneNumbers, String message) {
         System.out.println("📱 Sending bulk SMS to " + phoneNumbers.size() + " recipients...");
         
-        for (String phoneNumber : phoneNumbers) {
+        int batchSize = getMaxRecipientsPerCall();
+        for (int from = 0; from < phoneNumbers.size(); from += batchSize) {
+            java.util.List<String> batch = phoneNumbers.subList(from, Math.min(from + batchSize, phoneNumbers.size()));
             try {
-                sendSms(phoneNumber, message);
-                // Add delay to avoid rate limiting
-                Thread.sleep(100);
+                deliver(batch, message);
             } catch (Exception e) {
-                System.err.println("Failed to send SMS to " + phoneNumber + ": " + e.getMessage());
+                System.err.println("Failed to send SMS to " + batch + ": " + e.getMessage());
             }
         }
         
@@ -13,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,6 +26,9 @@ public class StaffService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Transactional
     public StaffResponse createStaff(StaffRegistrationRequest request) {
         // Normalize the request data
@@ -155,10 +159,19 @@ public class StaffService {
             }
         }
 
+        // Role, branch and email are carried in issued tokens, so a change ends existing sessions
+        User.UserRole newRole = User.UserRole.valueOf(request.getRole());
+        boolean claimsChanged = user.getRole() != newRole
+                || !Objects.equals(user.getBranch(), request.getBranch())
+                || !Objects.equals(user.getEmail(), request.getEmail());
+        if (claimsChanged) {
+            tokenRevocationService.revokeUser(user, "STAFF_UPDATED");
+        }
+
         // Update User
         user.setEmail(request.getEmail());
         user.setUsername(request.getEmail());
-        user.setRole(User.UserRole.valueOf(request.getRole()));
+        user.setRole(newRole);
         user.setBranch(request.getBranch());
 
         User savedUser = userRepository.save(user);
@@ -176,6 +189,7 @@ public class StaffService {
         }
 
         userRepository.delete(user);
+        tokenRevocationService.revokeUser(user, "STAFF_DELETED");
     }
 
     private void validateStaffRequest(StaffRegistrationRequest request) {
@@ -2,6 +2,7 @@ package org.example.Services;
 
 import org.example.DTOs.DashboardStatistics;
 import org.example.DTOs.LoanStatusBreakdown;
+import org.example.Entities.MonthlyReports;
 import org.example.Repositories.StatisticsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
@@ -25,6 +26,9 @@ public class StatisticsService {
     @Autowired
     private StatisticsRepository statisticsRepository;
 
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+
     /**
      * Get complete dashboard statistics
      * This is the main method that returns all dashboard data
@@ -63,9 +67,7 @@ public class StatisticsService {
             stats.calculateGenderPercentages(); // Calculate percentages
             
             // === TIME-BASED ANALYTICS ===
-            stats.setMonthlyLoansReleased(statisticsRepository.getMonthlyLoansReleased());
-            stats.setMonthlyCollections(statisticsRepository.getMonthlyCollections());
-            stats.setMonthlyPastMaturityLoans(statisticsRepository.getMonthlyPastMaturityLoans());
+            setMonthlyChartData(stats);
             
             // === SYSTEM INFO ===
             stats.setDataLoadedAt(LocalDateTime.now());
@@ -244,9 +246,7 @@ public class StatisticsService {
             DashboardStatistics stats = new DashboardStatistics();
             
             // Only chart data
-            stats.setMonthlyLoansReleased(statisticsRepository.getMonthlyLoansReleased());
-            stats.setMonthlyCollections(statisticsRepository.getMonthlyCollections());
-            stats.setMonthlyPastMaturityLoans(statisticsRepository.getMonthlyPastMaturityLoans());
+            setMonthlyChartData(stats);
             
             // Gender distribution for pie chart
             stats.setMaleBorrowers(statisticsRepository.getMaleBorrowers());
@@ -387,6 +387,26 @@ public class StatisticsService {
         return stats;
     }
 
+    /**
+     * Monthly chart series for the last 12 months.
+     * Closed months/days come from the report snapshots; only days not yet closed are aggregated live.
+     */
+    private void setMonthlyChartData(DashboardStatistics stats) {
+        try {
+            List<MonthlyReports> months = reportSnapshotService.getRecentMonthlyTotals(12);
+            stats.setMonthlyLoansReleased(ReportSnapshotService.toChartData(months,
+                    MonthlyReports::getTotalLoansAmount, MonthlyReports::getLoansIssuedCount));
+            stats.setMonthlyCollections(ReportSnapshotService.toChartData(months,
+                    MonthlyReports::getTotalRepayments, MonthlyReports::getRepaymentsCount));
+            stats.setMonthlyPastMaturityLoans(ReportSnapshotService.toChartData(months,
+                    MonthlyReports::getPastMaturityAmount, MonthlyReports::getPastMaturityCount));
+        } catch (Exception e) {
+            stats.setMonthlyLoansReleased(new ArrayList<>());
+            stats.setMonthlyCollections(new ArrayList<>());
+            stats.setMonthlyPastMaturityLoans(new ArrayList<>());
+        }
+    }
+
     /**
      * Validate and sanitize statistics data
      */
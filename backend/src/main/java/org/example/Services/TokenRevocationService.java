@@ -0,0 +1,157 @@
+package org.example.Services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.Config.CacheConfig;
+import org.example.Entities.User;
+import org.example.Repositories.TokenRevocationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token Revocation Service
+ *
+ * In-memory view of token_revocations so JWT authentication can reject revoked tokens without a
+ * database round trip. Revocations made on this node apply immediately; revocations from other nodes
+ * apply after the next refresh (auth.revocation-refresh-ms, 30s by default).
+ *
+ * - revokeToken: one token, by its jti claim (logout)
+ * - revokeUser: every token issued to a user up to now (password reset, role/branch change, deletion)
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    @Autowired
+    private TokenRevocationRepository revocationRepository;
+
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
+    @Value("${jwt.expiration:3600000}")
+    private long jwtExpirationInMs = 3600000;
+
+    // Swapped wholesale on refresh; local revocations are added in place (both synchronized, so none is lost)
+    private volatile Set<String> revokedTokenIds = ConcurrentHashMap.newKeySet();
+    private volatile Map<Long, Instant> userCutoffs = new ConcurrentHashMap<>();
+
+    /**
+     * True if the token was revoked by id, or was issued to the user at or before the user's last revocation
+     */
+    public boolean isRevoked(String tokenId, Long userId, Date issuedAt) {
+        if (tokenId != null && revokedTokenIds.contains(tokenId)) {
+            return true;
+        }
+        if (userId == null) {
+            return false;
+        }
+        Instant cutoff = userCutoffs.get(userId);
+        if (cutoff == null) {
+            return false;
+        }
+        // issuedAt is the iatMillis claim, so a token issued later in the revocation's second stays valid
+        return issuedAt == null || !issuedAt.toInstant().isAfter(cutoff);
+    }
+
+    /**
+     * Revoke a single token until it expires
+     */
+    public synchronized void revokeToken(String tokenId, Long userId, Date expiresAt) {
+        if (tokenId == null) {
+            return;
+        }
+        revokedTokenIds.add(tokenId);
+        LocalDateTime expiry = expiresAt != null
+                ? LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault())
+                : LocalDateTime.now().plus(Duration.ofMillis(jwtExpirationInMs));
+        revocationRepository.insert(tokenId, userId, "LOGOUT", LocalDateTime.now(), expiry);
+    }
+
+    /**
+     * Revoke every token issued to the user and drop the user's cached principal
+     */
+    public void revokeUser(User user, String reason) {
+        Cache principals = cacheManager != null ? cacheManager.getCache(CacheConfig.JWT_PRINCIPALS_CACHE) : null;
+        if (principals != null) {
+            if (user.getEmail() != null) {
+                principals.evict(user.getEmail());
+            }
+            if (user.getUsername() != null) {
+                principals.evict(user.getUsername());
+            }
+        }
+        revokeUser(user.getId(), reason);
+    }
+
+    /**
+     * Revoke every token issued to the user so far; tokens issued afterwards are unaffected
+     */
+    public synchronized void revokeUser(Long userId, String reason) {
+        if (userId == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        userCutoffs.merge(userId, now, (a, b) -> a.isAfter(b) ? a : b);
+        LocalDateTime revokedAt = LocalDateTime.ofInstant(now, ZoneId.systemDefault());
+        revocationRepository.insert(null, userId, reason, revokedAt, revokedAt.plus(Duration.ofMillis(jwtExpirationInMs)));
+        log.info("Revoked all tokens of user {} ({})", userId, reason);
+    }
+
+    /**
+     * Reload revocations from the database (picks up other nodes) and purge expired rows
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation-refresh-ms:30000}")
+    public synchronized void refresh() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Map<String, Object>> rows = revocationRepository.findActive(now);
+
+            Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+            Map<Long, Instant> cutoffs = new ConcurrentHashMap<>();
+            for (Map<String, Object> row : rows) {
+                Object tokenId = row.get("token_id");
+                Object userId = row.get("user_id");
+                if (tokenId != null) {
+                    tokenIds.add(tokenId.toString());
+                } else if (userId != null) {
+                    Instant revokedAt = toInstant(row.get("revoked_at"));
+                    cutoffs.merge(((Number) userId).longValue(), revokedAt, (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+            revokedTokenIds = tokenIds;
+            userCutoffs = cutoffs;
+
+            int purged = revocationRepository.deleteExpired(now);
+            if (purged > 0) {
+                log.debug("Purged {} expired token revocations", purged);
+            }
+        } catch (Exception e) {
+            // Keep the previous view; retried on the next run
+            log.warn("Could not refresh token revocations: {}", e.getMessage());
+        }
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        }
+        return Instant.now();
+    }
+}
@@ -22,14 +22,21 @@ import java.time.format.DateTimeFormatter;
  * 
  * Total: 8 characters maximum
  * Sequence resets each year per module prefix.
+ * 
+ * Block allocation (hi/lo): instead of locking the sequences row for every ID, each node reserves
+ * a block of ids.block-size numbers per prefix/year in one short transaction (SequenceBlockPool)
+ * and hands them out from memory. IDs stay unique across nodes, but they are gap-tolerant:
+ * - numbers are not strictly in creation order across nodes (node A may issue 0051 after node B issued 0101)
+ * - numbers left in a block are skipped when the node stops without releasing them, or when the year rolls over
+ * - a number taken by a transaction that later rolls back is not reused
  */
 @Service
-@Transactional
 @RequiredArgsConstructor
 @Slf4j
 public class UniqueIdGenerator {
     
     private final SequenceRepository sequenceRepository;
+    private final SequenceBlockPool blockPool;
     
     // Module prefixes (2 characters each)
     public static final String LOAN_PREFIX = "LN";
@@ -49,19 +56,11 @@ public class UniqueIdGenerator {
         // Get current year in YY format
         String year = getCurrentYear();
         
-        // Get or create sequence (using year as "branchCode" for compatibility)
-        Sequence sequence = sequenceRepository
-                .findByModulePrefixAndBranchCodeAndYearMonthForUpdate(prefix, year, year)
-                .orElseGet(() -> createNewSequence(prefix, year, year));
-        
-        // Increment sequence
-        int nextNumber = sequence.getLastNumber() + 1;
-        sequence.setLastNumber(nextNumber);
-        sequenceRepository.save(sequence);
+        long nextNumber = blockPool.nextNumber(prefix, year);
         
         // Format and return ID
         String formattedId = formatId(prefix, year, nextNumber);
-        log.info("Generated ID: {} for module: {}", formattedId, prefix);
+        log.debug("Generated ID: {} for module: {}", formattedId, prefix);
         
         return formattedId;
     }
@@ -109,11 +108,17 @@ public class UniqueIdGenerator {
     }
     
     /**
-     * Preview next ID without incrementing (useful for UI previews)
+     * Preview next ID without incrementing (useful for UI previews).
+     * With block allocation this is the next number this node would hand out.
      */
     public String previewNextId(String prefix) {
         String year = getCurrentYear();
         
+        Long next = blockPool.peekNextNumber(prefix, year);
+        if (next != null) {
+            return formatId(prefix, year, next);
+        }
+        
         Sequence sequence = sequenceRepository
                 .findByModulePrefixAndBranchCodeAndYearMonth(prefix, year, year)
                 .orElse(null);
@@ -122,18 +127,6 @@ public class UniqueIdGenerator {
         return formatId(prefix, year, nextNumber);
     }
     
-    /**
-     * Create new sequence entry
-     */
-    private Sequence createNewSequence(String prefix, String branchCode, String yearMonth) {
-        Sequence sequence = new Sequence();
-        sequence.setModulePrefix(prefix);
-        sequence.setBranchCode(branchCode);
-        sequence.setYearMonth(yearMonth);
-        sequence.setLastNumber(0);
-        return sequence;
-    }
-    
     /**
      * Get current year in YY format
      * Example: 2025 -> "25"
@@ -148,7 +141,7 @@ public class UniqueIdGenerator {
      * Example: LN250001
      * Max 8 characters: 2 (prefix) + 2 (year) + 4 (sequence)
      */
-    private String formatId(String prefix, String year, int sequenceNumber) {
+    private String formatId(String prefix, String year, long sequenceNumber) {
         return String.format("%s%s%04d", 
                 prefix.toUpperCase(), 
                 year, 
@@ -158,9 +151,11 @@ public class UniqueIdGenerator {
     /**
      * Reset all sequences (USE WITH CAUTION - typically for testing only)
      */
+    @Transactional
     public void resetAllSequences() {
         log.warn("Resetting all sequences - this should only be done in testing!");
         sequenceRepository.deleteAll();
+        blockPool.clear();
     }
     
     /**
@@ -75,10 +75,15 @@ public class UserAttributionService {
     
     /**
      * Get the ID of the currently authenticated user
-     * Extracts userId directly from JWT token claims
+     * Taken from the authenticated principal, or extracted from the JWT token claims
      * @return User ID or null if not found
      */
     public Long getCurrentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof JwtPrincipal principal) {
+            return principal.getUserId();
+        }
+        
         try {
             // Get JWT token from request header
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
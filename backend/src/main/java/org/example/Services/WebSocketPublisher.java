@@ -0,0 +1,163 @@
+package org.example.Services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * WebSocket Publisher
+ *
+ * Sends an event to the destinations that currently have subscribers and skips the rest, so an event is
+ * serialized at most once and only reaches the browsers that asked for it. Scoped destinations:
+ *
+ * - /topic/loans/{loanId}                a loan's details page
+ * - /topic/branch/{branch}/loans         loan events of one branch (see branchSegment)
+ * - /topic/branch/{branch}/payments      payments on that branch's loans
+ * - /topic/branch/{branch}/dashboard     loan and payment events for that branch's dashboard
+ * - /user/queue/loans                    events about loans the user created (the user is their id)
+ *
+ * The company-wide topics (/topic/loans, /topic/payments, /topic/dashboard) are only open to company-wide
+ * roles. Subscription rules are enforced by WebSocketAuthInterceptor.
+ */
+@Service
+@Slf4j
+public class WebSocketPublisher {
+
+    public static final String USER_LOAN_QUEUE = "/queue/loans";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketSubscriptionRegistry subscriptions;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public WebSocketPublisher(SimpMessagingTemplate messagingTemplate, WebSocketSubscriptionRegistry subscriptions,
+                              ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptions = subscriptions;
+        this.objectMapper = objectMapper;
+    }
+
+    public static String loanTopic(Long loanId) {
+        return "/topic/loans/" + loanId;
+    }
+
+    public static String branchLoansTopic(String branch) {
+        return branchTopic(branch, "loans");
+    }
+
+    public static String branchPaymentsTopic(String branch) {
+        return branchTopic(branch, "payments");
+    }
+
+    public static String branchDashboardTopic(String branch) {
+        return branchTopic(branch, "dashboard");
+    }
+
+    private static String branchTopic(String branch, String channel) {
+        return "/topic/branch/" + branchSegment(branch) + "/" + channel;
+    }
+
+    /**
+     * Branch name as a destination segment: lower case, anything but letters, digits, '-' and '_' as '-'
+     */
+    public static String branchSegment(String branch) {
+        if (branch == null || branch.isBlank()) {
+            return "unassigned";
+        }
+        return branch.trim().toLowerCase().replaceAll("[^a-z0-9_-]", "-");
+    }
+
+    /**
+     * Send the payload to each destination that has subscribers; the payload is only built and
+     * serialized if at least one does
+     *
+     * @return number of destinations sent to
+     */
+    public int publish(Supplier<?> payload, String... destinations) {
+        List<String> targets = new ArrayList<>(destinations.length);
+        for (String destination : destinations) {
+            if (destination != null && subscriptions.hasSubscribers(destination)) {
+                targets.add(destination);
+            }
+        }
+        skipped.addAndGet(destinations.length - targets.size());
+        if (targets.isEmpty()) {
+            return 0;
+        }
+        byte[] body = serialize(payload.get());
+        if (body == null) {
+            return 0;
+        }
+        for (String destination : targets) {
+            messagingTemplate.send(destination, toMessage(body));
+        }
+        published.addAndGet(targets.size());
+        return targets.size();
+    }
+
+    /**
+     * Send the payload to a user's queue if the user is connected and subscribed to it
+     *
+     * @return true if sent
+     */
+    public boolean publishToUser(Long userId, String queue, Supplier<?> payload) {
+        if (userId == null) {
+            return false;
+        }
+        String user = userId.toString();
+        if (!subscriptions.hasUserSubscribers(user, "/user" + queue)) {
+            skipped.incrementAndGet();
+            return false;
+        }
+        byte[] body = serialize(payload.get());
+        if (body == null) {
+            return false;
+        }
+        messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + user + queue, toMessage(body));
+        published.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Messages sent and skipped (no subscribers) since start, and the current subscriptions
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("published", published.get());
+        stats.put("skippedNoSubscribers", skipped.get());
+        stats.putAll(subscriptions.getStats());
+        return stats;
+    }
+
+    private byte[] serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize WebSocket message: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Message<byte[]> toMessage(byte[] body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(body, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.Services;
+
+import org.example.Config.WebSocketBrokerProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket Subscription Registry
+ *
+ * Number of live STOMP subscriptions per destination on this node, kept from the session subscribe /
+ * unsubscribe / disconnect events, so publishers can skip building and sending messages nobody receives.
+ * User queues (/user/queue/...) are looked up in Spring's SimpUserRegistry instead, which already knows
+ * each authenticated user's sessions and subscriptions.
+ *
+ * With the STOMP broker relay, browsers on other nodes are invisible here, so every topic counts as
+ * subscribed; the broker drops messages for destinations nobody subscribes to.
+ */
+@Component
+public class WebSocketSubscriptionRegistry {
+
+    private final SimpUserRegistry userRegistry;
+    private final WebSocketBrokerProperties brokerProperties;
+
+    // sessionId -> subscriptionId -> destination
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+    private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    public WebSocketSubscriptionRegistry(SimpUserRegistry userRegistry, WebSocketBrokerProperties brokerProperties) {
+        this.userRegistry = userRegistry;
+        this.brokerProperties = brokerProperties;
+    }
+
+    /**
+     * True if at least one session on this node is subscribed to the destination (always, with the relay)
+     */
+    public boolean hasSubscribers(String destination) {
+        if (brokerProperties.isRelayActive()) {
+            return true;
+        }
+        AtomicInteger count = counts.get(destination);
+        return count != null && count.get() > 0;
+    }
+
+    /**
+     * True if the user has a session subscribed to the user destination (e.g. /user/queue/loans)
+     */
+    public boolean hasUserSubscribers(String user, String userDestination) {
+        SimpUser simpUser = userRegistry.getUser(user);
+        if (simpUser == null) {
+            return false;
+        }
+        for (SimpSession session : simpUser.getSessions()) {
+            for (SimpSubscription subscription : session.getSubscriptions()) {
+                if (userDestination.equals(subscription.getDestination())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        subscribed(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination());
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        unsubscribed(accessor.getSessionId(), accessor.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        disconnected(event.getSessionId());
+    }
+
+    synchronized void subscribed(String sessionId, String subscriptionId, String destination) {
+        if (sessionId == null || subscriptionId == null || destination == null) {
+            return;
+        }
+        String previous = sessions.computeIfAbsent(sessionId, id -> new HashMap<>()).put(subscriptionId, destination);
+        if (previous != null) {
+            decrement(previous);
+        }
+        counts.computeIfAbsent(destination, d -> new AtomicInteger()).incrementAndGet();
+    }
+
+    synchronized void unsubscribed(String sessionId, String subscriptionId) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        String destination = subscriptions.remove(subscriptionId);
+        if (destination != null) {
+            decrement(destination);
+        }
+        if (subscriptions.isEmpty()) {
+            sessions.remove(sessionId);
+        }
+    }
+
+    synchronized void disconnected(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::decrement);
+        }
+    }
+
+    private void decrement(String destination) {
+        AtomicInteger count = counts.get(destination);
+        if (count != null && count.decrementAndGet() <= 0) {
+            counts.remove(destination);
+        }
+    }
+
+    /**
+     * Sessions, and subscriptions per destination, on this node
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Integer> destinations = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> destinations.put(entry.getKey(), entry.getValue().get()));
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("relay", brokerProperties.isRelayActive());
+        stats.put("sessions", sessions.size());
+        stats.put("users", userRegistry.getUserCount());
+        stats.put("destinations", destinations);
+        return stats;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.config;
+
+import org.example.Services.BlobStore;
+import org.example.Services.LocalBlobStore;
+import org.example.Services.S3BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Storage backend for uploaded content (storage.*).
+ *
+ * backend=local keeps content under file.content-dir on this node's disk.
+ * backend=s3 keeps it in an S3-compatible bucket shared by every node; file.content-dir then only holds
+ * temp files and a local cache used for thumbnails. Existing files are moved over by BlobMigrationJob.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "storage")
+public class BlobStoreConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobStoreConfig.class);
+
+    private String backend = "local";              // local | s3
+    private final S3 s3 = new S3();
+
+    @Bean
+    public BlobStore blobStore(FileStorageConfig fileStorageConfig) {
+        BlobStore store;
+        if ("s3".equalsIgnoreCase(backend)) {
+            if (s3.bucket == null || s3.bucket.isBlank()) {
+                throw new IllegalStateException("storage.backend=s3 requires storage.s3.bucket");
+            }
+            store = new S3BlobStore(URI.create(s3.endpoint), s3.region, s3.bucket, s3.accessKey, s3.secretKey,
+                    s3.pathStyle, Math.max(S3BlobStore.MIN_PART_SIZE, s3.partSize),
+                    Duration.ofSeconds(s3.presignTtlSeconds), Duration.ofSeconds(s3.requestTimeoutSeconds),
+                    Clock.systemUTC());
+        } else {
+            store = new LocalBlobStore(Paths.get(fileStorageConfig.getContentDir()));
+        }
+        logger.info("File content stored in {}", store.describe());
+        return store;
+    }
+
+    public boolean isRemote() {
+        return "s3".equalsIgnoreCase(backend);
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    public S3 getS3() {
+        return s3;
+    }
+
+    public static class S3 {
+        private String endpoint = "https://s3.amazonaws.com";
+        private String region = "us-east-1";
+        private String bucket;
+        private String accessKey;
+        private String secretKey;
+        private boolean pathStyle = true;              // MinIO and most self-hosted stores need path-style URLs
+        private long partSize = 8L * 1024 * 1024;      // Larger files use multipart upload; minimum 5 MB
+        private long presignTtlSeconds = 600;
+        private long requestTimeoutSeconds = 120;
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public String getBucket() {
+            return bucket;
+        }
+
+        public void setBucket(String bucket) {
+            this.bucket = bucket;
+        }
+
+        public String getAccessKey() {
+            return accessKey;
+        }
+
+        public void setAccessKey(String accessKey) {
+            this.accessKey = accessKey;
+        }
+
+        public String getSecretKey() {
+            return secretKey;
+        }
+
+        public void setSecretKey(String secretKey) {
+            this.secretKey = secretKey;
+        }
+
+        public boolean isPathStyle() {
+            return pathStyle;
+        }
+
+        public void setPathStyle(boolean pathStyle) {
+            this.pathStyle = pathStyle;
+        }
+
+        public long getPartSize() {
+            return partSize;
+        }
+
+        public void setPartSize(long partSize) {
+            this.partSize = partSize;
+        }
+
+        public long getPresignTtlSeconds() {
+            return presignTtlSeconds;
+        }
+
+        public void setPresignTtlSeconds(long presignTtlSeconds) {
+            this.presignTtlSeconds = presignTtlSeconds;
+        }
+
+        public long getRequestTimeoutSeconds() {
+            return requestTimeoutSeconds;
+        }
+
+        public void setRequestTimeoutSeconds(long requestTimeoutSeconds) {
+            this.requestTimeoutSeconds = requestTimeoutSeconds;
+        }
+    }
+}
@@ -11,6 +11,7 @@ public class FileStorageConfig {
     private long maxFileSize = 5242880; // 5MB in bytes
     private String[] allowedExtensions = {"jpg", "jpeg", "png", "gif"};
     private String servePath = "/api/images";
+    private String contentDir = "./uploads/content";   // Content-addressed storage root: objects/, tmp/, cache/
     
     // Subdirectories for different types of images
     private String clientPhotosDir = "client-photos";
@@ -51,6 +52,14 @@ public class FileStorageConfig {
         this.servePath = servePath;
     }
     
+    public String getContentDir() {
+        return contentDir;
+    }
+    
+    public void setContentDir(String contentDir) {
+        this.contentDir = contentDir;
+    }
+    
     public String getClientPhotosDir() {
         return clientPhotosDir;
     }
@@ -1,30 +1,48 @@
 package org.example.config;
 
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.example.Services.CustomUserDetailsService;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.example.Services.JwtPrincipal;
+import org.example.Services.TokenRevocationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests from the Bearer token alone: the principal (id, role, branch, authorities)
+ * comes from the signed claims and revocation is checked against TokenRevocationService's in-memory set,
+ * so a request needs no database access. Only tokens issued without the user claims fall back to
+ * CustomUserDetailsService.loadPrincipal, which is cached.
+ */
 @Component
 public class  JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    @Autowired
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private static final List<String> SKIPPED_PREFIXES = List.of(
+            "/auth/", "/api/auth/", "/expense-categories", "/swagger-ui/", "/v3/api-docs/");
+
     private final JwtTokenService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService revocationService;
 
-    public JwtAuthenticationFilter(JwtTokenService jwtService, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenService jwtService, CustomUserDetailsService userDetailsService,
+                                   TokenRevocationService revocationService) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.revocationService = revocationService;
     }
 
 
@@ -33,19 +51,15 @@ public class  JwtAuthenticationFilter extends OncePerRequestFilter {
 protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
     String path = request.getRequestURI();
 
-    // Add logging to debug
-    System.out.println("🔍 JWT Filter - Checking path: " + path);
-
-    boolean skip = path.startsWith("/auth/") ||
-            path.startsWith("/api/auth/") ||
-            path.startsWith("/expense-categories") ||
-            path.equals("/actuator/health") ||
-            path.startsWith("/swagger-ui/") ||
-            path.startsWith("/v3/api-docs/");
-
-    System.out.println("   Should skip JWT filter: " + skip);
-
-    return skip;
+    if (path.equals("/actuator/health")) {
+        return true;
+    }
+    for (String prefix : SKIPPED_PREFIXES) {
+        if (path.startsWith(prefix)) {
+            return true;
+        }
+    }
+    return false;
 }
 
     @Override
@@ -54,33 +68,30 @@ protected boolean shouldNotFilter(HttpServletRequest request) throws ServletExce
                                     FilterChain filterChain) throws ServletException, IOException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                username = jwtService.getUsernameFromToken(token);
-            } catch (Exception e) {
-                // Invalid token format or expired - continue without authentication
-                // This allows permitted endpoints to work even with bad tokens
-                System.out.println("Invalid token provided, continuing without authentication: " + e.getMessage());
-            }
-        }
+                // Verifies signature and expiry
+                Claims claims = jwtService.parseClaims(authHeader.substring(7));
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                JwtPrincipal principal = jwtService.getPrincipalFromClaims(claims);
+                if (principal == null) {
+                    principal = userDetailsService.loadPrincipal(claims.getSubject());
+                }
 
-                if (jwtService.validateToken(token, userDetails)) {
+                if (!revocationService.isRevoked(claims.getId(), principal.getUserId(), JwtTokenService.getIssuedAt(claims))) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
+                            principal, null, principal.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                } else {
+                    logger.debug("Revoked token presented for user {}", principal.getUserId());
                 }
             } catch (Exception e) {
-                // User not found or token validation failed - continue without authentication
-                System.out.println("Token validation failed, continuing without authentication: " + e.getMessage());
+                // Invalid, expired or unknown-user token - continue without authentication
+                // This allows permitted endpoints to work even with bad tokens
+                logger.debug("Token not accepted, continuing without authentication: {}", e.getMessage());
             }
         }
 
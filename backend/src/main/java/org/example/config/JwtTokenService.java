@@ -2,6 +2,7 @@ package org.example.config;
 
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -11,21 +12,32 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.example.Entities.User;
 import org.example.Entities.Person;
+import org.example.Services.JwtPrincipal;
 
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenService {
+    // iat only has second precision; revocation cutoffs are compared against this instead
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iatMillis";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
 
+    // Built once from the secret instead of decoding the key on every parse
+    private volatile JwtParser parser;
+
 
     public Boolean validateToken(String token, UserDetails userDetails) {
         final String username = getUsernameFromToken(token);
@@ -45,11 +57,20 @@ public class JwtTokenService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verify the signature and expiry and return the claims (throws JwtException when invalid or expired)
+     */
+    public Claims parseClaims(String token) {
+        return getAllClaimsFromToken(token);
+    }
+
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSignKey())
-                .parseClaimsJws(token)
-                .getBody();
+        JwtParser jwtParser = parser;
+        if (jwtParser == null) {
+            jwtParser = Jwts.parserBuilder().setSigningKey(getSignKey()).build();
+            parser = jwtParser;
+        }
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -62,12 +83,23 @@ public class JwtTokenService {
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    /**
+     * Issue time of the token to the millisecond; falls back to iat for tokens issued without iatMillis
+     */
+    public static Date getIssuedAt(Claims claims) {
+        Object millis = claims.get(ISSUED_AT_MILLIS_CLAIM);
+        return millis instanceof Number number ? new Date(number.longValue()) : claims.getIssuedAt();
+    }
+
     public String createToken(Map<String,Object> claims, String subject) {
+        Date now = new Date();
         return Jwts.builder()
                 .setClaims(claims)
+                .claim(ISSUED_AT_MILLIS_CLAIM, now.getTime())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationInMs))
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + jwtExpirationInMs))
                 .signWith(SignatureAlgorithm.HS512, secret)
                 .compact();
     }
@@ -92,6 +124,8 @@ public class JwtTokenService {
         }
         claims.put("role", user.getRole().name());
         claims.put("userId", user.getId());
+        claims.put("branch", user.getBranch());
+        claims.put("authorities", JwtPrincipal.authoritiesFor(user.getRole().name()));
         
         return createToken(claims, user.getEmail());
     }
@@ -133,4 +167,19 @@ public class JwtTokenService {
             return userId != null ? Long.valueOf(userId.toString()) : null;
         });
     }
+    
+    /**
+     * Principal from the user claims, or null for tokens issued without them (the caller loads the user)
+     */
+    public JwtPrincipal getPrincipalFromClaims(Claims claims) {
+        Object userId = claims.get("userId");
+        Object role = claims.get("role");
+        Object authorities = claims.get("authorities");
+        if (userId == null || role == null || !(authorities instanceof Collection<?> authorityList)) {
+            return null;
+        }
+        List<String> authorityNames = authorityList.stream().map(Object::toString).collect(Collectors.toList());
+        return new JwtPrincipal(Long.valueOf(userId.toString()), claims.getSubject(), role.toString(),
+                (String) claims.get("branch"), (String) claims.get("fullName"), authorityNames);
+    }
 }
@@ -0,0 +1,160 @@
+package org.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limit and bulkhead settings per route group (rate-limit.*).
+ *
+ * Each group has a token bucket per client (user, or IP when unauthenticated): capacity requests in a
+ * burst, refilled at refill-per-minute. Groups with max-concurrent > 0 also get a bulkhead shared by
+ * all clients. Groups below are built in; a property only needs the fields it changes, e.g.
+ *
+ *   rate-limit.routes.analytics.refill-per-minute=60
+ *   rate-limit.routes.reports.paths=/api/reports/**
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitConfig {
+
+    private static final Map<String, Route> DEFAULT_ROUTES = new LinkedHashMap<>();
+
+    static {
+        // First matching group wins, so the table views come before the other admin routes
+        DEFAULT_ROUTES.put("loan-table", new Route(List.of(
+                "/api/loans/table-view", "/api/loans/rejected/table-view", "/api/loans/admin/table-view"), 20, 60, 8));
+        DEFAULT_ROUTES.put("loan-admin", new Route(List.of("/api/loans/admin/**"), 5, 10, 2));
+        DEFAULT_ROUTES.put("analytics", new Route(List.of(
+                "/api/payments/analytics/**", "/api/loan-analytics/**", "/api/financial-analytics/**"), 20, 60, 6));
+        DEFAULT_ROUTES.put("expense-export", new Route(List.of("/api/expense/export"), 3, 6, 2));
+        DEFAULT_ROUTES.put("data-export", new Route(List.of(
+                "/api/loans/export", "/api/payments/export", "/api/installments/export"), 3, 6, 2));
+        DEFAULT_ROUTES.put("otp", new Route(List.of(
+                "/api/auth/login", "/api/auth/verify-otp", "/api/auth/resend-otp",
+                "/api/auth/forgot-password", "/api/auth/reset-password"), 5, 10, 0));
+    }
+
+    private boolean enabled = true;
+
+    // Use the first X-Forwarded-For address as client key (only behind a trusted proxy)
+    private boolean trustForwardedFor = false;
+
+    // Milliseconds a request waits for a bulkhead permit before it is shed with 503
+    private long bulkheadWaitMs = 0;
+
+    // Overrides, merged field by field over DEFAULT_ROUTES
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    /**
+     * Built-in groups with property overrides applied, plus groups only defined in properties
+     */
+    public Map<String, Route> resolveRoutes() {
+        Map<String, Route> resolved = new LinkedHashMap<>();
+        DEFAULT_ROUTES.forEach((name, route) -> resolved.put(name, route.overriddenBy(routes.get(name))));
+        routes.forEach((name, route) -> {
+            if (!resolved.containsKey(name) && route.getPaths() != null && !route.getPaths().isEmpty()) {
+                resolved.put(name, new Route(route.getPaths(), 10, 60, 0).overriddenBy(route));
+            }
+        });
+        return resolved;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isTrustForwardedFor() {
+        return trustForwardedFor;
+    }
+
+    public void setTrustForwardedFor(boolean trustForwardedFor) {
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    public long getBulkheadWaitMs() {
+        return bulkheadWaitMs;
+    }
+
+    public void setBulkheadWaitMs(long bulkheadWaitMs) {
+        this.bulkheadWaitMs = bulkheadWaitMs;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * One route group; null fields fall back to the built-in values
+     */
+    public static class Route {
+        private List<String> paths;
+        private Integer capacity;           // Burst size per client
+        private Integer refillPerMinute;    // Sustained requests per minute per client
+        private Integer maxConcurrent;      // Bulkhead size for the whole group, 0 = none
+
+        public Route() {
+        }
+
+        public Route(List<String> paths, Integer capacity, Integer refillPerMinute, Integer maxConcurrent) {
+            this.paths = paths;
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        Route overriddenBy(Route override) {
+            if (override == null) {
+                return this;
+            }
+            return new Route(
+                    override.paths != null && !override.paths.isEmpty() ? override.paths : paths,
+                    override.capacity != null ? override.capacity : capacity,
+                    override.refillPerMinute != null ? override.refillPerMinute : refillPerMinute,
+                    override.maxConcurrent != null ? override.maxConcurrent : maxConcurrent);
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public Integer getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(Integer capacity) {
+            this.capacity = capacity;
+        }
+
+        public Integer getRefillPerMinute() {
+            return refillPerMinute;
+        }
+
+        public void setRefillPerMinute(Integer refillPerMinute) {
+            this.refillPerMinute = refillPerMinute;
+        }
+
+        public Integer getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(Integer maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+}
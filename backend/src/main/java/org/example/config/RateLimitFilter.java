@@ -0,0 +1,140 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.DTOs.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Applies RequestRateLimiter to the limited route groups. Runs after JwtAuthenticationFilter so
+ * authenticated requests are keyed by user; unauthenticated ones (login, OTP) are keyed by client IP.
+ * Too many requests from one client get 429, a full bulkhead gets 503; both carry Retry-After.
+ * For async (streamed) responses the bulkhead permit is held until the response completes.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RequestRateLimiter rateLimiter;
+    private final RateLimitConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    public RateLimitFilter(RequestRateLimiter rateLimiter, RateLimitConfig config) {
+        this.rateLimiter = rateLimiter;
+        this.config = config;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String group = rateLimiter.matchGroup(request.getRequestURI());
+        if (group == null || "OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String clientKey = clientKey(request);
+        RequestRateLimiter.Permit permit = rateLimiter.tryAcquire(group, clientKey);
+        switch (permit.getOutcome()) {
+            case RATE_LIMITED -> {
+                logger.debug("Rate limited {} on {} ({})", clientKey, request.getRequestURI(), group);
+                reject(request, response, HttpStatus.TOO_MANY_REQUESTS, permit.getRetryAfterSeconds(),
+                        "Too many requests. Please try again later.");
+            }
+            case SHED -> {
+                logger.debug("Shed {} on {} ({}): bulkhead full", clientKey, request.getRequestURI(), group);
+                reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, permit.getRetryAfterSeconds(),
+                        "The server is busy with similar requests. Please try again shortly.");
+            }
+            default -> {
+                boolean async = false;
+                try {
+                    filterChain.doFilter(request, response);
+                    async = request.isAsyncStarted();
+                    if (async) {
+                        // Streamed responses (exports) keep the permit until the body is written
+                        request.getAsyncContext().addListener(new ReleaseOnComplete(permit));
+                    }
+                } finally {
+                    if (!async) {
+                        permit.release();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * "user:<name>" when authenticated, otherwise "ip:<address>"
+     */
+    String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getPrincipal())) {
+            return "user:" + auth.getName();
+        }
+        if (config.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return "ip:" + forwardedFor.split(",")[0].trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                        long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ErrorResponse body = new ErrorResponse(LocalDateTime.now(), status.value(), status.getReasonPhrase(),
+                message, request.getRequestURI());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * Releases a bulkhead permit once an async request has finished, failed or timed out
+     */
+    private record ReleaseOnComplete(RequestRateLimiter.Permit permit) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Still the same request; keep listening
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process rate limiter and bulkhead for the route groups in RateLimitConfig.
+ *
+ * - Token bucket per group and client key, kept in a bounded Caffeine cache (idle buckets are dropped,
+ *   which is the same as a full bucket)
+ * - Semaphore per group limiting concurrent requests, so one client cannot take every pool connection
+ * - Counters per group (allowed, rate limited, shed) for the rate limit stats endpoint
+ */
+@Component
+public class RequestRateLimiter {
+
+    public enum Outcome { ALLOWED, RATE_LIMITED, SHED }
+
+    private final RateLimitConfig config;
+    private final Map<String, RateLimitConfig.Route> routes;
+    private final Map<String, Semaphore> bulkheads = new LinkedHashMap<>();
+    private final Map<String, GroupStats> stats = new LinkedHashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final LongSupplier clock;
+
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .maximumSize(50_000)
+            .build();
+
+    @Autowired
+    public RequestRateLimiter(RateLimitConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    RequestRateLimiter(RateLimitConfig config, LongSupplier clock) {
+        this.config = config;
+        this.clock = clock;
+        this.routes = config.resolveRoutes();
+        routes.forEach((group, route) -> {
+            if (route.getMaxConcurrent() != null && route.getMaxConcurrent() > 0) {
+                bulkheads.put(group, new Semaphore(route.getMaxConcurrent()));
+            }
+            stats.put(group, new GroupStats());
+        });
+    }
+
+    /**
+     * Route group of a request path, or null when the path is not limited
+     */
+    public String matchGroup(String path) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        for (Map.Entry<String, RateLimitConfig.Route> route : routes.entrySet()) {
+            for (String pattern : route.getValue().getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return route.getKey();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take a token for the client and a bulkhead permit for the group.
+     * An ALLOWED permit must be released when the request completes.
+     */
+    public Permit tryAcquire(String group, String clientKey) {
+        RateLimitConfig.Route route = routes.get(group);
+        GroupStats groupStats = stats.get(group);
+
+        TokenBucket bucket = buckets.get(group + "|" + clientKey, key -> new TokenBucket(
+                route.getCapacity(), route.getRefillPerMinute(), clock.getAsLong()));
+        long waitNanos = bucket.tryConsume(clock.getAsLong());
+        if (waitNanos > 0) {
+            groupStats.rateLimited.incrementAndGet();
+            return new Permit(Outcome.RATE_LIMITED, toRetryAfterSeconds(waitNanos), null);
+        }
+
+        Semaphore bulkhead = bulkheads.get(group);
+        if (bulkhead != null && !acquire(bulkhead)) {
+            groupStats.shed.incrementAndGet();
+            return new Permit(Outcome.SHED, 1, null);
+        }
+        groupStats.allowed.incrementAndGet();
+        return new Permit(Outcome.ALLOWED, 0, bulkhead);
+    }
+
+    /**
+     * Per-group counters and current bulkhead usage
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        stats.forEach((group, groupStats) -> {
+            RateLimitConfig.Route route = routes.get(group);
+            Semaphore bulkhead = bulkheads.get(group);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("paths", route.getPaths());
+            entry.put("capacity", route.getCapacity());
+            entry.put("refillPerMinute", route.getRefillPerMinute());
+            entry.put("maxConcurrent", route.getMaxConcurrent());
+            entry.put("inFlight", bulkhead != null ? route.getMaxConcurrent() - bulkhead.availablePermits() : null);
+            entry.put("allowed", groupStats.allowed.get());
+            entry.put("rateLimited", groupStats.rateLimited.get());
+            entry.put("shed", groupStats.shed.get());
+            result.put(group, entry);
+        });
+        return result;
+    }
+
+    private boolean acquire(Semaphore bulkhead) {
+        if (config.getBulkheadWaitMs() <= 0) {
+            return bulkhead.tryAcquire();
+        }
+        try {
+            return bulkhead.tryAcquire(config.getBulkheadWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    /**
+     * Result of tryAcquire; release() is a no-op unless a bulkhead permit was taken
+     */
+    public static final class Permit {
+        private final Outcome outcome;
+        private final long retryAfterSeconds;
+        private Semaphore bulkhead;
+
+        private Permit(Outcome outcome, long retryAfterSeconds, Semaphore bulkhead) {
+            this.outcome = outcome;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.bulkhead = bulkhead;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public synchronized void release() {
+            if (bulkhead != null) {
+                bulkhead.release();
+                bulkhead = null;
+            }
+        }
+    }
+
+    /**
+     * Token bucket refilled continuously from elapsed time
+     */
+    static final class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, int refillPerMinute, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise nanoseconds until one is available
+         */
+        synchronized long tryConsume(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return tokensPerNano > 0 ? (long) Math.ceil((1 - tokens) / tokensPerNano) : TimeUnit.MINUTES.toNanos(1);
+        }
+    }
+
+    private static final class GroupStats {
+        private final AtomicLong allowed = new AtomicLong();
+        private final AtomicLong rateLimited = new AtomicLong();
+        private final AtomicLong shed = new AtomicLong();
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Time bucket sizes used by trend charts.
+ *
+ * DAILY   - one bucket per calendar day
+ * WEEKLY  - ISO weeks, starting on Monday
+ * MONTHLY - calendar months
+ * YEARLY  - calendar years
+ */
+public enum TrendGranularity {
+    DAILY,
+    WEEKLY,
+    MONTHLY,
+    YEARLY;
+
+    /**
+     * Parse the request parameter used by the analytics endpoints ("daily", "weekly", ...).
+     * Unknown values fall back to DAILY, matching the previous behaviour.
+     */
+    public static TrendGranularity fromParam(String value) {
+        if (value == null) {
+            return DAILY;
+        }
+        switch (value.trim().toLowerCase()) {
+            case "weekly":
+                return WEEKLY;
+            case "monthly":
+                return MONTHLY;
+            case "yearly":
+                return YEARLY;
+            default:
+                return DAILY;
+        }
+    }
+
+    /**
+     * First day of the bucket containing the given date
+     */
+    public LocalDate bucketStart(LocalDate date) {
+        switch (this) {
+            case WEEKLY:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY:
+                return date.withDayOfMonth(1);
+            case YEARLY:
+                return date.withDayOfYear(1);
+            default:
+                return date;
+        }
+    }
+
+    /**
+     * First day of the bucket following the one starting at bucketStart
+     */
+    public LocalDate nextBucketStart(LocalDate bucketStart) {
+        switch (this) {
+            case WEEKLY:
+                return bucketStart.plusWeeks(1);
+            case MONTHLY:
+                return bucketStart.plusMonths(1);
+            case YEARLY:
+                return bucketStart.plusYears(1);
+            default:
+                return bucketStart.plusDays(1);
+        }
+    }
+
+    /**
+     * Last day of the bucket starting at bucketStart
+     */
+    public LocalDate bucketEnd(LocalDate bucketStart) {
+        return nextBucketStart(bucketStart).minusDays(1);
+    }
+
+    /**
+     * Chart label for a bucket: 2025-03-14, 2025-W11, 2025-03 or 2025
+     */
+    public String label(LocalDate bucketStart) {
+        switch (this) {
+            case WEEKLY:
+                return String.format("%d-W%02d",
+                        bucketStart.get(IsoFields.WEEK_BASED_YEAR),
+                        bucketStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTHLY:
+                return String.format("%d-%02d", bucketStart.getYear(), bucketStart.getMonthValue());
+            case YEARLY:
+                return String.valueOf(bucketStart.getYear());
+            default:
+                return bucketStart.toString();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+-- Migration: Immutable end-of-day and month-end report snapshots per branch
+-- daily_reports / monthly_reports were never populated, so they are recreated with the full schema
+
+DROP TABLE IF EXISTS daily_reports;
+DROP TABLE IF EXISTS monthly_reports;
+
+CREATE TABLE daily_reports (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    report_date DATE NOT NULL,
+    branch VARCHAR(100) NOT NULL,
+    loans_disbursed_count INT NOT NULL DEFAULT 0,
+    amount_disbursed DOUBLE NOT NULL DEFAULT 0,
+    new_loans_count INT NOT NULL DEFAULT 0,
+    loans_closed_count INT NOT NULL DEFAULT 0,
+    repayments_received DOUBLE NOT NULL DEFAULT 0,
+    receipts_issued_count INT NOT NULL DEFAULT 0,
+    principal_collected DOUBLE NOT NULL DEFAULT 0,
+    interest_collected DOUBLE NOT NULL DEFAULT 0,
+    fees_collected DOUBLE NOT NULL DEFAULT 0,
+    penalties_collected DOUBLE NOT NULL DEFAULT 0,
+    past_maturity_count INT NOT NULL DEFAULT 0,
+    past_maturity_amount DOUBLE NOT NULL DEFAULT 0,
+    arrears_amount DOUBLE NULL,
+    late_loans_count INT NULL,
+    total_expenses DOUBLE NOT NULL DEFAULT 0,
+    generated_at DATETIME(6) NULL,
+    CONSTRAINT uk_daily_reports_date_branch UNIQUE (report_date, branch)
+);
+
+CREATE TABLE monthly_reports (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    report_month DATE NOT NULL,
+    branch VARCHAR(100) NOT NULL,
+    loans_issued_count INT NOT NULL DEFAULT 0,
+    total_loans_amount DOUBLE NOT NULL DEFAULT 0,
+    new_loans_count INT NOT NULL DEFAULT 0,
+    loans_closed_count INT NOT NULL DEFAULT 0,
+    total_repayments DOUBLE NOT NULL DEFAULT 0,
+    repayments_count INT NOT NULL DEFAULT 0,
+    principal_collected DOUBLE NOT NULL DEFAULT 0,
+    interest_collected DOUBLE NOT NULL DEFAULT 0,
+    fees_collected DOUBLE NOT NULL DEFAULT 0,
+    total_penalties DOUBLE NOT NULL DEFAULT 0,
+    past_maturity_count INT NOT NULL DEFAULT 0,
+    past_maturity_amount DOUBLE NOT NULL DEFAULT 0,
+    arrears_amount DOUBLE NULL,
+    late_loans_count INT NULL,
+    profit DOUBLE NOT NULL DEFAULT 0,
+    total_expenses DOUBLE NOT NULL DEFAULT 0,
+    staff_productivity VARCHAR(255) NULL,
+    generated_at DATETIME(6) NULL,
+    CONSTRAINT uk_monthly_reports_month_branch UNIQUE (report_month, branch)
+);
+
+-- Indexes for the date range scans used by the close job (MySQL has no CREATE INDEX IF NOT EXISTS)
+SELECT COUNT(*) INTO @idx_exists
+FROM information_schema.STATISTICS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'loan_details' AND INDEX_NAME = 'idx_loan_details_release_date';
+
+SET @sql = IF(@idx_exists = 0,
+  'CREATE INDEX idx_loan_details_release_date ON loan_details (release_date)',
+  'SELECT "index_exists"'
+);
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SELECT COUNT(*) INTO @idx_exists
+FROM information_schema.STATISTICS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'loan_payments' AND INDEX_NAME = 'idx_loan_payments_payment_date';
+
+SET @sql = IF(@idx_exists = 0,
+  'CREATE INDEX idx_loan_payments_payment_date ON loan_payments (payment_date)',
+  'SELECT "index_exists"'
+);
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
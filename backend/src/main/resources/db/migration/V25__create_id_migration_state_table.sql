@@ -0,0 +1,15 @@
+-- Migration: Version marker for the background universal ID migration
+-- One row per migration version; startup skips the migration once its row is COMPLETE
+
+CREATE TABLE IF NOT EXISTS id_migration_state (
+    migration_version INT PRIMARY KEY,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',   -- PENDING, RUNNING, COMPLETE, FAILED
+    owner VARCHAR(100) NULL,                          -- Node running the migration
+    loans_migrated BIGINT NOT NULL DEFAULT 0,
+    expenses_migrated BIGINT NOT NULL DEFAULT 0,
+    branches_migrated BIGINT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500) NULL,
+    started_at DATETIME(6) NULL,
+    completed_at DATETIME(6) NULL,
+    updated_at DATETIME(6) NULL                       -- Heartbeat, refreshed after every chunk
+);
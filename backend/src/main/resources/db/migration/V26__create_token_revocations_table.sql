@@ -0,0 +1,15 @@
+-- Migration: Revoked JWTs
+-- A row with token_id revokes one token (logout); a row with only user_id revokes every token
+-- issued to that user before revoked_at (password reset, role/branch change, staff deletion).
+-- Rows are purged once expires_at (the latest expiry of an affected token) has passed.
+
+CREATE TABLE IF NOT EXISTS token_revocations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_id VARCHAR(64) NULL,
+    user_id BIGINT NULL,
+    reason VARCHAR(50) NULL,
+    revoked_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_token_revocations_expires_at ON token_revocations (expires_at);
@@ -0,0 +1,28 @@
+-- Migration: Notification outbox
+-- Client notifications (email, SMS) are queued here by the schedulers and delivered in the background
+-- by NotificationDispatcher. A node claims a batch by setting status SENDING and claim_token; failed
+-- messages go back to PENDING with a later next_attempt_at until max attempts, then DEAD.
+-- dedupe_key stops the same reminder being queued twice (e.g. a scheduler re-run on the same day).
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    channel VARCHAR(20) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NULL,
+    body TEXT NOT NULL,
+    notification_type VARCHAR(50) NOT NULL,
+    loan_id BIGINT NULL,
+    dedupe_key VARCHAR(191) NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claim_token VARCHAR(64) NULL,
+    claimed_at DATETIME(6) NULL,
+    last_error VARCHAR(500) NULL,
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6) NULL,
+    CONSTRAINT uk_notification_outbox_dedupe UNIQUE (dedupe_key)
+);
+
+CREATE INDEX idx_notification_outbox_due ON notification_outbox (status, channel, next_attempt_at);
+CREATE INDEX idx_notification_outbox_claim ON notification_outbox (claim_token);
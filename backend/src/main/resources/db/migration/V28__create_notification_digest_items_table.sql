@@ -0,0 +1,19 @@
+-- Migration: Client reminder digest
+-- Scheduler jobs add one row per client, day, reminder type and loan; the unique key drops the same reminder
+-- reported twice (e.g. a payment due today seen by both the loan tracking and the installment scheduler).
+-- NotificationDigestService turns all pending rows of a client into one email and one SMS in the outbox.
+
+CREATE TABLE IF NOT EXISTS notification_digest_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    client_id BIGINT NOT NULL,
+    digest_date DATE NOT NULL,
+    notification_type VARCHAR(50) NOT NULL,
+    loan_id BIGINT NOT NULL,
+    loan_number VARCHAR(100) NULL,
+    line VARCHAR(500) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    digested_at DATETIME(6) NULL,
+    CONSTRAINT uk_notification_digest_item UNIQUE (client_id, digest_date, notification_type, loan_id)
+);
+
+CREATE INDEX idx_notification_digest_pending ON notification_digest_items (digested_at, client_id, created_at);
@@ -0,0 +1,66 @@
+-- Migration: Audit log access paths and archive
+-- Audit queries read newest first per entity or per user, optionally within a time window, and page by
+-- (timestamp, id). The composite indexes serve those reads without a filesort; InnoDB appends id to every
+-- secondary index, so the keyset tie-break is covered too. The old two-column indexes are prefixes of the new
+-- ones and are dropped.
+--
+-- Rows older than audit.retention.months are moved by AuditLogService into audit_logs_archive, a compressed
+-- table with the same columns (ids are kept). This keeps audit_logs small without partitioning it: MySQL
+-- requires the partitioning column in every unique key, and audit_logs is keyed on id alone.
+
+-- Each index statement is guarded, so the migration can be re-run on a partly migrated schema
+SELECT COUNT(*) INTO @idx_exists
+FROM information_schema.STATISTICS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND INDEX_NAME = 'idx_audit_logs_entity_time';
+
+SET @sql = IF(@idx_exists = 0,
+  'CREATE INDEX idx_audit_logs_entity_time ON audit_logs (entity_type, entity_id, timestamp)',
+  'SELECT "index_exists"'
+);
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SELECT COUNT(*) INTO @idx_exists
+FROM information_schema.STATISTICS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND INDEX_NAME = 'idx_audit_logs_actor_time';
+
+SET @sql = IF(@idx_exists = 0,
+  'CREATE INDEX idx_audit_logs_actor_time ON audit_logs (performed_by, timestamp)',
+  'SELECT "index_exists"'
+);
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SELECT COUNT(*) INTO @idx_exists
+FROM information_schema.STATISTICS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND INDEX_NAME = 'idx_audit_logs_entity';
+
+SET @sql = IF(@idx_exists > 0,
+  'DROP INDEX idx_audit_logs_entity ON audit_logs',
+  'SELECT "no_index"'
+);
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SELECT COUNT(*) INTO @idx_exists
+FROM information_schema.STATISTICS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND INDEX_NAME = 'idx_audit_logs_performed_by';
+
+SET @sql = IF(@idx_exists > 0,
+  'DROP INDEX idx_audit_logs_performed_by ON audit_logs',
+  'SELECT "no_index"'
+);
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+CREATE TABLE IF NOT EXISTS audit_logs_archive (
+    id BIGINT PRIMARY KEY,
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    action VARCHAR(20) NOT NULL,
+    performed_by VARCHAR(255),
+    old_value TEXT,
+    new_value TEXT,
+    timestamp TIMESTAMP NOT NULL,
+    ip_address VARCHAR(50),
+    archived_at DATETIME(6) NOT NULL,
+    INDEX idx_audit_logs_archive_entity_time (entity_type, entity_id, timestamp),
+    INDEX idx_audit_logs_archive_actor_time (performed_by, timestamp),
+    INDEX idx_audit_logs_archive_timestamp (timestamp)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
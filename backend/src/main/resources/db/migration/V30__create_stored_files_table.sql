@@ -0,0 +1,34 @@
+-- Migration: Content-addressed file storage
+-- Uploaded files are stored once per distinct content, named by their SHA-256 (see ContentAddressedStorage).
+-- stored_files counts the images and receipts that point at each content; the file is deleted when the
+-- count drops to zero. images.content_hash links an image to its content and doubles as its ETag.
+
+CREATE TABLE IF NOT EXISTS stored_files (
+    content_hash CHAR(64) PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    content_type VARCHAR(100) NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    last_referenced_at DATETIME(6) NOT NULL
+);
+
+-- Guarded, so the migration can be re-run on a partly migrated schema
+SELECT COUNT(*) INTO @col_exists
+FROM information_schema.COLUMNS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'images' AND COLUMN_NAME = 'content_hash';
+
+SET @sql = IF(@col_exists = 0,
+  'ALTER TABLE images ADD COLUMN content_hash VARCHAR(64) NULL',
+  'SELECT "column_exists"'
+);
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SELECT COUNT(*) INTO @idx_exists
+FROM information_schema.STATISTICS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'images' AND INDEX_NAME = 'idx_images_content_hash';
+
+SET @sql = IF(@idx_exists = 0,
+  'CREATE INDEX idx_images_content_hash ON images (content_hash)',
+  'SELECT "index_exists"'
+);
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
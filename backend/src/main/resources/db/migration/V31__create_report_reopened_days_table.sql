@@ -0,0 +1,9 @@
+-- Migration: Closed report days invalidated by backdated writes
+-- An expense or payment dated on or before the last end-of-day close changes a day whose snapshot is
+-- already written. The write records its date here; the next close re-aggregates every closed day from
+-- the earliest recorded date on, and rolls their months up again (see ReportSnapshotService).
+
+CREATE TABLE IF NOT EXISTS report_reopened_days (
+    report_date DATE PRIMARY KEY,
+    reopened_at DATETIME(6) NOT NULL
+);
@@ -0,0 +1,59 @@
+package org.example.Config;
+
+import org.example.Services.JwtPrincipal;
+import org.example.Services.WebSocketPublisher;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketAuthInterceptorTest {
+
+    private static final JwtPrincipal ADMIN = principal("ADMIN", "Kampala Central");
+    private static final JwtPrincipal OFFICER = principal("LOAN_OFFICER", "Kampala Central");
+
+    @Test
+    void testCanSubscribe_AnonymousIsRefusedEverywhere() {
+        for (String destination : List.of("/topic/loans", "/topic/payments", "/topic/dashboard",
+                "/topic/expenses", "/topic/loans/5", "/topic/branch/kampala-central/loans", "/user/queue/loans",
+                "/topic/anything-else")) {
+            assertFalse(WebSocketAuthInterceptor.canSubscribe(null, destination), destination);
+        }
+    }
+
+    @Test
+    void testCanSubscribe_CompanyWideTopicsNeedCompanyWideRole() {
+        for (String destination : List.of("/topic/loans", "/topic/payments", "/topic/dashboard",
+                "/topic/dashboard/metrics", "/topic/loans/updates", "/topic/installments")) {
+            assertTrue(WebSocketAuthInterceptor.canSubscribe(ADMIN, destination), destination);
+            assertFalse(WebSocketAuthInterceptor.canSubscribe(OFFICER, destination), destination);
+        }
+    }
+
+    @Test
+    void testCanSubscribe_BranchTopicsOnlyForOwnBranch() {
+        String own = WebSocketPublisher.branchDashboardTopic("Kampala Central");
+        String other = WebSocketPublisher.branchPaymentsTopic("Gulu");
+
+        assertTrue(WebSocketAuthInterceptor.canSubscribe(OFFICER, own));
+        assertTrue(WebSocketAuthInterceptor.canSubscribe(OFFICER, WebSocketPublisher.branchLoansTopic("kampala central")));
+        assertFalse(WebSocketAuthInterceptor.canSubscribe(OFFICER, other));
+        assertTrue(WebSocketAuthInterceptor.canSubscribe(ADMIN, other));
+    }
+
+    @Test
+    void testCanSubscribe_AuthenticatedTopicsAndDefaultDeny() {
+        assertTrue(WebSocketAuthInterceptor.canSubscribe(OFFICER, "/topic/loans/5"));
+        assertTrue(WebSocketAuthInterceptor.canSubscribe(OFFICER, "/topic/loan/5"));
+        assertTrue(WebSocketAuthInterceptor.canSubscribe(OFFICER, "/user/queue/loans"));
+        assertTrue(WebSocketAuthInterceptor.canSubscribe(OFFICER, "/topic/loan-products"));
+        assertFalse(WebSocketAuthInterceptor.canSubscribe(OFFICER, "/topic/anything-else"));
+        assertFalse(WebSocketAuthInterceptor.canSubscribe(ADMIN, "/queue/loans"));
+        assertFalse(WebSocketAuthInterceptor.canSubscribe(ADMIN, null));
+    }
+
+    private static JwtPrincipal principal(String role, String branch) {
+        return new JwtPrincipal(1L, "user@example.com", role, branch, "Test User", JwtPrincipal.authoritiesFor(role));
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.Services;
+
+import org.example.DTOs.AuditLogPage;
+import org.example.Entities.AuditLog;
+import org.example.Repositories.AuditLogQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogServiceTest {
+
+    @Mock
+    private AuditLogQueryRepository queryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AuditLogService auditLogService;
+
+    @BeforeEach
+    void setUp() {
+        auditLogService = new AuditLogService(queryRepository, transactionManager);
+    }
+
+    @Test
+    void testQuery_CursorContinuesAfterLastRowOfPage() {
+        // Arrange - three rows for a page of two; the third only signals that another page follows
+        LocalDateTime time = LocalDateTime.of(2025, 3, 1, 10, 0, 0, 123_000_000);
+        when(queryRepository.findPage(false, "LOAN", 9L, null, null, null, null, null, 3)).thenReturn(List.of(
+                row(30L, time.plusMinutes(2)), row(20L, time), row(10L, time)));
+        when(queryRepository.findPage(false, "LOAN", 9L, null, null, null, time, 20L, 3)).thenReturn(List.of(
+                row(10L, time)));
+
+        // Act
+        AuditLogPage first = auditLogService.entityHistory("LOAN", 9L, null, 2);
+        AuditLogPage second = auditLogService.entityHistory("LOAN", 9L, first.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(List.of(30L, 20L), first.getItems().stream().map(AuditLog::getId).toList());
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of(10L), second.getItems().stream().map(AuditLog::getId).toList());
+        assertNull(second.getNextCursor(), "Last page has no cursor");
+    }
+
+    @Test
+    void testQuery_RejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> auditLogService.query(null, null, "admin", null, null, false, "not-a-cursor", 10));
+        verifyNoInteractions(queryRepository);
+    }
+
+    @Test
+    void testArchiveExpired_MovesChunksUntilNoneLeft() {
+        // Arrange - a full chunk, then a partial one
+        List<Long> fullChunk = LongStream.rangeClosed(1, 1000).boxed().toList();
+        when(queryRepository.findIdsBefore(any(), eq(1000))).thenReturn(fullChunk, List.of(1001L, 1002L));
+        when(queryRepository.deleteLive(fullChunk)).thenReturn(1000);
+        when(queryRepository.deleteLive(List.of(1001L, 1002L))).thenReturn(2);
+
+        // Act
+        int archived = auditLogService.archiveExpired();
+
+        // Assert
+        assertEquals(1002, archived);
+        verify(queryRepository).copyToArchive(eq(fullChunk), any());
+        verify(queryRepository).copyToArchive(eq(List.of(1001L, 1002L)), any());
+        verify(queryRepository, never()).deleteArchivedBefore(any(), anyInt());
+    }
+
+    private static AuditLog row(Long id, LocalDateTime timestamp) {
+        return new AuditLog(id, "LOAN", 9L, "STATUS_UPDATED", "admin", null, null, timestamp, null);
+    }
+}
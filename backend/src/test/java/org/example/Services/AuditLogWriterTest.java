@@ -0,0 +1,124 @@
+package org.example.Services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path deadLetterDir;
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    private void recordBatches() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    batchSizes.add(((Collection<?>) invocation.getArgument(1)).size());
+                    return new int[0][];
+                });
+    }
+
+    @Test
+    void testFlush_WritesQueuedRecordsInBatches() {
+        // Arrange - writer thread not started, flushes driven by the test
+        recordBatches();
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, 1000, 200, 500, deadLetterDir);
+        for (int i = 0; i < 450; i++) {
+            writer.write("LOAN", (long) i, "CREATED", "admin", null, "Loan created");
+        }
+
+        // Act
+        writer.shutdown();
+
+        // Assert
+        assertEquals(List.of(200, 200, 50), batchSizes);
+        assertEquals(450, writer.getWritten());
+        assertEquals(0, writer.getQueued());
+    }
+
+    @Test
+    void testWrite_CallerWritesBatchWhenQueueFull() {
+        // Arrange
+        recordBatches();
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, 10, 5, 500, deadLetterDir);
+
+        // Act
+        for (int i = 0; i < 12; i++) {
+            writer.write("PAYMENT", (long) i, "RECORDED", "cashier", null, "Payment recorded");
+        }
+
+        // Assert - nothing dropped, queue never above capacity
+        assertTrue(writer.getCallerFlushes() >= 1);
+        assertTrue(writer.getQueued() <= 10);
+        assertEquals(12, writer.getWritten() + writer.getQueued());
+    }
+
+    @Test
+    void testShutdown_RetriesFailedBatch() {
+        // Arrange - first insert fails, second succeeds
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(new int[0][]);
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, 100, 50, 500, deadLetterDir);
+        for (int i = 0; i < 3; i++) {
+            writer.write("LOAN", (long) i, "APPROVED", "manager", null, "Loan approved");
+        }
+
+        // Act
+        writer.shutdown();
+
+        // Assert
+        assertEquals(3, writer.getWritten());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testExhaustedBatchGoesToDeadLetterFileAndIsReplayed() throws Exception {
+        // Arrange - the database is down for three attempts, then back
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(new int[0][]);
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, 100, 50, 500, deadLetterDir);
+        writer.write("LOAN", 1L, "APPROVED", "manager", null, "Loan approved");
+        writer.write("LOAN", 2L, "APPROVED", "manager", null, "Loan approved");
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            writer.flush(50);
+        }
+        Path deadLetters = deadLetterDir.resolve("audit_logs.jsonl");
+        List<String> kept = Files.readAllLines(deadLetters);
+        int replayed = writer.replayDeadLetters();
+
+        // Assert - kept durably instead of dropped, then written one by one
+        assertEquals(2, writer.getDeadLettered());
+        assertEquals(2, kept.size());
+        assertTrue(kept.get(0).contains("\"entityId\":1"));
+        assertEquals(2, replayed);
+        assertEquals(2, writer.getWritten());
+        assertFalse(Files.exists(deadLetters));
+    }
+}
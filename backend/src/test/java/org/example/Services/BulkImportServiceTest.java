@@ -0,0 +1,272 @@
+package org.example.Services;
+
+import org.example.Repositories.ExpenseImportRepository;
+import org.example.Repositories.ExpenseImportRepository.ExpenseRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BulkImportServiceTest {
+
+    private static final String HEADER = "description,amount,date,category,vendor,reference number\n";
+
+    @Mock
+    private ExpenseImportRepository importRepository;
+
+    @Mock
+    private UniqueIdGenerator uniqueIdGenerator;
+
+    @Mock
+    private UserAttributionService userAttributionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ReportSnapshotService reportSnapshotService;
+
+    @InjectMocks
+    private BulkImportService bulkImportService;
+
+    private final List<List<ExpenseRow>> insertedBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkImportService, "batchSize", 2);
+        bulkImportService.init();
+        when(uniqueIdGenerator.generateExpenseId()).thenReturn("EXP-1", "EXP-2", "EXP-3", "EXP-4", "EXP-5");
+        Map<String, Long> categories = new HashMap<>();
+        categories.put("office", 1L);
+        when(importRepository.findCategoryIdsByName()).thenReturn(categories);
+        // The service reuses its batch list, so keep a copy of what each call received
+        doAnswer(invocation -> insertedBatches.add(new ArrayList<>(invocation.<List<ExpenseRow>>getArgument(0))))
+                .when(importRepository).insertBatch(anyList(), any(), any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkImportService.shutdown();
+    }
+
+    @Test
+    void testImport_InsertsInBatchesAndCreatesUnknownCategoryOnce() throws Exception {
+        // Arrange
+        when(importRepository.insertCategory(eq("Travel"), any(), any())).thenReturn(7L);
+        String csv = HEADER
+                + "Printer paper,12.50,2024-01-15,Office,Staples,INV-1\n"
+                + "Taxi to client,30,2024-01-16,Travel,,\n"
+                + "\n"
+                + "Train to client,45,16/01/2024,travel,,\n";
+        BulkImportService.ImportJob job = newJob();
+
+        // Act
+        bulkImportService.importExpensesFromCSV(stream(csv), job);
+
+        // Assert - two batches (2 + 1), one category insert, reference number kept apart from expense_reference
+        assertEquals(3, job.totalRecords.get());
+        assertEquals(3, job.imported.get());
+        assertEquals(0, job.failed.get());
+        assertEquals(List.of(2, 1), insertedBatches.stream().map(List::size).toList());
+        verify(importRepository, times(1)).insertCategory(eq("Travel"), eq("alice"), any());
+        verify(importRepository, times(1)).findCategoryIdsByName();
+
+        ExpenseRow first = insertedBatches.get(0).get(0);
+        assertEquals(2, first.lineNumber());
+        assertEquals("EXP-1", first.expenseReference());
+        assertEquals("INV-1", first.referenceNumber());
+        assertEquals("Printer paper", first.expenseName());
+        assertEquals(1L, first.categoryId());
+        assertEquals("PENDING", first.status());
+        assertEquals(5, insertedBatches.get(1).get(0).lineNumber());
+        assertEquals(7L, insertedBatches.get(1).get(0).categoryId());
+        // Each batch reopens closed days from its earliest expense date
+        verify(reportSnapshotService).recordBackdatedChange(LocalDate.of(2024, 1, 15));
+        verify(reportSnapshotService).recordBackdatedChange(LocalDate.of(2024, 1, 16));
+    }
+
+    @Test
+    void testImport_InvalidLinesGoToErrorReport() throws Exception {
+        // Arrange
+        String csv = HEADER
+                + "Printer paper,12.50,2024-01-15,Office,,\n"
+                + "ab,10,2024-01-15,Office,,\n"
+                + "Desk lamp,-5,2024-01-15,Office,,\n"
+                + "Desk chair,99,not a date,Office,,\n"
+                + "Coffee beans,8,2024-01-15,,,\n";
+        BulkImportService.ImportJob job = newJob();
+
+        // Act
+        bulkImportService.importExpensesFromCSV(stream(csv), job);
+
+        // Assert
+        assertEquals(5, job.totalRecords.get());
+        assertEquals(1, job.imported.get());
+        assertEquals(4, job.failed.get());
+        Map<String, Object> status = job.toStatus();
+        @SuppressWarnings("unchecked")
+        List<String> errors = (List<String>) status.get("errors");
+        assertTrue(errors.get(0).startsWith("Line 3: Description"));
+        assertTrue(errors.get(3).startsWith("Line 6: Category"));
+        assertEquals(true, status.get("errorReportAvailable"));
+
+        List<String> report = Files.readAllLines(reportOf(job));
+        assertEquals(5, report.size());
+        assertEquals("\"line\",\"error\",\"description\",\"amount\",\"date\",\"category\",\"vendor\",\"reference number\"",
+                report.get(0));
+        assertTrue(report.get(1).startsWith("\"3\",\"Description"));
+        assertTrue(report.get(1).endsWith(",\"ab\",\"10\",\"2024-01-15\",\"Office\",\"\",\"\""), report.get(1));
+        job.deleteErrorReport();
+    }
+
+    @Test
+    void testImport_FailedBatchFallsBackToSingleRows() throws Exception {
+        // Arrange - the batch and the single insert of line 3 fail, line 2 succeeds on its own
+        doAnswer(invocation -> {
+            List<ExpenseRow> rows = invocation.getArgument(0);
+            if (rows.size() > 1 || rows.get(0).lineNumber() == 3) {
+                throw new DataIntegrityViolationException("Data too long for column 'notes'");
+            }
+            insertedBatches.add(new ArrayList<>(rows));
+            return null;
+        }).when(importRepository).insertBatch(anyList(), any(), any(), any());
+        String csv = HEADER
+                + "Printer paper,12.50,2024-01-15,Office,,\n"
+                + "Toner,80,2024-01-15,Office,,\n";
+        BulkImportService.ImportJob job = newJob();
+
+        // Act
+        bulkImportService.importExpensesFromCSV(stream(csv), job);
+
+        // Assert
+        assertEquals(1, job.imported.get());
+        assertEquals(1, job.failed.get());
+        assertEquals(2, insertedBatches.get(0).get(0).lineNumber());
+        List<String> report = Files.readAllLines(reportOf(job));
+        assertTrue(report.get(1).startsWith("\"3\",\"Could not save: Data too long"));
+        assertTrue(report.get(1).endsWith(",\"Toner\",\"80\",\"2024-01-15\",\"Office\",\"\",\"\""), report.get(1));
+        verify(importRepository, times(3)).insertBatch(anyList(), any(), any(), any());
+        job.deleteErrorReport();
+    }
+
+    @Test
+    void testImport_CategoryCreatedConcurrentlyIsLookedUp() throws Exception {
+        // Arrange - another import created "Travel" after the categories were loaded
+        when(importRepository.insertCategory(eq("Travel"), any(), any()))
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'Travel'"));
+        when(importRepository.findCategoryId("Travel")).thenReturn(9L);
+        BulkImportService.ImportJob job = newJob();
+
+        // Act
+        bulkImportService.importExpensesFromCSV(stream(HEADER
+                + "Bus fare,5,2024-01-15,Travel,,\n"
+                + "Taxi,15,2024-01-15,Travel,,\n"), job);
+
+        // Assert
+        assertEquals(2, job.imported.get());
+        assertEquals(0, job.failed.get());
+        assertEquals(9L, insertedBatches.get(0).get(1).categoryId());
+        verify(importRepository, times(1)).findCategoryId("Travel");
+    }
+
+    @Test
+    void testImport_CategoryErrorRejectsLineOnly() throws Exception {
+        // Arrange
+        when(importRepository.insertCategory(eq("Travel"), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'category_name'"));
+        BulkImportService.ImportJob job = newJob();
+
+        // Act
+        bulkImportService.importExpensesFromCSV(stream(HEADER
+                + "Bus fare,5,2024-01-15,Travel,,\n"
+                + "Printer paper,12.50,2024-01-15,Office,,\n"), job);
+
+        // Assert
+        assertEquals(1, job.imported.get());
+        assertEquals(1, job.failed.get());
+        assertTrue(job.toStatus().get("errors").toString().contains("Line 2: Could not create category Travel"));
+        job.deleteErrorReport();
+    }
+
+    @Test
+    void testImport_InvalidLineDoesNotCreateItsCategory() throws Exception {
+        // Arrange - valid up to the vendor, which is too long
+        BulkImportService.ImportJob job = newJob();
+
+        // Act
+        bulkImportService.importExpensesFromCSV(stream(HEADER
+                + "Bus fare,5,2024-01-15,Travel," + "v".repeat(256) + ",\n"), job);
+
+        // Assert
+        assertEquals(1, job.failed.get());
+        verify(importRepository, never()).insertCategory(any(), any(), any());
+        job.deleteErrorReport();
+    }
+
+    @Test
+    void testImportStatus_OnlyForTheUserWhoStartedIt() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        Map<String, BulkImportService.ImportJob> jobs =
+                (Map<String, BulkImportService.ImportJob>) ReflectionTestUtils.getField(bulkImportService, "jobs");
+        jobs.put("job-1", newJob());
+
+        // Act & Assert
+        when(userAttributionService.getCurrentUserId()).thenReturn(42L);
+        assertNotNull(bulkImportService.getImportStatus("job-1"));
+        when(userAttributionService.getCurrentUserId()).thenReturn(43L);
+        assertNull(bulkImportService.getImportStatus("job-1"));
+        assertNull(bulkImportService.getImportErrorReport("job-1"));
+    }
+
+    @Test
+    void testImport_MissingRequiredHeaderFailsWholeFile() {
+        // Arrange
+        BulkImportService.ImportJob job = newJob();
+
+        // Act & Assert
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> bulkImportService.importExpensesFromCSV(stream("description,amount,date\nPaper,1,2024-01-01\n"), job));
+        assertEquals("Missing required headers: category", error.getMessage());
+        verify(importRepository, never()).insertBatch(anyList(), any(), any(), any());
+    }
+
+    private static BulkImportService.ImportJob newJob() {
+        return new BulkImportService.ImportJob("job-1", "expenses.csv", 0, 42L, "alice");
+    }
+
+    private Path reportOf(BulkImportService.ImportJob job) {
+        Path report = (Path) ReflectionTestUtils.getField(job, "errorReport");
+        assertNotNull(report);
+        return report;
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
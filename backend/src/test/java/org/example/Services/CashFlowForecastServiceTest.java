@@ -0,0 +1,92 @@
+package org.example.Services;
+
+import org.example.Repositories.CashFlowForecastRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CashFlowForecastServiceTest {
+
+    @Mock
+    private CashFlowForecastRepository forecastRepository;
+
+    @InjectMocks
+    private CashFlowForecastService forecastService;
+
+    @Test
+    void testStaleForecast_ReadersAnswerFromOldWindowWhileOneRebuilds() throws Exception {
+        // Arrange - yesterday's forecast, and a rebuild query that blocks until released
+        ReflectionTestUtils.setField(forecastService, "horizonDays", 30);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        CashFlowForecast stale = new CashFlowForecast(yesterday, 30);
+        stale.replaceLoan(1L, List.of(new CashFlowForecast.Entry(LocalDate.now(), 100.0, 1.0, "Kampala", 7L)));
+        ReflectionTestUtils.setField(forecastService, "forecast", stale);
+
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(forecastRepository.findUnpaidInstallmentsDueBy(any())).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(5, TimeUnit.SECONDS);
+            return Map.of(2L, List.of(new CashFlowForecast.Entry(LocalDate.now(), 40.0, 1.0, "Kampala", 7L)));
+        });
+
+        // Act - the first reader starts the rebuild; the second must not wait for it
+        CompletableFuture<Double> rebuilding = CompletableFuture.supplyAsync(() ->
+                forecastService.getExpectedInflow(LocalDate.now(), LocalDate.now(), null, null, false));
+        assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+        double duringRebuild = CompletableFuture.supplyAsync(() ->
+                        forecastService.getExpectedInflow(LocalDate.now(), LocalDate.now(), null, null, false))
+                .get(2, TimeUnit.SECONDS);
+        releaseQuery.countDown();
+
+        // Assert
+        assertEquals(100.0, duringRebuild);
+        assertEquals(40.0, rebuilding.get(5, TimeUnit.SECONDS));
+        assertEquals(40.0, forecastService.getExpectedInflow(LocalDate.now(), LocalDate.now(), null, null, false));
+        verify(forecastRepository, times(1)).findUnpaidInstallmentsDueBy(any());
+    }
+
+    @Test
+    void testRefreshLoan_DuringRebuildIsAppliedToTheNewForecast() throws Exception {
+        // Arrange - a rebuild that read loan 2 before its installment was paid, and blocks until released
+        ReflectionTestUtils.setField(forecastService, "horizonDays", 30);
+        ReflectionTestUtils.setField(forecastService, "forecast", new CashFlowForecast(LocalDate.now(), 30));
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(forecastRepository.findUnpaidInstallmentsDueBy(any())).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(5, TimeUnit.SECONDS);
+            return Map.of(2L, List.of(new CashFlowForecast.Entry(LocalDate.now(), 40.0, 1.0, "Kampala", 7L)));
+        });
+        when(forecastRepository.findUnpaidInstallmentsForLoan(eq(2L), any())).thenReturn(List.of());
+
+        // Act - the payment's refresh arrives while the rebuild is running
+        CompletableFuture<Void> rebuilding = CompletableFuture.runAsync(forecastService::rebuild);
+        assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> refreshing = CompletableFuture.runAsync(() -> forecastService.refreshLoan(2L));
+        Thread.sleep(100);
+        assertFalse(refreshing.isDone(), "Refresh waits for the rebuild");
+        releaseQuery.countDown();
+        rebuilding.get(5, TimeUnit.SECONDS);
+        refreshing.get(5, TimeUnit.SECONDS);
+
+        // Assert - the paid installment is gone from the rebuilt forecast
+        assertEquals(0.0, forecastService.getExpectedInflow(LocalDate.now(), LocalDate.now(), null, null, false));
+    }
+}
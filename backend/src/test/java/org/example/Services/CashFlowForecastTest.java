@@ -0,0 +1,85 @@
+package org.example.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashFlowForecastTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void testRangeQueriesPerDimension() {
+        // Arrange
+        CashFlowForecast forecast = new CashFlowForecast(TODAY, 30);
+        forecast.replaceLoan(1L, List.of(
+                new CashFlowForecast.Entry(TODAY, 100.0, 1.0, "Kampala", 7L),
+                new CashFlowForecast.Entry(TODAY.plusDays(7), 100.0, 1.0, "Kampala", 7L)));
+        forecast.replaceLoan(2L, List.of(
+                new CashFlowForecast.Entry(TODAY.plusDays(3), 50.0, 0.5, "Mbarara", 9L)));
+
+        // Act & Assert
+        assertEquals(250.0, forecast.expectedAmount(CashFlowForecast.PORTFOLIO, TODAY, TODAY.plusDays(29), false));
+        assertEquals(150.0, forecast.expectedAmount(CashFlowForecast.PORTFOLIO, TODAY, TODAY.plusDays(6), false));
+        assertEquals(125.0, forecast.expectedAmount(CashFlowForecast.PORTFOLIO, TODAY, TODAY.plusDays(6), true));
+        assertEquals(2L, forecast.expectedCount(CashFlowForecast.branchKey("Kampala"), TODAY, TODAY.plusDays(29)));
+        assertEquals(50.0, forecast.expectedAmount(CashFlowForecast.officerKey(9L), TODAY, TODAY.plusDays(29), false));
+        assertEquals(Set.of("Kampala", "Mbarara"), forecast.branches());
+    }
+
+    @Test
+    void testReplaceLoanUpdatesIncrementally() {
+        // Arrange
+        CashFlowForecast forecast = new CashFlowForecast(TODAY, 30);
+        forecast.replaceLoan(1L, List.of(
+                new CashFlowForecast.Entry(TODAY.plusDays(1), 100.0, 1.0, "Kampala", 7L),
+                new CashFlowForecast.Entry(TODAY.plusDays(2), 100.0, 1.0, "Kampala", 7L)));
+        assertEquals(200.0, forecast.expectedAmount(CashFlowForecast.PORTFOLIO, TODAY, TODAY.plusDays(29), false));
+
+        // Act - first installment paid
+        forecast.replaceLoan(1L, List.of(
+                new CashFlowForecast.Entry(TODAY.plusDays(2), 100.0, 1.0, "Kampala", 7L)));
+
+        // Assert
+        assertEquals(0.0, forecast.expectedAmount(CashFlowForecast.PORTFOLIO, TODAY.plusDays(1), TODAY.plusDays(1), false));
+        assertEquals(1L, forecast.expectedCount(CashFlowForecast.PORTFOLIO, TODAY, TODAY.plusDays(29)));
+
+        // Act - loan fully paid
+        forecast.replaceLoan(1L, List.of());
+
+        // Assert
+        assertEquals(0.0, forecast.expectedAmount(CashFlowForecast.PORTFOLIO, TODAY, TODAY.plusDays(29), false));
+    }
+
+    @Test
+    void testOverdueInstallmentsGoToRecoveryPool() {
+        // Arrange
+        CashFlowForecast forecast = new CashFlowForecast(TODAY, 30);
+
+        // Act
+        forecast.replaceLoan(1L, List.of(
+                new CashFlowForecast.Entry(TODAY.minusDays(20), 200.0, 0.25, "Kampala", 7L)));
+
+        // Assert
+        assertEquals(0.0, forecast.expectedAmount(CashFlowForecast.PORTFOLIO, TODAY, TODAY.plusDays(29), false));
+        assertEquals(200.0, forecast.overdueAmount(CashFlowForecast.PORTFOLIO, false));
+        assertEquals(50.0, forecast.overdueAmount(CashFlowForecast.PORTFOLIO, true));
+    }
+
+    @Test
+    void testQueriesAreClippedToWindow() {
+        // Arrange
+        CashFlowForecast forecast = new CashFlowForecast(TODAY, 10);
+        forecast.replaceLoan(1L, List.of(
+                new CashFlowForecast.Entry(TODAY.plusDays(9), 100.0, 1.0, null, null),
+                new CashFlowForecast.Entry(TODAY.plusDays(10), 100.0, 1.0, null, null)));
+
+        // Act & Assert - the installment beyond the horizon is ignored
+        assertEquals(100.0, forecast.expectedAmount(CashFlowForecast.PORTFOLIO, TODAY.minusDays(5), TODAY.plusDays(50), false));
+        assertEquals(0.0, forecast.expectedAmount(CashFlowForecast.PORTFOLIO, TODAY.plusDays(20), TODAY.plusDays(30), false));
+    }
+}
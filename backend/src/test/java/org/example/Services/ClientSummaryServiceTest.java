@@ -0,0 +1,114 @@
+package org.example.Services;
+
+import org.example.DTO.ClientResponse;
+import org.example.DTO.ClientSummaryResponse;
+import org.example.Entities.LoanDetails;
+import org.example.Entities.LoanInstallmentSchedule;
+import org.example.Entities.LoanTracking;
+import org.example.Repositories.LoanDetailsRepository;
+import org.example.Repositories.LoanInstallmentScheduleRepository;
+import org.example.Repositories.LoanPaymentsRepository;
+import org.example.Repositories.LoanTrackingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClientSummaryServiceTest {
+
+    @Mock
+    private ClientService clientService;
+
+    @Mock
+    private LoanDetailsRepository loanDetailsRepository;
+
+    @Mock
+    private LoanTrackingRepository loanTrackingRepository;
+
+    @Mock
+    private LoanInstallmentScheduleRepository installmentRepository;
+
+    @Mock
+    private LoanPaymentsRepository paymentsRepository;
+
+    @InjectMocks
+    private ClientSummaryService clientSummaryService;
+
+    @Test
+    void testSummaryBatchesQueriesAcrossLoans() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        when(clientService.getClientById(5L)).thenReturn(Optional.of(ClientResponse.builder().id(5L).build()));
+        when(loanDetailsRepository.findByClientId(5L)).thenReturn(List.of(loan(1L, 1000.0), loan(2L, 500.0)));
+        when(loanTrackingRepository.findByClientId(5L)).thenReturn(List.of(tracking(1L, 400.0)));
+        when(installmentRepository.findByLoanIdInAndIsPaidFalseOrderByLoanIdAscInstallmentNumberAsc(List.of(1L, 2L)))
+                .thenReturn(List.of(
+                        installment(1L, 3, today.minusDays(2)),
+                        installment(1L, 4, today.plusDays(5)),
+                        installment(2L, 1, today.plusDays(1))));
+        when(paymentsRepository.getPaymentTotalsByLoanIds(List.of(1L, 2L))).thenReturn(List.<Object[]>of(
+                new Object[] {1L, 600.0, 2L, today.minusDays(10)}));
+
+        // Act
+        ClientSummaryResponse summary = clientSummaryService.getClientSummary(5L).orElseThrow();
+
+        // Assert
+        assertEquals(2, summary.getTotalLoans());
+        ClientSummaryResponse.LoanSummary first = summary.getLoans().get(0);
+        assertEquals(400.0, first.getOutstandingBalance());       // from tracking
+        assertEquals(600.0, first.getTotalPaid());
+        assertEquals(3, first.getNextInstallment().getInstallmentNumber());
+        assertEquals(1, first.getOverdueInstallments());
+        assertEquals(45.0, first.getDefaultRiskScore());
+
+        ClientSummaryResponse.LoanSummary second = summary.getLoans().get(1);
+        assertEquals(500.0, second.getOutstandingBalance());      // no tracking: payable - paid
+        assertNull(second.getDefaultRiskScore());
+        assertEquals(900.0, summary.getTotalOutstanding());
+        verify(installmentRepository, never()).findByLoanIdAndIsPaidFalseOrderByInstallmentNumberAsc(anyLong());
+    }
+
+    @Test
+    void testUnknownClientReturnsEmpty() {
+        when(clientService.getClientById(9L)).thenReturn(Optional.empty());
+
+        assertTrue(clientSummaryService.getClientSummary(9L).isEmpty());
+        verifyNoInteractions(loanDetailsRepository, loanTrackingRepository, installmentRepository, paymentsRepository);
+    }
+
+    private static LoanDetails loan(Long id, double totalPayable) {
+        LoanDetails loan = new LoanDetails();
+        loan.setId(id);
+        loan.setTotalPayable(totalPayable);
+        loan.setLoanStatus("active");
+        return loan;
+    }
+
+    private static LoanTracking tracking(Long loanId, double outstanding) {
+        LoanTracking tracking = new LoanTracking();
+        tracking.setLoanId(loanId);
+        tracking.setOutstandingBalance(outstanding);
+        tracking.setDefaultRiskScore(45.0);
+        tracking.setLoanStatus("ACTIVE");
+        return tracking;
+    }
+
+    private static LoanInstallmentSchedule installment(Long loanId, int number, LocalDate dueDate) {
+        LoanInstallmentSchedule installment = new LoanInstallmentSchedule();
+        installment.setLoanId(loanId);
+        installment.setInstallmentNumber(number);
+        installment.setDueDate(dueDate);
+        installment.setScheduledAmount(100.0);
+        return installment;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.Services;
+
+import org.example.DTOs.StoredContent;
+import org.example.Repositories.StoredFileRepository;
+import org.example.config.FileStorageConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentAddressedStorageTest {
+
+    @Mock
+    private StoredFileRepository storedFileRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private ContentAddressedStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        FileStorageConfig config = new FileStorageConfig();
+        config.setContentDir(tempDir.toString());
+        storage = new ContentAddressedStorage(storedFileRepository, config, new LocalBlobStore(tempDir));
+        storage.init();
+    }
+
+    @Test
+    void testStore_SameContentTwiceKeptOnce() throws Exception {
+        // Act
+        StoredContent first = storage.store(stream("receipt"), "PDF", "application/pdf", 1024);
+        StoredContent second = storage.store(stream("receipt"), "pdf", "application/pdf", 1024);
+
+        // Assert - same hash and name, one object on disk, two references counted
+        assertEquals(first.getHash(), second.getHash());
+        assertEquals(first.getHash() + ".pdf", second.getName());
+        assertFalse(first.isDeduplicated());
+        assertTrue(second.isDeduplicated());
+        assertEquals("receipt", Files.readString(storage.resolve(first.getName())));
+        assertEquals(1, countObjects());
+        verify(storedFileRepository, times(2)).addReference(eq(first.getHash()), eq(7L), eq("application/pdf"), any());
+    }
+
+    @Test
+    void testRelease_LastReferenceDeletesFile() throws Exception {
+        // Arrange
+        StoredContent stored = storage.store(stream("id card"), "jpg", "image/jpeg", 1024);
+        when(storedFileRepository.releaseReference(stored.getHash())).thenReturn(false, true);
+
+        // Act & Assert - still referenced after the first release, gone after the second
+        assertFalse(storage.release(stored.getName()));
+        assertTrue(Files.exists(storage.resolve(stored.getName())));
+        assertTrue(storage.release(stored.getName()));
+        assertFalse(Files.exists(storage.resolve(stored.getName())));
+    }
+
+    @Test
+    void testStore_OversizeRejectedWithoutLeavingFiles() throws Exception {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> storage.store(stream("more than ten bytes"), "pdf", "application/pdf", 10));
+
+        assertEquals(0, countObjects());
+        try (Stream<Path> temp = Files.list(tempDir.resolve("tmp"))) {
+            assertEquals(0, temp.count());
+        }
+        verifyNoInteractions(storedFileRepository);
+    }
+
+    @Test
+    void testStore_FailedPutReleasesTheReference() throws Exception {
+        // Arrange - a remote store whose upload fails
+        BlobStore failing = mock(BlobStore.class);
+        when(failing.localPath(any())).thenReturn(Optional.empty());
+        doThrow(new IOException("503 Slow Down")).when(failing).put(any(), any(), any());
+        FileStorageConfig config = new FileStorageConfig();
+        config.setContentDir(tempDir.toString());
+        ContentAddressedStorage remoteStorage = new ContentAddressedStorage(storedFileRepository, config, failing);
+        remoteStorage.init();
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> remoteStorage.store(stream("receipt"), "pdf", "application/pdf", 1024));
+        verify(storedFileRepository).addReference(any(), eq(7L), eq("application/pdf"), any());
+        verify(storedFileRepository).releaseReference(any());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long countObjects() throws Exception {
+        Path objects = tempDir.resolve("objects");
+        if (!Files.exists(objects)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(objects)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.Services;
+
+import org.example.Exceptions.ExportAbortedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CsvExportServiceTest {
+
+    private final CsvExportService csvExportService = new CsvExportService();
+
+    @Test
+    void testWriteCsv_HeaderFromLabelsAndOneLinePerRow() throws Exception {
+        // Arrange
+        ResultSet rs = resultSet(new String[]{"ID", "Description"},
+                new String[][]{{"1", "Printer paper"}, {"2", null}, {"3", "Toner, black"}});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = csvExportService.writeCsv(out, over(rs));
+
+        // Assert
+        assertEquals(3, rows);
+        assertEquals("\"ID\",\"Description\"\n\"1\",\"Printer paper\"\n\"2\",\"\"\n\"3\",\"Toner, black\"\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExport_GzipFileParameterSendsCsvGzAttachment() throws Exception {
+        // Arrange
+        ResultSet rs = resultSet(new String[]{"ID"}, new String[][]{{"1"}, {"2"}});
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = csvExportService.export("loans_export", true, null,
+                over(rs));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals("application/gzip", response.getHeaders().getContentType().toString());
+        assertEquals("attachment; filename=\"loans_export.csv.gz\"",
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"ID\"\n\"1\"\n\"2\"\n", gunzip(out.toByteArray()));
+    }
+
+    @Test
+    void testExport_AcceptEncodingGzipCompressesTransferOnly() throws Exception {
+        // Arrange
+        ResultSet rs = resultSet(new String[]{"ID"}, new String[][]{{"7"}});
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = csvExportService.export("payments_export", false,
+                "br;q=1.0, gzip;q=0.8", over(rs));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("attachment; filename=\"payments_export.csv\"",
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals("\"ID\"\n\"7\"\n", gunzip(out.toByteArray()));
+    }
+
+    @Test
+    void testWriteCsv_FormulaCellsArePrefixed() throws Exception {
+        // Arrange
+        ResultSet rs = resultSet(new String[]{"Vendor", "Amount"}, new String[][]{
+                {"=HYPERLINK(\"http://x\")", "-12.50"}, {"@SUM(A1)", "+3"}, {"-2+3", "7"}, {"\tTab", "0"}});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        csvExportService.writeCsv(out, over(rs));
+
+        // Assert - plain numbers stay numbers
+        assertEquals("\"Vendor\",\"Amount\"\n"
+                        + "\"'=HYPERLINK(\"\"http://x\"\")\",\"-12.50\"\n"
+                        + "\"'@SUM(A1)\",\"+3\"\n"
+                        + "\"'-2+3\",\"7\"\n"
+                        + "\"'\tTab\",\"0\"\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExport_QueryFailureMidStreamAbortsWithoutEndingTheFile() throws Exception {
+        // Arrange - the first rows are sent, then the connection to the database drops
+        ResultSet rs = resultSet(new String[]{"ID"}, new String[][]{{"1"}, {"2"}});
+        CsvExportService.ExportQuery failing = extractor -> {
+            try {
+                extractor.extractData(rs);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new DataAccessResourceFailureException("Communications link failure");
+        };
+        ResponseEntity<StreamingResponseBody> response = csvExportService.export("loans_export", true, null, failing);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act & Assert - the exception reaches the container, and the gzip stream has no trailer
+        ExportAbortedException error = assertThrows(ExportAbortedException.class,
+                () -> response.getBody().writeTo(out));
+        assertInstanceOf(DataAccessResourceFailureException.class, error.getCause());
+        assertThrows(IOException.class, () -> gunzip(out.toByteArray()));
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        assertTrue(CsvExportService.acceptsGzip("gzip, deflate, br"));
+        assertTrue(CsvExportService.acceptsGzip("GZIP;q=0.5"));
+        assertFalse(CsvExportService.acceptsGzip("gzip;q=0"));
+        assertFalse(CsvExportService.acceptsGzip("deflate, br"));
+        assertFalse(CsvExportService.acceptsGzip(null));
+    }
+
+    @Test
+    void testWriteCsv_ClientDisconnectStopsReadingRows() throws Exception {
+        // Arrange - an endless result set and an output that fails once the buffer is flushed
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(meta);
+        when(meta.getColumnCount()).thenReturn(1);
+        when(meta.getColumnLabel(1)).thenReturn("ID");
+        when(rs.next()).thenReturn(true);
+        when(rs.getString(1)).thenReturn("0123456789");
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // Act & Assert
+        IOException error = assertThrows(IOException.class,
+                () -> csvExportService.writeCsv(broken, over(rs)));
+        assertEquals("Client closed the connection during export", error.getMessage());
+    }
+
+    private static CsvExportService.ExportQuery over(ResultSet rs) {
+        return extractor -> {
+            try {
+                return extractor.extractData(rs);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static ResultSet resultSet(String[] labels, String[][] rows) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(meta);
+        when(meta.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            when(meta.getColumnLabel(i + 1)).thenReturn(labels[i]);
+        }
+        int[] current = {-1};
+        when(rs.next()).thenAnswer(invocation -> ++current[0] < rows.length);
+        when(rs.getString(anyInt())).thenAnswer(invocation -> rows[current[0]][invocation.<Integer>getArgument(0) - 1]);
+        return rs;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
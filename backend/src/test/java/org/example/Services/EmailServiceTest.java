@@ -0,0 +1,112 @@
+package org.example.Services;
+
+import jakarta.mail.Message;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.example.DTOs.OutboundNotification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailServiceTest {
+
+    private LocalSmtpServer smtpServer;
+    private JavaMailSenderImpl mailSender;
+    private MailTransportPool transportPool;
+    private AsyncMailSender asyncMailSender;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtpServer = new LocalSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+        transportPool = new MailTransportPool(mailSender, 1);
+        asyncMailSender = new AsyncMailSender(transportPool, 1, 100);
+        emailService = new EmailService(mailSender, new EmailTemplateRenderer(), asyncMailSender);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        asyncMailSender.shutdown();
+        transportPool.closeAll();
+        smtpServer.close();
+    }
+
+    @Test
+    void testSendOtpEmail_DeliversInBackgroundOverOnePooledConnection() throws Exception {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            emailService.sendOtpEmail("user" + i + "@example.com", "12345" + i, "User " + i);
+        }
+
+        // Assert
+        assertTrue(asyncMailSender.awaitIdle(10, TimeUnit.SECONDS));
+        assertEquals(5, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnections(), "SMTP connection reused across sends");
+        assertTrue(smtpServer.getMessages().get(0).contains("123450"));
+        assertEquals(5L, asyncMailSender.getStats().get("sent"));
+        assertEquals(0L, asyncMailSender.getStats().get("failed"));
+    }
+
+    @Test
+    void testSend_RejectedRecipientIsNotRetriedAndKeepsConnection() throws Exception {
+        // Arrange
+        MimeMessage message = mailSender.createMimeMessage();
+        message.setFrom("noreply@example.com");
+        message.setRecipients(Message.RecipientType.TO, "invalid-user@example.com");
+        message.setSubject("Test");
+        message.setText("Body");
+
+        // Act & Assert
+        SendFailedException error = assertThrows(SendFailedException.class, () -> transportPool.send(message));
+        assertTrue(MailTransportPool.isRecipientFailure(error));
+        assertEquals(1, transportPool.getConnectionsOpened(), "No retry on a fresh connection");
+        assertEquals(1, transportPool.getIdleConnections(), "Connection returned to the pool");
+        assertTrue(smtpServer.getMessages().isEmpty());
+    }
+
+    @Test
+    void testNotificationProvider_ReportsUndeliveredMessagesToTheOutbox() {
+        // Arrange
+        EmailNotificationProvider provider = new EmailNotificationProvider(mailSender, transportPool);
+        List<OutboundNotification> messages = List.of(
+                email(1L, "client@example.com"),
+                email(2L, "invalid-user@example.com"));
+
+        // Act
+        Map<Long, String> failures = provider.send(messages);
+
+        // Assert - the rejected message comes back as a failure so the dispatcher retries it
+        assertEquals(1, smtpServer.getMessages().size());
+        assertTrue(smtpServer.getMessages().get(0).contains("Installment due tomorrow"));
+        assertEquals(List.of(2L), List.copyOf(failures.keySet()));
+    }
+
+    @Test
+    void testTemplateRenderer_FillsAndEscapesPlaceholders() {
+        EmailTemplateRenderer renderer = new EmailTemplateRenderer();
+
+        String html = renderer.render("password-reset",
+                Map.of("userName", "<script>x</script>", "otpCode", "654321", "expiryMinutes", 5));
+
+        assertTrue(html.contains("654321"));
+        assertTrue(html.contains("expires in 5 minutes"));
+        assertTrue(html.contains("&lt;script&gt;"));
+        assertFalse(html.contains("<script>"));
+        assertFalse(html.contains("{{"));
+    }
+
+    private static OutboundNotification email(Long id, String recipient) {
+        return new OutboundNotification(id, OutboundNotification.CHANNEL_EMAIL, recipient, "Payment due",
+                "Installment due tomorrow", "PAYMENT_DUE", id, null, 0);
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.Services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileServingServiceTest {
+
+    private static final String HASH = "3a7bd3e2360a3d29eea436fcfb7e44c735d117c42d1c1835420b6b9942dd4f1b";
+
+    @TempDir
+    Path tempDir;
+
+    private FileServingService fileServingService;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fileServingService = new FileServingService();
+        file = Files.writeString(tempDir.resolve(HASH), "0123456789", StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testServe_ContentAddressedFileIsImmutableWithHashEtag() throws Exception {
+        // Act
+        MockHttpServletResponse response = serve(new MockHttpServletRequest("GET", "/f"), true);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals("\"" + HASH + "\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(FileServingService.IMMUTABLE, response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    void testServe_DownloadNameIsEncodedNotQuoted() throws Exception {
+        // Act - an uploader-chosen name with quotes and a header separator
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fileServingService.serve(new MockHttpServletRequest("GET", "/f"), response, file, "image/jpeg",
+                "Kato \"ID\";x=1.jpg", false);
+
+        // Assert
+        String disposition = response.getHeader(HttpHeaders.CONTENT_DISPOSITION);
+        assertTrue(disposition.startsWith("attachment; "), disposition);
+        assertTrue(disposition.contains("filename*=UTF-8''Kato%20%22ID%22%3Bx%3D1.jpg"), disposition);
+    }
+
+    @Test
+    void testServe_MatchingIfNoneMatchReturns304WithoutBody() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", \"" + HASH + "\"");
+
+        // Act
+        MockHttpServletResponse response = serve(request, false);
+
+        // Assert
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void testServe_SingleRangeReturnsPartialContent() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        // Act
+        MockHttpServletResponse response = serve(request, false);
+
+        // Assert
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(4, response.getContentLengthLong());
+        assertEquals("2345", response.getContentAsString());
+    }
+
+    @Test
+    void testServe_RangePastEndIsNotSatisfiable() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-");
+
+        // Act
+        MockHttpServletResponse response = serve(request, false);
+
+        // Assert
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testServe_LargeFileHandedToSendfileWhenSupported() throws Exception {
+        // Arrange - 64 KB legacy file (no hash name), container offers sendfile
+        Path large = Files.write(tempDir.resolve("receipt.pdf"), new byte[64 * 1024]);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/f");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        fileServingService.serve(request, response, large, "application/pdf", "receipt.pdf", false);
+
+        // Assert - nothing written by the handler; the container sends the file
+        assertEquals(large.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(0L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(64L * 1024, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(FileServingService.REVALIDATE, response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertTrue(response.getHeader(HttpHeaders.ETAG).startsWith("\"10000-"));
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request, boolean immutable) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fileServingService.serve(request, response, file, "text/plain", null, immutable);
+        return response;
+    }
+}
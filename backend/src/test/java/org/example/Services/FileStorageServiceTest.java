@@ -0,0 +1,80 @@
+package org.example.Services;
+
+import org.example.DTOs.StoredContent;
+import org.example.Entities.Image;
+import org.example.Repositories.ImageRepository;
+import org.example.config.FileStorageConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileStorageServiceTest {
+
+    private static final String HASH = "3a7b".repeat(16);
+
+    @Mock
+    private ContentAddressedStorage contentStorage;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @InjectMocks
+    private FileStorageService fileStorageService;
+
+    private final MockMultipartFile photo = new MockMultipartFile(
+            "file", "passport.JPG", "image/jpeg", new byte[]{1, 2, 3});
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(fileStorageService, "fileStorageConfig", new FileStorageConfig());
+        when(contentStorage.store(any(), eq("jpg"), eq("image/jpeg"), anyLong()))
+                .thenReturn(new StoredContent(HASH, HASH + ".jpg", 3, "image/jpeg", false));
+        when(contentStorage.resolve(HASH + ".jpg")).thenReturn(Path.of("objects", HASH));
+    }
+
+    @Test
+    void testStoreImage_RecordsContentHash() {
+        // Arrange
+        when(imageRepository.save(any(Image.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        fileStorageService.storeImage(photo, "CLIENT", 12L, "PASSPORT", "PERSONAL", null, 4L);
+
+        // Assert
+        ArgumentCaptor<Image> saved = ArgumentCaptor.forClass(Image.class);
+        verify(imageRepository).save(saved.capture());
+        assertEquals(HASH, saved.getValue().getContentHash());
+        assertEquals(HASH + ".jpg", saved.getValue().getFilePath());
+        assertEquals("passport.JPG", saved.getValue().getOriginalFilename());
+        assertEquals(3L, saved.getValue().getFileSize());
+        assertEquals(4L, saved.getValue().getUploadedBy());
+    }
+
+    @Test
+    void testStoreImage_ReleasesContentWhenRecordCannotBeSaved() throws Exception {
+        // Arrange
+        when(imageRepository.save(any(Image.class))).thenThrow(new DataIntegrityViolationException("entity_id"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () ->
+                fileStorageService.storeImage(photo, "CLIENT", 12L, "PASSPORT", "PERSONAL", null, 4L));
+        verify(contentStorage).release(HASH + ".jpg");
+    }
+}
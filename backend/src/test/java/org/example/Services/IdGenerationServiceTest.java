@@ -0,0 +1,92 @@
+package org.example.Services;
+
+import org.example.Entities.Sequence;
+import org.example.Repositories.SequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdGenerationServiceTest {
+
+    @Mock
+    private SequenceRepository sequenceRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private IdGenerationService idGenerationService;
+
+    @BeforeEach
+    void setUp() {
+        idGenerationService = new IdGenerationService();
+        ReflectionTestUtils.setField(idGenerationService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(idGenerationService, "sequenceRepository", sequenceRepository);
+        ReflectionTestUtils.setField(idGenerationService, "blockPool",
+                new SequenceBlockPool(new SequenceBlockAllocator(sequenceRepository)));
+    }
+
+    @Test
+    void testNewPrefix_SeedsSequenceFromExistingIdsOnce() {
+        // Arrange
+        when(sequenceRepository.findByModulePrefixAndBranchCodeAndYearMonthForUpdate(
+                "TIN", IdGenerationService.GLOBAL_SCOPE, IdGenerationService.GLOBAL_SCOPE))
+                .thenReturn(Optional.empty());
+        when(sequenceRepository.save(any(Sequence.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(), any(), any())).thenReturn(41L);
+
+        // Act
+        String first = idGenerationService.generateUserId();
+        String second = idGenerationService.generateUserId();
+
+        // Assert - numbering continues after the highest existing ID, without scanning per ID
+        assertEquals("TIN042", first);
+        assertEquals("TIN043", second);
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class), any(), any(), any());
+        verify(sequenceRepository, times(1)).save(argThat(s -> s.getLastNumber() == 91));
+    }
+
+    @Test
+    void testNewPrefix_FailedScanSeedsNothing() {
+        // Arrange
+        when(sequenceRepository.findByModulePrefixAndBranchCodeAndYearMonthForUpdate(
+                "NOK", IdGenerationService.GLOBAL_SCOPE, IdGenerationService.GLOBAL_SCOPE))
+                .thenReturn(Optional.empty());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(), any(), any()))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout exceeded"));
+
+        // Act & Assert - no sequence row starting from 0
+        assertThrows(QueryTimeoutException.class, () -> idGenerationService.generateNextOfKinId());
+        verify(sequenceRepository, never()).save(any(Sequence.class));
+    }
+
+    @Test
+    void testExistingSequence_ContinuesWithoutTableScan() {
+        // Arrange
+        Sequence sequence = new Sequence();
+        sequence.setLastNumber(100);
+        when(sequenceRepository.findByModulePrefixAndBranchCodeAndYearMonthForUpdate(
+                "GUA", IdGenerationService.GLOBAL_SCOPE, IdGenerationService.GLOBAL_SCOPE))
+                .thenReturn(Optional.of(sequence));
+        when(sequenceRepository.save(any(Sequence.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        // Act
+        String id = idGenerationService.generateGuarantorId();
+
+        // Assert
+        assertEquals("GUA101", id);
+        assertEquals("GUA102", idGenerationService.previewNextId(IdGenerationService.GUARANTOR_PREFIX, "guarantors"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.Services;
+
+import org.example.Repositories.IdMigrationStateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdMigrationJobTest {
+
+    @Mock
+    private IdMigrationService idMigrationService;
+
+    @Mock
+    private IdMigrationStateRepository stateRepository;
+
+    @InjectMocks
+    private IdMigrationJob idMigrationJob;
+
+    @Test
+    void testStartIfNeeded_SkipsWhenVersionComplete() {
+        // Arrange
+        when(stateRepository.findStatus(IdMigrationJob.MIGRATION_VERSION))
+                .thenReturn(IdMigrationStateRepository.COMPLETE);
+
+        // Act
+        boolean started = idMigrationJob.startIfNeeded();
+
+        // Assert - no claim, no counting, no table scans
+        assertFalse(started);
+        verify(stateRepository, never()).claim(anyInt(), anyString(), anyInt());
+        verifyNoInteractions(idMigrationService);
+    }
+
+    @Test
+    void testStartIfNeeded_SkipsWhenClaimedByAnotherNode() {
+        // Arrange
+        when(stateRepository.findStatus(IdMigrationJob.MIGRATION_VERSION)).thenReturn(IdMigrationStateRepository.RUNNING);
+        when(stateRepository.claim(eq(IdMigrationJob.MIGRATION_VERSION), anyString(), anyInt())).thenReturn(false);
+
+        // Act & Assert
+        assertFalse(idMigrationJob.startIfNeeded());
+        verifyNoInteractions(idMigrationService);
+    }
+
+    @Test
+    void testRunMigration_ChunksUntilDoneAndMarksComplete() {
+        // Arrange
+        when(idMigrationService.countRemaining()).thenReturn(new long[] {3, 0, 1});
+        when(idMigrationService.migrateLoanIdChunk(0L, 200)).thenReturn(new IdMigrationService.ChunkResult(2, 7));
+        when(idMigrationService.migrateLoanIdChunk(7L, 200)).thenReturn(new IdMigrationService.ChunkResult(1, 9));
+        when(idMigrationService.migrateLoanIdChunk(9L, 200)).thenReturn(new IdMigrationService.ChunkResult(0, 9));
+        when(idMigrationService.migrateExpenseIdChunk(0L, 200)).thenReturn(new IdMigrationService.ChunkResult(0, 0));
+        when(idMigrationService.migrateBranchIdChunk(0L, 200)).thenReturn(new IdMigrationService.ChunkResult(1, 4));
+        when(idMigrationService.migrateBranchIdChunk(4L, 200)).thenReturn(new IdMigrationService.ChunkResult(0, 4));
+
+        // Act
+        idMigrationJob.runMigration();
+
+        // Assert
+        verify(stateRepository).recordProgress(IdMigrationJob.MIGRATION_VERSION, 2, 0, 0);
+        verify(stateRepository).recordProgress(IdMigrationJob.MIGRATION_VERSION, 1, 0, 0);
+        verify(stateRepository).recordProgress(IdMigrationJob.MIGRATION_VERSION, 0, 0, 1);
+        verify(stateRepository).markComplete(IdMigrationJob.MIGRATION_VERSION);
+        Map<String, Object> progress = idMigrationJob.getProgress();
+        assertEquals("COMPLETE", progress.get("state"));
+        assertEquals(3L, progress.get("loansMigrated"));
+        assertEquals(1L, progress.get("branchesMigrated"));
+    }
+}
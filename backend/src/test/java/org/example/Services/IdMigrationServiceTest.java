@@ -18,6 +18,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -98,6 +99,30 @@ class IdMigrationServiceTest {
         verify(idGenerator, times(2)).generateExpenseId();
     }
 
+    @Test
+    void testMigrateLoanIdChunk() {
+        // Arrange
+        LoanDetails loan1 = new LoanDetails();
+        loan1.setId(11L);
+        loan1.setLoanNumber("LN-OLD-1");
+
+        LoanDetails loan2 = new LoanDetails();
+        loan2.setId(15L);
+
+        when(loanDetailsRepository.findNeedingIdMigration(eq(10L), any())).thenReturn(Arrays.asList(loan1, loan2));
+        when(idGenerator.generateLoanId()).thenReturn("LN250010", "LN250011");
+
+        // Act
+        IdMigrationService.ChunkResult result = idMigrationService.migrateLoanIdChunk(10L, 2);
+
+        // Assert - next chunk starts after the last id
+        assertEquals(2, result.migrated);
+        assertEquals(15L, result.lastId);
+        assertEquals("LN250010", loan1.getLoanNumber());
+        assertEquals("LN250011", loan2.getLoanNumber());
+        verify(loanDetailsRepository).saveAll(Arrays.asList(loan1, loan2));
+    }
+
     @Test
     void testMigrateAllIds() {
         // Arrange
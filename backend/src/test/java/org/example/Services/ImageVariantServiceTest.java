@@ -0,0 +1,94 @@
+package org.example.Services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        imageVariantService = new ImageVariantService(160, 1024, 0.8f, 50_000_000L, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    void testResolve_GeneratesThumbnailKeepingAspectRatio() throws Exception {
+        // Arrange
+        Path original = writePng("photo.png", 2000, 1000);
+
+        // Act
+        Optional<Path> thumb = imageVariantService.resolve(original, ImageVariantService.Variant.THUMB);
+
+        // Assert - stored next to the original, fits 160 px
+        assertTrue(thumb.isPresent());
+        assertEquals(tempDir.resolve("photo.png.thumb.jpg"), thumb.get());
+        BufferedImage image = ImageIO.read(thumb.get().toFile());
+        assertEquals(160, image.getWidth());
+        assertEquals(80, image.getHeight());
+    }
+
+    @Test
+    void testGenerateAsync_CreatesAllVariantsAndDeleteRemovesThem() throws Exception {
+        // Arrange
+        Path original = writePng("signature.png", 1200, 600);
+
+        // Act
+        imageVariantService.generateAsync(original, "image/png");
+        assertTrue(imageVariantService.awaitIdle(10, TimeUnit.SECONDS));
+
+        // Assert
+        Path thumb = ImageVariantService.variantPath(original, ImageVariantService.Variant.THUMB);
+        Path preview = ImageVariantService.variantPath(original, ImageVariantService.Variant.PREVIEW);
+        assertTrue(Files.exists(thumb));
+        assertTrue(Files.exists(preview));
+        assertEquals(1024, ImageIO.read(preview.toFile()).getWidth());
+
+        imageVariantService.deleteVariants(original);
+        assertFalse(Files.exists(thumb));
+        assertFalse(Files.exists(preview));
+    }
+
+    @Test
+    void testResolve_NonImageHasNoVariant() throws Exception {
+        // Arrange
+        Path pdf = Files.writeString(tempDir.resolve("document.pdf"), "%PDF-1.4 not an image");
+
+        // Act & Assert
+        assertTrue(imageVariantService.resolve(pdf, ImageVariantService.Variant.PREVIEW).isEmpty());
+        assertFalse(Files.exists(ImageVariantService.variantPath(pdf, ImageVariantService.Variant.PREVIEW)));
+    }
+
+    @Test
+    void testVariantFrom_RejectsUnknownValue() {
+        assertNull(ImageVariantService.Variant.from(null));
+        assertEquals(ImageVariantService.Variant.THUMB, ImageVariantService.Variant.from("thumb"));
+        assertThrows(IllegalArgumentException.class, () -> ImageVariantService.Variant.from("huge"));
+    }
+
+    private Path writePng(String name, int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Path path = tempDir.resolve(name);
+        ImageIO.write(image, "png", path.toFile());
+        return path;
+    }
+}
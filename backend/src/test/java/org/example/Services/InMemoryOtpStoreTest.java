@@ -0,0 +1,131 @@
+package org.example.Services;
+
+import org.example.Entities.OtpCode;
+import org.example.Repositories.OtpCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryOtpStoreTest {
+
+    @Mock
+    private OtpCodeRepository otpCodeRepository;
+
+    private InMemoryOtpStore store;
+
+    // Fake cache clock, advanced by the tests
+    private final AtomicLong tickerNanos = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        // Audit writes run inline so they can be verified
+        store = new InMemoryOtpStore(otpCodeRepository, Runnable::run, tickerNanos::get);
+    }
+
+    @Test
+    void testVerify_LimitsAttemptsAndConsumesCode() {
+        // Arrange
+        when(otpCodeRepository.save(any(OtpCode.class))).thenAnswer(invocation -> {
+            OtpCode row = invocation.getArgument(0);
+            row.setId(42L);
+            return row;
+        });
+        store.issue(1L, "LOGIN", "123456", LocalDateTime.now().plusMinutes(5));
+
+        // Act & Assert
+        assertFalse(store.verify(1L, "LOGIN", "000000", 3));
+        assertTrue(store.verify(1L, "LOGIN", "123456", 3));
+        assertFalse(store.verify(1L, "LOGIN", "123456", 3), "A code can only be used once");
+        assertTrue(store.findActive(1L, "LOGIN").isEmpty());
+        verify(otpCodeRepository).updateState(eq(42L), eq(2), eq(true), any());
+
+        store.issue(1L, "LOGIN", "654321", LocalDateTime.now().plusMinutes(5));
+        for (int i = 0; i < 3; i++) {
+            assertFalse(store.verify(1L, "LOGIN", "000000", 3));
+        }
+        assertFalse(store.verify(1L, "LOGIN", "654321", 3), "Correct code rejected after max attempts");
+        assertEquals(3, store.findActive(1L, "LOGIN").orElseThrow().getAttempts());
+    }
+
+    @Test
+    void testIssue_ReplacesPreviousCodeAndExpires() {
+        // Arrange
+        when(otpCodeRepository.save(any(OtpCode.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        store.issue(1L, "LOGIN", "111111", LocalDateTime.now().plusMinutes(5));
+        store.issue(1L, "LOGIN", "222222", LocalDateTime.now().plusMinutes(5));
+        store.issue(2L, "LOGIN", "333333", LocalDateTime.now().minusSeconds(1));
+
+        // Assert
+        assertFalse(store.verify(1L, "LOGIN", "111111", 3));
+        assertTrue(store.verify(1L, "LOGIN", "222222", 3));
+        assertTrue(store.findActive(2L, "LOGIN").isEmpty());
+        assertFalse(store.verify(2L, "LOGIN", "333333", 3));
+    }
+
+    @Test
+    void testExpiredEntriesAreEvicted() {
+        // Arrange
+        when(otpCodeRepository.save(any(OtpCode.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        store.issue(1L, "LOGIN", "111111", LocalDateTime.now().plusMinutes(5));
+        store.issue(2L, "LOGIN", "222222", LocalDateTime.now().plusMinutes(30));
+        assertEquals(2, store.size());
+
+        // Act - move the cache clock past the first code's expiry
+        tickerNanos.addAndGet(TimeUnit.MINUTES.toNanos(10));
+
+        // Assert
+        assertEquals(1, store.size(), "Expired entries are evicted");
+        assertTrue(store.findActive(1L, "LOGIN").isEmpty());
+        assertTrue(store.findActive(2L, "LOGIN").isPresent());
+    }
+
+    @Test
+    void testVerify_ConcurrentCorrectSubmissionsSucceedOnce() throws Exception {
+        // Arrange
+        when(otpCodeRepository.save(any(OtpCode.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        store.issue(1L, "PASSWORD_RESET", "123456", LocalDateTime.now().plusMinutes(5));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+
+        // Act
+        Future<?>[] futures = new Future<?>[8];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = pool.submit(() -> {
+                start.await();
+                if (store.verify(1L, "PASSWORD_RESET", "123456", 3)) {
+                    successes.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(1, successes.get());
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.Services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process STOMP 1.2 broker for tests: accepts every CONNECT (without heartbeats) and delivers
+ * each SEND to the connections subscribed to exactly its destination
+ */
+class LocalStompBroker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    // subscription key (connection id + ":" + subscription id) -> destination
+    private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+    private final Map<Integer, OutputStream> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionIds = new AtomicInteger();
+    private final AtomicInteger messageIds = new AtomicInteger();
+
+    LocalStompBroker() throws IOException {
+        serverSocket = new ServerSocket(0);
+        executor.submit(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                int id = connectionIds.incrementAndGet();
+                executor.submit(() -> handle(id, socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(int id, Socket socket) {
+        try (socket; InputStream in = socket.getInputStream(); OutputStream out = socket.getOutputStream()) {
+            connections.put(id, out);
+            Frame frame;
+            while ((frame = readFrame(in)) != null) {
+                switch (frame.command) {
+                    case "CONNECT", "STOMP" -> write(out, "CONNECTED", Map.of("version", "1.2", "heart-beat", "0,0"), "");
+                    case "SUBSCRIBE" -> subscriptions.put(id + ":" + frame.headers.get("id"), frame.headers.get("destination"));
+                    case "UNSUBSCRIBE" -> subscriptions.remove(id + ":" + frame.headers.get("id"));
+                    case "SEND" -> deliver(frame);
+                    case "DISCONNECT" -> {
+                        if (frame.headers.containsKey("receipt")) {
+                            write(out, "RECEIPT", Map.of("receipt-id", frame.headers.get("receipt")), "");
+                        }
+                        return;
+                    }
+                    default -> {
+                        // ACK, NACK, transactions: not needed by the relay
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        } finally {
+            connections.remove(id);
+            subscriptions.keySet().removeIf(key -> key.startsWith(id + ":"));
+        }
+    }
+
+    private void deliver(Frame send) throws IOException {
+        String destination = send.headers.get("destination");
+        for (Map.Entry<String, String> subscription : subscriptions.entrySet()) {
+            if (!subscription.getValue().equals(destination)) {
+                continue;
+            }
+            String[] key = subscription.getKey().split(":", 2);
+            OutputStream out = connections.get(Integer.parseInt(key[0]));
+            if (out == null) {
+                continue;
+            }
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("destination", destination);
+            headers.put("subscription", key[1]);
+            headers.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+            headers.put("content-type", send.headers.getOrDefault("content-type", "text/plain"));
+            synchronized (out) {
+                write(out, "MESSAGE", headers, send.body);
+            }
+        }
+    }
+
+    /**
+     * Next frame, skipping heartbeat EOLs; null at end of stream
+     */
+    private static Frame readFrame(InputStream in) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == 0) {
+                break;
+            }
+            if (raw.size() == 0 && (b == '\n' || b == '\r')) {
+                continue;
+            }
+            raw.write(b);
+        }
+        if (b == -1) {
+            return null;
+        }
+        String text = raw.toString(StandardCharsets.UTF_8);
+        int bodyStart = text.indexOf("\n\n");
+        String head = bodyStart < 0 ? text : text.substring(0, bodyStart);
+        String[] lines = head.replace("\r", "").split("\n");
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.putIfAbsent(lines[i].substring(0, colon), lines[i].substring(colon + 1));
+            }
+        }
+        return new Frame(lines[0], headers, bodyStart < 0 ? "" : text.substring(bodyStart + 2));
+    }
+
+    private static void write(OutputStream out, String command, Map<String, String> headers, String body)
+            throws IOException {
+        StringBuilder frame = new StringBuilder(command).append('\n');
+        headers.forEach((name, value) -> frame.append(name).append(':').append(value).append('\n'));
+        byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+        frame.append("content-length:").append(payload.length).append("\n\n");
+        out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(payload);
+        out.write(0);
+        out.flush();
+    }
+
+    private record Frame(String command, Map<String, String> headers, String body) {
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+}
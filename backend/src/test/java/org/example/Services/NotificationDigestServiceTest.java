@@ -0,0 +1,119 @@
+package org.example.Services;
+
+import org.example.DTOs.DigestItem;
+import org.example.DTOs.OutboundNotification;
+import org.example.Repositories.NotificationDigestRepository;
+import org.example.Repositories.NotificationDigestRepository.ClientContact;
+import org.example.Repositories.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDigestServiceTest {
+
+    @Mock
+    private NotificationDigestRepository digestRepository;
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationDigestService digestService;
+
+    @BeforeEach
+    void setUp() {
+        digestService = new NotificationDigestService(digestRepository, outboxRepository, transactionManager);
+    }
+
+    @Test
+    void testFlushReady_SendsOneEmailAndOneSmsPerClient() {
+        // Arrange - client 7 has three loans with reminders, client 8 has one
+        when(digestRepository.findClientsReady(any(), eq(500))).thenReturn(List.of(7L, 8L));
+        when(digestRepository.findPendingForClients(List.of(7L, 8L))).thenReturn(List.of(
+                item(1L, 7L, "PAYMENT_DUE", 100L, "Loan #A: USh 50,000.00 is due today."),
+                item(2L, 7L, "MATURITY_REMINDER", 101L, "Loan #B matures soon."),
+                item(3L, 7L, "DEFAULT_WARNING", 102L, "Loan #C is 40 days overdue."),
+                item(4L, 8L, "PAYMENT_DUE", 200L, "Loan #D: USh 10,000.00 is due today.")));
+        when(digestRepository.findContacts(Set.of(7L, 8L))).thenReturn(Map.of(
+                7L, new ClientContact("jane@example.org", "+256700000007"),
+                8L, new ClientContact("sam@example.org", "+256700000008")));
+
+        // Act
+        int clients = digestService.flushReady();
+
+        // Assert
+        assertEquals(2, clients);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboundNotification>> queued = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).enqueueAll(queued.capture(), any());
+        List<OutboundNotification> messages = queued.getValue();
+        assertEquals(4, messages.size(), "One email and one SMS per client");
+
+        OutboundNotification digest = messages.get(0);
+        assertEquals("URGENT: Loan Default Warning (3 loans)", digest.getSubject());
+        assertEquals("DIGEST", digest.getNotificationType());
+        assertTrue(digest.getBody().startsWith("URGENT NOTICE"));
+        assertTrue(digest.getBody().indexOf("Loan #C") < digest.getBody().indexOf("Loan #A"),
+                "Most urgent line first");
+        assertEquals("DIGEST:7:1:EMAIL", digest.getDedupeKey());
+        assertEquals("jane@example.org", digest.getRecipient());
+        assertEquals(OutboundNotification.CHANNEL_SMS, messages.get(1).getChannel());
+        assertEquals("+256700000007", messages.get(1).getRecipient());
+
+        assertEquals("Payment Due Reminder", messages.get(2).getSubject());
+        assertEquals(200L, messages.get(2).getLoanId());
+        verify(digestRepository).markDigested(eq(List.of(1L, 2L, 3L, 4L)), any());
+    }
+
+    @Test
+    void testFlushReady_SkipsChannelsWithoutContact() {
+        // Arrange - client 7 has no phone number, client 8 has no user row
+        when(digestRepository.findClientsReady(any(), eq(500))).thenReturn(List.of(7L, 8L));
+        when(digestRepository.findPendingForClients(List.of(7L, 8L))).thenReturn(List.of(
+                item(1L, 7L, "PAYMENT_DUE", 100L, "Loan #A: USh 50,000.00 is due today."),
+                item(2L, 8L, "PAYMENT_DUE", 200L, "Loan #D: USh 10,000.00 is due today.")));
+        when(digestRepository.findContacts(Set.of(7L, 8L)))
+                .thenReturn(Map.of(7L, new ClientContact("jane@example.org", null)));
+
+        // Act
+        digestService.flushReady();
+
+        // Assert - one email only; both clients' lines are marked so they are not retried forever
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboundNotification>> queued = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).enqueueAll(queued.capture(), any());
+        List<OutboundNotification> messages = queued.getValue();
+        assertEquals(1, messages.size());
+        assertEquals(OutboundNotification.CHANNEL_EMAIL, messages.get(0).getChannel());
+        assertEquals("jane@example.org", messages.get(0).getRecipient());
+        verify(digestRepository).markDigested(eq(List.of(1L, 2L)), any());
+    }
+
+    @Test
+    void testFlushReady_NothingSettled() {
+        when(digestRepository.findClientsReady(any(), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, digestService.flushReady());
+        verifyNoInteractions(outboxRepository);
+    }
+
+    private static DigestItem item(Long id, Long clientId, String type, Long loanId, String line) {
+        return new DigestItem(id, clientId, LocalDate.now(), type, loanId, "L-" + loanId, line);
+    }
+}
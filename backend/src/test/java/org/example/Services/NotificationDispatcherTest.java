@@ -0,0 +1,99 @@
+package org.example.Services;
+
+import org.example.DTOs.OutboundNotification;
+import org.example.Repositories.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    private final List<List<OutboundNotification>> smsCalls = new ArrayList<>();
+
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        NotificationProvider smsProvider = new NotificationProvider() {
+            @Override
+            public String getChannel() {
+                return OutboundNotification.CHANNEL_SMS;
+            }
+
+            @Override
+            public int getMaxBatchSize() {
+                return 2;
+            }
+
+            @Override
+            public Map<Long, String> send(List<OutboundNotification> messages) {
+                smsCalls.add(List.copyOf(messages));
+                // Message 3 is always rejected by the gateway
+                return messages.stream().anyMatch(message -> message.getId() == 3L)
+                        ? Map.of(3L, "invalid number") : Collections.emptyMap();
+            }
+        };
+        dispatcher = new NotificationDispatcher(outboxRepository, List.of(smsProvider), "providers", "");
+    }
+
+    @Test
+    void testDrain_SendsInProviderBatchesAndRetriesFailures() throws Exception {
+        // Arrange
+        when(outboxRepository.claimDue(eq("SMS"), anyString(), eq(100), any())).thenReturn(List.of(
+                sms(1L, 0), sms(2L, 0), sms(3L, 0)));
+
+        // Act
+        int processed = dispatcher.drain("SMS");
+
+        // Assert
+        assertEquals(3, processed);
+        assertEquals(2, smsCalls.size(), "Three messages in batches of two");
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L)), any());
+        verify(outboxRepository).markRetry(eq(3L), any(), eq("invalid number"));
+        verify(outboxRepository, never()).markDead(anyLong(), anyString());
+    }
+
+    @Test
+    void testDrain_DeadLettersAfterMaxAttempts() throws Exception {
+        // Arrange - fifth failed attempt already recorded, this is the sixth
+        when(outboxRepository.claimDue(eq("SMS"), anyString(), eq(100), any())).thenReturn(List.of(sms(3L, 5)));
+
+        // Act
+        dispatcher.drain("SMS");
+
+        // Assert
+        verify(outboxRepository).markDead(3L, "invalid number");
+        verify(outboxRepository, never()).markRetry(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void testBackoff_DoublesPerAttemptUpToCap() {
+        long first = dispatcher.backoffMillis(1);
+        long third = dispatcher.backoffMillis(3);
+        long capped = dispatcher.backoffMillis(30);
+
+        assertTrue(first >= 30_000 && first <= 36_000);
+        assertTrue(third >= 120_000 && third <= 144_000);
+        assertTrue(capped >= 3_600_000 && capped <= 4_320_000);
+    }
+
+    private static OutboundNotification sms(Long id, int attempts) {
+        return new OutboundNotification(id, "SMS", "+2567000000" + id, null, "Payment due", "PAYMENT_DUE", id,
+                null, attempts);
+    }
+}
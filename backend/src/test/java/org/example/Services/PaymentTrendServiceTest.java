@@ -0,0 +1,101 @@
+package org.example.Services;
+
+import org.example.Config.CacheConfig;
+import org.example.DTOs.PaymentTrendPoint;
+import org.example.Repositories.PaymentTrendRepository;
+import org.example.enums.TrendGranularity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentTrendServiceTest {
+
+    @Mock
+    private PaymentTrendRepository paymentTrendRepository;
+
+    private PaymentTrendService paymentTrendService;
+
+    @BeforeEach
+    void setUp() {
+        paymentTrendService = new PaymentTrendService(paymentTrendRepository, new CacheConfig().cacheManager());
+    }
+
+    private PaymentTrendPoint point(TrendGranularity granularity, LocalDate bucketStart, long count, double amount) {
+        return new PaymentTrendPoint(granularity.label(bucketStart), bucketStart,
+                granularity.bucketEnd(bucketStart), count, amount, amount, 0.0, 0.0);
+    }
+
+    @Test
+    void testClosedMonthsAreCachedAndOnlyCurrentMonthRecomputed() {
+        // Arrange
+        TrendGranularity monthly = TrendGranularity.MONTHLY;
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDate start = currentMonth.minusMonths(3);
+        LocalDate end = LocalDate.now();
+
+        when(paymentTrendRepository.findTrendPoints(eq(monthly), eq(start), eq(currentMonth.minusDays(1))))
+                .thenReturn(List.of(point(monthly, start, 2, 100.0), point(monthly, start.plusMonths(2), 1, 50.0)));
+        when(paymentTrendRepository.findTrendPoints(eq(monthly), eq(currentMonth), eq(end)))
+                .thenReturn(List.of(point(monthly, currentMonth, 3, 75.0)));
+
+        // Act
+        List<PaymentTrendPoint> first = paymentTrendService.getTrendSeries(start, end, monthly);
+        List<PaymentTrendPoint> second = paymentTrendService.getTrendSeries(start, end, monthly);
+
+        // Assert - empty month omitted, closed months queried once, current month every time
+        assertEquals(3, first.size());
+        assertEquals(first, second);
+        assertEquals(start, first.get(0).getBucketStart());
+        assertEquals(currentMonth, first.get(2).getBucketStart());
+        verify(paymentTrendRepository, times(1))
+                .findTrendPoints(eq(monthly), eq(start), eq(currentMonth.minusDays(1)));
+        verify(paymentTrendRepository, times(2))
+                .findTrendPoints(eq(monthly), eq(currentMonth), eq(end));
+    }
+
+    @Test
+    void testPartialEdgeBucketIsComputedLiveForRequestedDays() {
+        // Arrange
+        TrendGranularity monthly = TrendGranularity.MONTHLY;
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1).minusMonths(6);
+        LocalDate start = firstOfMonth.plusDays(10);
+        LocalDate end = firstOfMonth.plusMonths(1).minusDays(1);
+
+        when(paymentTrendRepository.findTrendPoints(any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        paymentTrendService.getTrendSeries(start, end, monthly);
+        paymentTrendService.getTrendSeries(start, end, monthly);
+
+        // Assert - the clipped month is never cached
+        verify(paymentTrendRepository, times(2)).findTrendPoints(monthly, start, end);
+    }
+
+    @Test
+    void testEvictBucketsContainingForcesReload() {
+        // Arrange
+        TrendGranularity daily = TrendGranularity.DAILY;
+        LocalDate day = LocalDate.now().minusDays(5);
+
+        when(paymentTrendRepository.findTrendPoints(daily, day, day))
+                .thenReturn(List.of(point(daily, day, 1, 10.0)));
+
+        // Act
+        paymentTrendService.getTrendSeries(day, day, daily);
+        paymentTrendService.evictBucketsContaining(day);
+        paymentTrendService.getTrendSeries(day, day, daily);
+
+        // Assert
+        verify(paymentTrendRepository, times(2)).findTrendPoints(daily, day, day);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.Services;
+
+import org.example.DTOs.PortfolioRiskReport;
+import org.example.DTOs.PortfolioRiskReport.RiskSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioRiskServiceTest {
+
+    private static final int[] BOUNDARIES = {30, 60, 90};
+
+    @Test
+    void testBuildReportRollsUpAgingAndPortfolioAtRisk() {
+        // Arrange - aging bucket 0 = current, 1 = 1-30, 2 = 31-60, 3 = 61-90, 4 = 90+
+        List<Map<String, Object>> rows = List.of(
+                row("Kampala", 7L, 1, 0, 0, 0, 4, 400.0),
+                row("Kampala", 7L, 1, 2, 2, 2, 1, 100.0),
+                row("Mbarara", 9L, 1, 4, 3, 3, 1, 500.0),
+                row(null, null, 0, 0, -1, -1, 2, 0.0));
+
+        // Act
+        PortfolioRiskReport report = PortfolioRiskService.buildReport(BOUNDARIES, rows);
+
+        // Assert
+        RiskSegment portfolio = report.getPortfolio();
+        assertEquals(6L, portfolio.getActiveLoans());
+        assertEquals(1000.0, portfolio.getTotalOutstanding());
+        assertEquals(List.of("Current", "1-30", "31-60", "61-90", "90+"),
+                portfolio.getAging().stream().map(PortfolioRiskReport.AgingBucket::getLabel).toList());
+        assertEquals(600.0, portfolio.getPortfolioAtRisk().get("PAR30"));
+        assertEquals(500.0, portfolio.getPortfolioAtRisk().get("PAR90"));
+        assertEquals(60.0, portfolio.getPortfolioAtRiskPercentage().get("PAR30"));
+    }
+
+    @Test
+    void testBuildReportSplitsBandsByBranchAndOfficer() {
+        // Arrange
+        List<Map<String, Object>> rows = List.of(
+                row("Kampala", 7L, 1, 0, 0, 0, 4, 400.0),
+                row("Mbarara", 9L, 1, 4, 3, 3, 1, 500.0),
+                row(null, null, 0, 0, -1, -1, 2, 0.0));
+
+        // Act
+        PortfolioRiskReport report = PortfolioRiskService.buildReport(BOUNDARIES, rows);
+
+        // Assert - inactive / unscored loans count in the totals but not in aging or the bands
+        assertEquals(4L, report.getPortfolio().getRiskBands().get("lowRisk"));
+        assertEquals(1L, report.getPortfolio().getRiskBands().get("veryHighRisk"));
+        assertEquals(7L, report.getPortfolio().getRiskBands().get("total"));
+        assertEquals(1L, report.getPortfolio().getBehaviorBands().get("poor"));
+        assertEquals(400.0, report.getByBranch().get("Kampala").getTotalOutstanding());
+        assertEquals(500.0, report.getByOfficer().get("9").getPortfolioAtRisk().get("PAR60"));
+        assertEquals(0L, report.getByBranch().get(PortfolioRiskService.UNASSIGNED).getActiveLoans());
+    }
+
+    @Test
+    void testNormalizeBoundaries() {
+        assertArrayEquals(new int[] {15, 45}, PortfolioRiskService.normalizeBoundaries(new int[] {45, 15, 15, -1}));
+        assertArrayEquals(new int[] {30, 60, 90}, PortfolioRiskService.normalizeBoundaries(new int[0]));
+    }
+
+    private static Map<String, Object> row(String branch, Long officerId, int active, int agingBucket,
+                                           int riskBand, int behaviorBand, long count, double outstanding) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("branch", branch);
+        row.put("officer_id", officerId);
+        row.put("active", active);
+        row.put("aging_bucket", agingBucket);
+        row.put("risk_band", riskBand);
+        row.put("behavior_band", behaviorBand);
+        row.put("loan_count", count);
+        row.put("outstanding", outstanding);
+        return row;
+    }
+}
@@ -0,0 +1,306 @@
+package org.example.Services;
+
+import org.example.DTOs.DashboardStatistics;
+import org.example.Entities.DailyReports;
+import org.example.Entities.MonthlyReports;
+import org.example.Repositories.DailyReportsRepository;
+import org.example.Repositories.MonthlyReportsRepository;
+import org.example.Repositories.ReportSnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportSnapshotServiceTest {
+
+    @Mock
+    private ReportSnapshotRepository snapshotRepository;
+
+    @Mock
+    private DailyReportsRepository dailyReportsRepository;
+
+    @Mock
+    private MonthlyReportsRepository monthlyReportsRepository;
+
+    @InjectMocks
+    private ReportSnapshotService reportSnapshotService;
+
+    @Captor
+    private ArgumentCaptor<Iterable<DailyReports>> dailyCaptor;
+
+    @Captor
+    private ArgumentCaptor<Iterable<MonthlyReports>> monthlyCaptor;
+
+    @Test
+    void testCloseThroughWritesDailyRowsWithArrearsOnClosingDay() {
+        // Arrange
+        LocalDate lastDay = LocalDate.of(2025, 1, 31);
+        when(dailyReportsRepository.findLatestReportDate()).thenReturn(lastDay.minusDays(1));
+        when(snapshotRepository.getCollections(lastDay, lastDay)).thenReturn(List.of(
+                row(lastDay, "Kampala", Map.of("payment_count", 2L, "amount", 300.0, "principal", 200.0,
+                        "interest", 80.0, "fees", 20.0, "penalties", 0.0))));
+        when(snapshotRepository.getCurrentArrears()).thenReturn(List.of(
+                row(null, "Mbarara", Map.of("loan_count", 3L, "amount", 900.0))));
+        when(monthlyReportsRepository.findLatestReportMonth()).thenReturn(LocalDate.of(2025, 1, 1));
+        when(dailyReportsRepository.findEarliestReportDate()).thenReturn(LocalDate.of(2024, 6, 1));
+
+        // Act
+        int written = reportSnapshotService.closeThrough(lastDay);
+
+        // Assert
+        verify(dailyReportsRepository).saveAll(dailyCaptor.capture());
+        List<DailyReports> rows = new ArrayList<>();
+        dailyCaptor.getValue().forEach(rows::add);
+        assertEquals(2, written);
+        assertEquals(2, rows.size());
+
+        DailyReports kampala = rows.get(0);
+        assertEquals("Kampala", kampala.getBranch());
+        assertEquals(300.0, kampala.getRepaymentsReceived());
+        assertEquals(80.0, kampala.getInterestCollected());
+        assertEquals(0.0, kampala.getArrearsAmount()); // Closed with no late loans
+
+        DailyReports mbarara = rows.get(1);
+        assertEquals(lastDay, mbarara.getReportDate());
+        assertEquals(900.0, mbarara.getArrearsAmount());
+        assertEquals(3, mbarara.getLateLoansCount());
+        verify(monthlyReportsRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testCloseThroughRollsUpCompletedMonth() {
+        // Arrange
+        LocalDate lastDay = LocalDate.of(2025, 1, 31);
+        when(dailyReportsRepository.findLatestReportDate()).thenReturn(lastDay);
+        when(monthlyReportsRepository.findLatestReportMonth()).thenReturn(LocalDate.of(2024, 12, 1));
+        when(dailyReportsRepository.findEarliestReportDate()).thenReturn(LocalDate.of(2024, 6, 1));
+        when(dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(
+                LocalDate.of(2025, 1, 1), lastDay)).thenReturn(List.of(
+                daily(LocalDate.of(2025, 1, 10), "Kampala", 100.0, 30.0, 5.0, null),
+                daily(LocalDate.of(2025, 1, 20), "Kampala", 50.0, 10.0, 0.0, 400.0),
+                daily(lastDay, "Kampala", 0.0, 0.0, 20.0, 250.0)));
+
+        // Act
+        int written = reportSnapshotService.closeThrough(lastDay);
+
+        // Assert
+        verify(monthlyReportsRepository).saveAll(monthlyCaptor.capture());
+        MonthlyReports january = monthlyCaptor.getValue().iterator().next();
+        assertEquals(1, written);
+        assertEquals(LocalDate.of(2025, 1, 1), january.getReportMonth());
+        assertEquals(150.0, january.getTotalRepayments());
+        assertEquals(2, january.getRepaymentsCount());
+        assertEquals(250.0, january.getArrearsAmount());
+        assertEquals(15.0, january.getProfit()); // 40 interest - 25 expenses
+        verify(dailyReportsRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testRecentMonthlyTotalsCombineSnapshotsAndOpenDays() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        YearMonth currentMonth = YearMonth.from(today);
+        YearMonth previousMonth = currentMonth.minusMonths(1);
+        when(monthlyReportsRepository.findByReportMonthBetweenOrderByReportMonthAscBranchAsc(
+                currentMonth.minusMonths(11).atDay(1), currentMonth.atDay(1))).thenReturn(List.of(
+                monthly(previousMonth, "Kampala", 100.0, 2),
+                monthly(previousMonth, "Mbarara", 50.0, 1)));
+        when(dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(currentMonth.atDay(1), today))
+                .thenReturn(List.of(daily(currentMonth.atDay(1), "Kampala", 70.0, 0.0, 0.0, null)));
+
+        // Act
+        List<MonthlyReports> totals = reportSnapshotService.getRecentMonthlyTotals(12);
+        List<DashboardStatistics.MonthlyData> chart = ReportSnapshotService.toChartData(totals,
+                MonthlyReports::getTotalRepayments, MonthlyReports::getRepaymentsCount);
+
+        // Assert - newest first
+        assertEquals(2, chart.size());
+        assertEquals(currentMonth.getMonthValue(), chart.get(0).getMonthNumber());
+        assertEquals(70.0, chart.get(0).getAmount());
+        assertEquals(previousMonth.getMonthValue(), chart.get(1).getMonthNumber());
+        assertEquals(150.0, chart.get(1).getAmount());
+        assertEquals(3L, chart.get(1).getCount());
+    }
+
+    @Test
+    void testCloseThroughWritesZeroRowsForDaysWithoutActivity() {
+        // Arrange - three days, activity on the middle one only
+        LocalDate lastDay = LocalDate.of(2025, 2, 12);
+        when(dailyReportsRepository.findLatestReportDate()).thenReturn(LocalDate.of(2025, 2, 9));
+        when(snapshotRepository.getKnownBranches()).thenReturn(List.of("Kampala", "Mbarara"));
+        when(snapshotRepository.getExpenses(LocalDate.of(2025, 2, 10), lastDay)).thenReturn(List.of(
+                row(LocalDate.of(2025, 2, 11), "Kampala", Map.of("amount", 40.0))));
+        when(dailyReportsRepository.findEarliestReportDate()).thenReturn(LocalDate.of(2025, 1, 1));
+        when(monthlyReportsRepository.findLatestReportMonth()).thenReturn(LocalDate.of(2025, 1, 1));
+
+        // Act
+        reportSnapshotService.closeThrough(lastDay);
+
+        // Assert - one row per branch per day
+        verify(dailyReportsRepository).saveAll(dailyCaptor.capture());
+        List<DailyReports> rows = new ArrayList<>();
+        dailyCaptor.getValue().forEach(rows::add);
+        assertEquals(6, rows.size());
+        assertEquals(LocalDate.of(2025, 2, 10), rows.get(0).getReportDate());
+        assertEquals(0.0, rows.get(0).getTotalExpenses());
+        assertEquals(40.0, rows.get(2).getTotalExpenses());
+        assertNull(rows.get(0).getArrearsAmount());
+        assertEquals(0.0, rows.get(5).getArrearsAmount());
+    }
+
+    @Test
+    void testCloseThroughSkipsIncompleteFirstMonth() {
+        // Arrange - history starts mid-June, so June is partial
+        LocalDate lastDay = LocalDate.of(2024, 7, 31);
+        when(dailyReportsRepository.findLatestReportDate()).thenReturn(lastDay);
+        when(monthlyReportsRepository.findLatestReportMonth()).thenReturn(null);
+        when(dailyReportsRepository.findEarliestReportDate()).thenReturn(LocalDate.of(2024, 6, 15));
+        when(dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(
+                LocalDate.of(2024, 7, 1), lastDay)).thenReturn(List.of(
+                daily(LocalDate.of(2024, 7, 1), "Kampala", 10.0, 0.0, 0.0, null)));
+
+        // Act
+        int written = reportSnapshotService.closeThrough(lastDay);
+
+        // Assert
+        assertEquals(1, written);
+        verify(dailyReportsRepository, never()).findByReportDateBetweenOrderByReportDateAscBranchAsc(
+                LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30));
+        verify(monthlyReportsRepository).saveAll(monthlyCaptor.capture());
+        assertEquals(LocalDate.of(2024, 7, 1), monthlyCaptor.getValue().iterator().next().getReportMonth());
+    }
+
+    @Test
+    void testCloseThroughTakesArrearsFromLastDayOfMonth() {
+        // Arrange - arrears recorded mid-month but not on the last day are not the month's balance
+        LocalDate lastDay = LocalDate.of(2025, 1, 31);
+        when(dailyReportsRepository.findLatestReportDate()).thenReturn(lastDay);
+        when(monthlyReportsRepository.findLatestReportMonth()).thenReturn(LocalDate.of(2024, 12, 1));
+        when(dailyReportsRepository.findEarliestReportDate()).thenReturn(LocalDate.of(2024, 6, 1));
+        when(dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(
+                LocalDate.of(2025, 1, 1), lastDay)).thenReturn(List.of(
+                daily(LocalDate.of(2025, 1, 20), "Mbarara", 0.0, 0.0, 0.0, 400.0),
+                daily(lastDay, "Kampala", 0.0, 0.0, 0.0, 250.0),
+                daily(lastDay, "Mbarara", 0.0, 0.0, 0.0, null)));
+
+        // Act
+        reportSnapshotService.closeThrough(lastDay);
+
+        // Assert
+        verify(monthlyReportsRepository).saveAll(monthlyCaptor.capture());
+        List<MonthlyReports> months = new ArrayList<>();
+        monthlyCaptor.getValue().forEach(months::add);
+        assertEquals("Kampala", months.get(0).getBranch());
+        assertEquals(250.0, months.get(0).getArrearsAmount());
+        assertEquals("Mbarara", months.get(1).getBranch());
+        assertNull(months.get(1).getArrearsAmount());
+    }
+
+    @Test
+    void testCloseThroughRewritesDaysReopenedByBackdatedWrites() {
+        // Arrange - Jan 30 and 31 closed; an expense dated Jan 30 was added afterwards
+        LocalDate lastDay = LocalDate.of(2025, 1, 31);
+        LocalDate reopened = LocalDate.of(2025, 1, 30);
+        when(dailyReportsRepository.findLatestReportDate()).thenReturn(lastDay);
+        when(snapshotRepository.getEarliestReopenedDay()).thenReturn(reopened);
+        when(dailyReportsRepository.findEarliestReportDate()).thenReturn(LocalDate.of(2024, 6, 1));
+        when(snapshotRepository.getKnownBranches()).thenReturn(List.of("Kampala"));
+        when(snapshotRepository.getExpenses(reopened, lastDay)).thenReturn(List.of(
+                row(reopened, "Kampala", Map.of("amount", 75.0))));
+        when(dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(reopened, lastDay))
+                .thenReturn(List.of(
+                        daily(reopened, "Kampala", 0.0, 0.0, 0.0, null),
+                        daily(lastDay, "Kampala", 0.0, 0.0, 0.0, 250.0)));
+        when(monthlyReportsRepository.findLatestReportMonth()).thenReturn(LocalDate.of(2024, 12, 1));
+        when(dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(
+                LocalDate.of(2025, 1, 1), lastDay)).thenReturn(List.of(
+                daily(reopened, "Kampala", 0.0, 0.0, 75.0, null),
+                daily(lastDay, "Kampala", 0.0, 0.0, 0.0, 250.0)));
+
+        // Act
+        int written = reportSnapshotService.closeThrough(lastDay);
+
+        // Assert - both days replaced, the arrears they were closed with kept, January rolled up again
+        verify(snapshotRepository).clearReopenedDays(lastDay);
+        verify(dailyReportsRepository).deleteByReportDateBetween(reopened, lastDay);
+        verify(monthlyReportsRepository).deleteByReportMonthFrom(LocalDate.of(2025, 1, 1));
+        verify(dailyReportsRepository).saveAll(dailyCaptor.capture());
+        List<DailyReports> rows = new ArrayList<>();
+        dailyCaptor.getValue().forEach(rows::add);
+        assertEquals(2, rows.size());
+        assertEquals(75.0, rows.get(0).getTotalExpenses());
+        assertNull(rows.get(0).getArrearsAmount());
+        assertEquals(250.0, rows.get(1).getArrearsAmount());
+
+        verify(monthlyReportsRepository).saveAll(monthlyCaptor.capture());
+        assertEquals(75.0, monthlyCaptor.getValue().iterator().next().getTotalExpenses());
+        assertEquals(3, written);
+    }
+
+    @Test
+    void testRecentMonthlyTotalsSumArrearsOfLatestDayOnly() {
+        // Arrange - open month with two closed days; only the later day's branches count
+        LocalDate today = LocalDate.now();
+        YearMonth currentMonth = YearMonth.from(today);
+        LocalDate first = currentMonth.atDay(1);
+        List<DailyReports> days = new ArrayList<>(List.of(
+                daily(first, "Kampala", 0.0, 0.0, 0.0, 500.0),
+                daily(first, "Mbarara", 0.0, 0.0, 0.0, 300.0)));
+        if (today.isAfter(first)) {
+            days.add(daily(first.plusDays(1), "Kampala", 0.0, 0.0, 0.0, 200.0));
+            days.add(daily(first.plusDays(1), "Mbarara", 0.0, 0.0, 0.0, 100.0));
+        }
+        when(dailyReportsRepository.findByReportDateBetweenOrderByReportDateAscBranchAsc(first, today))
+                .thenReturn(days);
+
+        // Act
+        List<MonthlyReports> totals = reportSnapshotService.getRecentMonthlyTotals(1);
+
+        // Assert
+        assertEquals(today.isAfter(first) ? 300.0 : 800.0, totals.get(0).getArrearsAmount());
+    }
+
+    private static Map<String, Object> row(LocalDate date, String branch, Map<String, Object> values) {
+        Map<String, Object> row = new HashMap<>(values);
+        row.put("report_date", date != null ? java.sql.Date.valueOf(date) : null);
+        row.put("branch", branch);
+        return row;
+    }
+
+    private static DailyReports daily(LocalDate date, String branch, double repayments, double interest,
+                                      double expenses, Double arrears) {
+        DailyReports report = new DailyReports();
+        report.setReportDate(date);
+        report.setBranch(branch);
+        report.setRepaymentsReceived(repayments);
+        report.setReceiptsIssuedCount(repayments > 0 ? 1 : 0);
+        report.setInterestCollected(interest);
+        report.setTotalExpenses(expenses);
+        report.setArrearsAmount(arrears);
+        return report;
+    }
+
+    private static MonthlyReports monthly(YearMonth month, String branch, double repayments, int count) {
+        MonthlyReports report = new MonthlyReports();
+        report.setReportMonth(month.atDay(1));
+        report.setBranch(branch);
+        report.setTotalRepayments(repayments);
+        report.setRepaymentsCount(count);
+        return report;
+    }
+}
@@ -0,0 +1,232 @@
+package org.example.Services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.DTOs.StoredContent;
+import org.example.Repositories.StoredFileRepository;
+import org.example.config.FileStorageConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * S3BlobStore against an in-process S3 stand-in (path-style PUT/GET/HEAD/DELETE and multipart upload).
+ * Run the same operations against MinIO by pointing storage.s3.endpoint at it.
+ */
+class S3BlobStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, TreeMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger uploadIds = new AtomicInteger();
+
+    private S3BlobStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        store = storeWithPartSize(16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testPutOpenDelete_SmallFileInOnePut() throws Exception {
+        // Arrange
+        Path file = Files.writeString(tempDir.resolve("receipt.pdf"), "small receipt");
+
+        // Act
+        store.put("objects/ab/cd/abcd", file, "application/pdf");
+
+        // Assert
+        assertTrue(store.exists("objects/ab/cd/abcd"));
+        try (InputStream in = store.open("objects/ab/cd/abcd")) {
+            assertEquals("small receipt", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(requests.contains("PUT /bucket/objects/ab/cd/abcd"));
+        assertTrue(store.delete("objects/ab/cd/abcd"));
+        assertFalse(store.exists("objects/ab/cd/abcd"));
+        assertThrows(NoSuchFileException.class, () -> store.open("objects/ab/cd/abcd"));
+    }
+
+    @Test
+    void testPut_LargeFileUsesMultipartUpload() throws Exception {
+        // Arrange - 40 bytes with 16-byte parts: three parts
+        String content = "0123456789abcdefghijklmnopqrstuvwxyzABCD";
+        Path file = Files.writeString(tempDir.resolve("photo.jpg"), content);
+
+        // Act
+        store.put("objects/ef/01/ef01", file, "image/jpeg");
+
+        // Assert
+        assertEquals(content, new String(objects.get("/bucket/objects/ef/01/ef01"), StandardCharsets.UTF_8));
+        assertEquals(3, requests.stream().filter(r -> r.startsWith("PUT /bucket/objects/ef/01/ef01?")).count());
+        assertTrue(requests.contains("POST /bucket/objects/ef/01/ef01?uploads="));
+        assertTrue(uploads.isEmpty());
+    }
+
+    @Test
+    void testPresignedGet_SignsResponseHeaders() {
+        // Act
+        URI url = store.presignedGet("objects/ab/cd/abcd", "application/pdf", "abcd.pdf").orElseThrow();
+
+        // Assert
+        String query = url.getRawQuery();
+        assertTrue(url.getPath().endsWith("/bucket/objects/ab/cd/abcd"));
+        assertTrue(query.contains("X-Amz-Expires=600"));
+        assertTrue(query.contains("response-content-type=application%2Fpdf"));
+        assertTrue(query.contains("response-content-disposition=attachment%3B%20"));
+        assertTrue(query.contains("filename%2A%3DUTF-8%27%27abcd.pdf"));
+        assertTrue(query.contains("&X-Amz-Signature="));
+    }
+
+    @Test
+    void testContentStorage_RemoteStoreKeepsCacheAndDeletesOnLastRelease() throws Exception {
+        // Arrange
+        StoredFileRepository repository = mock(StoredFileRepository.class);
+        when(repository.releaseReference(anyString())).thenReturn(true);
+        FileStorageConfig config = new FileStorageConfig();
+        config.setContentDir(tempDir.resolve("content").toString());
+        ContentAddressedStorage storage = new ContentAddressedStorage(repository, config, store);
+        storage.init();
+
+        // Act
+        StoredContent stored = storage.store(new ByteArrayInputStream("id card".getBytes(StandardCharsets.UTF_8)),
+                "jpg", "image/jpeg", 1024);
+
+        // Assert - uploaded to the bucket, cached locally, served by presigned URL
+        String key = "/bucket/objects/" + stored.getHash().substring(0, 2) + "/" + stored.getHash().substring(2, 4)
+                + "/" + stored.getHash();
+        assertTrue(storage.isRemote());
+        assertArrayEquals("id card".getBytes(StandardCharsets.UTF_8), objects.get(key));
+        assertEquals("id card", Files.readString(storage.resolve(stored.getName())));
+        assertTrue(storage.presignedUrl(stored.getName(), "image/jpeg", null).isPresent());
+
+        // A node without the cache entry downloads it
+        Files.delete(storage.resolve(stored.getName()));
+        assertEquals("id card", Files.readString(storage.fetch(stored.getName())));
+
+        assertTrue(storage.release(stored.getName()));
+        assertFalse(objects.containsKey(key));
+        assertFalse(Files.exists(storage.resolve(stored.getName())));
+    }
+
+    private S3BlobStore storeWithPartSize(long partSize) {
+        return new S3BlobStore(URI.create("http://127.0.0.1:" + server.getAddress().getPort()), "us-east-1",
+                "bucket", "access", "secret", true, partSize, Duration.ofMinutes(10), Duration.ofSeconds(10),
+                Clock.systemUTC());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getRawQuery();
+        requests.add(method + " " + path + (query == null ? "" : "?" + query));
+        byte[] body = exchange.getRequestBody().readAllBytes();
+
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("AWS4-HMAC-SHA256 Credential=access/")
+                || exchange.getRequestHeaders().getFirst("x-amz-date") == null) {
+            respond(exchange, 403, "<Error><Code>AccessDenied</Code></Error>");
+            return;
+        }
+
+        Map<String, String> params = new TreeMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                params.put(eq < 0 ? pair : pair.substring(0, eq), eq < 0 ? "" : pair.substring(eq + 1));
+            }
+        }
+
+        switch (method) {
+            case "PUT" -> {
+                if (params.containsKey("partNumber")) {
+                    uploads.get(params.get("uploadId")).put(Integer.parseInt(params.get("partNumber")), body);
+                    exchange.getResponseHeaders().add("ETag", "\"part-" + params.get("partNumber") + "\"");
+                } else {
+                    objects.put(path, body);
+                }
+                respond(exchange, 200, "");
+            }
+            case "POST" -> {
+                if (params.containsKey("uploads")) {
+                    String uploadId = "upload-" + uploadIds.incrementAndGet();
+                    uploads.put(uploadId, new TreeMap<>());
+                    respond(exchange, 200, "<InitiateMultipartUploadResult><UploadId>" + uploadId
+                            + "</UploadId></InitiateMultipartUploadResult>");
+                } else {
+                    ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+                    for (byte[] part : uploads.remove(params.get("uploadId")).values()) {
+                        assembled.write(part);
+                    }
+                    objects.put(path, assembled.toByteArray());
+                    respond(exchange, 200, "<CompleteMultipartUploadResult/>");
+                }
+            }
+            case "GET", "HEAD" -> {
+                byte[] object = objects.get(path);
+                if (object == null) {
+                    respond(exchange, 404, "HEAD".equals(method) ? null : "<Error><Code>NoSuchKey</Code></Error>");
+                } else if ("HEAD".equals(method)) {
+                    exchange.sendResponseHeaders(200, -1);
+                    exchange.close();
+                } else {
+                    exchange.sendResponseHeaders(200, object.length);
+                    exchange.getResponseBody().write(object);
+                    exchange.close();
+                }
+            }
+            case "DELETE" -> {
+                if (params.containsKey("uploadId")) {
+                    uploads.remove(params.get("uploadId"));
+                    respond(exchange, 204, null);
+                } else {
+                    respond(exchange, objects.remove(path) != null ? 204 : 404, null);
+                }
+            }
+            default -> respond(exchange, 405, null);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.Services;
+
+import org.example.Repositories.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private TokenRevocationRepository revocationRepository;
+
+    @InjectMocks
+    private TokenRevocationService revocationService;
+
+    @Test
+    void testRevokeUser_RejectsOlderTokensOnly() {
+        // Arrange
+        Date issuedBefore = Date.from(Instant.now().minus(10, ChronoUnit.MINUTES));
+
+        // Act
+        revocationService.revokeUser(7L, "PASSWORD_RESET");
+
+        // Assert
+        assertTrue(revocationService.isRevoked("a", 7L, issuedBefore));
+        assertFalse(revocationService.isRevoked("b", 7L, Date.from(Instant.now().plusSeconds(2))));
+        assertFalse(revocationService.isRevoked("c", 8L, issuedBefore));
+        verify(revocationRepository).insert(isNull(), eq(7L), eq("PASSWORD_RESET"), any(), any());
+    }
+
+    @Test
+    void testRevokeUser_TokenIssuedLaterInSameSecondStaysValid() {
+        // Arrange - a cutoff in the middle of a second, as loaded from revoked_at DATETIME(6)
+        Instant cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusMillis(400);
+        Map<String, Object> userRow = new HashMap<>();
+        userRow.put("token_id", null);
+        userRow.put("user_id", 7L);
+        userRow.put("revoked_at", Timestamp.from(cutoff));
+        when(revocationRepository.findActive(any())).thenReturn(List.of(userRow));
+
+        // Act
+        revocationService.refresh();
+
+        // Assert - issue times carry milliseconds (iatMillis claim)
+        assertTrue(revocationService.isRevoked("a", 7L, Date.from(cutoff.minusMillis(1))));
+        assertTrue(revocationService.isRevoked("b", 7L, Date.from(cutoff)));
+        assertFalse(revocationService.isRevoked("c", 7L, Date.from(cutoff.plusMillis(1))));
+    }
+
+    @Test
+    void testRefresh_LoadsRevocationsFromOtherNodes() {
+        // Arrange
+        Instant cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Map<String, Object> tokenRow = new HashMap<>();
+        tokenRow.put("token_id", "jti-1");
+        tokenRow.put("user_id", 3L);
+        tokenRow.put("revoked_at", Timestamp.from(cutoff));
+        Map<String, Object> userRow = new HashMap<>();
+        userRow.put("token_id", null);
+        userRow.put("user_id", 9L);
+        userRow.put("revoked_at", Timestamp.from(cutoff));
+        when(revocationRepository.findActive(any())).thenReturn(List.of(tokenRow, userRow));
+
+        // Act
+        revocationService.refresh();
+
+        // Assert
+        assertTrue(revocationService.isRevoked("jti-1", 3L, new Date()));
+        assertFalse(revocationService.isRevoked("jti-2", 3L, Date.from(cutoff.minusSeconds(60))));
+        assertTrue(revocationService.isRevoked("jti-3", 9L, Date.from(cutoff.minusSeconds(60))));
+        assertFalse(revocationService.isRevoked("jti-4", 9L, Date.from(cutoff.plusSeconds(1))));
+        verify(revocationRepository).deleteExpired(any());
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.Services;
+
+import org.example.Entities.Sequence;
+import org.example.Repositories.SequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * IDs/sec for UniqueIdGenerator under 32 concurrent threads: one locked sequence round trip per ID
+ * (block size 1, the previous behaviour) versus block allocation (block size 50).
+ *
+ * The sequences row lock is simulated with a ReentrantLock held from the SELECT ... FOR UPDATE until
+ * the save, with a fixed delay per database round trip. Not part of the regular test run
+ * (surefire only picks up *Test classes); run with:
+ *
+ *   mvn test -Dtest=UniqueIdGeneratorBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+class UniqueIdGeneratorBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int IDS_PER_THREAD = 150;          // 4800 IDs, below the 9999-per-year limit
+    private static final long ROUND_TRIP_MICROS = 500;
+
+    @Test
+    void compareRowLockPerIdWithBlockAllocation() throws Exception {
+        double perId = idsPerSecond(1);
+        double blocks = idsPerSecond(SequenceBlockPool.DEFAULT_BLOCK_SIZE);
+
+        System.out.printf("UniqueIdGenerator, %d threads: row lock per ID %.0f IDs/sec, block of %d %.0f IDs/sec (%.1fx)%n",
+                THREADS, perId, SequenceBlockPool.DEFAULT_BLOCK_SIZE, blocks, blocks / perId);
+    }
+
+    private double idsPerSecond(int blockSize) throws Exception {
+        Sequence sequence = new Sequence();
+        sequence.setLastNumber(0);
+        ReentrantLock rowLock = new ReentrantLock();
+
+        SequenceRepository repository = mock(SequenceRepository.class);
+        when(repository.findByModulePrefixAndBranchCodeAndYearMonthForUpdate(anyString(), anyString(), anyString()))
+                .thenAnswer(i -> {
+                    rowLock.lock();
+                    roundTrip();
+                    return Optional.of(sequence);
+                });
+        when(repository.save(any(Sequence.class))).thenAnswer(i -> {
+            roundTrip();
+            rowLock.unlock();   // Commit releases the row lock
+            return i.getArguments()[0];
+        });
+
+        SequenceBlockPool blockPool = new SequenceBlockPool(new SequenceBlockAllocator(repository));
+        ReflectionTestUtils.setField(blockPool, "blockSize", blockSize);
+        UniqueIdGenerator generator = new UniqueIdGenerator(repository, blockPool);
+
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    ids.add(generator.generateId(UniqueIdGenerator.PAYMENT_PREFIX));
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        return ids.size() / (elapsed / 1_000_000_000.0);
+    }
+
+    private static void roundTrip() throws InterruptedException {
+        TimeUnit.MICROSECONDS.sleep(ROUND_TRIP_MICROS);
+    }
+}
@@ -5,13 +5,24 @@ import org.example.Repositories.SequenceRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -23,7 +34,8 @@ class UniqueIdGeneratorTest {
     @Mock
     private SequenceRepository sequenceRepository;
 
-    @InjectMocks
+    private SequenceBlockPool blockPool;
+
     private UniqueIdGenerator uniqueIdGenerator;
 
     private String currentYear;
@@ -31,6 +43,8 @@ class UniqueIdGeneratorTest {
     @BeforeEach
     void setUp() {
         currentYear = LocalDate.now().format(DateTimeFormatter.ofPattern("yy"));
+        blockPool = new SequenceBlockPool(new SequenceBlockAllocator(sequenceRepository));
+        uniqueIdGenerator = new UniqueIdGenerator(sequenceRepository, blockPool);
     }
 
     @Test
@@ -85,7 +99,7 @@ class UniqueIdGeneratorTest {
         // Assert
         assertNotNull(generatedId);
         assertEquals(String.format("PM%s0043", currentYear), generatedId);
-        assertEquals(43, existingSequence.getLastNumber());
+        assertEquals(42 + SequenceBlockPool.DEFAULT_BLOCK_SIZE, existingSequence.getLastNumber()); // Block 43-92 reserved
         assertEquals(8, generatedId.length());
         
         verify(sequenceRepository, times(1)).save(existingSequence);
@@ -207,18 +221,138 @@ class UniqueIdGeneratorTest {
 
         // Act
         String id1 = uniqueIdGenerator.generateId(prefix);
-        sequence.setLastNumber(1); // Simulate increment
         String id2 = uniqueIdGenerator.generateId(prefix);
-        sequence.setLastNumber(2); // Simulate increment
         String id3 = uniqueIdGenerator.generateId(prefix);
 
-        // Assert
+        // Assert - all three come from one reserved block
         assertEquals(8, id1.length());
         assertEquals(8, id2.length());
         assertEquals(8, id3.length());
         assertTrue(id1.endsWith("0001"));
         assertTrue(id2.endsWith("0002"));
         assertTrue(id3.endsWith("0003"));
+        verify(sequenceRepository, times(1)).save(sequence);
+    }
+
+    @Test
+    void testExhaustedBlock_ReservesNextBlock() {
+        // Arrange
+        String prefix = "LN";
+        ReflectionTestUtils.setField(blockPool, "blockSize", 2);
+        
+        Sequence sequence = new Sequence();
+        sequence.setLastNumber(10);
+        
+        when(sequenceRepository.findByModulePrefixAndBranchCodeAndYearMonthForUpdate(
+                eq(prefix), eq(currentYear), eq(currentYear)))
+                .thenReturn(Optional.of(sequence));
+        when(sequenceRepository.save(any(Sequence.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        // Act
+        String id1 = uniqueIdGenerator.generateId(prefix);
+        String id2 = uniqueIdGenerator.generateId(prefix);
+        String id3 = uniqueIdGenerator.generateId(prefix);
+
+        // Assert
+        assertTrue(id1.endsWith("0011"));
+        assertTrue(id2.endsWith("0012"));
+        assertTrue(id3.endsWith("0013"));
+        assertEquals(14, sequence.getLastNumber());
+        verify(sequenceRepository, times(2)).save(sequence);
+    }
+
+    @Test
+    void testConcurrentGeneration_NoDuplicates() throws Exception {
+        // Arrange
+        String prefix = "PM";
+        Sequence sequence = new Sequence();
+        sequence.setLastNumber(0);
+        
+        when(sequenceRepository.findByModulePrefixAndBranchCodeAndYearMonthForUpdate(
+                eq(prefix), eq(currentYear), eq(currentYear)))
+                .thenReturn(Optional.of(sequence));
+        when(sequenceRepository.save(any(Sequence.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        int threads = 32;
+        int idsPerThread = 200;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids.add(uniqueIdGenerator.generateId(prefix));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert - every number 1..6400 issued exactly once (9999 max per year)
+        assertEquals(threads * idsPerThread, ids.size());
+        assertEquals(threads * idsPerThread, sequence.getLastNumber());
+    }
+
+    @Test
+    void testReleaseBlocks_ReturnsUnusedTail() {
+        // Arrange
+        String prefix = "EX";
+        Sequence sequence = new Sequence();
+        sequence.setLastNumber(0);
+        
+        when(sequenceRepository.findByModulePrefixAndBranchCodeAndYearMonthForUpdate(
+                eq(prefix), eq(currentYear), eq(currentYear)))
+                .thenReturn(Optional.of(sequence));
+        when(sequenceRepository.save(any(Sequence.class))).thenAnswer(i -> i.getArguments()[0]);
+        uniqueIdGenerator.generateId(prefix);
+        uniqueIdGenerator.generateId(prefix);
+
+        // Act
+        blockPool.releaseBlocks();
+
+        // Assert - the next node continues at 0003 instead of 0051
+        assertEquals(2, sequence.getLastNumber());
+    }
+
+    @Test
+    void testReleaseBlocks_GeneratorHoldingOldBlockCannotTakeReleasedNumber() {
+        // Arrange - a generator that read the block before the release takes a number while it runs
+        String prefix = "EX";
+        Sequence sequence = new Sequence();
+        sequence.setLastNumber(0);
+
+        when(sequenceRepository.save(any(Sequence.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(sequenceRepository.findByModulePrefixAndBranchCodeAndYearMonthForUpdate(
+                eq(prefix), eq(currentYear), eq(currentYear)))
+                .thenReturn(Optional.of(sequence));
+        uniqueIdGenerator.generateId(prefix);
+
+        Map<?, ?> blocks = (Map<?, ?>) ReflectionTestUtils.getField(blockPool, "blocks");
+        Object heldBlock = blocks.values().iterator().next();
+        AtomicLong next = (AtomicLong) ReflectionTestUtils.getField(heldBlock, "next");
+        long last = (long) ReflectionTestUtils.getField(heldBlock, "last");
+        long[] takenDuringRelease = new long[1];
+        when(sequenceRepository.findByModulePrefixAndBranchCodeAndYearMonthForUpdate(
+                eq(prefix), eq(currentYear), eq(currentYear)))
+                .thenAnswer(i -> {
+                    takenDuringRelease[0] = next.getAndIncrement();
+                    return Optional.of(sequence);
+                });
+
+        // Act
+        blockPool.releaseBlocks();
+
+        // Assert - the held block is used up, so the released numbers are only handed out again
+        assertTrue(takenDuringRelease[0] > last);
+        assertEquals(1, sequence.getLastNumber());
     }
 
     @Test
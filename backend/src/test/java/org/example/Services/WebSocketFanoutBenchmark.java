@@ -0,0 +1,310 @@
+package org.example.Services;
+
+import org.example.Config.WebSocketAuthInterceptor;
+import org.example.Config.WebSocketBrokerProperties;
+import org.example.Config.WebSocketConfig;
+import org.example.DTOs.DashboardStatistics;
+import org.example.Entities.LoanDetails;
+import org.example.Entities.LoanPayments;
+import org.example.Events.DashboardUpdateListener;
+import org.example.Events.PaymentMadeEvent;
+import org.example.config.JwtTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fan-out of /topic/dashboard pushes to many STOMP-over-SockJS clients during a payment burst.
+ *
+ * Starts the real WebSocket stack (WebSocketConfig, auth interceptor, DashboardUpdateListener,
+ * DashboardWebSocketService) on a random port with the database-backed services mocked, opens
+ * ws.load.clients SockJS connections that subscribe to /topic/dashboard, then publishes synthetic
+ * PaymentMadeEvents at ws.load.rate per second for ws.load.seconds. Reports delivered messages/sec,
+ * delivery lag percentiles (broadcast timestamp to client receipt) and heap / thread count.
+ * Clients and server share this JVM, so heap and threads include the client swarm.
+ *
+ * Not part of the regular test run (surefire only picks up *Test classes); run with:
+ *
+ *   mvn test -Dtest=WebSocketFanoutBenchmark -Dsurefire.failIfNoSpecifiedTests=false \
+ *       -Dws.load.clients=500 -Dws.load.rate=20 -Dws.load.seconds=30
+ */
+class WebSocketFanoutBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("ws.load.clients", 200);
+    private static final int EVENTS_PER_SECOND = Integer.getInteger("ws.load.rate", 20);
+    private static final int SECONDS = Integer.getInteger("ws.load.seconds", 10);
+    private static final String TOPIC = "/topic/dashboard";
+
+    @Test
+    void dashboardFanoutDuringPaymentBurst() throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(HarnessApp.class)
+                .properties("server.port=0", "spring.config.name=ws-load-harness", "spring.main.banner-mode=off",
+                        "websocket.outbound.queue-capacity=100000")
+                .initializers(WebSocketFanoutBenchmark::registerMocks)
+                .run();
+        ScheduledExecutorService driver = Executors.newSingleThreadScheduledExecutor();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setInboundMessageSizeLimit(256 * 1024);
+        List<StompSession> sessions = new ArrayList<>();
+        try {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            String url = "http://localhost:" + port + "/ws";
+
+            int expected = EVENTS_PER_SECOND * SECONDS;
+            Recorder recorder = new Recorder((long) CLIENTS * expected);
+
+            long connectStarted = System.nanoTime();
+            for (int i = 0; i < CLIENTS; i++) {
+                StompSession session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() {
+                }).get(30, TimeUnit.SECONDS);
+                session.subscribe(TOPIC, recorder);
+                sessions.add(session);
+            }
+            double connectSeconds = (System.nanoTime() - connectStarted) / 1_000_000_000.0;
+            WebSocketSubscriptionRegistry registry = context.getBean(WebSocketSubscriptionRegistry.class);
+            awaitCondition(() -> countSubscribers(registry) >= CLIENTS, Duration.ofSeconds(30));
+
+            // Payments commit in a transaction, so the AFTER_COMMIT dashboard listener fires as in production
+            TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            AtomicInteger published = new AtomicInteger();
+            ServerSampler server = new ServerSampler();
+            sampler.scheduleAtFixedRate(server::sample, 0, 200, TimeUnit.MILLISECONDS);
+
+            long started = System.nanoTime();
+            driver.scheduleAtFixedRate(() -> {
+                if (published.get() >= expected) {
+                    return;
+                }
+                transaction.executeWithoutResult(status -> context.publishEvent(syntheticPayment(published.incrementAndGet())));
+            }, 0, 1_000_000 / EVENTS_PER_SECOND, TimeUnit.MICROSECONDS);
+
+            awaitCondition(() -> recorder.delivered.get() >= (long) CLIENTS * expected,
+                    Duration.ofSeconds(SECONDS + 60L));
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            server.sample();
+
+            long[] lags = recorder.lagsMicros();
+            System.out.printf("WebSocket fan-out, %d SockJS clients on %s (connected in %.1fs), %d payments at %d/sec:%n",
+                    CLIENTS, TOPIC, connectSeconds, published.get(), EVENTS_PER_SECOND);
+            System.out.printf("  delivered %d messages in %.1fs = %.0f msg/sec%n",
+                    recorder.delivered.get(), seconds, recorder.delivered.get() / seconds);
+            System.out.printf("  lag p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    percentile(lags, 50), percentile(lags, 95), percentile(lags, 99), percentile(lags, 100));
+            System.out.printf("  heap used peak %d MB, live threads peak %d (clients included)%n",
+                    server.peakHeapBytes.get() / (1024 * 1024), server.peakThreads.get());
+
+            assertEquals((long) CLIENTS * expected, recorder.delivered.get(), "Every client receives every push");
+        } finally {
+            driver.shutdownNow();
+            sampler.shutdownNow();
+            for (StompSession session : sessions) {
+                session.disconnect();
+            }
+            stompClient.stop();
+            context.close();
+        }
+    }
+
+    /**
+     * Database-backed collaborators as mocks, registered as singletons so they are not autowired
+     */
+    private static void registerMocks(ConfigurableApplicationContext context) {
+        StatisticsService statisticsService = mock(StatisticsService.class);
+        when(statisticsService.getDashboardStatistics()).thenReturn(new DashboardStatistics());
+        TokenRevocationService revocationService = mock(TokenRevocationService.class);
+        when(revocationService.isRevoked(any(), any(), any())).thenReturn(false);
+
+        var beanFactory = context.getBeanFactory();
+        beanFactory.registerSingleton("statisticsService", statisticsService);
+        beanFactory.registerSingleton("paymentTrendService", mock(PaymentTrendService.class));
+        beanFactory.registerSingleton("jwtTokenService", mock(JwtTokenService.class));
+        beanFactory.registerSingleton("customUserDetailsService", mock(CustomUserDetailsService.class));
+        beanFactory.registerSingleton("tokenRevocationService", revocationService);
+    }
+
+    private static PaymentMadeEvent syntheticPayment(int sequence) {
+        LoanDetails loan = new LoanDetails();
+        loan.setId((long) sequence);
+        LoanPayments payment = new LoanPayments();
+        payment.setLoanId(loan.getId());
+        payment.setAmountPaid(10_000.0);
+        payment.setPaymentDate(LocalDate.now());
+        return new PaymentMadeEvent(WebSocketFanoutBenchmark.class, payment, loan);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int countSubscribers(WebSocketSubscriptionRegistry registry) {
+        Object destinations = registry.getStats().get("destinations");
+        Object count = ((java.util.Map<String, Integer>) destinations).get(TOPIC);
+        return count != null ? (Integer) count : 0;
+    }
+
+    private static void awaitCondition(java.util.function.BooleanSupplier condition, Duration timeout)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static double percentile(long[] sortedMicros, int percentile) {
+        if (sortedMicros.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(0, Math.min(index, sortedMicros.length - 1))] / 1000.0;
+    }
+
+    /**
+     * Counts deliveries and records each message's lag from its broadcast timestamp
+     */
+    private static final class Recorder implements StompFrameHandler {
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicInteger recorded = new AtomicInteger();
+        private final AtomicLongArray lags;
+
+        Recorder(long capacity) {
+            this.lags = new AtomicLongArray((int) Math.min(capacity, 20_000_000));
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            LocalDateTime received = LocalDateTime.now();
+            delivered.incrementAndGet();
+            String body = new String((byte[]) payload, StandardCharsets.UTF_8);
+            int start = body.indexOf("\"timestamp\":\"");
+            if (start < 0) {
+                return;
+            }
+            start += "\"timestamp\":\"".length();
+            LocalDateTime sent = LocalDateTime.parse(body.substring(start, body.indexOf('"', start)));
+            int slot = recorded.getAndIncrement();
+            if (slot < lags.length()) {
+                lags.set(slot, Duration.between(sent, received).toNanos() / 1000);
+            }
+        }
+
+        long[] lagsMicros() {
+            int count = Math.min(recorded.get(), lags.length());
+            long[] values = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = lags.get(i);
+            }
+            Arrays.sort(values);
+            return values;
+        }
+    }
+
+    /**
+     * Peak heap use and live thread count
+     */
+    private static final class ServerSampler {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final AtomicLong peakHeapBytes = new AtomicLong();
+        private final AtomicInteger peakThreads = new AtomicInteger();
+
+        void sample() {
+            peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+            peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+        }
+    }
+
+    /**
+     * The WebSocket stack and dashboard push path; database-backed collaborators come from registerMocks
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, LiquibaseAutoConfiguration.class,
+            SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class,
+            UserDetailsServiceAutoConfiguration.class})
+    @Import({WebSocketConfig.class, WebSocketAuthInterceptor.class, WebSocketBrokerProperties.class,
+            WebSocketSubscriptionRegistry.class, WebSocketPublisher.class,
+            DashboardWebSocketService.class, DashboardUpdateListener.class})
+    static class HarnessApp {
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new NoOpTransactionManager();
+        }
+    }
+
+    /**
+     * Transaction manager without a resource: enough for transaction synchronization and AFTER_COMMIT listeners
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package org.example.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.Config.WebSocketBrokerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketPublisherTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private SimpUserRegistry userRegistry;
+
+    private WebSocketSubscriptionRegistry subscriptions;
+    private WebSocketPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        subscriptions = new WebSocketSubscriptionRegistry(userRegistry, new WebSocketBrokerProperties());
+        publisher = new WebSocketPublisher(messagingTemplate, subscriptions, new ObjectMapper());
+    }
+
+    @Test
+    void testPublish_SendsOnlyToSubscribedDestinationsAndSerializesOnce() {
+        // Arrange - one browser on the Kampala branch topic, nobody on Gulu or the company-wide topic
+        subscriptions.subscribed("s1", "sub-0", WebSocketPublisher.branchLoansTopic("Kampala Central"));
+        AtomicInteger built = new AtomicInteger();
+
+        // Act
+        int sent = publisher.publish(() -> {
+                    built.incrementAndGet();
+                    return Map.of("loanId", 5, "action", "loan.approved");
+                }, "/topic/loans", WebSocketPublisher.branchLoansTopic("Gulu"),
+                WebSocketPublisher.branchLoansTopic("Kampala Central"));
+
+        // Assert
+        assertEquals(1, sent);
+        assertEquals(1, built.get());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> message = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate).send(eq("/topic/branch/kampala-central/loans"), message.capture());
+        String body = new String(message.getValue().getPayload(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"loanId\":5"));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void testPublish_NoSubscribersBuildsNothing() {
+        AtomicInteger built = new AtomicInteger();
+
+        int sent = publisher.publish(() -> built.incrementAndGet(), "/topic/loans", "/topic/dashboard");
+
+        assertEquals(0, sent);
+        assertEquals(0, built.get(), "Payload must not be built without subscribers");
+        verifyNoInteractions(messagingTemplate);
+        assertEquals(2L, publisher.getStats().get("skippedNoSubscribers"));
+    }
+
+    @Test
+    void testRegistry_UnsubscribeAndDisconnectRemoveSubscriptions() {
+        subscriptions.subscribed("s1", "sub-0", "/topic/loans/7");
+        subscriptions.subscribed("s2", "sub-0", "/topic/loans/7");
+        subscriptions.subscribed("s2", "sub-1", "/topic/dashboard");
+
+        subscriptions.unsubscribed("s1", "sub-0");
+        assertTrue(subscriptions.hasSubscribers("/topic/loans/7"), "s2 is still subscribed");
+
+        subscriptions.disconnected("s2");
+        assertFalse(subscriptions.hasSubscribers("/topic/loans/7"));
+        assertFalse(subscriptions.hasSubscribers("/topic/dashboard"));
+    }
+
+    @Test
+    void testRelayMode_FallsBackToSimpleBrokerWhenRelayUnavailable() throws Exception {
+        // Without the broker-relay profile reactor-netty is missing; with it, nothing listens on the port
+        WebSocketBrokerProperties properties = new WebSocketBrokerProperties();
+        properties.getBroker().setMode("relay");
+        properties.getBroker().setRelayPort(unusedPort());
+        properties.getBroker().setConnectTimeoutMs(200);
+
+        assertFalse(properties.isRelayActive());
+        assertFalse(new WebSocketSubscriptionRegistry(userRegistry, properties).hasSubscribers("/topic/loans"),
+                "Simple broker keeps filtering by local subscriptions");
+    }
+
+    @Test
+    @EnabledIf("reactorNettyPresent")
+    void testRelayMode_PublishedMessageReachesSubscriberThroughBroker() throws Exception {
+        // Only runs with mvn -P broker-relay
+        try (LocalStompBroker stompBroker = new LocalStompBroker()) {
+            // Arrange - relay handler as WebSocketConfig sets it up, one browser session subscribed to a branch topic
+            WebSocketBrokerProperties properties = new WebSocketBrokerProperties();
+            properties.getBroker().setMode("relay");
+            properties.getBroker().setRelayPort(stompBroker.getPort());
+            assertTrue(properties.isRelayActive());
+
+            ExecutorSubscribableChannel inbound = new ExecutorSubscribableChannel();
+            ExecutorSubscribableChannel outbound = new ExecutorSubscribableChannel();
+            ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+            BlockingQueue<Message<?>> toBrowser = new LinkedBlockingQueue<>();
+            outbound.subscribe(toBrowser::add);
+            StompBrokerRelayMessageHandler relay = new StompBrokerRelayMessageHandler(
+                    inbound, outbound, brokerChannel, List.of("/topic", "/queue"));
+            relay.setRelayHost(properties.getBroker().getRelayHost());
+            relay.setRelayPort(properties.getBroker().getRelayPort());
+            relay.setSystemHeartbeatSendInterval(0);
+            relay.setSystemHeartbeatReceiveInterval(0);
+            relay.start();
+            try {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (!relay.isBrokerAvailable() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(20);
+                }
+                assertTrue(relay.isBrokerAvailable(), "System session connected to the broker");
+
+                String topic = WebSocketPublisher.branchLoansTopic("Kampala Central");
+                inbound.send(clientFrame(StompCommand.CONNECT, null));
+                Message<?> connected = toBrowser.poll(5, TimeUnit.SECONDS);
+                assertNotNull(connected, "Browser session connected through the relay");
+                assertEquals(StompCommand.CONNECTED, StompHeaderAccessor.wrap(connected).getCommand());
+                inbound.send(clientFrame(StompCommand.SUBSCRIBE, topic));
+
+                // Act - published through the system session, as another node would; the SUBSCRIBE travels
+                // over the browser session's own connection, so repeat until the broker has it
+                WebSocketPublisher relayPublisher = new WebSocketPublisher(new SimpMessagingTemplate(brokerChannel),
+                        new WebSocketSubscriptionRegistry(userRegistry, properties), new ObjectMapper());
+                Message<?> received = null;
+                for (int attempt = 0; attempt < 50 && received == null; attempt++) {
+                    assertEquals(1, relayPublisher.publish(() -> Map.of("loanId", 5), topic));
+                    received = toBrowser.poll(100, TimeUnit.MILLISECONDS);
+                }
+
+                // Assert
+                assertNotNull(received, "Message came back from the broker");
+                StompHeaderAccessor headers = StompHeaderAccessor.wrap(received);
+                assertEquals(StompCommand.MESSAGE, headers.getCommand());
+                assertEquals(topic, headers.getDestination());
+                assertEquals("sub-0", headers.getSubscriptionId());
+                assertTrue(new String((byte[]) received.getPayload(), StandardCharsets.UTF_8).contains("\"loanId\":5"));
+            } finally {
+                relay.stop();
+            }
+        }
+    }
+
+    static boolean reactorNettyPresent() {
+        return ClassUtils.isPresent("reactor.netty.http.client.HttpClient", WebSocketPublisherTest.class.getClassLoader());
+    }
+
+    private static Message<byte[]> clientFrame(StompCommand command, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("browser-1");
+        if (command == StompCommand.CONNECT) {
+            accessor.setAcceptVersion("1.2");
+            accessor.setHeartbeat(0, 0);
+        } else {
+            accessor.setDestination(destination);
+            accessor.setSubscriptionId("sub-0");
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.config;
+
+import org.example.Entities.User;
+import org.example.Repositories.UserRepository;
+import org.example.Services.CustomUserDetailsService;
+import org.example.Services.TokenRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Authenticated requests/sec through JwtAuthenticationFilter under 32 concurrent threads:
+ * a token without user claims (one User lookup per request, the previous behaviour) versus a token
+ * carrying the principal claims (no database access).
+ *
+ * The User lookup is simulated with a fixed delay per database round trip; the filter runs uncached
+ * here, as every request used to. Not part of the regular test run (surefire only picks up *Test
+ * classes); run with:
+ *
+ *   mvn test -Dtest=JwtAuthenticationFilterBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+class JwtAuthenticationFilterBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS_PER_THREAD = 500;
+    private static final long ROUND_TRIP_MICROS = 1000;
+
+    @Test
+    void compareUserLookupPerRequestWithClaims() throws Exception {
+        JwtTokenService tokenService = JwtAuthenticationFilterTest.newTokenService();
+        User user = JwtAuthenticationFilterTest.user();
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(anyString())).thenAnswer(i -> {
+            roundTrip();
+            return Optional.of(user);
+        });
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenService,
+                new CustomUserDetailsService(userRepository), new TokenRevocationService());
+
+        double lookup = requestsPerSecond(filter, tokenService.createToken(new HashMap<>(), user.getEmail()));
+        double claims = requestsPerSecond(filter, tokenService.generateTokenWithUserInfo(user));
+
+        System.out.printf("JwtAuthenticationFilter, %d threads: user lookup per request %.0f req/sec, claims %.0f req/sec (%.1fx)%n",
+                THREADS, lookup, claims, claims / lookup);
+    }
+
+    private double requestsPerSecond(JwtAuthenticationFilter filter, String token) throws Exception {
+        AtomicLong authenticated = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/loans");
+                    request.addHeader("Authorization", "Bearer " + token);
+                    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                    if (SecurityContextHolder.getContext().getAuthentication() != null) {
+                        authenticated.incrementAndGet();
+                    }
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        executor.shutdown();
+
+        assertEquals(THREADS * REQUESTS_PER_THREAD, authenticated.get());
+        return THREADS * REQUESTS_PER_THREAD / seconds;
+    }
+
+    private static void roundTrip() {
+        try {
+            TimeUnit.MICROSECONDS.sleep(ROUND_TRIP_MICROS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
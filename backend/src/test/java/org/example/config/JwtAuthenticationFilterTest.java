@@ -0,0 +1,137 @@
+package org.example.config;
+
+import org.example.Entities.Person;
+import org.example.Entities.User;
+import org.example.Services.CustomUserDetailsService;
+import org.example.Services.JwtPrincipal;
+import org.example.Services.TokenRevocationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private TokenRevocationService revocationService;
+
+    private JwtTokenService jwtTokenService;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenService = newTokenService();
+        filter = new JwtAuthenticationFilter(jwtTokenService, userDetailsService, revocationService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testTokenWithClaims_AuthenticatesWithoutUserLookup() throws Exception {
+        // Arrange
+        String token = jwtTokenService.generateTokenWithUserInfo(user());
+
+        // Act
+        Authentication auth = authenticate(token);
+
+        // Assert
+        assertNotNull(auth);
+        assertEquals("officer@example.com", auth.getName());
+        JwtPrincipal principal = (JwtPrincipal) auth.getPrincipal();
+        assertEquals(42L, principal.getUserId());
+        assertEquals("Kampala", principal.getBranch());
+        assertTrue(auth.getAuthorities().stream().anyMatch(a -> "ROLE_LOAN_OFFICER".equals(a.getAuthority())));
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testTokenWithoutClaims_FallsBackToCachedPrincipal() throws Exception {
+        // Arrange
+        String token = jwtTokenService.createToken(new HashMap<>(), "officer@example.com");
+        when(userDetailsService.loadPrincipal("officer@example.com")).thenReturn(JwtPrincipal.fromUser(user()));
+
+        // Act
+        Authentication auth = authenticate(token);
+
+        // Assert
+        assertNotNull(auth);
+        assertEquals(42L, ((JwtPrincipal) auth.getPrincipal()).getUserId());
+        verify(userDetailsService).loadPrincipal("officer@example.com");
+    }
+
+    @Test
+    void testRevokedToken_IsNotAuthenticated() throws Exception {
+        // Arrange
+        String token = jwtTokenService.generateTokenWithUserInfo(user());
+        when(revocationService.isRevoked(anyString(), anyLong(), any())).thenReturn(true);
+
+        // Act & Assert
+        assertNull(authenticate(token));
+    }
+
+    @Test
+    void testInvalidSignature_IsNotAuthenticated() throws Exception {
+        // Arrange
+        String token = jwtTokenService.generateTokenWithUserInfo(user());
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+
+        // Act & Assert
+        assertNull(authenticate(tampered));
+        verifyNoInteractions(revocationService);
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/loans");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    static JwtTokenService newTokenService() {
+        JwtTokenService service = new JwtTokenService();
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpirationInMs", 3_600_000L);
+        return service;
+    }
+
+    static User user() {
+        Person person = new Person();
+        person.setFirstName("Jane");
+        person.setLastName("Doe");
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("officer@example.com");
+        user.setUsername("officer@example.com");
+        user.setRole(User.UserRole.LOAN_OFFICER);
+        user.setBranch("Kampala");
+        user.setPerson(person);
+        return user;
+    }
+}
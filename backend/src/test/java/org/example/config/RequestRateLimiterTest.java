@@ -0,0 +1,84 @@
+package org.example.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private RateLimitConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new RateLimitConfig();
+    }
+
+    @Test
+    void testMatchGroup_FirstMatchingGroupWins() {
+        // Arrange
+        RequestRateLimiter limiter = new RequestRateLimiter(config, now::get);
+
+        // Act & Assert
+        assertEquals("loan-table", limiter.matchGroup("/api/loans/admin/table-view"));
+        assertEquals("loan-admin", limiter.matchGroup("/api/loans/admin/recalculate-balances"));
+        assertEquals("analytics", limiter.matchGroup("/api/payments/analytics/trends"));
+        assertEquals("otp", limiter.matchGroup("/api/auth/verify-otp"));
+        assertNull(limiter.matchGroup("/api/loans/42"));
+    }
+
+    @Test
+    void testTokenBucket_LimitsPerClientAndRefills() {
+        // Arrange - 2 requests burst, 60 per minute
+        config.setRoutes(Map.of("analytics", new RateLimitConfig.Route(null, 2, 60, null)));
+        RequestRateLimiter limiter = new RequestRateLimiter(config, now::get);
+
+        // Act & Assert
+        assertEquals(RequestRateLimiter.Outcome.ALLOWED, limiter.tryAcquire("analytics", "user:a").getOutcome());
+        assertEquals(RequestRateLimiter.Outcome.ALLOWED, limiter.tryAcquire("analytics", "user:a").getOutcome());
+        RequestRateLimiter.Permit limited = limiter.tryAcquire("analytics", "user:a");
+        assertEquals(RequestRateLimiter.Outcome.RATE_LIMITED, limited.getOutcome());
+        assertEquals(1, limited.getRetryAfterSeconds());
+
+        // Another client has its own bucket
+        assertEquals(RequestRateLimiter.Outcome.ALLOWED, limiter.tryAcquire("analytics", "user:b").getOutcome());
+
+        // One token back after a second
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(RequestRateLimiter.Outcome.ALLOWED, limiter.tryAcquire("analytics", "user:a").getOutcome());
+    }
+
+    @Test
+    void testBulkhead_ShedsWhenFullAndRecordsStats() {
+        // Arrange - one request at a time
+        config.setRoutes(Map.of("expense-export", new RateLimitConfig.Route(List.of(), 10, 10, 1)));
+        RequestRateLimiter limiter = new RequestRateLimiter(config, now::get);
+
+        // Act
+        RequestRateLimiter.Permit first = limiter.tryAcquire("expense-export", "user:a");
+        RequestRateLimiter.Permit second = limiter.tryAcquire("expense-export", "user:b");
+        first.release();
+        first.release(); // Releasing twice must not add a permit
+        RequestRateLimiter.Permit third = limiter.tryAcquire("expense-export", "user:b");
+        RequestRateLimiter.Permit fourth = limiter.tryAcquire("expense-export", "user:c");
+
+        // Assert
+        assertEquals(RequestRateLimiter.Outcome.ALLOWED, first.getOutcome());
+        assertEquals(RequestRateLimiter.Outcome.SHED, second.getOutcome());
+        assertEquals(RequestRateLimiter.Outcome.ALLOWED, third.getOutcome());
+        assertEquals(RequestRateLimiter.Outcome.SHED, fourth.getOutcome());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) limiter.getStats().get("expense-export");
+        assertEquals(2L, stats.get("allowed"));
+        assertEquals(2L, stats.get("shed"));
+        assertEquals(1, stats.get("inFlight"));
+        assertEquals(List.of("/api/expense/export"), stats.get("paths"));
+    }
+}
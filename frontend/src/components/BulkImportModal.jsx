@@ -1,12 +1,20 @@
 import React, { useState, useRef } from 'react';
 import { Upload, X, FileText, Download, AlertCircle, CheckCircle, AlertTriangle } from 'lucide-react';
-import api from '../services/api';
+import api, { getAuthToken } from '../services/api';
+
+const POLL_INTERVAL_MS = 1000;
+
+const authHeaders = () => {
+  const token = getAuthToken();
+  return token ? { Authorization: `Bearer ${token}` } : {};
+};
 
 const BulkImportModal = ({ isOpen, onClose, onImportSuccess }) => {
   const [selectedFile, setSelectedFile] = useState(null);
   const [importStatus, setImportStatus] = useState('idle'); // idle, importing, success, error
   const [importResults, setImportResults] = useState(null);
   const [errorMessage, setErrorMessage] = useState('');
+  const [progress, setProgress] = useState(0);
   const fileInputRef = useRef(null);
 
   const handleFileSelect = (event) => {
@@ -59,8 +67,9 @@ const BulkImportModal = ({ isOpen, onClose, onImportSuccess }) => {
     formData.append('file', selectedFile);
 
     try {
-      const response = await fetch(`${api.baseURL}/expenses/import`, {
+      const response = await fetch(`${api.baseURL}/expense/import`, {
         method: 'POST',
+        headers: authHeaders(),
         body: formData,
       });
 
@@ -69,7 +78,24 @@ const BulkImportModal = ({ isOpen, onClose, onImportSuccess }) => {
         throw new Error(errorData.error || 'Failed to import expenses');
       }
 
-      const result = await response.json();
+      // The import runs in the background; poll until it finishes
+      let result = await response.json();
+      while (result.state === 'QUEUED' || result.state === 'RUNNING') {
+        setProgress(result.percentComplete || 0);
+        await new Promise((resolve) => setTimeout(resolve, POLL_INTERVAL_MS));
+        const statusResponse = await fetch(`${api.baseURL}/expense/import/${result.jobId}`, {
+          headers: authHeaders(),
+        });
+        if (!statusResponse.ok) {
+          throw new Error('Lost track of the import; check the expense list before retrying');
+        }
+        result = await statusResponse.json();
+      }
+
+      if (result.state === 'FAILED') {
+        throw new Error(result.message || 'Failed to import expenses');
+      }
+
       setImportResults(result);
       setImportStatus('success');
 
@@ -82,9 +108,30 @@ const BulkImportModal = ({ isOpen, onClose, onImportSuccess }) => {
     }
   };
 
+  const downloadErrorReport = async () => {
+    try {
+      const response = await fetch(`${api.baseURL}/expense/import/${importResults.jobId}/errors`, {
+        headers: authHeaders(),
+      });
+      if (response.ok) {
+        const blob = await response.blob();
+        const url = window.URL.createObjectURL(blob);
+        const a = document.createElement('a');
+        a.href = url;
+        a.download = 'import_errors.csv';
+        document.body.appendChild(a);
+        a.click();
+        window.URL.revokeObjectURL(url);
+        document.body.removeChild(a);
+      }
+    } catch (error) {
+      console.error('Failed to download error report:', error);
+    }
+  };
+
   const downloadTemplate = async () => {
     try {
-  const response = await fetch(`${api.baseURL}/expenses/template`);
+      const response = await fetch(`${api.baseURL}/expense/template`, { headers: authHeaders() });
       if (response.ok) {
         const blob = await response.blob();
         const url = window.URL.createObjectURL(blob);
@@ -106,6 +153,7 @@ const BulkImportModal = ({ isOpen, onClose, onImportSuccess }) => {
     setImportStatus('idle');
     setImportResults(null);
     setErrorMessage('');
+    setProgress(0);
     if (fileInputRef.current) {
       fileInputRef.current.value = '';
     }
@@ -175,12 +223,22 @@ const BulkImportModal = ({ isOpen, onClose, onImportSuccess }) => {
                         <span>{error}</span>
                       </div>
                     ))}
-                    {importResults.errors.length > 10 && (
+                    {importResults.failedImports > 10 && (
                       <div className="error-item">
-                        <span>... and {importResults.errors.length - 10} more errors</span>
+                        <span>... and {importResults.failedImports - 10} more errors</span>
                       </div>
                     )}
                   </div>
+                  {importResults.errorReportAvailable && (
+                    <button
+                      type="button"
+                      className="btn btn-outline"
+                      onClick={downloadErrorReport}
+                    >
+                      <Download size={16} />
+                      Download Error Report
+                    </button>
+                  )}
                 </div>
               )}
             </div>
@@ -252,9 +310,9 @@ const BulkImportModal = ({ isOpen, onClose, onImportSuccess }) => {
               {importStatus === 'importing' && (
                 <div className="import-progress">
                   <div className="progress-bar">
-                    <div className="progress-fill"></div>
+                    <div className="progress-fill" style={progress > 0 ? { width: `${progress}%` } : undefined}></div>
                   </div>
-                  <p>Processing your CSV file...</p>
+                  <p>Processing your CSV file... {progress > 0 && `${progress}%`}</p>
                 </div>
               )}
             </>
@@ -2,6 +2,7 @@ import { useEffect, useCallback, useRef } from 'react';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { toast } from 'react-hot-toast';
+import { authConnectHeaders } from '../services/websocketTopics';
 
 const API_BASE_WS_URL = process.env.REACT_APP_WS_URL;
 
@@ -15,6 +16,7 @@ const useExpenseWebSocket = (onMessage) => {
     const socket = new SockJS(API_BASE_WS_URL ? API_BASE_WS_URL : 'http://localhost:8081/ws');
     const client = new Client({
       webSocketFactory: () => socket,
+      connectHeaders: authConnectHeaders(),
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
@@ -2,6 +2,7 @@ import { useEffect, useCallback, useRef } from 'react';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { toast } from 'react-hot-toast';
+import { authConnectHeaders } from '../services/websocketTopics';
 
 const useLoanProductWebSocket = (onMessage) => {
   const clientRef = useRef(null);
@@ -13,6 +14,7 @@ const useLoanProductWebSocket = (onMessage) => {
     const socket = new SockJS('http://localhost:8081/ws');
     const client = new Client({
       webSocketFactory: () => socket,
+      connectHeaders: authConnectHeaders(),
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
@@ -2,6 +2,7 @@ import { useEffect, useCallback, useRef } from 'react';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { toast } from 'react-hot-toast';
+import { authConnectHeaders, topicFor } from '../services/websocketTopics';
 
 /**
  * Custom hook for Loan WebSocket events
@@ -18,6 +19,7 @@ const useLoanWebSocket = (onMessage) => {
     const socket = new SockJS('http://localhost:8081/ws');
     const client = new Client({
       webSocketFactory: () => socket,
+      connectHeaders: authConnectHeaders(),
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
@@ -25,8 +27,8 @@ const useLoanWebSocket = (onMessage) => {
         console.log('Loan WebSocket connected');
         isConnectedRef.current = true;
         
-        // Subscribe to loan events
-        client.subscribe('/topic/loans', (message) => {
+        // Subscribe to loan events of the user's branch (or all branches for company-wide roles)
+        client.subscribe(topicFor('loans'), (message) => {
           try {
             const data = JSON.parse(message.body);
             console.log('Received loan event:', data);
@@ -2,6 +2,7 @@ import { useEffect, useCallback, useRef } from 'react';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { toast } from 'react-hot-toast';
+import { authConnectHeaders, topicFor } from '../services/websocketTopics';
 const API_BASE_WS_URL = process.env.REACT_APP_WS_URL;
 
 /**
@@ -18,6 +19,7 @@ const usePaymentWebSocket = (onMessage) => {
     const socket = new SockJS(API_BASE_WS_URL ? API_BASE_WS_URL : 'http://localhost:8081/ws');
     const client = new Client({
       webSocketFactory: () => socket,
+      connectHeaders: authConnectHeaders(),
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
@@ -25,8 +27,8 @@ const usePaymentWebSocket = (onMessage) => {
         console.log('Payment WebSocket connected');
         isConnectedRef.current = true;
         
-        // Subscribe to payment events
-        client.subscribe('/topic/payments', (message) => {
+        // Subscribe to payment events of the user's branch (or all branches for company-wide roles)
+        client.subscribe(topicFor('payments'), (message) => {
           try {
             const data = JSON.parse(message.body);
             console.log('Received payment event:', data);
@@ -204,6 +204,9 @@ const Dashboard = ({ setIsAuthenticated }) => {
               loading: false,
               error: null
             });
+          } else if (message.action) {
+            // Loan or payment event on the user's branch topic
+            fetchDashboardData();
           }
         });
 
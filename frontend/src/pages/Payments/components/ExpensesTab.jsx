@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { Filter, Plus, Receipt, Search, Upload, Download, FileText, Trash2, Edit, Eye } from 'lucide-react';
-import api from '../../../services/api';
+import api, { getAuthToken } from '../../../services/api';
 import categoryStore from '../../../services/categoryStore';
 import AddExpenseModal from './AddExpenseModal';
 import ReceiptUploadModal from '../../../components/ReceiptUploadModal';
@@ -98,7 +98,11 @@ const ExpensesTab = ({ showToast }) => {
       if (categoryFilter !== 'all') params.append('category', categoryFilter);
       if (statusFilter !== 'all') params.append('status', statusFilter);
       
-  const response = await fetch(`${api.baseURL}/expenses/export?${params.toString()}`);
+      // Streamed by the server; the browser decompresses the gzip transfer
+      const token = getAuthToken();
+      const response = await fetch(`${api.baseURL}/expense/export?${params.toString()}`, {
+        headers: token ? { Authorization: `Bearer ${token}` } : {},
+      });
       if (response.ok) {
         const blob = await response.blob();
         const url = window.URL.createObjectURL(blob);
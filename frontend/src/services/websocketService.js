@@ -1,5 +1,6 @@
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
+import { authConnectHeaders, isCompanyWide, topicFor } from './websocketTopics';
 
 class WebSocketService {
   constructor() {
@@ -13,7 +14,7 @@ class WebSocketService {
     
     this.client = new Client({
       webSocketFactory: () => new SockJS(WS_URL),
-      connectHeaders: {},
+      connectHeaders: authConnectHeaders(),
       debug: (str) => {
         console.log('STOMP Debug:', str);
       },
@@ -60,13 +61,17 @@ class WebSocketService {
     }
   }
 
+  /**
+   * Company-wide roles get DASHBOARD_UPDATE messages with the full statistics; everyone else gets
+   * the loan and payment events of their branch (/topic/branch/{branch}/dashboard)
+   */
   subscribeToDashboardUpdates(callback) {
     if (!this.client || !this.connected) {
       console.warn('WebSocket not connected. Cannot subscribe.');
       return null;
     }
 
-    const subscription = this.client.subscribe('/topic/dashboard', (message) => {
+    const subscription = this.client.subscribe(topicFor('dashboard'), (message) => {
       try {
         const data = JSON.parse(message.body);
         console.log('Dashboard update received:', data);
@@ -80,11 +85,15 @@ class WebSocketService {
     return subscription;
   }
 
+  // Company-wide metrics; not available to branch users
   subscribeToMetricUpdates(callback) {
     if (!this.client || !this.connected) {
       console.warn('WebSocket not connected. Cannot subscribe.');
       return null;
     }
+    if (!isCompanyWide()) {
+      return null;
+    }
 
     const subscription = this.client.subscribe('/topic/dashboard/metrics', (message) => {
       try {
@@ -100,11 +109,15 @@ class WebSocketService {
     return subscription;
   }
 
+  // Company-wide cache events; branch users refresh on their branch dashboard events instead
   subscribeToDashboardEvents(callback) {
     if (!this.client || !this.connected) {
       console.warn('WebSocket not connected. Cannot subscribe.');
       return null;
     }
+    if (!isCompanyWide()) {
+      return null;
+    }
 
     const subscription = this.client.subscribe('/topic/dashboard/events', (message) => {
       try {
@@ -145,7 +158,7 @@ class WebSocketService {
       return null;
     }
 
-    const subscription = this.client.subscribe('/topic/loans', (message) => {
+    const subscription = this.client.subscribe(topicFor('loans'), (message) => {
       try {
         const data = JSON.parse(message.body);
         console.log('Loan event received:', data);
@@ -169,7 +182,7 @@ class WebSocketService {
       return null;
     }
 
-    const subscription = this.client.subscribe('/topic/payments', (message) => {
+    const subscription = this.client.subscribe(topicFor('payments'), (message) => {
       try {
         const data = JSON.parse(message.body);
         console.log('Payment event received:', data);
@@ -0,0 +1,26 @@
+import authService from './authService';
+
+// Roles that may subscribe to the company-wide topics; everyone else uses their branch topics
+const COMPANY_WIDE_ROLES = ['ADMIN', 'AUDITOR'];
+
+// Same rule as the server's WebSocketPublisher.branchSegment
+export const branchSegment = (branch) =>
+  branch && branch.trim() ? branch.trim().toLowerCase().replace(/[^a-z0-9_-]/g, '-') : 'unassigned';
+
+export const isCompanyWide = () =>
+  COMPANY_WIDE_ROLES.includes((authService.getUserRole() || '').toUpperCase());
+
+// STOMP CONNECT headers; the server refuses every subscription of an unauthenticated session
+export const authConnectHeaders = () => {
+  const token = authService.getToken();
+  return token ? { Authorization: `Bearer ${token}` } : {};
+};
+
+/**
+ * Company-wide topic for company-wide roles, otherwise the user's branch topic,
+ * e.g. topicFor('loans') -> '/topic/loans' or '/topic/branch/kampala-central/loans'
+ */
+export const topicFor = (channel) =>
+  isCompanyWide()
+    ? `/topic/${channel}`
+    : `/topic/branch/${branchSegment(authService.getUserBranch())}/${channel}`;